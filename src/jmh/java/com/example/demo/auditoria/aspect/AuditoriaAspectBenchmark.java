@@ -0,0 +1,129 @@
+package com.example.demo.auditoria.aspect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Trabajo que el aspecto de auditoría hace en cada llamada interceptada, antes de
+ * delegar el registro. Los metadatos (módulo, entidad, acción, parámetros con ID) se resuelven
+ * una vez por método; por llamada solo queda armar la descripción con los argumentos.
+ * resolverMetadatos mide lo que costaría resolverlos en cada llamada.
+ */
+@State(Scope.Benchmark)
+public class AuditoriaAspectBenchmark {
+
+    // Incluye clases de todos los módulos y una que no coincide con ninguno (recorre todas las ramas)
+    private static final String[] CLASES = {
+            "ContribuyenteController", "RetencionController", "ComprobanteController", "ImpuestoController",
+            "DeclaracionController", "PersonalController", "RolesController", "UsuarioDetallesService",
+            "AuditoriaController", "DashboardController"
+    };
+
+    private static final Object[][] ARGUMENTOS = {
+            {15L, Map.of("rif", "J-12345678-9")},
+            {"12345", null},
+            {"no es numérico", new Object()},
+            {"98765", Map.of()}
+    };
+
+    // @OperationsPerInvocation exige una constante: debe coincidir con CLASES.length
+    private static final int OPERACIONES = 10;
+
+    // Llamadas por invocación en describir y resolverMetadatos: recorre varias veces métodos y argumentos
+    private static final int LLAMADAS = 16;
+
+    static {
+        if (CLASES.length != OPERACIONES) {
+            throw new IllegalStateException("OPERACIONES debe ser " + CLASES.length);
+        }
+    }
+
+    private Method[] metodos;
+    private MetadatosAuditoria[] metadatos;
+
+    @Setup
+    public void preparar() throws NoSuchMethodException {
+        metodos = new Method[]{
+                ContribuyenteController.class.getMethod("crear", String.class, Object.class),
+                RetencionController.class.getMethod("actualizar", Long.class, Object.class),
+                PersonalController.class.getMethod("eliminar", String.class, Object.class),
+                DashboardController.class.getMethod("exportar", String.class, Object.class)
+        };
+        metadatos = new MetadatosAuditoria[metodos.length];
+        for (int i = 0; i < metodos.length; i++) {
+            metadatos[i] = MetadatosAuditoria.de(metodos[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERACIONES)
+    public void extraerModulo(Blackhole blackhole) {
+        for (String clase : CLASES) {
+            blackhole.consume(MetadatosAuditoria.extraerModulo(clase));
+        }
+    }
+
+    /**
+     * Costo por llamada con los metadatos ya resueltos
+     */
+    @Benchmark
+    @OperationsPerInvocation(LLAMADAS)
+    public void describir(Blackhole blackhole) {
+        for (int i = 0; i < LLAMADAS; i++) {
+            blackhole.consume(metadatos[i % metadatos.length].describir(ARGUMENTOS[i % ARGUMENTOS.length]));
+        }
+    }
+
+    /**
+     * Costo por llamada si los metadatos se resolvieran cada vez (sin caché)
+     */
+    @Benchmark
+    @OperationsPerInvocation(LLAMADAS)
+    public void resolverMetadatos(Blackhole blackhole) {
+        for (int i = 0; i < LLAMADAS; i++) {
+            MetadatosAuditoria resueltos = MetadatosAuditoria.de(metodos[i % metodos.length]);
+            blackhole.consume(resueltos.describir(ARGUMENTOS[i % ARGUMENTOS.length]));
+        }
+    }
+
+    // ==================== CONTROLADORES DE PRUEBA ====================
+
+    public static class ContribuyenteController {
+        @PostMapping
+        public Object crear(String id, Object datos) {
+            return datos;
+        }
+    }
+
+    public static class RetencionController {
+        @PutMapping
+        public Object actualizar(Long id, Object datos) {
+            return datos;
+        }
+    }
+
+    public static class PersonalController {
+        @DeleteMapping
+        public Object eliminar(String id, Object datos) {
+            return datos;
+        }
+    }
+
+    public static class DashboardController {
+        @GetMapping
+        public Object exportar(String formato, Object respuesta) {
+            return respuesta;
+        }
+    }
+}
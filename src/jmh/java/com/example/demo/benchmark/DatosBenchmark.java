@@ -0,0 +1,105 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.pagos.model.EstadoPago;
+import com.example.demo.pagos.model.MetodoPago;
+import com.example.demo.pagos.model.Pago;
+import com.example.demo.tasas.model.EstadoTasa;
+import com.example.demo.tasas.model.PeriodoFacturacion;
+import com.example.demo.tasas.model.Tasa;
+import com.example.demo.tasas.model.TipoTasa;
+import com.example.demo.tributario.model.Contribuyente;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Datos de prueba para los benchmarks. Se generan con semilla fija para que
+ * las corridas sean comparables entre sí.
+ */
+public final class DatosBenchmark {
+
+    private static final long SEMILLA = 42L;
+
+    private DatosBenchmark() {
+    }
+
+    /**
+     * Contribuyentes alternando persona jurídica (razón social) y natural (nombre y apellido)
+     */
+    public static List<Contribuyente> contribuyentes(int cantidad) {
+        List<Contribuyente> contribuyentes = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Contribuyente contribuyente = new Contribuyente();
+            contribuyente.setId((long) i + 1);
+            contribuyente.setRif(String.format("J-%08d-%d", i, i % 10));
+            if (i % 2 == 0) {
+                contribuyente.setRazonSocial("Comercializadora " + i + " C.A.");
+            } else {
+                contribuyente.setNombre("Nombre" + i);
+                contribuyente.setApellido("Apellido" + i);
+            }
+            contribuyentes.add(contribuyente);
+        }
+        return contribuyentes;
+    }
+
+    public static List<Pago> pagos(int cantidad) {
+        Random random = new Random(SEMILLA);
+        List<Contribuyente> contribuyentes = contribuyentes(Math.max(1, cantidad / 10));
+        MetodoPago[] metodos = MetodoPago.values();
+        EstadoPago[] estados = EstadoPago.values();
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+        List<Pago> pagos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Pago pago = new Pago();
+            pago.setId((long) i + 1);
+            pago.setContribuyente(contribuyentes.get(i % contribuyentes.size()));
+            pago.setMonto(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+            pago.setMetodoPago(metodos[i % metodos.length]);
+            pago.setEstado(estados[i % estados.length]);
+            pago.setReferencia("REF-" + (100000 + i));
+            pago.setConcepto("Pago de impuesto municipal " + i);
+            pago.setFechaPago(base.plusMinutes(i * 37L));
+            pago.setCreadoEn(base.plusMinutes(i * 37L));
+            pago.setUsuarioRegistro("cajero" + (i % 5));
+            pagos.add(pago);
+        }
+        return pagos;
+    }
+
+    public static List<Tasa> tasas(int cantidad) {
+        Random random = new Random(SEMILLA);
+        List<Contribuyente> contribuyentes = contribuyentes(Math.max(1, cantidad / 10));
+        TipoTasa[] tipos = TipoTasa.values();
+        EstadoTasa[] estados = EstadoTasa.values();
+        PeriodoFacturacion[] periodos = PeriodoFacturacion.values();
+        LocalDateTime base = LocalDateTime.now().minusMonths(6);
+
+        List<Tasa> tasas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            BigDecimal montoBase = BigDecimal.valueOf(random.nextInt(500_000) + 1_000, 2);
+            Tasa tasa = new Tasa();
+            tasa.setId((long) i + 1);
+            tasa.setContribuyente(contribuyentes.get(i % contribuyentes.size()));
+            tasa.setNumeroTasa(String.format("TAS-202601-%04d", i + 1));
+            tasa.setTipoTasa(tipos[i % tipos.length]);
+            tasa.setDescripcion("Tasa " + i);
+            tasa.setMontoBase(montoBase);
+            tasa.setMontoPagado(i % 3 == 0 ? montoBase : BigDecimal.ZERO);
+            tasa.setEstado(estados[i % estados.length]);
+            tasa.setPeriodoFacturacion(periodos[i % periodos.length]);
+            tasa.setFechaInicio(base.plusDays(i % 180));
+            // Mitad vencidas, mitad por vencer
+            tasa.setFechaVencimiento(base.plusDays(i % 360));
+            tasa.setDireccion("Calle " + (i % 50));
+            tasa.setZonaMunicipal("Zona " + (i % 8));
+            tasa.setUsuarioRegistro("operador" + (i % 5));
+            tasas.add(tasa);
+        }
+        return tasas;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Repositorios en memoria para los benchmarks: responden solo los métodos indicados,
+ * de modo que se mide el código del servicio y no el acceso a la base de datos.
+ */
+public final class Repositorios {
+
+    private Repositorios() {
+    }
+
+    /**
+     * Crea una implementación del repositorio donde cada método se resuelve por nombre;
+     * los métodos no indicados lanzan UnsupportedOperationException
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> R enMemoria(Class<R> tipo, Map<String, Function<Object[], Object>> metodos) {
+        return (R) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+            Function<Object[], Object> respuesta = metodos.get(metodo.getName());
+            if (respuesta != null) {
+                return respuesta.apply(args);
+            }
+            return switch (metodo.getName()) {
+                case "toString" -> "Repositorio en memoria de " + tipo.getSimpleName();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(tipo.getSimpleName() + "." + metodo.getName());
+            };
+        });
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.exportacion.service;
+
+import com.example.demo.benchmark.DatosBenchmark;
+import com.example.demo.benchmark.Repositorios;
+import com.example.demo.pagos.model.Pago;
+import com.example.demo.pagos.repository.PagoRepository;
+import com.example.demo.pagos.service.PagoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exportación completa de pagos a Excel con la definición real de PagoService:
+ * lectura por cursor, conversión de columnas, muestra de anchos y escritura SXSSF de cada fila.
+ * Los pagos vienen de memoria, así que el resultado es el costo por fila sin la base de datos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExcelExportadorBenchmark {
+
+    private static final MethodHandle DEFINICION_EXPORTACION;
+
+    static {
+        try {
+            DEFINICION_EXPORTACION = MethodHandles.privateLookupIn(PagoService.class, MethodHandles.lookup())
+                    .findVirtual(PagoService.class, "definicionExportacion",
+                            MethodType.methodType(DefinicionExportacion.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"1000", "20000"})
+    private int filas;
+
+    private ExcelExportador excelExportador;
+    private DefinicionExportacion<Pago> definicion;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void preparar() throws Throwable {
+        // Mismo orden que las consultas keyset: fechaPago DESC, id DESC
+        List<Pago> pagos = new ArrayList<>(DatosBenchmark.pagos(filas));
+        pagos.sort(Comparator.comparing(Pago::getFechaPago).thenComparing(Pago::getId).reversed());
+        Map<Long, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < pagos.size(); i++) {
+            posiciones.put(pagos.get(i).getId(), i);
+        }
+        PagoRepository pagoRepository = Repositorios.enMemoria(PagoRepository.class, Map.of(
+                "findPrimerosKeyset", args -> pagina(pagos, 0, (Pageable) args[0]),
+                "findSiguientesKeyset", args -> pagina(pagos, posiciones.get((Long) args[1]) + 1, (Pageable) args[2])));
+        PagoService pagoService = new PagoService(pagoRepository, null, null, null, null);
+        definicion = (DefinicionExportacion<Pago>) DEFINICION_EXPORTACION.invokeExact(pagoService);
+
+        excelExportador = new ExcelExportador(new LectorPaginado(new TransaccionSinRecursos(), 1000));
+        ReflectionTestUtils.setField(excelExportador, "filasMuestra", 200);
+    }
+
+    @Benchmark
+    public long exportarPagos() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long escritas = excelExportador.exportar(definicion, response);
+        return escritas + response.getContentAsByteArray().length;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static List<Pago> pagina(List<Pago> pagos, int desde, Pageable limite) {
+        int inicio = Math.min(desde, pagos.size());
+        return pagos.subList(inicio, Math.min(inicio + limite.getPageSize(), pagos.size()));
+    }
+
+    /**
+     * Administrador de transacciones sin recursos: LectorPaginado abre una transacción por página
+     */
+    private static final class TransaccionSinRecursos extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.pagos.service;
+
+import com.example.demo.benchmark.DatosBenchmark;
+import com.example.demo.pagos.dto.PagoResponse;
+import com.example.demo.pagos.model.Pago;
+import com.example.demo.tributario.model.Contribuyente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * Conversión de pagos a PagoResponse, que se ejecuta por cada fila de los listados.
+ * Los métodos son privados: se invocan con MethodHandles para medir el código real del servicio.
+ */
+@State(Scope.Benchmark)
+public class PagoServiceBenchmark {
+
+    private static final int FILAS = 1000;
+
+    private static final MethodHandle CONVERTIR_A_RESPONSE;
+    private static final MethodHandle OBTENER_NOMBRE_CONTRIBUYENTE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(PagoService.class, MethodHandles.lookup());
+            CONVERTIR_A_RESPONSE = lookup.findVirtual(PagoService.class, "convertirAResponse",
+                    MethodType.methodType(PagoResponse.class, Pago.class));
+            OBTENER_NOMBRE_CONTRIBUYENTE = lookup.findVirtual(PagoService.class, "obtenerNombreContribuyente",
+                    MethodType.methodType(String.class, Contribuyente.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private PagoService pagoService;
+    private List<Pago> pagos;
+    private List<Contribuyente> contribuyentes;
+
+    @Setup
+    public void preparar() {
+        // La conversión no usa los repositorios ni los servicios colaboradores
+        pagoService = new PagoService(null, null, null, null, null);
+        pagos = DatosBenchmark.pagos(FILAS);
+        contribuyentes = DatosBenchmark.contribuyentes(FILAS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void convertirAResponse(Blackhole blackhole) throws Throwable {
+        for (Pago pago : pagos) {
+            blackhole.consume((PagoResponse) CONVERTIR_A_RESPONSE.invokeExact(pagoService, pago));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void obtenerNombreContribuyente(Blackhole blackhole) throws Throwable {
+        for (Contribuyente contribuyente : contribuyentes) {
+            blackhole.consume((String) OBTENER_NOMBRE_CONTRIBUYENTE.invokeExact(pagoService, contribuyente));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.tasas.service;
+
+import com.example.demo.benchmark.DatosBenchmark;
+import com.example.demo.tasas.dto.TasaResponse;
+import com.example.demo.tasas.model.Tasa;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * Conversión de tasas a TasaResponse: además del mapeo calcula por fila los días
+ * al vencimiento (ChronoUnit.DAYS.between contra LocalDateTime.now()) y el saldo pendiente.
+ */
+@State(Scope.Benchmark)
+public class TasaServiceBenchmark {
+
+    private static final int FILAS = 1000;
+
+    private static final MethodHandle CONVERTIR_A_RESPONSE;
+
+    static {
+        try {
+            CONVERTIR_A_RESPONSE = MethodHandles.privateLookupIn(TasaService.class, MethodHandles.lookup())
+                    .findVirtual(TasaService.class, "convertirAResponse",
+                            MethodType.methodType(TasaResponse.class, Tasa.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private TasaService tasaService;
+    private List<Tasa> tasas;
+
+    @Setup
+    public void preparar() {
+        tasaService = new TasaService(null, null, null, null, null, null);
+        tasas = DatosBenchmark.tasas(FILAS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void convertirAResponse(Blackhole blackhole) throws Throwable {
+        for (Tasa tasa : tasas) {
+            blackhole.consume((TasaResponse) CONVERTIR_A_RESPONSE.invokeExact(tasaService, tasa));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.tributario.service;
+
+import com.example.demo.benchmark.DatosBenchmark;
+import com.example.demo.benchmark.Repositorios;
+import com.example.demo.tributario.dto.ContribuyenteSugerenciaDTO;
+import com.example.demo.tributario.model.Contribuyente;
+import com.example.demo.tributario.repository.ContribuyenteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ContribuyenteBusquedaService.sugerir sobre el índice en memoria: prefijo de RIF,
+ * prefijo de varias palabras, palabra exacta y texto con error de tipeo (trigramas).
+ */
+@State(Scope.Benchmark)
+public class ContribuyenteBusquedaServiceBenchmark {
+
+    private static final int LIMITE = 10;
+
+    @Param({"100000"})
+    private int contribuyentes;
+
+    private ContribuyenteBusquedaService busquedaService;
+
+    @Setup
+    public void preparar() {
+        List<Object[]> filas = new ArrayList<>(contribuyentes);
+        for (Contribuyente c : DatosBenchmark.contribuyentes(contribuyentes)) {
+            filas.add(new Object[]{c.getId(), c.getRif(), c.getRazonSocial(), c.getNombre(), c.getApellido()});
+        }
+        ContribuyenteRepository repository = Repositorios.enMemoria(ContribuyenteRepository.class, Map.of(
+                "findDatosBusquedaActivos", args -> filas));
+        busquedaService = new ContribuyenteBusquedaService(repository, new SimpleMeterRegistry());
+        busquedaService.inicializar();
+    }
+
+    @Benchmark
+    public List<ContribuyenteSugerenciaDTO> prefijoRif() {
+        return busquedaService.sugerir("J-000123", LIMITE);
+    }
+
+    @Benchmark
+    public List<ContribuyenteSugerenciaDTO> prefijoNombre() {
+        return busquedaService.sugerir("Comercializadora 4521", LIMITE);
+    }
+
+    @Benchmark
+    public List<ContribuyenteSugerenciaDTO> palabraExacta() {
+        return busquedaService.sugerir("apellido77777", LIMITE);
+    }
+
+    @Benchmark
+    public List<ContribuyenteSugerenciaDTO> errorDeTipeo() {
+        return busquedaService.sugerir("apelido77777", LIMITE);
+    }
+}
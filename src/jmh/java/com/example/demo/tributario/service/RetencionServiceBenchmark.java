@@ -0,0 +1,74 @@
+package com.example.demo.tributario.service;
+
+import com.example.demo.benchmark.DatosBenchmark;
+import com.example.demo.benchmark.Repositorios;
+import com.example.demo.tributario.model.Contribuyente;
+import com.example.demo.tributario.model.Retencion;
+import com.example.demo.tributario.repository.ContribuyenteRepository;
+import com.example.demo.tributario.repository.RetencionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * RetencionService.guardar con repositorios en memoria: mide la validación del contribuyente
+ * y el cálculo del monto retenido (multiplicación y división con redondeo de BigDecimal).
+ */
+@State(Scope.Benchmark)
+public class RetencionServiceBenchmark {
+
+    private static final int FILAS = 1000;
+
+    private static final BigDecimal[] PORCENTAJES = {
+            new BigDecimal("1.00"), new BigDecimal("2.00"), new BigDecimal("3.00"),
+            new BigDecimal("5.00"), new BigDecimal("75.00"), new BigDecimal("100.00")
+    };
+
+    private RetencionService retencionService;
+    private List<Retencion> retenciones;
+
+    @Setup
+    public void preparar() {
+        List<Contribuyente> contribuyentes = DatosBenchmark.contribuyentes(100);
+        ContribuyenteRepository contribuyenteRepository = Repositorios.enMemoria(ContribuyenteRepository.class, Map.of(
+                "findById", args -> Optional.of(contribuyentes.get((int) ((Long) args[0] - 1)))));
+        // save devuelve la misma entidad, como hace JPA con una entidad nueva
+        RetencionRepository retencionRepository = Repositorios.enMemoria(RetencionRepository.class, Map.of(
+                "save", args -> args[0]));
+        retencionService = new RetencionService(retencionRepository, contribuyenteRepository, null);
+
+        Random random = new Random(42L);
+        retenciones = new ArrayList<>(FILAS);
+        for (int i = 0; i < FILAS; i++) {
+            Retencion retencion = new Retencion();
+            retencion.setContribuyente(contribuyentes.get(i % contribuyentes.size()));
+            retencion.setFecha(LocalDate.of(2026, 1, 1).plusDays(i % 365));
+            retencion.setConcepto("Retención IVA");
+            retencion.setMontoBase(BigDecimal.valueOf(random.nextInt(10_000_000) + 100, 2));
+            retencion.setPorcentaje(PORCENTAJES[i % PORCENTAJES.length]);
+            retenciones.add(retencion);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void guardar(Blackhole blackhole) {
+        for (Retencion retencion : retenciones) {
+            // guardar solo calcula el monto retenido y el estado si no están definidos
+            retencion.setMontoRetenido(null);
+            retencion.setEstado(null);
+            blackhole.consume(retencionService.guardar(retencion));
+        }
+    }
+}
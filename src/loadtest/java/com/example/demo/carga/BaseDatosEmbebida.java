@@ -0,0 +1,60 @@
+package com.example.demo.carga;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MariaDB embebido (MariaDB4j) para la prueba de carga.
+ * Se usa en lugar de H2 porque el esquema base es un volcado de MariaDB y las migraciones
+ * usan sintaxis propia de MySQL (ENUM, ON DUPLICATE KEY, sentencias preparadas, COMMENT),
+ * así que el servidor embebido ejecuta exactamente el mismo SQL que producción.
+ */
+@Slf4j
+final class BaseDatosEmbebida implements AutoCloseable {
+
+    static final String NOMBRE = "sistema_tributario";
+
+    // Esquema anterior a V14; el resto lo aplica Flyway al arrancar la aplicación
+    private static final String VOLCADO_BASE = "db/migration/sistema_tributario.sql";
+
+    private final DB db;
+    private final int puerto;
+
+    private BaseDatosEmbebida(DB db, int puerto) {
+        this.db = db;
+        this.puerto = puerto;
+    }
+
+    /**
+     * Arranca el servidor en un puerto libre y carga el volcado base
+     */
+    static BaseDatosEmbebida iniciar() throws ManagedProcessException {
+        DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder();
+        builder.setPort(0);
+        DBConfiguration configuracion = builder.build();
+
+        DB db = DB.newEmbeddedDB(configuracion);
+        db.start();
+        db.createDB(NOMBRE);
+        db.source(VOLCADO_BASE, "root", null, NOMBRE);
+
+        log.info("MariaDB embebido iniciado en el puerto {}", configuracion.getPort());
+        return new BaseDatosEmbebida(db, configuracion.getPort());
+    }
+
+    /**
+     * URL JDBC con las mismas opciones que application.properties
+     */
+    String url() {
+        return "jdbc:mysql://localhost:" + puerto + "/" + NOMBRE
+                + "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true";
+    }
+
+    @Override
+    public void close() throws ManagedProcessException {
+        db.stop();
+    }
+}
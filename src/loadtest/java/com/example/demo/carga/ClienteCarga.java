@@ -0,0 +1,107 @@
+package com.example.demo.carga;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cliente HTTP de un usuario virtual: inicia sesión con el formulario de login
+ * y envía el token CSRF en las peticiones que modifican datos, como hacen las vistas.
+ */
+class ClienteCarga {
+
+    private static final Pattern CSRF_FORMULARIO = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Pattern CSRF_META = Pattern.compile("name=\"_csrf\"\\s+content=\"([^\"]+)\"");
+    private static final Pattern CSRF_CABECERA = Pattern.compile("name=\"_csrf_header\"\\s+content=\"([^\"]+)\"");
+
+    // Vista que publica el token CSRF en las etiquetas meta
+    private static final String VISTA_CON_CSRF = "/servicios";
+
+    private static final Duration TIEMPO_MAXIMO = Duration.ofSeconds(60);
+
+    private final URI base;
+    private final HttpClient http;
+    private String cabeceraCsrf;
+    private String tokenCsrf;
+
+    ClienteCarga(URI base) {
+        this.base = base;
+        this.http = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * Inicia sesión y obtiene el token CSRF de la sesión
+     */
+    void iniciarSesion(String usuario, String contrasena) throws IOException, InterruptedException {
+        String login = get("/login").body();
+        String formulario = "username=" + codificar(usuario)
+                + "&password=" + codificar(contrasena)
+                + "&_csrf=" + codificar(extraer(CSRF_FORMULARIO, login, "token CSRF del login"));
+
+        HttpResponse<String> respuesta = http.send(HttpRequest.newBuilder(base.resolve("/login"))
+                .timeout(TIEMPO_MAXIMO)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(formulario))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String destino = respuesta.headers().firstValue("Location").orElse("");
+        if (respuesta.statusCode() != 302 || destino.contains("error")) {
+            throw new IllegalStateException("No se pudo iniciar sesión como " + usuario + " (HTTP " + respuesta.statusCode() + ")");
+        }
+
+        String vista = get(VISTA_CON_CSRF).body();
+        this.tokenCsrf = extraer(CSRF_META, vista, "token CSRF de la sesión");
+        this.cabeceraCsrf = extraer(CSRF_CABECERA, vista, "cabecera CSRF");
+    }
+
+    HttpResponse<String> get(String ruta) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(base.resolve(ruta))
+                .timeout(TIEMPO_MAXIMO)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * GET que descarta el cuerpo a medida que llega (exportaciones) y devuelve el estado HTTP
+     */
+    int descargar(String ruta) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(base.resolve(ruta))
+                .timeout(TIEMPO_MAXIMO)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    HttpResponse<String> enviarJson(String metodo, String ruta, String json) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(base.resolve(ruta))
+                .timeout(TIEMPO_MAXIMO)
+                .header("Content-Type", "application/json")
+                .header(cabeceraCsrf, tokenCsrf)
+                .method(metodo, json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static String extraer(Pattern patron, String html, String descripcion) {
+        Matcher matcher = patron.matcher(html);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No se encontró el " + descripcion);
+        }
+        return matcher.group(1);
+    }
+
+    private static String codificar(String valor) {
+        return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+}
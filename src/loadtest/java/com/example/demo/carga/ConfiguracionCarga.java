@@ -0,0 +1,62 @@
+package com.example.demo.carga;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parámetros de la prueba de carga, leídos de propiedades del sistema carga.*
+ * (la tarea loadTest copia las propiedades -Pcarga.* del proyecto).
+ * Las cantidades por defecto son proporcionales a la de contribuyentes.
+ */
+public record ConfiguracionCarga(
+        int contribuyentes,
+        int pagos,
+        int transacciones,
+        int multas,
+        int tasas,
+        int servicios,
+        int auditoria,
+        int usuarios,
+        Duration calentamiento,
+        Duration duracion,
+        long semilla,
+        List<String> escenarios,
+        Path salida,
+        String version) {
+
+    public static ConfiguracionCarga desdePropiedades() {
+        int contribuyentes = entero("carga.contribuyentes", 5_000);
+        return new ConfiguracionCarga(
+                contribuyentes,
+                entero("carga.pagos", contribuyentes * 10),
+                entero("carga.transacciones", contribuyentes * 10),
+                entero("carga.multas", contribuyentes * 2),
+                entero("carga.tasas", contribuyentes * 2),
+                entero("carga.servicios", contribuyentes),
+                entero("carga.auditoria", contribuyentes * 20),
+                entero("carga.usuarios", 16),
+                Duration.ofSeconds(entero("carga.calentamiento-s", 10)),
+                Duration.ofSeconds(entero("carga.duracion-s", 30)),
+                Long.getLong("carga.semilla", 42L),
+                Arrays.stream(System.getProperty("carga.escenarios", "").split(","))
+                        .map(String::trim)
+                        .filter(nombre -> !nombre.isEmpty())
+                        .toList(),
+                Path.of(System.getProperty("carga.salida", "build/reports/carga")),
+                System.getProperty("carga.version", "desconocida"));
+    }
+
+    /**
+     * Indica si el escenario debe ejecutarse (sin lista explícita se ejecutan todos)
+     */
+    public boolean incluye(String escenario) {
+        return escenarios.isEmpty() || escenarios.contains(escenario);
+    }
+
+    private static int entero(String propiedad, int porDefecto) {
+        String valor = System.getProperty(propiedad);
+        return valor == null || valor.isBlank() ? porDefecto : Integer.parseInt(valor.trim());
+    }
+}
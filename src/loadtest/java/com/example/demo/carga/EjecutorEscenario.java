@@ -0,0 +1,66 @@
+package com.example.demo.carga;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Ejecuta un escenario con un usuario virtual por sesión, cada uno en su propio hilo virtual,
+ * durante el calentamiento más la duración configurada. Solo se mide la segunda parte.
+ */
+@Slf4j
+final class EjecutorEscenario {
+
+    private final ConfiguracionCarga configuracion;
+    private final List<ClienteCarga> clientes;
+
+    EjecutorEscenario(ConfiguracionCarga configuracion, List<ClienteCarga> clientes) {
+        this.configuracion = configuracion;
+        this.clientes = clientes;
+    }
+
+    List<ResultadoEndpoint> ejecutar(EscenarioCarga escenario) throws Exception {
+        log.info("Escenario {}: {} usuarios, {} s de calentamiento, {} s medidos", escenario.nombre(),
+                clientes.size(), configuracion.calentamiento().toSeconds(), configuracion.duracion().toSeconds());
+
+        long inicioMedicion = System.nanoTime() + configuracion.calentamiento().toNanos();
+        long fin = inicioMedicion + configuracion.duracion().toNanos();
+
+        List<Future<Medidor>> usuarios = new ArrayList<>();
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes.size(); i++) {
+                ClienteCarga cliente = clientes.get(i);
+                Random random = new Random(configuracion.semilla() + i);
+                usuarios.add(hilos.submit(() -> {
+                    Medidor medidor = new Medidor();
+                    while (System.nanoTime() < fin) {
+                        if (System.nanoTime() >= inicioMedicion) {
+                            medidor.activar();
+                        }
+                        escenario.iteracion().ejecutar(cliente, medidor, random);
+                    }
+                    return medidor;
+                }));
+            }
+        }
+
+        Map<String, Medidor.Registro> combinados = new LinkedHashMap<>();
+        for (Future<Medidor> usuario : usuarios) {
+            usuario.get().registros().forEach((endpoint, registro) ->
+                    combinados.computeIfAbsent(endpoint, clave -> new Medidor.Registro()).combinar(registro));
+        }
+
+        double segundos = configuracion.duracion().toNanos() / 1e9;
+        List<ResultadoEndpoint> resultados = new ArrayList<>();
+        combinados.forEach((endpoint, registro) ->
+                resultados.add(ResultadoEndpoint.de(escenario.nombre(), endpoint, registro, segundos)));
+        return resultados;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.carga;
+
+import java.util.Random;
+
+/**
+ * Escenario de carga: cada usuario virtual repite la iteración hasta que termina el tiempo
+ *
+ * @param nombre    nombre usado en -Pcarga.escenarios y en el informe
+ * @param iteracion peticiones de una vuelta del usuario
+ */
+record EscenarioCarga(String nombre, Iteracion iteracion) {
+
+    @FunctionalInterface
+    interface Iteracion {
+        void ejecutar(ClienteCarga cliente, Medidor medidor, Random random);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.demo.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Escenarios de la prueba de carga: dashboard, listados paginados, búsquedas,
+ * exportaciones y el flujo de registro de pagos.
+ */
+final class EscenariosCarga {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final int TAMANO_PAGINA = 20;
+    private static final int PAGINAS_POR_RECORRIDO = 5;
+
+    private static final List<String> LISTADOS_CURSOR = List.of(
+            "/pagos/api/cursor", "/tasas/api/cursor", "/multas/api/cursor",
+            "/transacciones/api/cursor", "/auditoria/api/logs/cursor");
+
+    private static final String[] PREFIJOS_BUSQUEDA = {"Comercializadora 1", "Ana", "Pérez", "V-1000", "J-1001"};
+    private static final String[] CONCEPTOS_BUSQUEDA = {"Impuesto", "Patente", "Tasa de aseo", "Vehículos"};
+    private static final String[] ESTADOS_TRANSACCION = {"PENDIENTE", "CONFIRMADA", "ANULADA"};
+
+    private EscenariosCarga() {
+    }
+
+    /**
+     * Escenarios a ejecutar según la configuración
+     *
+     * @param primerContribuyente id del primer contribuyente (para los pagos nuevos)
+     * @param ultimoContribuyente id del último contribuyente
+     */
+    static List<EscenarioCarga> seleccionados(ConfiguracionCarga configuracion,
+                                              long primerContribuyente, long ultimoContribuyente) {
+        return List.of(
+                        new EscenarioCarga("dashboard", EscenariosCarga::dashboard),
+                        new EscenarioCarga("listados", EscenariosCarga::listados),
+                        new EscenarioCarga("busqueda", EscenariosCarga::busqueda),
+                        new EscenarioCarga("exportaciones", EscenariosCarga::exportaciones),
+                        new EscenarioCarga("pagos", (cliente, medidor, random) ->
+                                flujoPago(cliente, medidor, random, primerContribuyente, ultimoContribuyente)))
+                .stream()
+                .filter(escenario -> configuracion.incluye(escenario.nombre()))
+                .toList();
+    }
+
+    // ==================== ESCENARIOS ====================
+
+    private static void dashboard(ClienteCarga cliente, Medidor medidor, Random random) {
+        get(cliente, medidor, "GET /dashboard", "/dashboard");
+        get(cliente, medidor, "GET /transacciones/api/estadisticas", "/transacciones/api/estadisticas");
+        get(cliente, medidor, "GET /multas/api/estadisticas", "/multas/api/estadisticas");
+        get(cliente, medidor, "GET /servicios/api/estadisticas", "/servicios/api/estadisticas");
+        get(cliente, medidor, "GET /tributario/retenciones/estadisticas", "/tributario/retenciones/estadisticas");
+    }
+
+    /**
+     * Recorre varias páginas de un listado por cursor y una página al azar del listado por OFFSET
+     */
+    private static void listados(ClienteCarga cliente, Medidor medidor, Random random) {
+        String listado = LISTADOS_CURSOR.get(random.nextInt(LISTADOS_CURSOR.size()));
+        String cursor = null;
+        for (int pagina = 0; pagina < PAGINAS_POR_RECORRIDO; pagina++) {
+            String ruta = listado + "?size=" + TAMANO_PAGINA + (cursor != null ? "&cursor=" + codificar(cursor) : "");
+            HttpResponse<String> respuesta = get(cliente, medidor, "GET " + listado, ruta);
+            cursor = texto(respuesta, "siguienteCursor");
+            if (cursor == null) {
+                break;
+            }
+        }
+        get(cliente, medidor, "GET /pagos/api (offset)", "/pagos/api?size=" + TAMANO_PAGINA + "&page=" + random.nextInt(200));
+    }
+
+    private static void busqueda(ClienteCarga cliente, Medidor medidor, Random random) {
+        String prefijo = PREFIJOS_BUSQUEDA[random.nextInt(PREFIJOS_BUSQUEDA.length)];
+        get(cliente, medidor, "GET /tributario/contribuyentes/buscar",
+                "/tributario/contribuyentes/buscar?termino=" + codificar(prefijo));
+        get(cliente, medidor, "GET /tributario/retenciones/buscar",
+                "/tributario/retenciones/buscar?termino=" + codificar(prefijo));
+        get(cliente, medidor, "GET /pagos/api/buscar",
+                "/pagos/api/buscar?concepto=" + codificar(CONCEPTOS_BUSQUEDA[random.nextInt(CONCEPTOS_BUSQUEDA.length)]));
+        get(cliente, medidor, "GET /transacciones/api/buscar",
+                "/transacciones/api/buscar?estado=" + ESTADOS_TRANSACCION[random.nextInt(ESTADOS_TRANSACCION.length)]
+                        + "&page=" + random.nextInt(20));
+        get(cliente, medidor, "GET /servicios/api/buscar",
+                "/servicios/api/buscar?contribuyenteNombre=" + codificar(prefijo) + "&page=0");
+    }
+
+    private static void exportaciones(ClienteCarga cliente, Medidor medidor, Random random) {
+        descargar(cliente, medidor, "GET /pagos/exportar (csv)", "/pagos/exportar?format=csv");
+        descargar(cliente, medidor, "GET /transacciones/exportar (xlsx)", "/transacciones/exportar?format=xlsx");
+        descargar(cliente, medidor, "GET /tributario/contribuyentes/export (ndjson)",
+                "/tributario/contribuyentes/export?format=ndjson");
+    }
+
+    /**
+     * Registra un pago y lo lleva de PENDIENTE a PROCESADO y CONFIRMADO
+     */
+    private static void flujoPago(ClienteCarga cliente, Medidor medidor, Random random,
+                                  long primerContribuyente, long ultimoContribuyente) {
+        long contribuyente = primerContribuyente + (long) (random.nextDouble() * (ultimoContribuyente - primerContribuyente + 1));
+        String pago = JSON.createObjectNode()
+                .put("contribuyenteId", contribuyente)
+                .put("monto", BigDecimal.valueOf(10_000 + random.nextInt(1_000_000), 2))
+                .put("metodoPago", "TRANSFERENCIA")
+                .put("referencia", "CRG-" + random.nextInt(1_000_000))
+                .put("fechaPago", LocalDateTime.now().withNano(0).toString())
+                .put("concepto", "Pago de la prueba de carga")
+                .toString();
+
+        HttpResponse<String> creado = medidor.medir("POST /pagos/api",
+                () -> cliente.enviarJson("POST", "/pagos/api", pago), HttpResponse::statusCode);
+        JsonNode cuerpo = leer(creado);
+        if (cuerpo == null || !cuerpo.hasNonNull("id")) {
+            return;
+        }
+        long id = cuerpo.get("id").asLong();
+        medidor.medir("PUT /pagos/api/{id}/procesar",
+                () -> cliente.enviarJson("PUT", "/pagos/api/" + id + "/procesar", null), HttpResponse::statusCode);
+        medidor.medir("PUT /pagos/api/{id}/confirmar",
+                () -> cliente.enviarJson("PUT", "/pagos/api/" + id + "/confirmar", null), HttpResponse::statusCode);
+        get(cliente, medidor, "GET /pagos/api/{id}", "/pagos/api/" + id);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static HttpResponse<String> get(ClienteCarga cliente, Medidor medidor, String endpoint, String ruta) {
+        return medidor.medir(endpoint, () -> cliente.get(ruta), HttpResponse::statusCode);
+    }
+
+    private static void descargar(ClienteCarga cliente, Medidor medidor, String endpoint, String ruta) {
+        medidor.medir(endpoint, () -> cliente.descargar(ruta), Integer::intValue);
+    }
+
+    private static JsonNode leer(HttpResponse<String> respuesta) {
+        if (respuesta == null || respuesta.statusCode() >= 400) {
+            return null;
+        }
+        try {
+            return JSON.readTree(respuesta.body());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String texto(HttpResponse<String> respuesta, String campo) {
+        JsonNode cuerpo = leer(respuesta);
+        return cuerpo != null && cuerpo.hasNonNull(campo) ? cuerpo.get(campo).asText() : null;
+    }
+
+    private static String codificar(String valor) {
+        return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.demo.carga;
+
+import com.example.demo.multas.model.EstadoMulta;
+import com.example.demo.multas.model.TipoInfraccion;
+import com.example.demo.pagos.model.EstadoPago;
+import com.example.demo.pagos.model.MetodoPago;
+import com.example.demo.servicios.domain.EstadoServicio;
+import com.example.demo.servicios.domain.TipoServicio;
+import com.example.demo.tasas.model.EstadoTasa;
+import com.example.demo.tasas.model.PeriodoFacturacion;
+import com.example.demo.tasas.model.TipoTasa;
+import com.example.demo.transacciones.model.EstadoTransaccion;
+import com.example.demo.transacciones.model.TipoTransaccion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Genera los datos sintéticos de la prueba de carga con inserciones JDBC por lotes.
+ * Los valores salen de una semilla fija, así que dos corridas con la misma configuración
+ * trabajan sobre los mismos datos. Los números de documento usan el prefijo CRG- para no
+ * interferir con la numeración de los servicios.
+ */
+@Slf4j
+class GeneradorDatosCarga {
+
+    static final String USUARIO = "carga";
+    static final String CONTRASENA = "carga-2025";
+
+    private static final int TAMANO_LOTE = 1_000;
+
+    private static final String[] CONCEPTOS = {
+            "Impuesto sobre actividades económicas", "Impuesto inmobiliario urbano", "Patente de industria y comercio",
+            "Tasa de aseo urbano", "Publicidad comercial", "Vehículos", "Espectáculos públicos", "Apuestas lícitas"
+    };
+    private static final String[] ACCIONES = {"CREATE", "UPDATE", "DELETE", "VIEW", "EXPORT", "LOGIN"};
+    private static final String[] MODULOS = {
+            "CONTRIBUYENTES", "RETENCIONES", "COMPROBANTES", "IMPUESTOS", "PERSONAL", "ROLES", "USUARIOS", "AUDITORIA"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ConfiguracionCarga configuracion;
+    private final Random random;
+    private final LocalDateTime ahora = LocalDateTime.now().withNano(0);
+
+    private long[] contribuyentes;
+
+    GeneradorDatosCarga(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, ConfiguracionCarga configuracion) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.configuracion = configuracion;
+        this.random = new Random(configuracion.semilla());
+    }
+
+    void generar() {
+        long inicio = System.nanoTime();
+        crearUsuario();
+        generarContribuyentes();
+        generarPagos();
+        generarTransacciones();
+        generarMultas();
+        generarTasas();
+        generarServicios();
+        generarAuditoria();
+        ajustarSecuenciasId();
+        log.info("Datos sintéticos generados en {} ms", (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // ==================== GENERACIÓN POR TABLA ====================
+
+    /**
+     * Usuario de los clientes de carga, con un rol que tiene todos los permisos
+     */
+    private void crearUsuario() {
+        jdbcTemplate.update("INSERT INTO roles (nombre, descripcion) VALUES (?, ?)",
+                "CARGA", "Rol de la prueba de carga con todos los permisos");
+        jdbcTemplate.update("INSERT INTO roles_permisos (rol_id, permiso_id) " +
+                "SELECT r.id, p.id FROM roles r CROSS JOIN permisos p WHERE r.nombre = 'CARGA'");
+        jdbcTemplate.update("INSERT INTO usuarios (username, email, password, activo, creado_en) VALUES (?, ?, ?, 1, ?)",
+                USUARIO, "carga@tributario.local", passwordEncoder.encode(CONTRASENA), marca(ahora));
+        jdbcTemplate.update("INSERT INTO usuarios_roles (usuario_id, rol_id) " +
+                "SELECT u.id, r.id FROM usuarios u CROSS JOIN roles r WHERE u.username = ? AND r.nombre = 'CARGA'",
+                USUARIO);
+    }
+
+    private void generarContribuyentes() {
+        insertar("contribuyentes",
+                "INSERT INTO contribuyentes (rif, razon_social, nombre, apellido, direccion, telefono, email, " +
+                "tipo_contribuyente, activo, creado_en) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                configuracion.contribuyentes(), i -> {
+                    boolean juridica = i % 3 == 0;
+                    return new Object[]{
+                            String.format("%s-%08d-%d", juridica ? "J" : "V", 10_000_000 + i, i % 10),
+                            juridica ? "Comercializadora " + nombre(i) + " C.A." : null,
+                            juridica ? null : nombre(i),
+                            juridica ? null : apellido(i),
+                            "Calle " + (i % 200) + ", sector " + (i % 25),
+                            String.format("0414-%07d", i),
+                            "contribuyente" + i + "@correo.local",
+                            juridica ? "PERSONA_JURIDICA" : "PERSONA_NATURAL",
+                            i % 20 != 0,
+                            marca(hace(720))
+                    };
+                });
+        contribuyentes = jdbcTemplate.queryForList("SELECT id FROM contribuyentes ORDER BY id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private void generarPagos() {
+        MetodoPago[] metodos = MetodoPago.values();
+        EstadoPago[] estados = EstadoPago.values();
+        insertar("pagos",
+                "INSERT INTO pagos (contribuyente_id, monto, metodo_pago, referencia, estado, fecha_pago, concepto, " +
+                "creado_en, usuario_registro) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                configuracion.pagos(), i -> {
+                    LocalDateTime fecha = hace(365);
+                    return new Object[]{
+                            contribuyente(), monto(50, 50_000), elegir(metodos).name(),
+                            "REF-" + (1_000_000 + i), elegir(estados).name(), marca(fecha),
+                            elegir(CONCEPTOS) + " " + (i % 12 + 1) + "/2025", marca(fecha), USUARIO
+                    };
+                });
+    }
+
+    private void generarTransacciones() {
+        TipoTransaccion[] tipos = TipoTransaccion.values();
+        EstadoTransaccion[] estados = EstadoTransaccion.values();
+        insertar("transacciones",
+                "INSERT INTO transacciones (numero_transaccion, tipo_transaccion, estado, monto, concepto, " +
+                "contribuyente_id, fecha_transaccion, usuario_registro, fecha_registro) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                configuracion.transacciones(), i -> {
+                    LocalDateTime fecha = hace(365);
+                    return new Object[]{
+                            String.format("CRG-TRX-%08d", i + 1), elegir(tipos).name(), elegir(estados).name(),
+                            monto(10, 100_000), elegir(CONCEPTOS), contribuyente(), marca(fecha), USUARIO, marca(fecha)
+                    };
+                });
+    }
+
+    private void generarMultas() {
+        TipoInfraccion[] tipos = TipoInfraccion.values();
+        EstadoMulta[] estados = EstadoMulta.values();
+        insertar("multas",
+                "INSERT INTO multas (contribuyente_id, numero_multa, tipo_infraccion, descripcion, monto, monto_pagado, " +
+                "estado, fecha_infraccion, fecha_vencimiento, usuario_registro, fecha_registro) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                configuracion.multas(), i -> {
+                    LocalDateTime infraccion = hace(365);
+                    EstadoMulta estado = elegir(estados);
+                    BigDecimal monto = monto(100, 20_000);
+                    return new Object[]{
+                            contribuyente(), String.format("CRG-MUL-%08d", i + 1), elegir(tipos).name(),
+                            "Multa generada para la prueba de carga", monto,
+                            estado == EstadoMulta.PAGADA ? monto : BigDecimal.ZERO, estado.name(),
+                            marca(infraccion), marca(infraccion.plusDays(30)), USUARIO, marca(infraccion)
+                    };
+                });
+    }
+
+    private void generarTasas() {
+        TipoTasa[] tipos = TipoTasa.values();
+        EstadoTasa[] estados = EstadoTasa.values();
+        PeriodoFacturacion[] periodos = PeriodoFacturacion.values();
+        insertar("tasas",
+                "INSERT INTO tasas (contribuyente_id, numero_tasa, tipo_tasa, descripcion, monto_base, monto_pagado, " +
+                "estado, periodo_facturacion, fecha_inicio, fecha_vencimiento, direccion, zona_municipal, " +
+                "usuario_registro, fecha_registro) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                configuracion.tasas(), i -> {
+                    LocalDateTime inicio = hace(365);
+                    EstadoTasa estado = elegir(estados);
+                    BigDecimal montoBase = monto(20, 5_000);
+                    return new Object[]{
+                            contribuyente(), String.format("CRG-TAS-%08d", i + 1), elegir(tipos).name(),
+                            "Tasa generada para la prueba de carga", montoBase,
+                            estado == EstadoTasa.PAGADA ? montoBase : BigDecimal.ZERO, estado.name(),
+                            elegir(periodos).name(), marca(inicio), marca(inicio.plusDays(30 + random.nextInt(60))),
+                            "Calle " + (i % 200), "Zona " + (i % 8), USUARIO, marca(inicio)
+                    };
+                });
+    }
+
+    private void generarServicios() {
+        TipoServicio[] tipos = TipoServicio.values();
+        EstadoServicio[] estados = EstadoServicio.values();
+        insertar("servicios",
+                "INSERT INTO servicios (numero_servicio, contribuyente_id, tipo_servicio, estado, tarifa_base, " +
+                "monto_facturado, monto_pagado, fecha_instalacion, direccion_servicio, medidor, usuario_registro, " +
+                "fecha_registro) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                configuracion.servicios(), i -> {
+                    LocalDateTime instalacion = hace(1_000);
+                    BigDecimal facturado = monto(10, 2_000);
+                    return new Object[]{
+                            String.format("CRG-SRV-%08d", i + 1), contribuyente(), elegir(tipos).name(),
+                            elegir(estados).name(), monto(5, 500), facturado,
+                            random.nextBoolean() ? facturado : BigDecimal.ZERO, instalacion.toLocalDate(),
+                            "Calle " + (i % 200), "MED-" + (100_000 + i), USUARIO, marca(instalacion)
+                    };
+                });
+    }
+
+    private void generarAuditoria() {
+        insertar("auditoria_logs",
+                "INSERT INTO auditoria_logs (usuario, accion, modulo, entidad, entidad_id, descripcion, ip_address, " +
+                "fecha_hora, resultado) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                configuracion.auditoria(), i -> {
+                    String modulo = elegir(MODULOS);
+                    return new Object[]{
+                            "usuario" + (i % 50), elegir(ACCIONES), modulo, modulo.toLowerCase(),
+                            (long) random.nextInt(Math.max(1, configuracion.contribuyentes())) + 1,
+                            "Registro de auditoría generado para la prueba de carga",
+                            "10.0." + (i % 256) + "." + (i % 200), marca(hace(180)),
+                            i % 50 == 0 ? "ERROR" : "SUCCESS"
+                    };
+                });
+
+        // Los logs se insertan sin pasar por AuditoriaLogWriter: el resumen horario y el índice de texto se cargan aparte
+        jdbcTemplate.update("INSERT INTO auditoria_actividad_hora (hora, usuario, modulo, accion, resultado, total) " +
+                "SELECT DATE_FORMAT(fecha_hora, '%Y-%m-%d %H:00:00'), usuario, modulo, accion, COALESCE(resultado, ''), " +
+                "COUNT(*) FROM auditoria_logs WHERE usuario LIKE 'usuario%' " +
+                "GROUP BY DATE_FORMAT(fecha_hora, '%Y-%m-%d %H:00:00'), usuario, modulo, accion, COALESCE(resultado, '') " +
+                "ON DUPLICATE KEY UPDATE total = total + VALUES(total)");
+        jdbcTemplate.update("INSERT IGNORE INTO auditoria_busqueda (log_id, fecha_hora, descripcion, entidad) " +
+                "SELECT id, fecha_hora, descripcion, entidad FROM auditoria_logs WHERE usuario LIKE 'usuario%'");
+    }
+
+    /**
+     * Las filas sintéticas toman su id de AUTO_INCREMENT: las secuencias de secuencias_id
+     * se adelantan al mayor id generado para que la aplicación no reasigne esos ids
+     */
+    private void ajustarSecuenciasId() {
+        for (String tabla : new String[]{"pagos", "transacciones", "multas", "tasas", "servicios", "auditoria_logs"}) {
+            jdbcTemplate.update("UPDATE secuencias_id SET ultimo_id = GREATEST(ultimo_id, " +
+                    "(SELECT COALESCE(MAX(id), 0) FROM " + tabla + ")) WHERE nombre = ?", tabla);
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void insertar(String tabla, String sql, int cantidad, IntFunction<Object[]> fila) {
+        List<Object[]> lote = new ArrayList<>(TAMANO_LOTE);
+        for (int i = 0; i < cantidad; i++) {
+            lote.add(fila.apply(i));
+            if (lote.size() == TAMANO_LOTE) {
+                jdbcTemplate.batchUpdate(sql, lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, lote);
+        }
+        log.info("Generados {} registros en {}", cantidad, tabla);
+    }
+
+    private long contribuyente() {
+        return contribuyentes[random.nextInt(contribuyentes.length)];
+    }
+
+    private <E> E elegir(E[] valores) {
+        return valores[random.nextInt(valores.length)];
+    }
+
+    private BigDecimal monto(int minimo, int maximo) {
+        return BigDecimal.valueOf((long) minimo * 100 + random.nextInt((maximo - minimo) * 100), 2);
+    }
+
+    /**
+     * Fecha aleatoria dentro de los últimos días indicados
+     */
+    private LocalDateTime hace(int dias) {
+        return ahora.minusMinutes(random.nextInt(dias * 24 * 60));
+    }
+
+    private static Timestamp marca(LocalDateTime fecha) {
+        return Timestamp.valueOf(fecha);
+    }
+
+    private static String nombre(int i) {
+        String[] nombres = {"Ana", "Luis", "María", "José", "Carmen", "Pedro", "Rosa", "Jesús", "Elena", "Carlos"};
+        return nombres[i % nombres.length] + " " + (char) ('A' + i % 26);
+    }
+
+    private static String apellido(int i) {
+        String[] apellidos = {"González", "Rodríguez", "Pérez", "Hernández", "García", "Martínez", "López", "Díaz"};
+        return apellidos[(i / 10) % apellidos.length];
+    }
+}
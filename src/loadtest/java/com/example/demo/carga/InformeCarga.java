@@ -0,0 +1,61 @@
+package com.example.demo.carga;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Informe de la prueba de carga: tabla por consola y un CSV por corrida con la versión
+ * de la aplicación, para comparar releases con los mismos parámetros.
+ */
+@Slf4j
+final class InformeCarga {
+
+    private static final DateTimeFormatter MARCA = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private InformeCarga() {
+    }
+
+    static void imprimir(List<ResultadoEndpoint> resultados, PrintStream salida) {
+        String formato = "%-14s %-48s %9s %7s %10s %10s %10s %10s%n";
+        salida.printf(formato, "Escenario", "Endpoint", "Peticiones", "Errores", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (ResultadoEndpoint resultado : resultados) {
+            salida.printf(Locale.ROOT, "%-14s %-48s %9d %7d %10.1f %10.2f %10.2f %10.2f%n",
+                    resultado.escenario(), resultado.endpoint(), resultado.peticiones(), resultado.errores(),
+                    resultado.throughput(), resultado.p50(), resultado.p99(), resultado.maximo());
+        }
+    }
+
+    /**
+     * Escribe el CSV de la corrida y devuelve su ruta
+     */
+    static Path escribirCsv(List<ResultadoEndpoint> resultados, ConfiguracionCarga configuracion) throws IOException {
+        Files.createDirectories(configuracion.salida());
+        Path archivo = configuracion.salida().resolve(
+                "carga-" + configuracion.version() + "-" + LocalDateTime.now().format(MARCA) + ".csv");
+
+        List<String> lineas = new ArrayList<>();
+        lineas.add("# version=" + configuracion.version()
+                + " contribuyentes=" + configuracion.contribuyentes()
+                + " usuarios=" + configuracion.usuarios()
+                + " duracion_s=" + configuracion.duracion().toSeconds()
+                + " semilla=" + configuracion.semilla());
+        lineas.add("escenario,endpoint,peticiones,errores,req_s,p50_ms,p99_ms,max_ms");
+        for (ResultadoEndpoint resultado : resultados) {
+            lineas.add(String.format(Locale.ROOT, "%s,\"%s\",%d,%d,%.2f,%.3f,%.3f,%.3f",
+                    resultado.escenario(), resultado.endpoint(), resultado.peticiones(), resultado.errores(),
+                    resultado.throughput(), resultado.p50(), resultado.p99(), resultado.maximo()));
+        }
+        Files.write(archivo, lineas);
+        log.info("Informe de carga escrito en {}", archivo);
+        return archivo;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.carga;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Latencias de un usuario virtual por endpoint. Cada usuario tiene el suyo (sin sincronización)
+ * y al terminar el escenario se combinan. Durante el calentamiento las peticiones se ejecutan
+ * pero no se registran.
+ */
+final class Medidor {
+
+    /**
+     * Petición HTTP cuyo tiempo se mide
+     */
+    @FunctionalInterface
+    interface Peticion<T> {
+        T ejecutar() throws Exception;
+    }
+
+    private final Map<String, Registro> registros = new LinkedHashMap<>();
+    private volatile boolean activo;
+
+    void activar() {
+        this.activo = true;
+    }
+
+    /**
+     * Ejecuta la petición y registra su latencia; es error si lanza excepción o el estado HTTP es 4xx/5xx
+     *
+     * @return la respuesta, o null si la petición falló con excepción
+     */
+    <T> T medir(String endpoint, Peticion<T> peticion, ToIntFunction<T> estado) {
+        long inicio = System.nanoTime();
+        T respuesta = null;
+        boolean error;
+        try {
+            respuesta = peticion.ejecutar();
+            error = estado.applyAsInt(respuesta) >= 400;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = true;
+        } catch (Exception e) {
+            error = true;
+        }
+        if (activo) {
+            registros.computeIfAbsent(endpoint, clave -> new Registro()).agregar(System.nanoTime() - inicio, error);
+        }
+        return respuesta;
+    }
+
+    Map<String, Registro> registros() {
+        return registros;
+    }
+
+    /**
+     * Latencias en nanosegundos y cantidad de errores de un endpoint
+     */
+    static final class Registro {
+
+        private long[] latencias = new long[1024];
+        private int cantidad;
+        private int errores;
+
+        void agregar(long latencia, boolean error) {
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = latencia;
+            if (error) {
+                errores++;
+            }
+        }
+
+        void combinar(Registro otro) {
+            for (int i = 0; i < otro.cantidad; i++) {
+                agregar(otro.latencias[i], false);
+            }
+            errores += otro.errores;
+        }
+
+        int cantidad() {
+            return cantidad;
+        }
+
+        int errores() {
+            return errores;
+        }
+
+        /**
+         * Latencias registradas, ordenadas de menor a mayor
+         */
+        long[] ordenadas() {
+            long[] copia = Arrays.copyOf(latencias, cantidad);
+            Arrays.sort(copia);
+            return copia;
+        }
+    }
+}
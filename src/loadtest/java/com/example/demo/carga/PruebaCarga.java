@@ -0,0 +1,80 @@
+package com.example.demo.carga;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.estadisticas.service.EstadisticasReconciliacionJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prueba de carga de extremo a extremo (./gradlew loadTest).
+ * Arranca MariaDB embebido, levanta la aplicación con el perfil loadtest (Flyway aplica las
+ * migraciones), genera los datos sintéticos, inicia sesión con un cliente HTTP por usuario virtual
+ * y ejecuta los escenarios. Informa throughput y latencias p50/p99 por endpoint.
+ */
+@Slf4j
+public final class PruebaCarga {
+
+    private PruebaCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdePropiedades();
+
+        try (BaseDatosEmbebida baseDatos = BaseDatosEmbebida.iniciar()) {
+            SpringApplication aplicacion = new SpringApplication(DemoApplication.class);
+            aplicacion.setAdditionalProfiles("loadtest");
+
+            // Argumentos de línea de comandos: tienen prioridad sobre application.properties
+            try (ConfigurableApplicationContext contexto = aplicacion.run(
+                    "--spring.datasource.url=" + baseDatos.url(),
+                    "--server.port=0")) {
+
+                JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+                new GeneradorDatosCarga(jdbcTemplate, contexto.getBean(PasswordEncoder.class), configuracion).generar();
+                // El resumen del dashboard se recalcula desde las tablas recién cargadas
+                contexto.getBean(EstadisticasReconciliacionJob.class).reconciliar();
+
+                Map<String, Object> rango = jdbcTemplate.queryForMap(
+                        "SELECT MIN(id) AS primero, MAX(id) AS ultimo FROM contribuyentes");
+                long primerContribuyente = ((Number) rango.get("primero")).longValue();
+                long ultimoContribuyente = ((Number) rango.get("ultimo")).longValue();
+
+                int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+                List<ClienteCarga> clientes = iniciarSesiones(URI.create("http://localhost:" + puerto),
+                        configuracion.usuarios());
+
+                EjecutorEscenario ejecutor = new EjecutorEscenario(configuracion, clientes);
+                List<ResultadoEndpoint> resultados = new ArrayList<>();
+                for (EscenarioCarga escenario : EscenariosCarga.seleccionados(
+                        configuracion, primerContribuyente, ultimoContribuyente)) {
+                    resultados.addAll(ejecutor.ejecutar(escenario));
+                }
+
+                InformeCarga.imprimir(resultados, System.out);
+                InformeCarga.escribirCsv(resultados, configuracion);
+            }
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static List<ClienteCarga> iniciarSesiones(URI base, int usuarios) throws Exception {
+        List<ClienteCarga> clientes = new ArrayList<>(usuarios);
+        for (int i = 0; i < usuarios; i++) {
+            ClienteCarga cliente = new ClienteCarga(base);
+            cliente.iniciarSesion(GeneradorDatosCarga.USUARIO, GeneradorDatosCarga.CONTRASENA);
+            clientes.add(cliente);
+        }
+        log.info("{} sesiones iniciadas", usuarios);
+        return clientes;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.carga;
+
+/**
+ * Resultado de un endpoint dentro de un escenario. Latencias en milisegundos.
+ */
+record ResultadoEndpoint(
+        String escenario,
+        String endpoint,
+        int peticiones,
+        int errores,
+        double throughput,
+        double p50,
+        double p99,
+        double maximo) {
+
+    static ResultadoEndpoint de(String escenario, String endpoint, Medidor.Registro registro, double segundos) {
+        long[] latencias = registro.ordenadas();
+        return new ResultadoEndpoint(escenario, endpoint, registro.cantidad(), registro.errores(),
+                registro.cantidad() / segundos,
+                milisegundos(percentil(latencias, 0.50)),
+                milisegundos(percentil(latencias, 0.99)),
+                milisegundos(latencias.length == 0 ? 0 : latencias[latencias.length - 1]));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Percentil por rango más cercano sobre latencias ordenadas
+     */
+    private static long percentil(long[] ordenadas, double fraccion) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int posicion = (int) Math.ceil(fraccion * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(posicion, ordenadas.length - 1))];
+    }
+
+    private static double milisegundos(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
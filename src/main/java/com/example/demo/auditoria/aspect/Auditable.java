@@ -0,0 +1,34 @@
+package com.example.demo.auditoria.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método de controlador como auditable y permite fijar explícitamente
+ * los datos que se registran. Sin la anotación se audita igual que siempre: POST, PUT y DELETE,
+ * y los GET cuyo nombre contiene "export"; los valores se deducen del nombre de la clase y del mapeo.
+ * En un GET que no es exportación, la anotación hace que se audite.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Auditable {
+
+    /**
+     * Acción registrada (CREATE, UPDATE, DELETE, EXPORT...); vacío para deducirla del mapeo HTTP
+     */
+    String accion() default "";
+
+    /**
+     * Módulo registrado (CONTRIBUYENTES, RETENCIONES...); vacío para deducirlo del nombre de la clase
+     */
+    String modulo() default "";
+
+    /**
+     * Entidad usada en la descripción ("contribuyente", "retención"...); vacío para deducirla de la clase
+     */
+    String entidad() default "";
+}
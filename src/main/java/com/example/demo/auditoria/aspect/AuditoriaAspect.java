@@ -6,8 +6,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @Aspect
@@ -18,6 +25,9 @@ public class AuditoriaAspect {
     
     private final AuditoriaService auditoriaService;
     
+    // Datos de auditoría por método de controlador
+    private final Map<Method, MetadatosAuditoria> metadatosPorMetodo = new ConcurrentHashMap<>();
+    
     // ==================== POINTCUTS ====================
     
     /**
@@ -66,7 +76,7 @@ public class AuditoriaAspect {
      */
     @Around("controllerMethods() && postMappingMethods()")
     public Object auditarCreacion(ProceedingJoinPoint joinPoint) throws Throwable {
-        return ejecutarConAuditoria(joinPoint, "CREATE");
+        return ejecutarConAuditoria(joinPoint);
     }
     
     /**
@@ -74,7 +84,7 @@ public class AuditoriaAspect {
      */
     @Around("controllerMethods() && putMappingMethods()")
     public Object auditarActualizacion(ProceedingJoinPoint joinPoint) throws Throwable {
-        return ejecutarConAuditoria(joinPoint, "UPDATE");
+        return ejecutarConAuditoria(joinPoint);
     }
     
     /**
@@ -82,25 +92,18 @@ public class AuditoriaAspect {
      */
     @Around("controllerMethods() && deleteMappingMethods()")
     public Object auditarEliminacion(ProceedingJoinPoint joinPoint) throws Throwable {
-        return ejecutarConAuditoria(joinPoint, "DELETE");
+        return ejecutarConAuditoria(joinPoint);
     }
     
     /**
-     * Intercepta solo operaciones de exportación - NO navegación ni vistas
+     * Intercepta solo exportaciones (nombre con "export") y GET marcados con @Auditable.
+     * El filtro está en el pointcut: la navegación y las vistas no pasan por el advice.
      */
-    @Around("controllerMethods() && getMappingMethods() && !within(com.example.demo.auditoria.web.AuditoriaController)")
+    @Around("controllerMethods() && getMappingMethods() && " +
+            "(execution(* *export*(..)) || @annotation(com.example.demo.auditoria.aspect.Auditable)) && " +
+            "!within(com.example.demo.auditoria.web.AuditoriaController)")
     public Object auditarLectura(ProceedingJoinPoint joinPoint) throws Throwable {
-        String methodName = joinPoint.getSignature().getName();
-        
-        // SOLO auditar exportaciones - nada más
-        if (methodName.contains("export") || methodName.contains("exportar") || 
-            methodName.equals("exportarContribuyentes") || methodName.equals("exportarRetenciones") ||
-            methodName.equals("exportarComprobantes")) {
-            return ejecutarConAuditoria(joinPoint, "EXPORT");
-        }
-        
-        // NO auditar navegación, vistas, accesos a módulos - ejecutar sin auditoría
-        return joinPoint.proceed();
+        return ejecutarConAuditoria(joinPoint);
     }
     
     /**
@@ -109,14 +112,9 @@ public class AuditoriaAspect {
     @AfterThrowing(pointcut = "controllerMethods()", throwing = "exception")
     public void auditarError(JoinPoint joinPoint, Throwable exception) {
         try {
-            String className = joinPoint.getTarget().getClass().getSimpleName();
-            String methodName = joinPoint.getSignature().getName();
-            String modulo = extraerModulo(className);
-            String accion = extraerAccion(methodName);
-            
-            String descripcion = String.format("Error en %s.%s", className, methodName);
-            
-            auditoriaService.registrarError(accion, modulo, descripcion, exception.getMessage());
+            MetadatosAuditoria metadatos = metadatos(joinPoint);
+            auditoriaService.registrarError(metadatos.getAccionError(), metadatos.getModulo(),
+                    metadatos.getDescripcionError(), exception.getMessage());
             
         } catch (Exception e) {
             log.error("Error al auditar excepción: {}", e.getMessage());
@@ -128,77 +126,38 @@ public class AuditoriaAspect {
     /**
      * Ejecuta el método con auditoría
      */
-    private Object ejecutarConAuditoria(ProceedingJoinPoint joinPoint, String accion) throws Throwable {
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        String methodName = joinPoint.getSignature().getName();
-        String modulo = extraerModulo(className);
+    private Object ejecutarConAuditoria(ProceedingJoinPoint joinPoint) throws Throwable {
+        MetadatosAuditoria metadatos = metadatos(joinPoint);
         
         try {
             // Ejecutar el método original
             Object result = joinPoint.proceed();
             
             // Determinar si fue exitoso
-            boolean exitoso = esResultadoExitoso(result);
+            boolean exitoso = esResultadoExitoso(result) || esVoidExitoso(metadatos);
             
             if (exitoso) {
-                // Crear descripción detallada
-                String descripcion = crearDescripcion(accion, className, methodName, joinPoint.getArgs());
-                
-                // Registrar la acción
-                auditoriaService.registrarAccion(accion, modulo, descripcion);
+                // Registrar la acción con la descripción detallada
+                auditoriaService.registrarAccion(metadatos.getAccion(), metadatos.getModulo(),
+                        metadatos.describir(joinPoint.getArgs()));
             }
             
             return result;
             
         } catch (Exception e) {
             // Registrar el error
-            String descripcion = String.format("Error en %s.%s", className, methodName);
-            auditoriaService.registrarError(accion, modulo, descripcion, e.getMessage());
+            auditoriaService.registrarError(metadatos.getAccion(), metadatos.getModulo(),
+                    metadatos.getDescripcionError(), e.getMessage());
             throw e;
         }
     }
     
     /**
-     * Extrae el módulo basado en el nombre de la clase
-     */
-    private String extraerModulo(String className) {
-        if (className.toLowerCase().contains("contribuyente")) return "CONTRIBUYENTES";
-        if (className.toLowerCase().contains("retencion")) return "RETENCIONES";
-        if (className.toLowerCase().contains("comprobante")) return "COMPROBANTES";
-        if (className.toLowerCase().contains("impuesto")) return "IMPUESTOS";
-        if (className.toLowerCase().contains("declaracion")) return "DECLARACIONES";
-        if (className.toLowerCase().contains("personal")) return "PERSONAL";
-        if (className.toLowerCase().contains("rol")) return "ROLES";
-        if (className.toLowerCase().contains("usuario")) return "USUARIOS";
-        if (className.toLowerCase().contains("auditoria")) return "AUDITORIA";
-        return "SISTEMA";
-    }
-    
-    /**
-     * Extrae la acción basada en el nombre del método
+     * Metadatos del método interceptado; se resuelven en la primera llamada y luego se reutilizan
      */
-    private String extraerAccion(String methodName) {
-        if (methodName.contains("crear") || methodName.contains("save") || methodName.contains("add")) return "CREATE";
-        if (methodName.contains("actualizar") || methodName.contains("update") || methodName.contains("edit")) return "UPDATE";
-        if (methodName.contains("eliminar") || methodName.contains("delete") || methodName.contains("remove")) return "DELETE";
-        if (methodName.contains("export")) return "EXPORT";
-        if (methodName.contains("mostrar") || methodName.contains("index")) return "VIEW";
-        return "ACTION";
-    }
-    
-    /**
-     * Extrae el nombre de la entidad basado en el nombre de la clase
-     */
-    private String extraerEntidad(String className) {
-        if (className.toLowerCase().contains("contribuyente")) return "contribuyente";
-        if (className.toLowerCase().contains("retencion")) return "retención";
-        if (className.toLowerCase().contains("comprobante")) return "comprobante";
-        if (className.toLowerCase().contains("impuesto")) return "impuesto";
-        if (className.toLowerCase().contains("declaracion")) return "declaración";
-        if (className.toLowerCase().contains("personal")) return "empleado";
-        if (className.toLowerCase().contains("rol")) return "rol";
-        if (className.toLowerCase().contains("usuario")) return "usuario";
-        return "registro";
+    private MetadatosAuditoria metadatos(JoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return metadatosPorMetodo.computeIfAbsent(method, MetadatosAuditoria::de);
     }
     
     /**
@@ -213,41 +172,18 @@ public class AuditoriaAspect {
     }
     
     /**
-     * Crea una descripción detallada de la acción
+     * Métodos void que escriben directamente en la respuesta (exportaciones en streaming):
+     * exitosos si la respuesta no quedó con estado de error
      */
-    private String crearDescripcion(String accion, String className, String methodName, Object[] args) {
-        StringBuilder descripcion = new StringBuilder();
-        
-        String entidad = extraerEntidad(className);
-        
-        switch (accion) {
-            case "CREATE":
-                descripcion.append("Creó nuevo ").append(entidad.toLowerCase());
-                break;
-            case "UPDATE":
-                descripcion.append("Actualizó ").append(entidad.toLowerCase());
-                break;
-            case "DELETE":
-                descripcion.append("Eliminó ").append(entidad.toLowerCase());
-                break;
-            case "EXPORT":
-                descripcion.append("Exportó datos de ").append(entidad.toLowerCase());
-                break;
-            default:
-                descripcion.append("Realizó acción en ").append(entidad.toLowerCase());
+    private boolean esVoidExitoso(MetadatosAuditoria metadatos) {
+        if (!metadatos.isSinRetorno()) {
+            return false;
         }
-        
-        // Agregar ID si está disponible en los parámetros
-        if (args != null && args.length > 0) {
-            for (Object arg : args) {
-                if (arg instanceof Long || (arg instanceof String && arg.toString().matches("\\d+"))) {
-                    descripcion.append(" (ID: ").append(arg.toString()).append(")");
-                    break;
-                }
-            }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getResponse() != null) {
+            return attributes.getResponse().getStatus() < 400;
         }
-        
-        return descripcion.toString();
+        return true;
     }
     
     /**
@@ -0,0 +1,207 @@
+package com.example.demo.auditoria.aspect;
+
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos de auditoría de un método de controlador: módulo, entidad, acción, prefijo de la
+ * descripción y parámetros que pueden llevar el ID. Se resuelven una vez por método
+ * (AuditoriaAspect los guarda por Method) y en cada llamada solo se revisan esos parámetros.
+ */
+final class MetadatosAuditoria {
+
+    private final String descripcionError;
+    private final String modulo;
+    private final String accion;
+    private final String accionError;
+    private final String prefijoDescripcion;
+    private final int[] parametrosId;
+    private final boolean sinRetorno;
+
+    private MetadatosAuditoria(String descripcionError, String modulo, String accion, String accionError,
+                               String prefijoDescripcion, int[] parametrosId, boolean sinRetorno) {
+        this.descripcionError = descripcionError;
+        this.modulo = modulo;
+        this.accion = accion;
+        this.accionError = accionError;
+        this.prefijoDescripcion = prefijoDescripcion;
+        this.parametrosId = parametrosId;
+        this.sinRetorno = sinRetorno;
+    }
+
+    static MetadatosAuditoria de(Method method) {
+        String className = method.getDeclaringClass().getSimpleName();
+        String methodName = method.getName();
+        Auditable auditable = method.getAnnotation(Auditable.class);
+
+        String modulo = auditable != null && !auditable.modulo().isEmpty() ? auditable.modulo() : extraerModulo(className);
+        String entidad = auditable != null && !auditable.entidad().isEmpty() ? auditable.entidad() : extraerEntidad(className);
+        String accion = auditable != null && !auditable.accion().isEmpty() ? auditable.accion() : accionDelMapeo(method);
+
+        // Solo los parámetros que pueden recibir un Long o un String (el ID)
+        List<Integer> candidatos = new ArrayList<>();
+        Class<?>[] tipos = method.getParameterTypes();
+        for (int i = 0; i < tipos.length; i++) {
+            if (tipos[i] == long.class || tipos[i].isAssignableFrom(Long.class) || tipos[i].isAssignableFrom(String.class)) {
+                candidatos.add(i);
+            }
+        }
+
+        return new MetadatosAuditoria(
+                String.format("Error en %s.%s", className, methodName),
+                modulo,
+                accion,
+                extraerAccion(methodName),
+                prefijoDescripcion(accion, entidad.toLowerCase()),
+                candidatos.stream().mapToInt(Integer::intValue).toArray(),
+                method.getReturnType() == void.class);
+    }
+
+    String getModulo() {
+        return modulo;
+    }
+
+    /**
+     * Acción de la operación auditada (según el mapeo HTTP o @Auditable)
+     */
+    String getAccion() {
+        return accion;
+    }
+
+    /**
+     * Acción registrada cuando el método lanza una excepción (deducida del nombre del método)
+     */
+    String getAccionError() {
+        return accionError;
+    }
+
+    String getDescripcionError() {
+        return descripcionError;
+    }
+
+    boolean isSinRetorno() {
+        return sinRetorno;
+    }
+
+    /**
+     * Descripción de la acción, con el primer argumento Long o String numérico como ID
+     */
+    String describir(Object[] args) {
+        if (args != null) {
+            for (int posicion : parametrosId) {
+                if (posicion >= args.length) {
+                    break;
+                }
+                Object arg = args[posicion];
+                if (arg instanceof Long || (arg instanceof String texto && esNumero(texto))) {
+                    return prefijoDescripcion + " (ID: " + arg + ")";
+                }
+            }
+        }
+        return prefijoDescripcion;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static String accionDelMapeo(Method method) {
+        if (method.isAnnotationPresent(PostMapping.class)) return "CREATE";
+        if (method.isAnnotationPresent(PutMapping.class)) return "UPDATE";
+        if (method.isAnnotationPresent(DeleteMapping.class)) return "DELETE";
+        if (method.isAnnotationPresent(GetMapping.class)) return esExportacion(method) ? "EXPORT" : "VIEW";
+        return extraerAccion(method.getName());
+    }
+
+    /**
+     * GET de exportación: el nombre del método o la ruta del mapeo contienen "export"
+     */
+    private static boolean esExportacion(Method method) {
+        if (method.getName().toLowerCase().contains("export")) {
+            return true;
+        }
+        GetMapping mapeo = method.getAnnotation(GetMapping.class);
+        for (String ruta : mapeo.value()) {
+            if (ruta.toLowerCase().contains("export")) return true;
+        }
+        for (String ruta : mapeo.path()) {
+            if (ruta.toLowerCase().contains("export")) return true;
+        }
+        return false;
+    }
+
+    private static String prefijoDescripcion(String accion, String entidad) {
+        return switch (accion) {
+            case "CREATE" -> "Creó nuevo " + entidad;
+            case "UPDATE" -> "Actualizó " + entidad;
+            case "DELETE" -> "Eliminó " + entidad;
+            case "EXPORT" -> "Exportó datos de " + entidad;
+            case "VIEW" -> "Consultó " + entidad;
+            default -> "Realizó acción en " + entidad;
+        };
+    }
+
+    /**
+     * Equivale a matches("\\d+") sin expresión regular
+     */
+    private static boolean esNumero(String texto) {
+        if (texto.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            if (!Character.isDigit(texto.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extrae el módulo basado en el nombre de la clase
+     */
+    static String extraerModulo(String className) {
+        String clase = className.toLowerCase();
+        if (clase.contains("contribuyente")) return "CONTRIBUYENTES";
+        if (clase.contains("retencion")) return "RETENCIONES";
+        if (clase.contains("comprobante")) return "COMPROBANTES";
+        if (clase.contains("impuesto")) return "IMPUESTOS";
+        if (clase.contains("declaracion")) return "DECLARACIONES";
+        if (clase.contains("personal")) return "PERSONAL";
+        if (clase.contains("rol")) return "ROLES";
+        if (clase.contains("usuario")) return "USUARIOS";
+        if (clase.contains("auditoria")) return "AUDITORIA";
+        return "SISTEMA";
+    }
+
+    /**
+     * Extrae la acción basada en el nombre del método
+     */
+    static String extraerAccion(String methodName) {
+        if (methodName.contains("crear") || methodName.contains("save") || methodName.contains("add")) return "CREATE";
+        if (methodName.contains("actualizar") || methodName.contains("update") || methodName.contains("edit")) return "UPDATE";
+        if (methodName.contains("eliminar") || methodName.contains("delete") || methodName.contains("remove")) return "DELETE";
+        if (methodName.contains("export")) return "EXPORT";
+        if (methodName.contains("mostrar") || methodName.contains("index")) return "VIEW";
+        return "ACTION";
+    }
+
+    /**
+     * Extrae el nombre de la entidad basado en el nombre de la clase
+     */
+    static String extraerEntidad(String className) {
+        String clase = className.toLowerCase();
+        if (clase.contains("contribuyente")) return "contribuyente";
+        if (clase.contains("retencion")) return "retención";
+        if (clase.contains("comprobante")) return "comprobante";
+        if (clase.contains("impuesto")) return "impuesto";
+        if (clase.contains("declaracion")) return "declaración";
+        if (clase.contains("personal")) return "empleado";
+        if (clase.contains("rol")) return "rol";
+        if (clase.contains("usuario")) return "usuario";
+        return "registro";
+    }
+}
@@ -18,7 +18,9 @@ import java.time.LocalDateTime;
 public class AuditoriaLog {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "auditoria_logs_id")
+    @TableGenerator(name = "auditoria_logs_id", table = "secuencias_id", pkColumnName = "nombre",
+            valueColumnName = "ultimo_id", pkColumnValue = "auditoria_logs", allocationSize = 50)
     private Long id;
     
     @Column(name = "usuario", nullable = false, length = 100)
@@ -49,29 +49,85 @@ public interface AuditoriaLogRepository extends JpaRepository<AuditoriaLog, Long
                                        @Param("termino") String termino,
                                        Pageable pageable);
     
-    // Estadísticas de actividad por usuario
-    @Query("SELECT a.usuario, COUNT(a) as total FROM AuditoriaLog a " +
-           "WHERE a.fechaHora >= :fechaInicio " +
-           "GROUP BY a.usuario ORDER BY total DESC")
-    List<Object[]> obtenerActividadPorUsuario(@Param("fechaInicio") LocalDateTime fechaInicio);
-    
-    // Estadísticas de actividad por módulo
-    @Query("SELECT a.modulo, COUNT(a) as total FROM AuditoriaLog a " +
-           "WHERE a.fechaHora >= :fechaInicio " +
-           "GROUP BY a.modulo ORDER BY total DESC")
-    List<Object[]> obtenerActividadPorModulo(@Param("fechaInicio") LocalDateTime fechaInicio);
-    
-    // Estadísticas de actividad por acción
-    @Query("SELECT a.accion, COUNT(a) as total FROM AuditoriaLog a " +
-           "WHERE a.fechaHora >= :fechaInicio " +
-           "GROUP BY a.accion ORDER BY total DESC")
-    List<Object[]> obtenerActividadPorAccion(@Param("fechaInicio") LocalDateTime fechaInicio);
-    
-    // Actividad por horas del día
-    @Query("SELECT HOUR(a.fechaHora) as hora, COUNT(a) as total FROM AuditoriaLog a " +
-           "WHERE a.fechaHora >= :fechaInicio " +
-           "GROUP BY HOUR(a.fechaHora) ORDER BY hora")
-    List<Object[]> obtenerActividadPorHora(@Param("fechaInicio") LocalDateTime fechaInicio);
+    // Búsqueda por término con el índice FULLTEXT de auditoria_busqueda (ver V39), ordenada por relevancia.
+    // :consulta es una expresión MATCH en modo booleano (AuditoriaBusquedaService.consultaTexto)
+    @Query(value = "SELECT a.* FROM auditoria_busqueda b " +
+                   "JOIN auditoria_logs a ON a.id = b.log_id AND a.fecha_hora = b.fecha_hora " +
+                   "WHERE MATCH(b.descripcion, b.entidad) AGAINST (:consulta IN BOOLEAN MODE) AND " +
+                   "(:usuario IS NULL OR LOWER(a.usuario) LIKE LOWER(CONCAT('%', :usuario, '%'))) AND " +
+                   "(:modulo IS NULL OR a.modulo = :modulo) AND " +
+                   "(:accion IS NULL OR a.accion = :accion) AND " +
+                   "(:fechaInicio IS NULL OR a.fecha_hora >= :fechaInicio) AND " +
+                   "(:fechaFin IS NULL OR a.fecha_hora <= :fechaFin) AND " +
+                   "(:ip IS NULL OR a.ip_address = :ip) " +
+                   "ORDER BY MATCH(b.descripcion, b.entidad) AGAINST (:consulta IN BOOLEAN MODE) DESC, a.fecha_hora DESC",
+           countQuery = "SELECT COUNT(*) FROM auditoria_busqueda b " +
+                        "JOIN auditoria_logs a ON a.id = b.log_id AND a.fecha_hora = b.fecha_hora " +
+                        "WHERE MATCH(b.descripcion, b.entidad) AGAINST (:consulta IN BOOLEAN MODE) AND " +
+                        "(:usuario IS NULL OR LOWER(a.usuario) LIKE LOWER(CONCAT('%', :usuario, '%'))) AND " +
+                        "(:modulo IS NULL OR a.modulo = :modulo) AND " +
+                        "(:accion IS NULL OR a.accion = :accion) AND " +
+                        "(:fechaInicio IS NULL OR a.fecha_hora >= :fechaInicio) AND " +
+                        "(:fechaFin IS NULL OR a.fecha_hora <= :fechaFin) AND " +
+                        "(:ip IS NULL OR a.ip_address = :ip)",
+           nativeQuery = true)
+    Page<AuditoriaLog> buscarPorTexto(@Param("consulta") String consulta,
+                                      @Param("usuario") String usuario,
+                                      @Param("modulo") String modulo,
+                                      @Param("accion") String accion,
+                                      @Param("fechaInicio") LocalDateTime fechaInicio,
+                                      @Param("fechaFin") LocalDateTime fechaFin,
+                                      @Param("ip") String ip,
+                                      Pageable pageable);
+    
+    // Misma búsqueda para exportación, keyset por (fechaHora, id) descendente: sin cursor (fecha e id null)
+    // devuelve la primera página; con cursor, los logs anteriores a esa posición. Sin conteo.
+    @Query("SELECT a FROM AuditoriaLog a WHERE " +
+           "(:usuario IS NULL OR LOWER(a.usuario) LIKE LOWER(CONCAT('%', :usuario, '%'))) AND " +
+           "(:modulo IS NULL OR a.modulo = :modulo) AND " +
+           "(:accion IS NULL OR a.accion = :accion) AND " +
+           "(:fechaInicio IS NULL OR a.fechaHora >= :fechaInicio) AND " +
+           "(:fechaFin IS NULL OR a.fechaHora <= :fechaFin) AND " +
+           "(:ip IS NULL OR a.ipAddress = :ip) AND " +
+           "(:termino IS NULL OR LOWER(a.descripcion) LIKE LOWER(CONCAT('%', :termino, '%')) OR " +
+           "                    LOWER(a.entidad) LIKE LOWER(CONCAT('%', :termino, '%'))) AND " +
+           "(:fecha IS NULL OR (a.fechaHora <= :fecha AND (a.fechaHora < :fecha OR a.id < :id))) " +
+           "ORDER BY a.fechaHora DESC, a.id DESC")
+    List<AuditoriaLog> buscarParaExportacion(@Param("usuario") String usuario,
+                                             @Param("modulo") String modulo,
+                                             @Param("accion") String accion,
+                                             @Param("fechaInicio") LocalDateTime fechaInicio,
+                                             @Param("fechaFin") LocalDateTime fechaFin,
+                                             @Param("ip") String ip,
+                                             @Param("termino") String termino,
+                                             @Param("fecha") LocalDateTime fecha,
+                                             @Param("id") Long id,
+                                             Pageable limite);
+
+    // Exportación con término: mismo predicado FULLTEXT que buscarPorTexto, pero en orden keyset
+    // por (fecha_hora, id) descendente en lugar de relevancia. Sin conteo.
+    @Query(value = "SELECT a.* FROM auditoria_busqueda b " +
+                   "JOIN auditoria_logs a ON a.id = b.log_id AND a.fecha_hora = b.fecha_hora " +
+                   "WHERE MATCH(b.descripcion, b.entidad) AGAINST (:consulta IN BOOLEAN MODE) AND " +
+                   "(:usuario IS NULL OR LOWER(a.usuario) LIKE LOWER(CONCAT('%', :usuario, '%'))) AND " +
+                   "(:modulo IS NULL OR a.modulo = :modulo) AND " +
+                   "(:accion IS NULL OR a.accion = :accion) AND " +
+                   "(:fechaInicio IS NULL OR a.fecha_hora >= :fechaInicio) AND " +
+                   "(:fechaFin IS NULL OR a.fecha_hora <= :fechaFin) AND " +
+                   "(:ip IS NULL OR a.ip_address = :ip) AND " +
+                   "(:fecha IS NULL OR (a.fecha_hora <= :fecha AND (a.fecha_hora < :fecha OR a.id < :id))) " +
+                   "ORDER BY a.fecha_hora DESC, a.id DESC",
+           nativeQuery = true)
+    List<AuditoriaLog> buscarPorTextoParaExportacion(@Param("consulta") String consulta,
+                                                     @Param("usuario") String usuario,
+                                                     @Param("modulo") String modulo,
+                                                     @Param("accion") String accion,
+                                                     @Param("fechaInicio") LocalDateTime fechaInicio,
+                                                     @Param("fechaFin") LocalDateTime fechaFin,
+                                                     @Param("ip") String ip,
+                                                     @Param("fecha") LocalDateTime fecha,
+                                                     @Param("id") Long id,
+                                                     Pageable limite);
     
     // Logs de errores
     @Query("SELECT a FROM AuditoriaLog a WHERE a.resultado = 'ERROR' " +
@@ -83,22 +139,15 @@ public interface AuditoriaLogRepository extends JpaRepository<AuditoriaLog, Long
            "ORDER BY a.fechaHora DESC")
     Page<AuditoriaLog> obtenerUltimosLogsPorUsuario(@Param("usuario") String usuario, Pageable pageable);
     
-    // Contar logs por día
-    @Query("SELECT DATE(a.fechaHora) as fecha, COUNT(a) as total FROM AuditoriaLog a " +
-           "WHERE a.fechaHora >= :fechaInicio " +
-           "GROUP BY DATE(a.fechaHora) ORDER BY fecha DESC")
-    List<Object[]> contarLogsPorDia(@Param("fechaInicio") LocalDateTime fechaInicio);
-    
-    // Estadísticas generales
-    @Query("SELECT COUNT(a) FROM AuditoriaLog a")
-    Long contarTotalLogs();
-    
-    @Query("SELECT COUNT(DISTINCT a.usuario) FROM AuditoriaLog a WHERE a.fechaHora >= :fechaInicio")
-    Long contarUsuariosActivos(@Param("fechaInicio") LocalDateTime fechaInicio);
-    
-    @Query("SELECT COUNT(a) FROM AuditoriaLog a WHERE a.fechaHora >= :fechaInicio")
-    Long contarLogsRecientes(@Param("fechaInicio") LocalDateTime fechaInicio);
-    
-    @Query("SELECT COUNT(a) FROM AuditoriaLog a WHERE a.resultado = 'ERROR' AND a.fechaHora >= :fechaInicio")
-    Long contarErroresRecientes(@Param("fechaInicio") LocalDateTime fechaInicio);
+    // Paginación keyset por (fechaHora, id): primera página, más antiguos y más recientes que el cursor
+    @Query("SELECT a FROM AuditoriaLog a ORDER BY a.fechaHora DESC, a.id DESC")
+    List<AuditoriaLog> findPrimerosKeyset(Pageable limite);
+
+    @Query("SELECT a FROM AuditoriaLog a WHERE a.fechaHora <= :fecha AND (a.fechaHora < :fecha OR a.id < :id) " +
+           "ORDER BY a.fechaHora DESC, a.id DESC")
+    List<AuditoriaLog> findSiguientesKeyset(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
+
+    @Query("SELECT a FROM AuditoriaLog a WHERE a.fechaHora >= :fecha AND (a.fechaHora > :fecha OR a.id > :id) " +
+           "ORDER BY a.fechaHora ASC, a.id ASC")
+    List<AuditoriaLog> findAnterioresKeyset(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
 }
@@ -0,0 +1,180 @@
+package com.example.demo.auditoria.service;
+
+import com.example.demo.auditoria.model.AuditoriaLog;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Resumen horario de actividad de auditoría (tabla auditoria_actividad_hora).
+ * AuditoriaLogWriter acumula cada lote escrito dentro de su propia transacción y las
+ * estadísticas se leen de aquí, así que su costo depende de la cantidad de horas y
+ * combinaciones usuario/módulo/acción, no de la cantidad de logs.
+ * La granularidad es la hora: los rangos se toman desde el inicio de la hora de la fecha indicada.
+ */
+@Service
+public class AuditoriaActividadService {
+
+    private static final String SQL_ACUMULAR =
+            "INSERT INTO auditoria_actividad_hora (hora, usuario, modulo, accion, resultado, total) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE total = total + VALUES(total)";
+
+    private static final String SQL_TOTAL = "SELECT COALESCE(SUM(total), 0) FROM auditoria_actividad_hora";
+
+    private static final String SQL_TOTAL_DESDE =
+            "SELECT COALESCE(SUM(total), 0) FROM auditoria_actividad_hora WHERE hora >= ?";
+
+    private static final String SQL_ERRORES_DESDE =
+            "SELECT COALESCE(SUM(total), 0) FROM auditoria_actividad_hora WHERE hora >= ? AND resultado = 'ERROR'";
+
+    private static final String SQL_USUARIOS_DESDE =
+            "SELECT COUNT(DISTINCT usuario) FROM auditoria_actividad_hora WHERE hora >= ?";
+
+    private static final String SQL_POR_USUARIO =
+            "SELECT usuario, SUM(total) AS total FROM auditoria_actividad_hora WHERE hora >= ? " +
+            "GROUP BY usuario ORDER BY total DESC";
+
+    private static final String SQL_POR_MODULO =
+            "SELECT modulo, SUM(total) AS total FROM auditoria_actividad_hora WHERE hora >= ? " +
+            "GROUP BY modulo ORDER BY total DESC";
+
+    private static final String SQL_POR_ACCION =
+            "SELECT accion, SUM(total) AS total FROM auditoria_actividad_hora WHERE hora >= ? " +
+            "GROUP BY accion ORDER BY total DESC";
+
+    private static final String SQL_POR_HORA_DEL_DIA =
+            "SELECT HOUR(hora) AS hora_dia, SUM(total) AS total FROM auditoria_actividad_hora WHERE hora >= ? " +
+            "GROUP BY HOUR(hora) ORDER BY hora_dia";
+
+    private static final String SQL_POR_DIA =
+            "SELECT DATE(hora) AS fecha, SUM(total) AS total FROM auditoria_actividad_hora WHERE hora >= ? " +
+            "GROUP BY DATE(hora) ORDER BY fecha DESC";
+
+    // Igual que hibernate.jdbc.time_zone y AuditoriaLogWriter, para que la hora coincida con fecha_hora
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    // Mismo orden de claves en todos los lotes para que las escrituras concurrentes no se bloqueen mutuamente
+    private static final Comparator<Clave> ORDEN_CLAVES = Comparator.comparing(Clave::hora)
+            .thenComparing(Clave::usuario)
+            .thenComparing(Clave::modulo)
+            .thenComparing(Clave::accion)
+            .thenComparing(Clave::resultado);
+
+    private static final RowMapper<Object[]> TEXTO_Y_TOTAL = (rs, i) -> new Object[]{rs.getString(1), rs.getLong(2)};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditoriaActividadService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // ==================== ACTUALIZACIÓN INCREMENTAL ====================
+
+    /**
+     * Suma los logs al resumen. Participa de la transacción activa: debe llamarse en la misma
+     * transacción que inserta los logs para que el resumen no se desvíe si se revierte.
+     */
+    public void acumular(List<AuditoriaLog> logs) {
+        Map<Clave, Long> conteos = new HashMap<>();
+        for (AuditoriaLog auditoriaLog : logs) {
+            Clave clave = new Clave(auditoriaLog.getFechaHora().truncatedTo(ChronoUnit.HOURS),
+                    auditoriaLog.getUsuario(), auditoriaLog.getModulo(), auditoriaLog.getAccion(),
+                    auditoriaLog.getResultado() != null ? auditoriaLog.getResultado() : "");
+            conteos.merge(clave, 1L, Long::sum);
+        }
+        if (conteos.isEmpty()) {
+            return;
+        }
+
+        List<Clave> claves = new ArrayList<>(conteos.keySet());
+        claves.sort(ORDEN_CLAVES);
+        jdbcTemplate.batchUpdate(SQL_ACUMULAR, claves, claves.size(), (ps, clave) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(clave.hora()), Calendar.getInstance(ZONA_JDBC));
+            ps.setString(2, clave.usuario());
+            ps.setString(3, clave.modulo());
+            ps.setString(4, clave.accion());
+            ps.setString(5, clave.resultado());
+            ps.setLong(6, conteos.get(clave));
+        });
+    }
+
+    // ==================== LECTURA ====================
+
+    public long contarTotal() {
+        Long total = jdbcTemplate.queryForObject(SQL_TOTAL, Long.class);
+        return total != null ? total : 0L;
+    }
+
+    public long contarDesde(LocalDateTime desde) {
+        return contar(SQL_TOTAL_DESDE, desde);
+    }
+
+    public long contarErroresDesde(LocalDateTime desde) {
+        return contar(SQL_ERRORES_DESDE, desde);
+    }
+
+    public long contarUsuariosActivos(LocalDateTime desde) {
+        return contar(SQL_USUARIOS_DESDE, desde);
+    }
+
+    /**
+     * Filas [usuario, total] ordenadas por total descendente
+     */
+    public List<Object[]> actividadPorUsuario(LocalDateTime desde) {
+        return consultar(SQL_POR_USUARIO, desde, TEXTO_Y_TOTAL);
+    }
+
+    /**
+     * Filas [modulo, total] ordenadas por total descendente
+     */
+    public List<Object[]> actividadPorModulo(LocalDateTime desde) {
+        return consultar(SQL_POR_MODULO, desde, TEXTO_Y_TOTAL);
+    }
+
+    /**
+     * Filas [accion, total] ordenadas por total descendente
+     */
+    public List<Object[]> actividadPorAccion(LocalDateTime desde) {
+        return consultar(SQL_POR_ACCION, desde, TEXTO_Y_TOTAL);
+    }
+
+    /**
+     * Filas [hora del día (0-23), total] ordenadas por hora
+     */
+    public List<Object[]> actividadPorHora(LocalDateTime desde) {
+        return consultar(SQL_POR_HORA_DEL_DIA, desde, (rs, i) -> new Object[]{rs.getInt(1), rs.getLong(2)});
+    }
+
+    /**
+     * Filas [fecha, total] del día más reciente al más antiguo
+     */
+    public List<Object[]> contarLogsPorDia(LocalDateTime desde) {
+        return consultar(SQL_POR_DIA, desde, (rs, i) -> new Object[]{rs.getDate(1).toLocalDate(), rs.getLong(2)});
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private long contar(String sql, LocalDateTime desde) {
+        List<Long> valores = consultar(sql, desde, (rs, i) -> rs.getLong(1));
+        return valores.isEmpty() ? 0L : valores.get(0);
+    }
+
+    private <T> List<T> consultar(String sql, LocalDateTime desde, RowMapper<T> mapeo) {
+        Timestamp inicio = Timestamp.valueOf(desde.truncatedTo(ChronoUnit.HOURS));
+        return jdbcTemplate.query(sql, ps -> ps.setTimestamp(1, inicio, Calendar.getInstance(ZONA_JDBC)), mapeo);
+    }
+
+    private record Clave(LocalDateTime hora, String usuario, String modulo, String accion, String resultado) {
+    }
+}
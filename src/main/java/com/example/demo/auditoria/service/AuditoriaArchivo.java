@@ -0,0 +1,233 @@
+package com.example.demo.auditoria.service;
+
+import com.example.demo.auditoria.model.AuditoriaLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archivo en disco de los logs de auditoría retirados de la base de datos.
+ * Cada mes se guarda en un archivo auditoria-AAAA-MM.ndjson.gz con un log JSON por línea,
+ * del más reciente al más antiguo (fecha y id descendentes, el orden del listado).
+ * El archivo se escribe en un temporal y se mueve al terminar, así que un mes
+ * presente en el directorio siempre está completo.
+ * Los conteos por filtro de cada mes se recuerdan (por mes, versión del archivo y filtro),
+ * de modo que paginar una búsqueda no vuelve a descomprimir los meses ya contados.
+ */
+@Component
+@Slf4j
+public class AuditoriaArchivo {
+
+    private static final String PREFIJO = "auditoria-";
+    private static final String EXTENSION = ".ndjson.gz";
+    private static final int MAXIMO_CONTEOS = 2000;
+
+    private final Path directorio;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter escritorJson;
+
+    // Orden de acceso: al llenarse se descarta el conteo usado hace más tiempo
+    private final Map<String, Long> conteos = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> mayor) {
+                    return size() > MAXIMO_CONTEOS;
+                }
+            });
+
+    public AuditoriaArchivo(ObjectMapper objectMapper,
+                            @Value("${auditoria.archivo.directorio:./archivo/auditoria}") String directorio) {
+        this.directorio = Paths.get(directorio).toAbsolutePath().normalize();
+        this.objectMapper = objectMapper;
+        this.escritorJson = objectMapper.writerFor(AuditoriaLog.class);
+    }
+
+    /**
+     * Meses archivados, del más antiguo al más reciente
+     */
+    public NavigableSet<YearMonth> mesesArchivados() {
+        if (!Files.isDirectory(directorio)) {
+            return Collections.emptyNavigableSet();
+        }
+        NavigableSet<YearMonth> meses = new TreeSet<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, PREFIJO + "*" + EXTENSION)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                try {
+                    meses.add(YearMonth.parse(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length())));
+                } catch (DateTimeParseException e) {
+                    log.warn("Archivo de auditoría con nombre no reconocido: {}", nombre);
+                }
+            }
+        } catch (IOException e) {
+            log.error("No se pudo listar el archivo de auditoría {}: {}", directorio, e.getMessage());
+        }
+        return meses;
+    }
+
+    /**
+     * Abre la escritura de un mes; si ya estaba archivado se reemplaza al confirmar
+     */
+    public Escritura escribir(YearMonth mes) throws IOException {
+        Files.createDirectories(directorio);
+        return new Escritura(mes);
+    }
+
+    /**
+     * Recorre los logs archivados de un mes en el orden en que se escribieron
+     */
+    public void leer(YearMonth mes, Consumer<AuditoriaLog> consumidor) throws IOException {
+        recorrer(mes, auditoriaLog -> {
+            consumidor.accept(auditoriaLog);
+            return true;
+        });
+    }
+
+    /**
+     * Los primeros logs del mes que cumplen el filtro (del más reciente al más antiguo), hasta limite.
+     * Deja de descomprimir al llegar al límite; si llegó al final del mes recuerda la cantidad para conteoConocido.
+     */
+    public Coincidencias coincidentes(YearMonth mes, String claveFiltro, Predicate<AuditoriaLog> filtro, long limite)
+            throws IOException {
+        String clave = claveConteo(mes, claveFiltro);
+        List<AuditoriaLog> coincidentes = new ArrayList<>();
+        boolean completo = recorrer(mes, auditoriaLog -> {
+            if (filtro.test(auditoriaLog)) {
+                coincidentes.add(auditoriaLog);
+            }
+            return coincidentes.size() < limite;
+        });
+        if (completo && clave != null) {
+            conteos.put(clave, (long) coincidentes.size());
+        }
+        return new Coincidencias(coincidentes, completo);
+    }
+
+    /**
+     * Cantidad de logs del mes que cumplen el filtro si ya se leyó con la versión actual del archivo; null si no
+     */
+    public Long conteoConocido(YearMonth mes, String claveFiltro) {
+        try {
+            String clave = claveConteo(mes, claveFiltro);
+            return clave != null ? conteos.get(clave) : Long.valueOf(0);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Logs coincidentes leídos; completo es false si la lectura se cortó en el límite (puede haber más)
+     */
+    public record Coincidencias(List<AuditoriaLog> logs, boolean completo) {
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Lee el mes línea por línea mientras seguir devuelva true; devuelve true si llegó al final
+     */
+    private boolean recorrer(YearMonth mes, Predicate<AuditoriaLog> seguir) throws IOException {
+        Path archivo = archivoDe(mes);
+        if (!Files.exists(archivo)) {
+            return true;
+        }
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archivo), 64 * 1024), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (!linea.isEmpty() && !seguir.test(objectMapper.readValue(linea, AuditoriaLog.class))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private Path archivoDe(YearMonth mes) {
+        return directorio.resolve(PREFIJO + mes + EXTENSION);
+    }
+
+    /**
+     * Mes, tamaño y fecha de modificación del archivo y filtro; null si el mes no está archivado.
+     * Si el mes se vuelve a archivar cambia la clave y el conteo anterior deja de usarse.
+     */
+    private String claveConteo(YearMonth mes, String claveFiltro) throws IOException {
+        Path archivo = archivoDe(mes);
+        if (!Files.exists(archivo)) {
+            return null;
+        }
+        return mes + "|" + Files.size(archivo) + "|" + Files.getLastModifiedTime(archivo).toMillis() + "|" + claveFiltro;
+    }
+
+    /**
+     * Escritura de un mes sobre un archivo temporal; confirmar() lo publica con un movimiento atómico
+     * y close() sin confirmar lo descarta
+     */
+    public final class Escritura implements Closeable {
+
+        private final YearMonth mes;
+        private final Path temporal;
+        private final BufferedWriter escritor;
+        private long escritos;
+        private boolean confirmada;
+
+        private Escritura(YearMonth mes) throws IOException {
+            this.mes = mes;
+            this.temporal = Files.createTempFile(directorio, PREFIJO + mes + "-", ".tmp");
+            this.escritor = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temporal), 64 * 1024), StandardCharsets.UTF_8));
+        }
+
+        public void agregar(AuditoriaLog auditoriaLog) throws IOException {
+            escritor.write(escritorJson.writeValueAsString(auditoriaLog));
+            escritor.newLine();
+            escritos++;
+        }
+
+        public long getEscritos() {
+            return escritos;
+        }
+
+        public void confirmar() throws IOException {
+            escritor.close();
+            Files.move(temporal, archivoDe(mes), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            confirmada = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!confirmada) {
+                escritor.close();
+                Files.deleteIfExists(temporal);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.auditoria.service;
+
+import com.example.demo.auditoria.model.AuditoriaLog;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Índice de texto completo de los logs de auditoría (tabla auditoria_busqueda).
+ * MySQL no admite índices FULLTEXT en tablas particionadas, así que descripción y entidad
+ * se copian a una tabla sin particionar con índice FULLTEXT. AuditoriaLogWriter la alimenta
+ * en la misma transacción que inserta los logs y AuditoriaRetencionJob elimina las filas
+ * de las particiones archivadas.
+ */
+@Service
+public class AuditoriaBusquedaService {
+
+    /**
+     * Largo mínimo de palabra indexada (innodb_ft_min_token_size por defecto)
+     */
+    public static final int LARGO_MINIMO_PALABRA = 3;
+
+    private static final int MAXIMO_PALABRAS = 10;
+
+    private static final String SQL_INDEXAR =
+            "INSERT INTO auditoria_busqueda (log_id, fecha_hora, descripcion, entidad) VALUES (?, ?, ?, ?)";
+
+    private static final String SQL_ELIMINAR_HASTA =
+            "DELETE FROM auditoria_busqueda WHERE fecha_hora < ? LIMIT ?";
+
+    // Igual que hibernate.jdbc.time_zone y AuditoriaLogWriter
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditoriaBusquedaService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Indexa los logs ya insertados (con id asignado) que tengan descripción o entidad.
+     * Participa de la transacción activa.
+     */
+    public void indexar(List<AuditoriaLog> logs) {
+        List<AuditoriaLog> conTexto = new ArrayList<>(logs.size());
+        for (AuditoriaLog auditoriaLog : logs) {
+            if (auditoriaLog.getId() != null && (auditoriaLog.getDescripcion() != null || auditoriaLog.getEntidad() != null)) {
+                conTexto.add(auditoriaLog);
+            }
+        }
+        if (conTexto.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INDEXAR, conTexto, conTexto.size(), (ps, auditoriaLog) -> {
+            ps.setLong(1, auditoriaLog.getId());
+            ps.setTimestamp(2, Timestamp.valueOf(auditoriaLog.getFechaHora()), Calendar.getInstance(ZONA_JDBC));
+            ps.setString(3, auditoriaLog.getDescripcion());
+            ps.setString(4, auditoriaLog.getEntidad());
+        });
+    }
+
+    /**
+     * Elimina por lotes las filas anteriores a la fecha y devuelve la cantidad eliminada.
+     * Los límites se envían como LocalDateTime, igual que los de las particiones de auditoria_logs.
+     */
+    public long eliminarHasta(LocalDateTime hasta, int tamanoLote) {
+        long eliminadas = 0;
+        int lote;
+        do {
+            lote = jdbcTemplate.update(SQL_ELIMINAR_HASTA, hasta, tamanoLote);
+            eliminadas += lote;
+        } while (lote == tamanoLote);
+        return eliminadas;
+    }
+
+    /**
+     * Convierte el término de búsqueda en una consulta MATCH ... AGAINST en modo booleano:
+     * todas las palabras son obligatorias y se buscan como prefijo ("+pago* +anulado*").
+     * Devuelve null si no queda ninguna palabra indexable; en ese caso se busca con LIKE.
+     */
+    public static String consultaTexto(String termino) {
+        if (termino == null) {
+            return null;
+        }
+        StringBuilder consulta = new StringBuilder();
+        StringBuilder palabra = new StringBuilder();
+        int palabras = 0;
+        for (int i = 0; i <= termino.length() && palabras < MAXIMO_PALABRAS; i++) {
+            char c = i < termino.length() ? termino.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                palabra.append(Character.toLowerCase(c));
+                continue;
+            }
+            // Los operadores del modo booleano (+ - * " ...) actúan como separadores
+            if (palabra.length() >= LARGO_MINIMO_PALABRA) {
+                consulta.append(consulta.isEmpty() ? "+" : " +").append(palabra).append('*');
+                palabras++;
+            }
+            palabra.setLength(0);
+        }
+        return consulta.isEmpty() ? null : consulta.toString();
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.demo.auditoria.service;
+
+import com.example.demo.auditoria.model.AuditoriaLog;
+import com.example.demo.numeracion.service.IdentificadorService;
+import com.example.demo.personal.service.PersonalIdentidadCache;
+import com.example.demo.personal.service.PersonalIdentidadCache.IdentidadPersonal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritor asíncrono de logs de auditoría.
+ * Los logs se encolan desde la request y un hilo de fondo los persiste
+ * en lotes JDBC, por tamaño de lote o por intervalo de tiempo. Cada lote actualiza
+ * también el resumen horario de actividad (AuditoriaActividadService) y el índice
+ * de texto completo (AuditoriaBusquedaService).
+ */
+@Component
+@Slf4j
+public class AuditoriaLogWriter {
+
+    private static final String SQL_INSERT =
+            "INSERT INTO auditoria_logs (id, usuario, cedula_personal, accion, modulo, entidad, entidad_id, " +
+            "descripcion, valores_anteriores, valores_nuevos, ip_address, user_agent, session_id, " +
+            "fecha_hora, resultado, mensaje_error) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Misma secuencia que el @TableGenerator de AuditoriaLog
+    private static final String SECUENCIA_ID = "auditoria_logs";
+
+    private static final String USUARIO_SISTEMA = "SISTEMA";
+
+    // Igual que hibernate.jdbc.time_zone, para que las fechas coincidan con las escritas por JPA
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PersonalIdentidadCache personalIdentidadCache;
+    private final IdentificadorService identificadorService;
+    private final AuditoriaActividadService auditoriaActividadService;
+    private final AuditoriaBusquedaService auditoriaBusquedaService;
+
+    private final BlockingQueue<Pendiente> cola;
+    private final int tamanoLote;
+    private final long intervaloMs;
+    private final long esperaEncolarMs;
+    private final boolean sincronoSiLleno;
+
+    private final Timer tiempoFlush;
+    private final Counter escritos;
+    private final Counter descartados;
+    private final Counter sincronos;
+
+    private volatile boolean activo = true;
+    private Thread hiloEscritor;
+
+    public AuditoriaLogWriter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              PersonalIdentidadCache personalIdentidadCache,
+                              IdentificadorService identificadorService,
+                              AuditoriaActividadService auditoriaActividadService,
+                              AuditoriaBusquedaService auditoriaBusquedaService,
+                              MeterRegistry meterRegistry,
+                              @Value("${auditoria.writer.capacidad:10000}") int capacidad,
+                              @Value("${auditoria.writer.tamano-lote:200}") int tamanoLote,
+                              @Value("${auditoria.writer.intervalo-ms:1000}") long intervaloMs,
+                              @Value("${auditoria.writer.espera-encolar-ms:20}") long esperaEncolarMs,
+                              @Value("${auditoria.writer.sincrono-si-lleno:true}") boolean sincronoSiLleno) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.personalIdentidadCache = personalIdentidadCache;
+        this.identificadorService = identificadorService;
+        this.auditoriaActividadService = auditoriaActividadService;
+        this.auditoriaBusquedaService = auditoriaBusquedaService;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.tamanoLote = tamanoLote;
+        this.intervaloMs = intervaloMs;
+        this.esperaEncolarMs = esperaEncolarMs;
+        this.sincronoSiLleno = sincronoSiLleno;
+
+        Gauge.builder("auditoria.writer.cola", cola, BlockingQueue::size)
+                .description("Logs de auditoría pendientes de escribir")
+                .register(meterRegistry);
+        this.tiempoFlush = Timer.builder("auditoria.writer.flush")
+                .description("Duración de cada escritura por lotes")
+                .register(meterRegistry);
+        this.escritos = Counter.builder("auditoria.writer.escritos").register(meterRegistry);
+        this.descartados = Counter.builder("auditoria.writer.descartados").register(meterRegistry);
+        this.sincronos = Counter.builder("auditoria.writer.sincronos")
+                .description("Logs escritos en el hilo de la request por cola llena")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        hiloEscritor = new Thread(this::ejecutar, "auditoria-writer");
+        hiloEscritor.setDaemon(true);
+        hiloEscritor.start();
+    }
+
+    /**
+     * Drena la cola antes de cerrar el contexto
+     */
+    @PreDestroy
+    public void detener() {
+        // Sin interrumpir: el hilo termina el lote en curso y sale en el siguiente poll
+        activo = false;
+        try {
+            hiloEscritor.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Pendiente> restantes = new ArrayList<>();
+        cola.drainTo(restantes);
+        if (!restantes.isEmpty()) {
+            log.info("Escribiendo {} logs de auditoría pendientes antes de cerrar", restantes.size());
+            escribir(restantes);
+        }
+    }
+
+    /**
+     * Encola un log para escritura asíncrona.
+     * Si la cola está llena se escribe en el hilo actual o se descarta, según configuración.
+     */
+    public void encolar(AuditoriaLog auditoriaLog, boolean resolverCedula) {
+        if (auditoriaLog.getFechaHora() == null) {
+            auditoriaLog.setFechaHora(LocalDateTime.now());
+        }
+        Pendiente pendiente = new Pendiente(auditoriaLog, resolverCedula);
+
+        try {
+            if (activo && cola.offer(pendiente, esperaEncolarMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (sincronoSiLleno || !activo) {
+            sincronos.increment();
+            escribir(List.of(pendiente));
+        } else {
+            descartados.increment();
+            log.warn("Cola de auditoría llena, log descartado: {} {}", auditoriaLog.getAccion(), auditoriaLog.getModulo());
+        }
+    }
+
+    /**
+     * Cantidad de logs pendientes en la cola
+     */
+    public int getPendientes() {
+        return cola.size();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void ejecutar() {
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        long ultimoFlush = System.currentTimeMillis();
+
+        while (activo) {
+            try {
+                Pendiente pendiente = cola.poll(intervaloMs, TimeUnit.MILLISECONDS);
+                if (pendiente != null) {
+                    lote.add(pendiente);
+                    cola.drainTo(lote, tamanoLote - lote.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            long ahora = System.currentTimeMillis();
+            if (lote.size() >= tamanoLote || (!lote.isEmpty() && ahora - ultimoFlush >= intervaloMs)) {
+                escribir(lote);
+                lote.clear();
+                ultimoFlush = ahora;
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            escribir(lote);
+        }
+    }
+
+    private void escribir(List<Pendiente> lote) {
+        tiempoFlush.record(() -> {
+            resolverCedulas(lote);
+            try {
+                // El resumen horario y el índice de texto se actualizan en la misma transacción que los logs
+                transactionTemplate.executeWithoutResult(status -> insertar(lote.stream().map(Pendiente::log).toList()));
+                escritos.increment(lote.size());
+            } catch (Exception e) {
+                log.error("Error en escritura por lotes de auditoría, reintentando fila por fila: {}", e.getMessage());
+                escribirIndividualmente(lote);
+            }
+        });
+    }
+
+    /**
+     * Reintento fila por fila para que un registro inválido no descarte el lote completo
+     */
+    private void escribirIndividualmente(List<Pendiente> lote) {
+        for (Pendiente pendiente : lote) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertar(List.of(pendiente.log())));
+                escritos.increment();
+            } catch (Exception e) {
+                descartados.increment();
+                log.error("Log de auditoría descartado ({} {}): {}",
+                        pendiente.log().getAccion(), pendiente.log().getModulo(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Asigna los ids que falten, inserta los logs y actualiza el resumen y el índice de texto.
+     * Debe ejecutarse dentro de una transacción.
+     */
+    private void insertar(List<AuditoriaLog> logs) {
+        asignarIds(logs);
+        jdbcTemplate.batchUpdate(SQL_INSERT, logs, logs.size(), this::asignarParametros);
+
+        auditoriaActividadService.acumular(logs);
+        auditoriaBusquedaService.indexar(logs);
+    }
+
+    /**
+     * Reserva un rango de ids para los logs que aún no tienen. En el reintento fila por fila
+     * los logs conservan el id del lote fallido, que quedó libre al revertirse la transacción.
+     */
+    private void asignarIds(List<AuditoriaLog> logs) {
+        List<AuditoriaLog> sinId = logs.stream().filter(auditoriaLog -> auditoriaLog.getId() == null).toList();
+        if (sinId.isEmpty()) {
+            return;
+        }
+        long id = identificadorService.reservar(SECUENCIA_ID, sinId.size());
+        for (AuditoriaLog auditoriaLog : sinId) {
+            auditoriaLog.setId(id++);
+        }
+    }
+
+    /**
+     * Resuelve la cédula del personal desde la caché de identidad (una consulta por lote en los fallos)
+     */
+    private void resolverCedulas(List<Pendiente> lote) {
+        Set<String> usernames = new HashSet<>();
+        for (Pendiente pendiente : lote) {
+            String usuario = pendiente.log().getUsuario();
+            if (pendiente.resolverCedula() && pendiente.log().getCedulaPersonal() == null
+                    && usuario != null && !USUARIO_SISTEMA.equals(usuario)) {
+                usernames.add(usuario);
+            }
+        }
+        if (usernames.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, IdentidadPersonal> identidades = personalIdentidadCache.resolver(usernames);
+            for (Pendiente pendiente : lote) {
+                IdentidadPersonal identidad = identidades.get(pendiente.log().getUsuario());
+                if (pendiente.resolverCedula() && pendiente.log().getCedulaPersonal() == null && identidad != null) {
+                    pendiente.log().setCedulaPersonal(identidad.cedula());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo obtener la cédula del personal para el lote de auditoría: {}", e.getMessage());
+        }
+    }
+
+    private void asignarParametros(PreparedStatement ps, AuditoriaLog auditoriaLog) throws SQLException {
+        ps.setLong(1, auditoriaLog.getId());
+        ps.setString(2, auditoriaLog.getUsuario());
+        ps.setString(3, auditoriaLog.getCedulaPersonal());
+        ps.setString(4, auditoriaLog.getAccion());
+        ps.setString(5, auditoriaLog.getModulo());
+        ps.setString(6, auditoriaLog.getEntidad());
+        if (auditoriaLog.getEntidadId() != null) {
+            ps.setLong(7, auditoriaLog.getEntidadId());
+        } else {
+            ps.setNull(7, Types.BIGINT);
+        }
+        ps.setString(8, auditoriaLog.getDescripcion());
+        ps.setString(9, auditoriaLog.getValoresAnteriores());
+        ps.setString(10, auditoriaLog.getValoresNuevos());
+        ps.setString(11, auditoriaLog.getIpAddress());
+        ps.setString(12, auditoriaLog.getUserAgent());
+        ps.setString(13, auditoriaLog.getSessionId());
+        ps.setTimestamp(14, Timestamp.valueOf(auditoriaLog.getFechaHora()), Calendar.getInstance(ZONA_JDBC));
+        ps.setString(15, auditoriaLog.getResultado());
+        ps.setString(16, auditoriaLog.getMensajeError());
+    }
+
+    private record Pendiente(AuditoriaLog log, boolean resolverCedula) {
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.demo.auditoria.service;
+
+import com.example.demo.auditoria.model.AuditoriaLog;
+import com.example.demo.programacion.service.ParticionesMensuales;
+import com.example.demo.programacion.service.ParticionesMensuales.Particion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Retención de auditoria_logs por particiones mensuales.
+ * Mantiene creadas las particiones de los próximos meses y, para cada partición
+ * anterior al horizonte de meses activos, archiva sus logs en AuditoriaArchivo y
+ * la elimina con DROP PARTITION. Entre instancias se serializa con GET_LOCK.
+ */
+@Component
+@Slf4j
+public class AuditoriaRetencionJob {
+
+    private static final String TABLA = "auditoria_logs";
+    private static final String NOMBRE_BLOQUEO = "auditoria_retencion";
+
+    private static final String SQL_MINIMA_FECHA =
+            "SELECT MIN(fecha_hora) FROM auditoria_logs WHERE fecha_hora < ?";
+
+    private static final String SQL_LOTE =
+            "SELECT id, usuario, cedula_personal, accion, modulo, entidad, entidad_id, descripcion, " +
+            "valores_anteriores, valores_nuevos, ip_address, user_agent, session_id, fecha_hora, resultado, " +
+            "mensaje_error FROM auditoria_logs WHERE fecha_hora >= ? AND fecha_hora < ? AND " +
+            "(fecha_hora < ? OR (fecha_hora = ? AND id < ?)) " +
+            "ORDER BY fecha_hora DESC, id DESC LIMIT ?";
+
+    // Igual que hibernate.jdbc.time_zone
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ParticionesMensuales particionesMensuales;
+    private final AuditoriaArchivo auditoriaArchivo;
+    private final AuditoriaBusquedaService auditoriaBusquedaService;
+    private final boolean habilitada;
+    private final int mesesActivos;
+    private final int mesesAdelantados;
+    private final int tamanoLote;
+
+    private final Timer tiempoRetencion;
+    private final Counter logsArchivados;
+    private final Counter particionesEliminadas;
+
+    public AuditoriaRetencionJob(JdbcTemplate jdbcTemplate,
+                                 ParticionesMensuales particionesMensuales,
+                                 AuditoriaArchivo auditoriaArchivo,
+                                 AuditoriaBusquedaService auditoriaBusquedaService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${auditoria.retencion.habilitada:true}") boolean habilitada,
+                                 @Value("${auditoria.retencion.meses-activos:12}") int mesesActivos,
+                                 @Value("${auditoria.retencion.meses-adelantados:3}") int mesesAdelantados,
+                                 @Value("${auditoria.retencion.tamano-lote:5000}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.particionesMensuales = particionesMensuales;
+        this.auditoriaArchivo = auditoriaArchivo;
+        this.auditoriaBusquedaService = auditoriaBusquedaService;
+        this.habilitada = habilitada;
+        this.mesesActivos = Math.max(1, mesesActivos);
+        this.mesesAdelantados = Math.max(1, mesesAdelantados);
+        this.tamanoLote = tamanoLote;
+
+        this.tiempoRetencion = Timer.builder("auditoria.retencion")
+                .description("Duración de cada ejecución de la retención de auditoría")
+                .register(meterRegistry);
+        this.logsArchivados = Counter.builder("auditoria.retencion.archivados")
+                .description("Logs de auditoría movidos al archivo en disco")
+                .register(meterRegistry);
+        this.particionesEliminadas = Counter.builder("auditoria.retencion.particiones")
+                .description("Particiones mensuales archivadas y eliminadas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Al arrancar solo se aseguran las particiones futuras; el archivado queda para el horario programado
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (!habilitada) {
+            return;
+        }
+        try {
+            conBloqueo(() -> asegurarParticionesFuturas(particionesMensuales.leer(TABLA)));
+        } catch (Exception e) {
+            log.error("No se pudieron preparar las particiones de auditoría: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${auditoria.retencion.cron:0 30 2 * * *}")
+    public void ejecutar() {
+        if (!habilitada) {
+            return;
+        }
+        tiempoRetencion.record(() -> {
+            try {
+                conBloqueo(() -> {
+                    List<Particion> particiones = particionesMensuales.leer(TABLA);
+                    asegurarParticionesFuturas(particiones);
+                    archivarAnteriores(particiones);
+                });
+            } catch (Exception e) {
+                log.error("Error en la retención de auditoría: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Ejecuta la tarea si ninguna otra instancia tiene el bloqueo. El bloqueo pertenece a la
+     * conexión, así que se toma y libera sobre la misma conexión que se mantiene durante la tarea.
+     */
+    private void conBloqueo(Runnable tarea) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+            if (!bloqueo(conexion, "SELECT GET_LOCK(?, 0)")) {
+                log.debug("Retención de auditoría en curso en otra instancia");
+                return null;
+            }
+            try {
+                tarea.run();
+            } finally {
+                bloqueo(conexion, "SELECT RELEASE_LOCK(?)");
+            }
+            return null;
+        });
+    }
+
+    private boolean bloqueo(Connection conexion, String sql) throws SQLException {
+        try (PreparedStatement ps = conexion.prepareStatement(sql)) {
+            ps.setString(1, NOMBRE_BLOQUEO);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    /**
+     * Crea las particiones de los próximos meses-adelantados
+     */
+    private void asegurarParticionesFuturas(List<Particion> particiones) {
+        if (particiones.isEmpty()) {
+            log.warn("La tabla {} no está particionada; se omite la retención", TABLA);
+            return;
+        }
+        particionesMensuales.asegurarFuturas(TABLA, particiones, mesesAdelantados);
+    }
+
+    /**
+     * Archiva y elimina, de la más antigua a la más reciente, las particiones cuyo límite
+     * superior no pasa del horizonte. Una partición solo se elimina si todos sus meses se archivaron.
+     */
+    private void archivarAnteriores(List<Particion> particiones) {
+        LocalDate horizonte = YearMonth.now().minusMonths(mesesActivos).atDay(1);
+        LocalDate desde = null;
+        for (Particion particion : particiones) {
+            if (particion.hasta() == null || particion.hasta().isAfter(horizonte)) {
+                break;
+            }
+            // La primera partición no tiene límite inferior: se parte del registro más antiguo
+            LocalDate inicio = desde != null ? desde : fechaMinima(particion.hasta());
+            if (inicio != null) {
+                for (YearMonth mes = YearMonth.from(inicio); mes.atDay(1).isBefore(particion.hasta());
+                     mes = mes.plusMonths(1)) {
+                    archivarMes(mes);
+                }
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLA + " DROP PARTITION " + particion.nombre());
+            // El índice de texto no está particionado: sus filas se eliminan por rango de fecha
+            auditoriaBusquedaService.eliminarHasta(particion.hasta().atStartOfDay(), tamanoLote);
+            particionesEliminadas.increment();
+            log.info("Partición de auditoría {} archivada y eliminada", particion.nombre());
+            desde = particion.hasta();
+        }
+    }
+
+    private LocalDate fechaMinima(LocalDate hasta) {
+        LocalDateTime minima = jdbcTemplate.queryForObject(SQL_MINIMA_FECHA, LocalDateTime.class, hasta.atStartOfDay());
+        return minima != null ? minima.toLocalDate() : null;
+    }
+
+    /**
+     * Copia los logs del mes al archivo por lotes, del más reciente al más antiguo (el orden en que
+     * se listan, así la búsqueda puede dejar de leer al completar la página); sin logs no se crea archivo.
+     * Los límites se envían como LocalDateTime (sin conversión de zona) para coincidir con los de la partición;
+     * el cursor, en UTC igual que se leyó.
+     */
+    private void archivarMes(YearMonth mes) {
+        LocalDateTime inicio = mes.atDay(1).atStartOfDay();
+        LocalDateTime fin = mes.plusMonths(1).atDay(1).atStartOfDay();
+        try (AuditoriaArchivo.Escritura escritura = auditoriaArchivo.escribir(mes)) {
+            Timestamp ultimaFecha = Timestamp.valueOf(fin);
+            long ultimoId = Long.MAX_VALUE;
+            List<AuditoriaLog> lote;
+            do {
+                Timestamp fecha = ultimaFecha;
+                long id = ultimoId;
+                lote = jdbcTemplate.query(SQL_LOTE, ps -> {
+                    ps.setObject(1, inicio);
+                    ps.setObject(2, fin);
+                    ps.setTimestamp(3, fecha, Calendar.getInstance(ZONA_JDBC));
+                    ps.setTimestamp(4, fecha, Calendar.getInstance(ZONA_JDBC));
+                    ps.setLong(5, id);
+                    ps.setInt(6, tamanoLote);
+                }, MAPEO_LOG);
+                for (AuditoriaLog auditoriaLog : lote) {
+                    escritura.agregar(auditoriaLog);
+                    ultimaFecha = Timestamp.valueOf(auditoriaLog.getFechaHora());
+                    ultimoId = auditoriaLog.getId();
+                }
+            } while (lote.size() == tamanoLote);
+
+            if (escritura.getEscritos() > 0) {
+                escritura.confirmar();
+                logsArchivados.increment(escritura.getEscritos());
+                log.info("Archivados {} logs de auditoría de {}", escritura.getEscritos(), mes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo archivar la auditoría de " + mes, e);
+        }
+    }
+
+    private static final RowMapper<AuditoriaLog> MAPEO_LOG = (rs, i) -> AuditoriaLog.builder()
+            .id(rs.getLong("id"))
+            .usuario(rs.getString("usuario"))
+            .cedulaPersonal(rs.getString("cedula_personal"))
+            .accion(rs.getString("accion"))
+            .modulo(rs.getString("modulo"))
+            .entidad(rs.getString("entidad"))
+            .entidadId(rs.getObject("entidad_id") != null ? rs.getLong("entidad_id") : null)
+            .descripcion(rs.getString("descripcion"))
+            .valoresAnteriores(rs.getString("valores_anteriores"))
+            .valoresNuevos(rs.getString("valores_nuevos"))
+            .ipAddress(rs.getString("ip_address"))
+            .userAgent(rs.getString("user_agent"))
+            .sessionId(rs.getString("session_id"))
+            .fechaHora(fechaHora(rs))
+            .resultado(rs.getString("resultado"))
+            .mensajeError(rs.getString("mensaje_error"))
+            .build();
+
+    private static LocalDateTime fechaHora(ResultSet rs) throws SQLException {
+        Timestamp fecha = rs.getTimestamp("fecha_hora", Calendar.getInstance(ZONA_JDBC));
+        return fecha != null ? fecha.toLocalDateTime() : null;
+    }
+}
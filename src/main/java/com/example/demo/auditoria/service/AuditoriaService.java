@@ -1,30 +1,40 @@
 package com.example.demo.auditoria.service;
 
 import com.example.demo.auditoria.model.AuditoriaLog;
+import com.example.demo.exportacion.service.DefinicionExportacion;
+import com.example.demo.exportacion.service.ExportacionService;
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.exportacion.service.FuentePaginada;
 import com.example.demo.auditoria.repository.AuditoriaLogRepository;
-import com.example.demo.personal.model.Personal;
-import com.example.demo.personal.repository.PersonalRepository;
-import com.example.demo.security.model.Usuario;
-import com.example.demo.security.repository.UsuarioRepository;
+import com.example.demo.estadisticas.service.EstadisticasExecutor;
+import com.example.demo.paginacion.dto.PaginaCursor;
+import com.example.demo.paginacion.service.ConsultaKeyset;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
@@ -34,8 +44,11 @@ public class AuditoriaService {
     
     private final AuditoriaLogRepository auditoriaLogRepository;
     private final ObjectMapper objectMapper;
-    private final UsuarioRepository usuarioRepository;
-    private final PersonalRepository personalRepository;
+    private final AuditoriaLogWriter auditoriaLogWriter;
+    private final ExportacionService exportacionService;
+    private final EstadisticasExecutor estadisticasExecutor;
+    private final AuditoriaArchivo auditoriaArchivo;
+    private final AuditoriaActividadService auditoriaActividadService;
     
     // ==================== MÉTODOS PARA REGISTRAR LOGS ====================
     
@@ -47,9 +60,8 @@ public class AuditoriaService {
             String usuario = obtenerUsuarioActual();
             AuditoriaLog log = AuditoriaLog.crear(usuario, accion, modulo);
             log.setDescripcion(descripcion);
-            log.setCedulaPersonal(obtenerCedulaPersonal(usuario));
             completarDatosDeRequest(log);
-            auditoriaLogRepository.save(log);
+            auditoriaLogWriter.encolar(log, true);
         } catch (Exception e) {
             log.error("Error al registrar acción en auditoría: {}", e.getMessage());
         }
@@ -63,9 +75,8 @@ public class AuditoriaService {
         try {
             String usuario = obtenerUsuarioActual();
             AuditoriaLog log = AuditoriaLog.crear(usuario, accion, modulo, entidad, entidadId, descripcion);
-            log.setCedulaPersonal(obtenerCedulaPersonal(usuario));
             completarDatosDeRequest(log);
-            auditoriaLogRepository.save(log);
+            auditoriaLogWriter.encolar(log, true);
         } catch (Exception e) {
             log.error("Error al registrar acción con entidad en auditoría: {}", e.getMessage());
         }
@@ -79,7 +90,6 @@ public class AuditoriaService {
         try {
             String usuario = obtenerUsuarioActual();
             AuditoriaLog log = AuditoriaLog.crear(usuario, "UPDATE", modulo, entidad, entidadId, descripcion);
-            log.setCedulaPersonal(obtenerCedulaPersonal(usuario));
             
             // Convertir objetos a JSON
             if (valoresAnteriores != null) {
@@ -90,7 +100,7 @@ public class AuditoriaService {
             }
             
             completarDatosDeRequest(log);
-            auditoriaLogRepository.save(log);
+            auditoriaLogWriter.encolar(log, true);
         } catch (JsonProcessingException e) {
             log.error("Error al serializar valores para auditoría: {}", e.getMessage());
         } catch (Exception e) {
@@ -107,7 +117,7 @@ public class AuditoriaService {
             log.setDescripcion("Usuario ingresó al sistema");
             log.setIpAddress(ipAddress);
             completarDatosDeRequest(log);
-            auditoriaLogRepository.save(log);
+            auditoriaLogWriter.encolar(log, false);
         } catch (Exception e) {
             log.error("Error al registrar login en auditoría: {}", e.getMessage());
         }
@@ -121,7 +131,7 @@ public class AuditoriaService {
             AuditoriaLog log = AuditoriaLog.crear(usuario, "LOGOUT", "SECURITY");
             log.setDescripcion("Usuario cerró sesión");
             completarDatosDeRequest(log);
-            auditoriaLogRepository.save(log);
+            auditoriaLogWriter.encolar(log, false);
         } catch (Exception e) {
             log.error("Error al registrar logout en auditoría: {}", e.getMessage());
         }
@@ -138,7 +148,7 @@ public class AuditoriaService {
             log.setResultado("ERROR");
             log.setMensajeError(mensajeError);
             completarDatosDeRequest(log);
-            auditoriaLogRepository.save(log);
+            auditoriaLogWriter.encolar(log, false);
         } catch (Exception e) {
             log.error("Error al registrar error en auditoría: {}", e.getMessage());
         }
@@ -147,14 +157,83 @@ public class AuditoriaService {
     // ==================== MÉTODOS DE CONSULTA ====================
     
     /**
-     * Obtiene logs con filtros y paginación
+     * Obtiene logs con filtros y paginación. Con término de búsqueda los logs de la base de datos
+     * se buscan en el índice de texto completo y se ordenan por relevancia.
+     * Si el rango de fechas alcanza meses ya retirados de la base de datos (ver AuditoriaRetencionJob),
+     * los resultados continúan en el archivo en disco después de los de la base de datos. Del archivo
+     * solo se leen los meses que aportan filas a la página o cuyo conteo no se conoce todavía, y cada
+     * uno solo hasta su última fila en la página; con la página completa no se leen más meses y, si
+     * falta algún conteo, el total queda como cota inferior.
+     * Sin transacción propia: la lectura del archivo no retiene una conexión.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<AuditoriaLog> obtenerLogsConFiltros(String usuario, String modulo, String accion,
                                                    LocalDateTime fechaInicio, LocalDateTime fechaFin,
                                                    String ip, String termino, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return auditoriaLogRepository.buscarConFiltros(usuario, modulo, accion, fechaInicio, fechaFin, ip, termino, pageable);
+        List<YearMonth> mesesArchivados = mesesArchivadosEnRango(fechaInicio, fechaFin);
+        if (mesesArchivados.isEmpty()) {
+            return buscarEnBaseDeDatos(usuario, modulo, accion, fechaInicio, fechaFin, ip, termino, pageable);
+        }
+
+        // La base de datos solo tiene meses posteriores al último archivado: sus resultados van primero
+        LocalDateTime inicioActivos = auditoriaArchivo.mesesArchivados().last().plusMonths(1).atDay(1).atStartOfDay();
+        Page<AuditoriaLog> activos = fechaFin != null && fechaFin.isBefore(inicioActivos)
+                ? Page.empty(pageable)
+                : buscarEnBaseDeDatos(usuario, modulo, accion,
+                        fechaInicio == null || fechaInicio.isBefore(inicioActivos) ? inicioActivos : fechaInicio,
+                        fechaFin, ip, termino, pageable);
+
+        List<AuditoriaLog> contenido = new ArrayList<>(activos.getContent());
+        long desdeArchivo = Math.max(0, pageable.getOffset() - activos.getTotalElements());
+        Predicate<AuditoriaLog> filtro = filtroArchivo(usuario, modulo, accion, fechaInicio, fechaFin, ip, termino);
+        String claveFiltro = String.join("|", String.valueOf(usuario), String.valueOf(modulo), String.valueOf(accion),
+                String.valueOf(fechaInicio), String.valueOf(fechaFin), String.valueOf(ip), String.valueOf(termino));
+        long totalArchivo = 0;
+        boolean totalExacto = true;
+
+        // Meses del más reciente al más antiguo; de cada mes leído solo se retienen las filas que coinciden
+        for (YearMonth mes : mesesArchivados) {
+            long faltantes = size - contenido.size();
+            long inicioMes = desdeArchivo - totalArchivo;
+            Long conocido = auditoriaArchivo.conteoConocido(mes, claveFiltro);
+            if (conocido != null && (faltantes == 0 || inicioMes >= conocido)) {
+                // El mes no aporta filas a la página: basta su conteo
+                totalArchivo += conocido;
+                continue;
+            }
+            if (faltantes == 0) {
+                totalExacto = false;
+                break;
+            }
+
+            // El archivo está en el orden del listado: basta leer hasta la última fila de la página
+            AuditoriaArchivo.Coincidencias coincidencias;
+            try {
+                coincidencias = auditoriaArchivo.coincidentes(mes, claveFiltro, filtro, Math.max(0, inicioMes) + faltantes);
+            } catch (IOException e) {
+                log.error("No se pudo leer la auditoría archivada de {}: {}", mes, e.getMessage());
+                continue;
+            }
+            List<AuditoriaLog> coincidentes = coincidencias.logs();
+            if (inicioMes < coincidentes.size()) {
+                int desde = (int) Math.max(0, inicioMes);
+                contenido.addAll(coincidentes.subList(desde, (int) Math.min(coincidentes.size(), desde + faltantes)));
+            }
+            totalArchivo += coincidentes.size();
+            if (!coincidencias.completo()) {
+                // Lectura cortada con la página completa: el resto del mes no se cuenta
+                totalExacto = false;
+                break;
+            }
+        }
+
+        long total = activos.getTotalElements() + totalArchivo;
+        if (!totalExacto) {
+            // Quedan meses sin contar: al menos hay una fila más después de esta página
+            total = Math.max(total, pageable.getOffset() + contenido.size() + 1);
+        }
+        return new PageImpl<>(contenido, pageable, total);
     }
     
     /**
@@ -167,31 +246,37 @@ public class AuditoriaService {
     }
     
     /**
-     * Obtiene estadísticas generales del sistema
+     * Obtiene logs por cursor (keyset sobre fechaHora, id), del más reciente al más antiguo.
+     * El costo es constante en cualquier profundidad y no se cuenta salvo que se pida.
      */
     @Transactional(readOnly = true)
+    public PaginaCursor<AuditoriaLog> obtenerLogsPorCursor(String cursor, int size, boolean incluirTotal) {
+        return ConsultaKeyset.de(auditoriaLogRepository::findPrimerosKeyset,
+                        auditoriaLogRepository::findSiguientesKeyset,
+                        auditoriaLogRepository::findAnterioresKeyset,
+                        AuditoriaLog::getFechaHora, AuditoriaLog::getId)
+                .paginar(cursor, size, auditoriaLog -> auditoriaLog, incluirTotal ? auditoriaLogRepository::count : null);
+    }
+    
+    /**
+     * Obtiene estadísticas generales del sistema desde el resumen horario de actividad.
+     * Las consultas se ejecutan en paralelo, cada una en su propia transacción de solo lectura.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> obtenerEstadisticasGenerales() {
-        Map<String, Object> estadisticas = new HashMap<>();
         LocalDateTime hace30Dias = LocalDateTime.now().minusDays(30);
         
-        estadisticas.put("totalLogs", auditoriaLogRepository.contarTotalLogs());
-        estadisticas.put("logsUltimos30Dias", auditoriaLogRepository.contarLogsRecientes(hace30Dias));
-        estadisticas.put("usuariosActivosUltimos30Dias", auditoriaLogRepository.contarUsuariosActivos(hace30Dias));
-        estadisticas.put("erroresUltimos30Dias", auditoriaLogRepository.contarErroresRecientes(hace30Dias));
-        
-        // Actividad por módulo
-        estadisticas.put("actividadPorModulo", auditoriaLogRepository.obtenerActividadPorModulo(hace30Dias));
-        
-        // Actividad por usuario
-        estadisticas.put("actividadPorUsuario", auditoriaLogRepository.obtenerActividadPorUsuario(hace30Dias));
-        
-        // Actividad por acción
-        estadisticas.put("actividadPorAccion", auditoriaLogRepository.obtenerActividadPorAccion(hace30Dias));
-        
-        // Actividad por hora
-        estadisticas.put("actividadPorHora", auditoriaLogRepository.obtenerActividadPorHora(hace30Dias));
-        
-        return estadisticas;
+        return estadisticasExecutor.grupo("auditoria")
+                .consulta("totalLogs", auditoriaActividadService::contarTotal, 0L)
+                .consulta("logsUltimos30Dias", () -> auditoriaActividadService.contarDesde(hace30Dias), 0L)
+                .consulta("usuariosActivosUltimos30Dias", () -> auditoriaActividadService.contarUsuariosActivos(hace30Dias), 0L)
+                .consulta("erroresUltimos30Dias", () -> auditoriaActividadService.contarErroresDesde(hace30Dias), 0L)
+                // Actividad por módulo, usuario, acción y hora
+                .consulta("actividadPorModulo", () -> auditoriaActividadService.actividadPorModulo(hace30Dias), List.of())
+                .consulta("actividadPorUsuario", () -> auditoriaActividadService.actividadPorUsuario(hace30Dias), List.of())
+                .consulta("actividadPorAccion", () -> auditoriaActividadService.actividadPorAccion(hace30Dias), List.of())
+                .consulta("actividadPorHora", () -> auditoriaActividadService.actividadPorHora(hace30Dias), List.of())
+                .ejecutar();
     }
     
     /**
@@ -217,7 +302,105 @@ public class AuditoriaService {
         return auditoriaLogRepository.findById(id).orElse(null);
     }
     
+    /**
+     * Exporta (xlsx, csv o ndjson) los logs que coincidan con los filtros y devuelve la cantidad exportada
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long exportarLogs(String usuario, String modulo, String accion,
+                             LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                             String ip, String termino, FormatoExportacion formato,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+        String nombreArchivo = "auditoria_logs_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+
+        // Mismo criterio de término que el listado: FULLTEXT si hay palabras indexables, si no LIKE
+        String consulta = AuditoriaBusquedaService.consultaTexto(termino);
+        FuentePaginada<AuditoriaLog> fuente = consulta != null
+                ? FuentePaginada.porFechaDescendente(
+                        limite -> auditoriaLogRepository.buscarPorTextoParaExportacion(
+                                consulta, usuario, modulo, accion, fechaInicio, fechaFin, ip, null, null, limite),
+                        (fecha, id, limite) -> auditoriaLogRepository.buscarPorTextoParaExportacion(
+                                consulta, usuario, modulo, accion, fechaInicio, fechaFin, ip, fecha, id, limite),
+                        AuditoriaLog::getFechaHora, AuditoriaLog::getId)
+                : FuentePaginada.porFechaDescendente(
+                        limite -> auditoriaLogRepository.buscarParaExportacion(
+                                usuario, modulo, accion, fechaInicio, fechaFin, ip, termino, null, null, limite),
+                        (fecha, id, limite) -> auditoriaLogRepository.buscarParaExportacion(
+                                usuario, modulo, accion, fechaInicio, fechaFin, ip, termino, fecha, id, limite),
+                        AuditoriaLog::getFechaHora, AuditoriaLog::getId);
+
+        DefinicionExportacion<AuditoriaLog> definicion = DefinicionExportacion
+                .<AuditoriaLog>de(nombreArchivo, "Logs de Auditoría", fuente)
+                .columna("ID", AuditoriaLog::getId)
+                .columna("Usuario", AuditoriaLog::getUsuario)
+                .columna("Acción", AuditoriaLog::getAccion)
+                .columna("Módulo", AuditoriaLog::getModulo)
+                .columna("Entidad", AuditoriaLog::getEntidad)
+                .columna("Descripción", AuditoriaLog::getDescripcion)
+                .columna("Fecha/Hora", a -> a.getFechaHora().format(formatter))
+                .columna("IP Address", AuditoriaLog::getIpAddress)
+                .columna("Resultado", AuditoriaLog::getResultado);
+
+        return exportacionService.exportar(definicion, formato, request, response);
+    }
+    
     // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Con término de búsqueda usa el índice de texto completo (resultados por relevancia);
+     * si el término no tiene palabras indexables, o no hay término, usa la búsqueda por filtros
+     */
+    private Page<AuditoriaLog> buscarEnBaseDeDatos(String usuario, String modulo, String accion,
+                                                   LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                                   String ip, String termino, Pageable pageable) {
+        String consulta = AuditoriaBusquedaService.consultaTexto(termino);
+        if (consulta != null) {
+            return auditoriaLogRepository.buscarPorTexto(consulta, usuario, modulo, accion, fechaInicio, fechaFin, ip, pageable);
+        }
+        return auditoriaLogRepository.buscarConFiltros(usuario, modulo, accion, fechaInicio, fechaFin, ip, termino, pageable);
+    }
+
+    /**
+     * Meses archivados que se superponen con el rango, del más reciente al más antiguo.
+     * Sin filtro de fecha no se consulta el archivo. Se agrega un día de margen porque los meses
+     * del archivo se cortan con la hora de la base de datos (UTC) y el filtro usa la hora local.
+     */
+    private List<YearMonth> mesesArchivadosEnRango(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        if (fechaInicio == null && fechaFin == null) {
+            return List.of();
+        }
+        List<YearMonth> meses = new ArrayList<>();
+        for (YearMonth mes : auditoriaArchivo.mesesArchivados().descendingSet()) {
+            LocalDateTime inicioMes = mes.atDay(1).atStartOfDay().minusDays(1);
+            LocalDateTime finMes = mes.plusMonths(1).atDay(1).atStartOfDay().plusDays(1);
+            if ((fechaInicio == null || finMes.isAfter(fechaInicio)) && (fechaFin == null || !inicioMes.isAfter(fechaFin))) {
+                meses.add(mes);
+            }
+        }
+        return meses;
+    }
+
+    /**
+     * Mismo criterio que AuditoriaLogRepository.buscarConFiltros, aplicado a los logs archivados
+     */
+    private static Predicate<AuditoriaLog> filtroArchivo(String usuario, String modulo, String accion,
+                                                         LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                                         String ip, String termino) {
+        String usuarioMinusculas = usuario != null ? usuario.toLowerCase() : null;
+        String terminoMinusculas = termino != null ? termino.toLowerCase() : null;
+        return a -> (usuarioMinusculas == null || contiene(a.getUsuario(), usuarioMinusculas))
+                && (modulo == null || modulo.equals(a.getModulo()))
+                && (accion == null || accion.equals(a.getAccion()))
+                && (fechaInicio == null || !a.getFechaHora().isBefore(fechaInicio))
+                && (fechaFin == null || !a.getFechaHora().isAfter(fechaFin))
+                && (ip == null || ip.equals(a.getIpAddress()))
+                && (terminoMinusculas == null || contiene(a.getDescripcion(), terminoMinusculas)
+                        || contiene(a.getEntidad(), terminoMinusculas));
+    }
+
+    private static boolean contiene(String valor, String buscadoMinusculas) {
+        return valor != null && valor.toLowerCase().contains(buscadoMinusculas);
+    }
     
     /**
      * Obtiene el usuario actual del contexto de seguridad
@@ -235,26 +418,6 @@ public class AuditoriaService {
         return "SISTEMA";
     }
     
-    /**
-     * Obtiene la cédula del personal asociado al usuario
-     */
-    private String obtenerCedulaPersonal(String username) {
-        try {
-            // Buscar el usuario
-            Usuario usuario = usuarioRepository.findByUsername(username).orElse(null);
-            if (usuario != null) {
-                // Buscar el personal asociado al usuario
-                Personal personal = personalRepository.findByUsuarioId(usuario.getId()).orElse(null);
-                if (personal != null) {
-                    return personal.getDocumento(); // La cédula está en el campo documento
-                }
-            }
-        } catch (Exception e) {
-            log.warn("No se pudo obtener la cédula del personal para el usuario {}: {}", username, e.getMessage());
-        }
-        return null; // Si no se encuentra, devolver null
-    }
-    
     /**
      * Completa los datos de la request HTTP actual
      */
@@ -2,24 +2,22 @@ package com.example.demo.auditoria.web;
 
 import com.example.demo.auditoria.model.AuditoriaLog;
 import com.example.demo.auditoria.service.AuditoriaService;
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.paginacion.dto.PaginaCursor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -108,6 +106,31 @@ public class AuditoriaController {
         }
     }
     
+    /**
+     * API para recorrer los logs por cursor (paginación keyset, del más reciente al más antiguo).
+     * A diferencia de /api/logs no usa OFFSET ni cuenta los registros salvo incluirTotal=true.
+     */
+    @GetMapping("/api/logs/cursor")
+    @ResponseBody
+    public ResponseEntity<?> obtenerLogsPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        
+        try {
+            PaginaCursor<AuditoriaLog> logs = auditoriaService.obtenerLogsPorCursor(cursor, size, incluirTotal);
+            return ResponseEntity.ok(logs);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al obtener logs por cursor: {}", e.getMessage());
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Error al obtener los logs");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
     /**
      * API para obtener estadísticas
      */
@@ -168,141 +191,37 @@ public class AuditoriaController {
     }
     
     /**
-     * Exportar logs a Excel
+     * Exportar logs (format=xlsx|csv|ndjson)
      */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportarLogsExcel(
+    public void exportarLogsExcel(
             @RequestParam(required = false) String usuario,
             @RequestParam(required = false) String modulo,
             @RequestParam(required = false) String accion,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin,
             @RequestParam(required = false) String ip,
-            @RequestParam(required = false) String termino) {
+            @RequestParam(required = false) String termino,
+            @RequestParam(defaultValue = "xlsx") FormatoExportacion format,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         
         try {
-            // Obtener todos los logs que coincidan con los filtros (máximo 10000)
-            Page<AuditoriaLog> logs = auditoriaService.obtenerLogsConFiltros(
-                usuario, modulo, accion, fechaInicio, fechaFin, ip, termino, 0, 10000);
-            
-            // Crear archivo Excel
-            byte[] excelBytes = crearArchivoExcel(logs.getContent());
+            // Todos los logs que coincidan con los filtros, escritos en streaming
+            long total = auditoriaService.exportarLogs(
+                usuario, modulo, accion, fechaInicio, fechaFin, ip, termino, format, request, response);
             
             // Registrar exportación
             auditoriaService.registrarAccion("EXPORT", "AUDITORIA", 
-                String.format("Usuario exportó %d logs a Excel", logs.getContent().size()));
-            
-            // Configurar headers para descarga
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", 
-                "auditoria_logs_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
-            
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(excelBytes);
+                String.format("Usuario exportó %d logs (%s)", total, format.getExtension()));
                 
         } catch (Exception e) {
-            log.error("Error al exportar logs: {}", e.getMessage());
+            log.error("Error al exportar logs", e);
             auditoriaService.registrarError("EXPORT", "AUDITORIA", 
                 "Error al exportar logs", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
-    }
-    
-    // ==================== MÉTODOS AUXILIARES ====================
-    
-    /**
-     * Crea un archivo Excel con los logs
-     */
-    private byte[] crearArchivoExcel(List<AuditoriaLog> logs) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Logs de Auditoría");
-            
-            // Crear estilo para encabezados
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerFont.setColor(IndexedColors.WHITE.getIndex());
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.BLUE.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            headerStyle.setBorderBottom(BorderStyle.THIN);
-            headerStyle.setBorderTop(BorderStyle.THIN);
-            headerStyle.setBorderRight(BorderStyle.THIN);
-            headerStyle.setBorderLeft(BorderStyle.THIN);
-            
-            // Crear estilo para celdas
-            CellStyle cellStyle = workbook.createCellStyle();
-            cellStyle.setBorderBottom(BorderStyle.THIN);
-            cellStyle.setBorderTop(BorderStyle.THIN);
-            cellStyle.setBorderRight(BorderStyle.THIN);
-            cellStyle.setBorderLeft(BorderStyle.THIN);
-            
-            // Crear encabezados
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "Usuario", "Acción", "Módulo", "Entidad", "Descripción", 
-                              "Fecha/Hora", "IP Address", "Resultado"};
-            
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             }
-            
-            // Llenar datos
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-            int rowNum = 1;
-            
-            for (AuditoriaLog log : logs) {
-                Row row = sheet.createRow(rowNum++);
-                
-                Cell cell0 = row.createCell(0);
-                cell0.setCellValue(log.getId());
-                cell0.setCellStyle(cellStyle);
-                
-                Cell cell1 = row.createCell(1);
-                cell1.setCellValue(log.getUsuario());
-                cell1.setCellStyle(cellStyle);
-                
-                Cell cell2 = row.createCell(2);
-                cell2.setCellValue(log.getAccion());
-                cell2.setCellStyle(cellStyle);
-                
-                Cell cell3 = row.createCell(3);
-                cell3.setCellValue(log.getModulo());
-                cell3.setCellStyle(cellStyle);
-                
-                Cell cell4 = row.createCell(4);
-                cell4.setCellValue(log.getEntidad() != null ? log.getEntidad() : "");
-                cell4.setCellStyle(cellStyle);
-                
-                Cell cell5 = row.createCell(5);
-                cell5.setCellValue(log.getDescripcion() != null ? log.getDescripcion() : "");
-                cell5.setCellStyle(cellStyle);
-                
-                Cell cell6 = row.createCell(6);
-                cell6.setCellValue(log.getFechaHora().format(formatter));
-                cell6.setCellStyle(cellStyle);
-                
-                Cell cell7 = row.createCell(7);
-                cell7.setCellValue(log.getIpAddress() != null ? log.getIpAddress() : "");
-                cell7.setCellStyle(cellStyle);
-                
-                Cell cell8 = row.createCell(8);
-                cell8.setCellValue(log.getResultado() != null ? log.getResultado() : "");
-                cell8.setCellStyle(cellStyle);
-            }
-            
-            // Auto-ajustar columnas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            // Convertir a bytes
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
         }
     }
 }
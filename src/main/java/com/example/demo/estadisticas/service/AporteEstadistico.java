@@ -0,0 +1,118 @@
+package com.example.demo.estadisticas.service;
+
+import com.example.demo.multas.model.Multa;
+import com.example.demo.pagos.model.Pago;
+import com.example.demo.servicios.domain.Servicio;
+import com.example.demo.tasas.model.Tasa;
+import com.example.demo.transacciones.model.Transaccion;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aporte de uno o varios registros a las claves del resumen de estadísticas.
+ * Los servicios toman el aporte antes y después de modificar un registro y
+ * EstadisticasResumenService aplica la diferencia.
+ */
+public final class AporteEstadistico {
+
+    private final Map<String, ValorEstadistico> valores = new HashMap<>();
+
+    public static AporteEstadistico vacio() {
+        return new AporteEstadistico();
+    }
+
+    public static AporteEstadistico de(Pago pago) {
+        return vacio().registro(ClavesEstadisticas.PAGOS, pago.getEstado(), pago.getMonto());
+    }
+
+    public static AporteEstadistico de(Multa multa) {
+        return vacio().registro(ClavesEstadisticas.MULTAS, multa.getEstado(), multa.getMonto());
+    }
+
+    public static AporteEstadistico de(Tasa tasa) {
+        return vacio().registro(ClavesEstadisticas.TASAS, tasa.getEstado(), tasa.getMontoBase());
+    }
+
+    public static AporteEstadistico de(Servicio servicio) {
+        return vacio().registro(ClavesEstadisticas.SERVICIOS, servicio.getEstado(), servicio.getMontoFacturado());
+    }
+
+    public static AporteEstadistico de(Transaccion transaccion) {
+        AporteEstadistico aporte = vacio()
+                .registro(ClavesEstadisticas.TRANSACCIONES, transaccion.getEstado(), transaccion.getMonto());
+
+        // Solo las transacciones procesadas o confirmadas cuentan como flujo de caja
+        if (transaccion.getFechaTransaccion() != null
+                && ClavesEstadisticas.ESTADOS_EFECTIVOS.contains(transaccion.getEstado())) {
+            BigDecimal monto = montoOCero(transaccion.getMonto());
+            LocalDate dia = transaccion.getFechaTransaccion().toLocalDate();
+            boolean ingreso = ClavesEstadisticas.TIPOS_INGRESO.contains(transaccion.getTipoTransaccion());
+
+            if (ingreso) {
+                aporte.sumar(ClavesEstadisticas.ingresosDia(dia), 0, monto);
+            } else if (ClavesEstadisticas.TIPOS_EGRESO.contains(transaccion.getTipoTransaccion())) {
+                aporte.sumar(ClavesEstadisticas.egresosDia(dia), 0, monto);
+            }
+            aporte.sumar(ClavesEstadisticas.balanceMes(YearMonth.from(dia)), 0, ingreso ? monto : monto.negate());
+        }
+        return aporte;
+    }
+
+    /**
+     * Suma cantidad y monto a una clave
+     */
+    public AporteEstadistico sumar(String clave, long conteo, BigDecimal monto) {
+        valores.merge(clave, new ValorEstadistico(conteo, montoOCero(monto)), ValorEstadistico::sumar);
+        return this;
+    }
+
+    /**
+     * Acumula otro aporte sobre este (para cambios masivos)
+     */
+    public AporteEstadistico sumar(AporteEstadistico otro) {
+        otro.valores.forEach((clave, valor) -> valores.merge(clave, valor, ValorEstadistico::sumar));
+        return this;
+    }
+
+    /**
+     * Diferencia entre el aporte posterior y el anterior a un cambio; cualquiera puede ser null
+     */
+    public static AporteEstadistico diferencia(AporteEstadistico antes, AporteEstadistico despues) {
+        AporteEstadistico delta = vacio();
+        if (despues != null) {
+            delta.sumar(despues);
+        }
+        if (antes != null) {
+            antes.valores.forEach((clave, valor) -> delta.valores.merge(clave, valor.negar(), ValorEstadistico::sumar));
+        }
+        delta.valores.values().removeIf(ValorEstadistico::esCero);
+        return delta;
+    }
+
+    public boolean isVacio() {
+        return valores.isEmpty();
+    }
+
+    public Map<String, ValorEstadistico> getValores() {
+        return Collections.unmodifiableMap(valores);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private AporteEstadistico registro(String modulo, Enum<?> estado, BigDecimal monto) {
+        sumar(ClavesEstadisticas.total(modulo), 1, BigDecimal.ZERO);
+        if (estado != null) {
+            sumar(ClavesEstadisticas.estado(modulo, estado), 1, monto);
+        }
+        return this;
+    }
+
+    private static BigDecimal montoOCero(BigDecimal monto) {
+        return monto != null ? monto : BigDecimal.ZERO;
+    }
+}
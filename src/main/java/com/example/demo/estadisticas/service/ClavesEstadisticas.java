@@ -0,0 +1,80 @@
+package com.example.demo.estadisticas.service;
+
+import com.example.demo.transacciones.model.EstadoTransaccion;
+import com.example.demo.transacciones.model.TipoTransaccion;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Nombres de las claves del resumen de estadísticas.
+ * Las usan tanto las actualizaciones incrementales como la reconciliación.
+ */
+public final class ClavesEstadisticas {
+
+    public static final String CONTRIBUYENTES = "contribuyentes";
+    public static final String COMPROBANTES = "comprobantes";
+    public static final String IMPUESTOS = "impuestos";
+    public static final String RETENCIONES = "retenciones";
+    public static final String PERSONAL = "personal";
+    public static final String ROLES = "roles";
+    public static final String AUDITORIA = "auditoria";
+    public static final String PAGOS = "pagos";
+    public static final String TRANSACCIONES = "transacciones";
+    public static final String MULTAS = "multas";
+    public static final String TASAS = "tasas";
+    public static final String SERVICIOS = "servicios";
+
+    static final String PREFIJO_INGRESOS_DIA = TRANSACCIONES + ".ingresos.";
+    static final String PREFIJO_EGRESOS_DIA = TRANSACCIONES + ".egresos.";
+    static final String PREFIJO_BALANCE_MES = TRANSACCIONES + ".balance.";
+
+    // Mismos criterios que las consultas de TransaccionRepository
+    public static final Set<TipoTransaccion> TIPOS_INGRESO = EnumSet.of(
+            TipoTransaccion.INGRESO, TipoTransaccion.PAGO_SERVICIO, TipoTransaccion.PAGO_IMPUESTO,
+            TipoTransaccion.PAGO_TASA, TipoTransaccion.PAGO_MULTA);
+    public static final Set<TipoTransaccion> TIPOS_EGRESO = EnumSet.of(
+            TipoTransaccion.EGRESO, TipoTransaccion.DEVOLUCION, TipoTransaccion.COMISION);
+    public static final Set<EstadoTransaccion> ESTADOS_EFECTIVOS = EnumSet.of(
+            EstadoTransaccion.PROCESADA, EstadoTransaccion.CONFIRMADA);
+
+    private ClavesEstadisticas() {
+    }
+
+    /**
+     * Cantidad total de registros de un módulo
+     */
+    public static String total(String modulo) {
+        return modulo + ".total";
+    }
+
+    /**
+     * Cantidad y monto de los registros de un módulo en un estado
+     */
+    public static String estado(String modulo, Enum<?> estado) {
+        return modulo + ".estado." + estado.name();
+    }
+
+    /**
+     * Ingresos efectivos de transacciones en un día (por fecha de transacción)
+     */
+    public static String ingresosDia(LocalDate dia) {
+        return PREFIJO_INGRESOS_DIA + dia;
+    }
+
+    /**
+     * Egresos efectivos de transacciones en un día (por fecha de transacción)
+     */
+    public static String egresosDia(LocalDate dia) {
+        return PREFIJO_EGRESOS_DIA + dia;
+    }
+
+    /**
+     * Balance de transacciones efectivas de un mes (ingresos menos el resto de tipos)
+     */
+    public static String balanceMes(YearMonth mes) {
+        return PREFIJO_BALANCE_MES + mes;
+    }
+}
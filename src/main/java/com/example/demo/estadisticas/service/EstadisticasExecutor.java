@@ -0,0 +1,175 @@
+package com.example.demo.estadisticas.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta en paralelo las consultas independientes de un endpoint de estadísticas.
+ * Cada consulta corre en un hilo virtual con su propia transacción de solo lectura y
+ * un tiempo límite que empieza a contar al obtener el permiso de conexión; si no obtiene
+ * permiso a tiempo (saturada), falla o vence, se usa su valor por defecto y el resultado
+ * se marca como parcial. La duración de cada consulta se publica en la métrica estadisticas.consulta.
+ */
+@Component
+@Slf4j
+public class EstadisticasExecutor {
+
+    /**
+     * Clave agregada al resultado cuando alguna consulta no terminó a tiempo o falló
+     */
+    public static final String CLAVE_CONSULTAS_FALLIDAS = "consultasFallidas";
+
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private final TransactionTemplate lecturaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMs;
+    private final long esperaPermisoMs;
+
+    // Limita las conexiones que toman las consultas paralelas para no agotar el pool
+    private final Semaphore permisos;
+
+    public EstadisticasExecutor(PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${estadisticas.consultas.timeout-ms:5000}") long timeoutMs,
+                                @Value("${estadisticas.consultas.max-concurrentes:4}") int maxConcurrentes,
+                                @Value("${estadisticas.consultas.espera-permiso-ms:2000}") long esperaPermisoMs) {
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+        this.lecturaTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMs)));
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+        this.esperaPermisoMs = Math.max(0, esperaPermisoMs);
+        this.permisos = new Semaphore(maxConcurrentes);
+    }
+
+    @PreDestroy
+    public void detener() {
+        hilos.shutdownNow();
+    }
+
+    /**
+     * Crea un grupo de consultas; el nombre se usa como etiqueta de las métricas
+     */
+    public Grupo grupo(String nombre) {
+        return new Grupo(nombre);
+    }
+
+    /**
+     * Conjunto de consultas de un endpoint, cada una asociada a la clave del resultado
+     */
+    public final class Grupo {
+
+        private final String nombre;
+        private final Map<String, Consulta<?>> consultas = new LinkedHashMap<>();
+
+        private Grupo(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public <T> Grupo consulta(String clave, Supplier<T> consulta, T porDefecto) {
+            consultas.put(clave, new Consulta<>(consulta, porDefecto));
+            return this;
+        }
+
+        /**
+         * Ejecuta todas las consultas. Se espera como máximo la espera por permiso más el tiempo
+         * límite: una consulta encolada detrás de otras no consume su límite mientras espera.
+         */
+        public Map<String, Object> ejecutar() {
+            Map<String, Future<?>> pendientes = new LinkedHashMap<>();
+            consultas.forEach((clave, consulta) ->
+                    pendientes.put(clave, hilos.submit(() -> ejecutarConsulta(nombre, clave, consulta))));
+
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaPermisoMs + timeoutMs);
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            List<String> fallidas = new ArrayList<>();
+
+            for (Map.Entry<String, Future<?>> entrada : pendientes.entrySet()) {
+                String clave = entrada.getKey();
+                try {
+                    long restante = Math.max(0, limite - System.nanoTime());
+                    resultado.put(clave, entrada.getValue().get(restante, TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    entrada.getValue().cancel(true);
+                    registrarFallo(clave, fallidas, resultado, "timeout");
+                    log.warn("Consulta de estadísticas {}.{} superó {} ms", nombre, clave, timeoutMs);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof PermisoNoDisponibleException) {
+                        registrarFallo(clave, fallidas, resultado, "saturada");
+                        log.warn("Consulta de estadísticas {}.{} sin conexión libre tras {} ms",
+                                nombre, clave, esperaPermisoMs);
+                        continue;
+                    }
+                    registrarFallo(clave, fallidas, resultado, "error");
+                    log.error("Error en consulta de estadísticas {}.{}: {}", nombre, clave, e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    entrada.getValue().cancel(true);
+                    registrarFallo(clave, fallidas, resultado, "interrumpida");
+                }
+            }
+
+            if (!fallidas.isEmpty()) {
+                resultado.put(CLAVE_CONSULTAS_FALLIDAS, fallidas);
+            }
+            return resultado;
+        }
+
+        private void registrarFallo(String clave, List<String> fallidas, Map<String, Object> resultado, String motivo) {
+            fallidas.add(clave);
+            resultado.put(clave, consultas.get(clave).porDefecto());
+            meterRegistry.counter("estadisticas.consulta.fallos",
+                    "grupo", nombre, "consulta", clave, "motivo", motivo).increment();
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Object ejecutarConsulta(String grupo, String clave, Consulta<?> consulta)
+            throws InterruptedException, PermisoNoDisponibleException {
+        if (!permisos.tryAcquire(esperaPermisoMs, TimeUnit.MILLISECONDS)) {
+            throw new PermisoNoDisponibleException();
+        }
+        try {
+            Timer.Sample muestra = Timer.start(meterRegistry);
+            try {
+                return lecturaTemplate.execute(status -> consulta.consulta().get());
+            } finally {
+                muestra.stop(meterRegistry.timer("estadisticas.consulta", "grupo", grupo, "consulta", clave));
+            }
+        } finally {
+            permisos.release();
+        }
+    }
+
+    private record Consulta<T>(Supplier<T> consulta, T porDefecto) {
+    }
+
+    /**
+     * Todas las conexiones permitidas siguieron ocupadas durante la espera por permiso
+     */
+    private static final class PermisoNoDisponibleException extends Exception {
+        private PermisoNoDisponibleException() {
+            super(null, null, false, false);
+        }
+    }
+}
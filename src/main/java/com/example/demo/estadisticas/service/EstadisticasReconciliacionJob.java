@@ -0,0 +1,255 @@
+package com.example.demo.estadisticas.service;
+
+import com.example.demo.auditoria.repository.AuditoriaLogRepository;
+import com.example.demo.multas.model.EstadoMulta;
+import com.example.demo.multas.repository.MultaRepository;
+import com.example.demo.pagos.model.EstadoPago;
+import com.example.demo.pagos.repository.PagoRepository;
+import com.example.demo.personal.repository.PersonalRepository;
+import com.example.demo.security.repository.RolRepository;
+import com.example.demo.servicios.domain.EstadoServicio;
+import com.example.demo.servicios.repository.ServicioRepository;
+import com.example.demo.tasas.model.EstadoTasa;
+import com.example.demo.tasas.repository.TasaRepository;
+import com.example.demo.transacciones.model.EstadoTransaccion;
+import com.example.demo.transacciones.repository.TransaccionRepository;
+import com.example.demo.tributario.repository.ComprobanteRepository;
+import com.example.demo.tributario.repository.ContribuyenteRepository;
+import com.example.demo.tributario.repository.ImpuestoRepository;
+import com.example.demo.tributario.repository.RetencionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconciliación periódica del resumen de estadísticas.
+ * Recalcula los contadores desde las tablas origen y corrige las desviaciones
+ * (cambios masivos, escrituras fallidas, modificaciones fuera de los servicios).
+ * Los módulos sin actualización incremental (contribuyentes, personal, auditoría...)
+ * se mantienen al día solo con este proceso.
+ */
+@Component
+@Slf4j
+public class EstadisticasReconciliacionJob {
+
+    private final EstadisticasResumenService resumenService;
+    private final TransactionTemplate lecturaTemplate;
+
+    private final ContribuyenteRepository contribuyenteRepository;
+    private final ComprobanteRepository comprobanteRepository;
+    private final ImpuestoRepository impuestoRepository;
+    private final RetencionRepository retencionRepository;
+    private final PersonalRepository personalRepository;
+    private final RolRepository rolRepository;
+    private final AuditoriaLogRepository auditoriaLogRepository;
+    private final PagoRepository pagoRepository;
+    private final MultaRepository multaRepository;
+    private final TasaRepository tasaRepository;
+    private final ServicioRepository servicioRepository;
+    private final TransaccionRepository transaccionRepository;
+
+    private final int retencionDias;
+
+    private final Timer tiempoReconciliacion;
+    private final Counter clavesCorregidas;
+
+    public EstadisticasReconciliacionJob(EstadisticasResumenService resumenService,
+                                         PlatformTransactionManager transactionManager,
+                                         ContribuyenteRepository contribuyenteRepository,
+                                         ComprobanteRepository comprobanteRepository,
+                                         ImpuestoRepository impuestoRepository,
+                                         RetencionRepository retencionRepository,
+                                         PersonalRepository personalRepository,
+                                         RolRepository rolRepository,
+                                         AuditoriaLogRepository auditoriaLogRepository,
+                                         PagoRepository pagoRepository,
+                                         MultaRepository multaRepository,
+                                         TasaRepository tasaRepository,
+                                         ServicioRepository servicioRepository,
+                                         TransaccionRepository transaccionRepository,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${estadisticas.retencion-dias:7}") int retencionDias) {
+        this.resumenService = resumenService;
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+        this.lecturaTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.contribuyenteRepository = contribuyenteRepository;
+        this.comprobanteRepository = comprobanteRepository;
+        this.impuestoRepository = impuestoRepository;
+        this.retencionRepository = retencionRepository;
+        this.personalRepository = personalRepository;
+        this.rolRepository = rolRepository;
+        this.auditoriaLogRepository = auditoriaLogRepository;
+        this.pagoRepository = pagoRepository;
+        this.multaRepository = multaRepository;
+        this.tasaRepository = tasaRepository;
+        this.servicioRepository = servicioRepository;
+        this.transaccionRepository = transaccionRepository;
+        this.retencionDias = retencionDias;
+
+        this.tiempoReconciliacion = Timer.builder("estadisticas.resumen.reconciliacion")
+                .register(meterRegistry);
+        this.clavesCorregidas = Counter.builder("estadisticas.resumen.corregidas")
+                .description("Claves cuyo valor difería del recalculado")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carga el resumen al arrancar; si la tabla está vacía (primer despliegue) lo calcula
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            resumenService.recargar();
+            if (resumenService.isVacio()) {
+                reconciliar();
+            }
+        } catch (Exception e) {
+            log.error("No se pudo inicializar el resumen de estadísticas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recoge los incrementos registrados por otras instancias
+     */
+    @Scheduled(fixedDelayString = "${estadisticas.recarga-ms:30000}",
+               initialDelayString = "${estadisticas.recarga-ms:30000}")
+    public void recargar() {
+        try {
+            resumenService.recargar();
+        } catch (Exception e) {
+            log.warn("No se pudo recargar el resumen de estadísticas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcula todas las claves desde las tablas origen
+     */
+    @Scheduled(fixedDelayString = "${estadisticas.reconciliacion-ms:900000}",
+               initialDelayString = "${estadisticas.reconciliacion-ms:900000}")
+    public void reconciliar() {
+        tiempoReconciliacion.record(() -> {
+            try {
+                // El resumen y las tablas origen se leen en la misma instantánea (REPEATABLE READ)
+                Map<String, ValorEstadistico> leidos = new HashMap<>();
+                Map<String, ValorEstadistico> valores = lecturaTemplate.execute(status -> {
+                    leidos.putAll(resumenService.leer());
+                    return recalcular();
+                });
+                List<String> obsoletas = clavesDeFlujoObsoletas();
+                int corregidas = resumenService.corregir(valores, leidos, obsoletas);
+                clavesCorregidas.increment(corregidas);
+                if (corregidas > 0) {
+                    log.info("Resumen de estadísticas reconciliado: {} claves corregidas", corregidas);
+                }
+            } catch (Exception e) {
+                log.error("Error al reconciliar el resumen de estadísticas: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Map<String, ValorEstadistico> recalcular() {
+        Map<String, ValorEstadistico> valores = new HashMap<>();
+
+        total(valores, ClavesEstadisticas.CONTRIBUYENTES, contribuyenteRepository.count());
+        total(valores, ClavesEstadisticas.COMPROBANTES, comprobanteRepository.count());
+        total(valores, ClavesEstadisticas.IMPUESTOS, impuestoRepository.count());
+        total(valores, ClavesEstadisticas.RETENCIONES, retencionRepository.count());
+        total(valores, ClavesEstadisticas.PERSONAL, personalRepository.count());
+        total(valores, ClavesEstadisticas.ROLES, rolRepository.count());
+        total(valores, ClavesEstadisticas.AUDITORIA, auditoriaLogRepository.count());
+
+        porEstado(valores, ClavesEstadisticas.PAGOS, EstadoPago.values(), pagoRepository.resumenPorEstado());
+        porEstado(valores, ClavesEstadisticas.MULTAS, EstadoMulta.values(), multaRepository.resumenPorEstado());
+        porEstado(valores, ClavesEstadisticas.TASAS, EstadoTasa.values(), tasaRepository.resumenPorEstado());
+        porEstado(valores, ClavesEstadisticas.SERVICIOS, EstadoServicio.values(), servicioRepository.resumenPorEstado());
+        porEstado(valores, ClavesEstadisticas.TRANSACCIONES, EstadoTransaccion.values(),
+                transaccionRepository.resumenPorEstado());
+
+        // Flujo de caja: los días del período de retención y el mes actual, por rangos de fecha indexables
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i <= retencionDias; i++) {
+            LocalDate dia = hoy.minusDays(i);
+            Object[] flujo = flujo(dia, dia.plusDays(1));
+            valores.put(ClavesEstadisticas.ingresosDia(dia), new ValorEstadistico(0, (BigDecimal) flujo[0]));
+            valores.put(ClavesEstadisticas.egresosDia(dia), new ValorEstadistico(0, (BigDecimal) flujo[1]));
+        }
+        YearMonth mes = YearMonth.from(hoy);
+        Object[] flujoMes = flujo(mes.atDay(1), mes.plusMonths(1).atDay(1));
+        valores.put(ClavesEstadisticas.balanceMes(mes), new ValorEstadistico(0, (BigDecimal) flujoMes[2]));
+
+        return valores;
+    }
+
+    private Object[] flujo(LocalDate desde, LocalDate hasta) {
+        return transaccionRepository.flujoEntre(desde.atStartOfDay(), hasta.atStartOfDay()).get(0);
+    }
+
+    private void total(Map<String, ValorEstadistico> valores, String modulo, long cantidad) {
+        valores.put(ClavesEstadisticas.total(modulo), new ValorEstadistico(cantidad, BigDecimal.ZERO));
+    }
+
+    private void porEstado(Map<String, ValorEstadistico> valores, String modulo,
+                           Enum<?>[] estados, List<Object[]> filas) {
+        // Los estados sin registros quedan en cero
+        for (Enum<?> estado : estados) {
+            valores.put(ClavesEstadisticas.estado(modulo, estado), ValorEstadistico.CERO);
+        }
+        long total = 0;
+        for (Object[] fila : filas) {
+            long cantidad = ((Number) fila[1]).longValue();
+            total += cantidad;
+            if (fila[0] != null) {
+                valores.put(ClavesEstadisticas.estado(modulo, (Enum<?>) fila[0]),
+                        new ValorEstadistico(cantidad, (BigDecimal) fila[2]));
+            }
+        }
+        total(valores, modulo, total);
+    }
+
+    /**
+     * Claves de flujo diario o mensual anteriores al período de retención
+     */
+    private List<String> clavesDeFlujoObsoletas() {
+        LocalDate limite = LocalDate.now().minusDays(retencionDias);
+        List<String> obsoletas = new ArrayList<>();
+        for (String clave : resumenService.claves()) {
+            try {
+                if (clave.startsWith(ClavesEstadisticas.PREFIJO_INGRESOS_DIA)
+                        || clave.startsWith(ClavesEstadisticas.PREFIJO_EGRESOS_DIA)) {
+                    LocalDate dia = LocalDate.parse(clave.substring(clave.lastIndexOf('.') + 1));
+                    if (dia.isBefore(limite)) {
+                        obsoletas.add(clave);
+                    }
+                } else if (clave.startsWith(ClavesEstadisticas.PREFIJO_BALANCE_MES)) {
+                    YearMonth mes = YearMonth.parse(clave.substring(ClavesEstadisticas.PREFIJO_BALANCE_MES.length()));
+                    if (mes.atEndOfMonth().isBefore(limite)) {
+                        obsoletas.add(clave);
+                    }
+                }
+            } catch (RuntimeException e) {
+                obsoletas.add(clave);
+            }
+        }
+        return obsoletas;
+    }
+}
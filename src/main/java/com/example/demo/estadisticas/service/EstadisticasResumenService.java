@@ -0,0 +1,203 @@
+package com.example.demo.estadisticas.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumen materializado de estadísticas del dashboard.
+ * Mantiene contadores y sumas en la tabla estadisticas_resumen y una copia en memoria,
+ * de modo que las lecturas no consultan las tablas origen. Los servicios registran
+ * cada cambio como diferencia de aportes; EstadisticasReconciliacionJob corrige las desviaciones.
+ */
+@Service
+@Slf4j
+public class EstadisticasResumenService {
+
+    private static final String SQL_INCREMENTAR =
+            "INSERT INTO estadisticas_resumen (clave, conteo, monto, actualizado_en) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE conteo = conteo + VALUES(conteo), monto = monto + VALUES(monto), " +
+            "actualizado_en = VALUES(actualizado_en)";
+
+    private static final String SQL_ELIMINAR = "DELETE FROM estadisticas_resumen WHERE clave = ?";
+
+    private static final String SQL_LEER = "SELECT clave, conteo, monto FROM estadisticas_resumen";
+
+    // Igual que hibernate.jdbc.time_zone
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, ValorEstadistico> resumen = new ConcurrentHashMap<>();
+
+    private final Counter fallosEscritura;
+
+    public EstadisticasResumenService(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Transacción propia: se escribe después del commit del cambio de negocio
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("estadisticas.resumen.claves", resumen, Map::size)
+                .register(meterRegistry);
+        this.fallosEscritura = Counter.builder("estadisticas.resumen.fallos")
+                .description("Incrementos que no se pudieron persistir (se corrigen al reconciliar)")
+                .register(meterRegistry);
+    }
+
+    // ==================== LECTURA ====================
+
+    public ValorEstadistico obtener(String clave) {
+        return resumen.getOrDefault(clave, ValorEstadistico.CERO);
+    }
+
+    public long conteo(String clave) {
+        return obtener(clave).conteo();
+    }
+
+    public BigDecimal monto(String clave) {
+        return obtener(clave).monto();
+    }
+
+    public boolean isVacio() {
+        return resumen.isEmpty();
+    }
+
+    // ==================== ACTUALIZACIÓN INCREMENTAL ====================
+
+    /**
+     * Registra el cambio de uno o varios registros a partir de sus aportes antes y después.
+     * Con transacción activa se aplica al confirmarla; si se revierte, el resumen no cambia.
+     */
+    public void registrarCambio(AporteEstadistico antes, AporteEstadistico despues) {
+        AporteEstadistico delta = AporteEstadistico.diferencia(antes, despues);
+        if (delta.isVacio()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(delta.getValores());
+                }
+            });
+        } else {
+            aplicar(delta.getValores());
+        }
+    }
+
+    // ==================== SINCRONIZACIÓN CON LA TABLA ====================
+
+    /**
+     * Recarga la copia en memoria desde la tabla (recoge los cambios de otras instancias)
+     */
+    public void recargar() {
+        Map<String, ValorEstadistico> leidos = leer();
+        resumen.putAll(leidos);
+        resumen.keySet().retainAll(leidos.keySet());
+    }
+
+    /**
+     * Valores actuales de la tabla. Leídos en la misma transacción que el recálculo,
+     * sirven de base para corregir solo la desviación.
+     */
+    public Map<String, ValorEstadistico> leer() {
+        Map<String, ValorEstadistico> leidos = new HashMap<>();
+        jdbcTemplate.query(SQL_LEER, rs -> {
+            leidos.put(rs.getString(1), new ValorEstadistico(rs.getLong(2), rs.getBigDecimal(3)));
+        });
+        return leidos;
+    }
+
+    /**
+     * Corrige las claves recalculadas sumando la diferencia con lo leído en la misma instantánea
+     * (valor = valor + recalculado - leído) y elimina las obsoletas. No se sobrescribe el valor:
+     * los incrementos confirmados después de la instantánea se conservan.
+     */
+    public int corregir(Map<String, ValorEstadistico> recalculados, Map<String, ValorEstadistico> leidos,
+                        Collection<String> obsoletas) {
+        Map<String, ValorEstadistico> correcciones = new HashMap<>();
+        recalculados.forEach((clave, valor) -> {
+            ValorEstadistico correccion = valor.sumar(leidos.getOrDefault(clave, ValorEstadistico.CERO).negar());
+            if (!correccion.esCero()) {
+                correcciones.put(clave, correccion);
+            }
+        });
+        if (correcciones.isEmpty() && obsoletas.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<String, ValorEstadistico>> filas = new ArrayList<>(correcciones.entrySet());
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!filas.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_INCREMENTAR, filas, filas.size(), (ps, fila) -> {
+                    ps.setString(1, fila.getKey());
+                    ps.setLong(2, fila.getValue().conteo());
+                    ps.setBigDecimal(3, fila.getValue().monto());
+                    ps.setTimestamp(4, ahora, Calendar.getInstance(ZONA_JDBC));
+                });
+            }
+            if (!obsoletas.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_ELIMINAR, new ArrayList<>(obsoletas), obsoletas.size(),
+                        (ps, clave) -> ps.setString(1, clave));
+            }
+        });
+
+        correcciones.forEach((clave, correccion) -> resumen.merge(clave, correccion, ValorEstadistico::sumar));
+        resumen.keySet().removeAll(obsoletas);
+        return correcciones.size();
+    }
+
+    /**
+     * Claves actuales de la copia en memoria
+     */
+    public Collection<String> claves() {
+        return new ArrayList<>(resumen.keySet());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void aplicar(Map<String, ValorEstadistico> delta) {
+        delta.forEach((clave, valor) -> resumen.merge(clave, valor, ValorEstadistico::sumar));
+
+        List<Map.Entry<String, ValorEstadistico>> filas = new ArrayList<>(delta.entrySet());
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(SQL_INCREMENTAR, filas, filas.size(), (ps, fila) -> {
+                        ps.setString(1, fila.getKey());
+                        ps.setLong(2, fila.getValue().conteo());
+                        ps.setBigDecimal(3, fila.getValue().monto());
+                        ps.setTimestamp(4, ahora, Calendar.getInstance(ZONA_JDBC));
+                    }));
+        } catch (Exception e) {
+            // El cambio de negocio ya está confirmado; la reconciliación corrige la tabla
+            fallosEscritura.increment();
+            log.warn("No se pudo actualizar el resumen de estadísticas: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.estadisticas.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Valor de una clave del resumen: cantidad y monto acumulados
+ */
+public record ValorEstadistico(long conteo, BigDecimal monto) {
+
+    public static final ValorEstadistico CERO = new ValorEstadistico(0, BigDecimal.ZERO);
+
+    public ValorEstadistico sumar(ValorEstadistico otro) {
+        return new ValorEstadistico(conteo + otro.conteo, monto.add(otro.monto));
+    }
+
+    public ValorEstadistico negar() {
+        return new ValorEstadistico(-conteo, monto.negate());
+    }
+
+    /**
+     * Misma cantidad y mismo monto, sin considerar la escala del BigDecimal
+     */
+    public boolean equivalente(ValorEstadistico otro) {
+        return conteo == otro.conteo && monto.compareTo(otro.monto) == 0;
+    }
+
+    public boolean esCero() {
+        return conteo == 0 && monto.signum() == 0;
+    }
+}
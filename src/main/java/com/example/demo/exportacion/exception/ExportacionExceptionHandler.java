@@ -0,0 +1,25 @@
+package com.example.demo.exportacion.exception;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.io.IOException;
+
+/**
+ * Formato de exportación no soportado: 400 para todos los endpoints de exportación.
+ * Llega como causa del error de conversión del parámetro format, antes de que el controlador
+ * abra la respuesta. Va antes que los manejadores generales, que responderían 500.
+ */
+@ControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ExportacionExceptionHandler {
+
+    @ExceptionHandler(FormatoNoSoportadoException.class)
+    public void handleFormatoNoSoportado(FormatoNoSoportadoException ex, HttpServletResponse response)
+            throws IOException {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
+    }
+}
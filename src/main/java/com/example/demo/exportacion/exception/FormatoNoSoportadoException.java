@@ -0,0 +1,11 @@
+package com.example.demo.exportacion.exception;
+
+/**
+ * Valor del parámetro format que no corresponde a ningún formato de exportación
+ */
+public class FormatoNoSoportadoException extends IllegalArgumentException {
+
+    public FormatoNoSoportadoException(String formato) {
+        super("Formato de exportación no soportado: " + formato);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.exportacion.service;
+
+import java.util.function.Function;
+
+/**
+ * Columna de una exportación: título del encabezado y extractor del valor de cada fila
+ */
+public record ColumnaExportacion<T>(String titulo, Function<T, Object> valor) {
+}
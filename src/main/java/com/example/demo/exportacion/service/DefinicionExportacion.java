@@ -0,0 +1,85 @@
+package com.example.demo.exportacion.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Describe una exportación: nombre del archivo, hoja, columnas y origen de datos.
+ * El orden de las filas es el de la fuente.
+ *
+ * <pre>
+ * DefinicionExportacion.&lt;Impuesto&gt;de("impuestos", "Impuestos",
+ *                 FuentePaginada.porId(impuestoRepository::findParaExportacion, Impuesto::getId))
+ *         .columna("ID", Impuesto::getId)
+ *         .columna("Tasa (%)", Impuesto::getTasa);
+ * </pre>
+ */
+public class DefinicionExportacion<T> {
+
+    private final String nombreArchivo;
+    private final String nombreHoja;
+    private final FuentePaginada<T> fuente;
+    private final List<ColumnaExportacion<T>> columnas = new ArrayList<>();
+
+    private DefinicionExportacion(String nombreArchivo, String nombreHoja, FuentePaginada<T> fuente) {
+        this.nombreArchivo = nombreArchivo;
+        this.nombreHoja = nombreHoja;
+        this.fuente = fuente;
+    }
+
+    public static <T> DefinicionExportacion<T> de(String nombreArchivo, String nombreHoja, FuentePaginada<T> fuente) {
+        return new DefinicionExportacion<>(nombreArchivo, nombreHoja, fuente);
+    }
+
+    public DefinicionExportacion<T> columna(String titulo, Function<T, Object> valor) {
+        columnas.add(new ColumnaExportacion<>(titulo, valor));
+        return this;
+    }
+
+    public String getNombreArchivo() {
+        return nombreArchivo;
+    }
+
+    public String getNombreHoja() {
+        return nombreHoja;
+    }
+
+    public FuentePaginada<T> getFuente() {
+        return fuente;
+    }
+
+    public List<ColumnaExportacion<T>> getColumnas() {
+        return Collections.unmodifiableList(columnas);
+    }
+
+    public String[] getTitulos() {
+        return columnas.stream().map(ColumnaExportacion::titulo).toArray(String[]::new);
+    }
+
+    /**
+     * Claves para formatos estructurados (NDJSON): el título en camelCase sin acentos ni símbolos,
+     * por ejemplo "Método Pago" -> "metodoPago", "Tasa (%)" -> "tasa"
+     */
+    public String[] getClaves() {
+        return columnas.stream().map(columna -> aClave(columna.titulo())).toArray(String[]::new);
+    }
+
+    private static String aClave(String titulo) {
+        String sinAcentos = Normalizer.normalize(titulo, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        StringBuilder clave = new StringBuilder();
+        for (String palabra : sinAcentos.split("[^A-Za-z0-9]+")) {
+            if (palabra.isEmpty()) {
+                continue;
+            }
+            if (clave.length() == 0) {
+                clave.append(palabra.toLowerCase());
+            } else {
+                clave.append(Character.toUpperCase(palabra.charAt(0))).append(palabra.substring(1).toLowerCase());
+            }
+        }
+        return clave.toString();
+    }
+}
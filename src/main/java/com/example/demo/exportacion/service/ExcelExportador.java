@@ -0,0 +1,177 @@
+package com.example.demo.exportacion.service;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Motor de exportación a Excel compartido por todos los módulos.
+ * Escribe con SXSSF (ventana fija de filas en memoria, el resto va a un temporal en disco)
+ * directamente al output stream de la respuesta. El ancho de columnas se calcula
+ * sobre una muestra de las primeras filas en lugar de usar autoSizeColumn.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExcelExportador {
+
+    public static final String CONTENT_TYPE_XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private static final int VENTANA_FILAS = 100;
+    private static final int ANCHO_MAXIMO = 80;
+
+    private final LectorPaginado lectorPaginado;
+
+    @Value("${exportacion.filas-muestra:200}")
+    private int filasMuestra;
+
+    /**
+     * Exporta la definición como .xlsx a la respuesta y devuelve la cantidad de filas escritas
+     */
+    public <T> long exportar(DefinicionExportacion<T> definicion, HttpServletResponse response) throws IOException {
+        response.setContentType(CONTENT_TYPE_XLSX);
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + definicion.getNombreArchivo() + ".xlsx\"");
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS);
+        workbook.setCompressTempFiles(true);
+        try {
+            HojaStreaming hoja = new HojaStreaming(workbook, definicion);
+            long total = lectorPaginado.recorrer(definicion, hoja::agregar);
+            hoja.cerrar();
+
+            workbook.write(response.getOutputStream());
+            response.flushBuffer();
+            return total;
+        } finally {
+            workbook.close();
+            workbook.dispose();
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Hoja en escritura: acumula la muestra inicial, fija anchos y luego escribe fila a fila
+     */
+    private class HojaStreaming {
+
+        private final Sheet sheet;
+        private final String[] titulos;
+        private final CellStyle dataStyle;
+        private final CellStyle numeroStyle;
+        private final List<Object[]> muestra = new ArrayList<>();
+        private boolean anchosDefinidos = false;
+        private int rowNum = 1;
+
+        HojaStreaming(SXSSFWorkbook workbook, DefinicionExportacion<?> definicion) {
+            this.sheet = workbook.createSheet(definicion.getNombreHoja());
+            this.titulos = definicion.getTitulos();
+
+            // Estilos creados una sola vez para todo el archivo
+            CellStyle headerStyle = workbook.createCellStyle();
+            headerStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            Font headerFont = workbook.createFont();
+            headerFont.setColor(IndexedColors.WHITE.getIndex());
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+            aplicarBordes(headerStyle);
+
+            this.dataStyle = workbook.createCellStyle();
+            aplicarBordes(dataStyle);
+
+            this.numeroStyle = workbook.createCellStyle();
+            aplicarBordes(numeroStyle);
+            numeroStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < titulos.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(titulos[i]);
+                cell.setCellStyle(headerStyle);
+            }
+        }
+
+        void agregar(Object[] fila) {
+            if (!anchosDefinidos) {
+                muestra.add(fila);
+                if (muestra.size() >= filasMuestra) {
+                    definirAnchos();
+                }
+                return;
+            }
+            escribirFila(fila);
+        }
+
+        void cerrar() {
+            if (!anchosDefinidos) {
+                definirAnchos();
+            }
+        }
+
+        private void definirAnchos() {
+            int[] maximos = new int[titulos.length];
+            for (int i = 0; i < titulos.length; i++) {
+                maximos[i] = titulos[i].length();
+            }
+            for (Object[] fila : muestra) {
+                for (int i = 0; i < fila.length; i++) {
+                    maximos[i] = Math.max(maximos[i], texto(fila[i]).length());
+                }
+            }
+            for (int i = 0; i < maximos.length; i++) {
+                // Unidades de 1/256 de carácter, con margen para bordes y filtros
+                sheet.setColumnWidth(i, (Math.min(maximos[i], ANCHO_MAXIMO) + 3) * 256);
+            }
+
+            anchosDefinidos = true;
+            muestra.forEach(this::escribirFila);
+            muestra.clear();
+        }
+
+        private void escribirFila(Object[] fila) {
+            Row row = sheet.createRow(rowNum++);
+            for (int i = 0; i < fila.length; i++) {
+                Cell cell = row.createCell(i);
+                Object valor = fila[i];
+                if (valor instanceof BigDecimal || valor instanceof Double || valor instanceof Float) {
+                    cell.setCellValue(((Number) valor).doubleValue());
+                    cell.setCellStyle(numeroStyle);
+                } else if (valor instanceof Number numero) {
+                    cell.setCellValue(numero.doubleValue());
+                    cell.setCellStyle(dataStyle);
+                } else {
+                    cell.setCellValue(texto(valor));
+                    cell.setCellStyle(dataStyle);
+                }
+            }
+        }
+
+        private void aplicarBordes(CellStyle style) {
+            style.setBorderBottom(BorderStyle.THIN);
+            style.setBorderTop(BorderStyle.THIN);
+            style.setBorderRight(BorderStyle.THIN);
+            style.setBorderLeft(BorderStyle.THIN);
+        }
+    }
+
+    private static String texto(Object valor) {
+        return valor != null ? valor.toString() : "";
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.exportacion.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+/**
+ * Punto de entrada único para exportar una definición en el formato pedido
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportacionService {
+
+    private final ExcelExportador excelExportador;
+    private final TextoExportador textoExportador;
+
+    /**
+     * Exporta en el formato indicado y devuelve la cantidad de filas escritas.
+     * Los controladores reciben el formato ya convertido (ver FormatoExportacionConverter),
+     * así que un valor no soportado se rechaza con 400 antes de empezar a escribir.
+     */
+    public <T> long exportar(DefinicionExportacion<T> definicion, FormatoExportacion formato,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        return switch (formato) {
+            case XLSX -> excelExportador.exportar(definicion, response);
+            case CSV -> textoExportador.exportarCsv(definicion, request, response);
+            case NDJSON -> textoExportador.exportarNdjson(definicion, request, response);
+        };
+    }
+}
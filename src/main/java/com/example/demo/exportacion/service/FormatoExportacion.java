@@ -0,0 +1,43 @@
+package com.example.demo.exportacion.service;
+
+import com.example.demo.exportacion.exception.FormatoNoSoportadoException;
+
+/**
+ * Formatos de exportación soportados (parámetro format de los endpoints de exportación)
+ */
+public enum FormatoExportacion {
+    XLSX("xlsx", ExcelExportador.CONTENT_TYPE_XLSX),
+    CSV("csv", "text/csv; charset=UTF-8"),
+    NDJSON("ndjson", "application/x-ndjson; charset=UTF-8");
+
+    private final String extension;
+    private final String contentType;
+
+    FormatoExportacion(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Convierte el valor del parámetro format; null o vacío equivale a xlsx
+     */
+    public static FormatoExportacion desde(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return XLSX;
+        }
+        for (FormatoExportacion formato : values()) {
+            if (formato.extension.equalsIgnoreCase(valor.trim())) {
+                return formato;
+            }
+        }
+        throw new FormatoNoSoportadoException(valor);
+    }
+}
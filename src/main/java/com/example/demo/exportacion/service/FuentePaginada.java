@@ -0,0 +1,53 @@
+package com.example.demo.exportacion.service;
+
+import com.example.demo.paginacion.service.ConsultaKeyset;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Origen de los registros a exportar, leído por cursor (keyset): cada página continúa después
+ * del último registro de la anterior en lugar de usar OFFSET, así que el costo de una página no
+ * depende de su profundidad y las inserciones durante la exportación no duplican ni saltan filas.
+ */
+@FunctionalInterface
+public interface FuentePaginada<T> {
+
+    /**
+     * Hasta limite registros posteriores a ultimo en el orden de la fuente (ultimo null = primera página)
+     */
+    List<T> siguientes(T ultimo, int limite);
+
+    /**
+     * Consulta del repositorio ordenada por id ascendente que continúa después de un id
+     */
+    @FunctionalInterface
+    interface ConsultaPorId<T> {
+        List<T> buscar(long despuesDe, Pageable limite);
+    }
+
+    /**
+     * Fuente ordenada por id ascendente; la primera página continúa después del id 0
+     */
+    static <T> FuentePaginada<T> porId(ConsultaPorId<T> consulta, Function<T, Long> id) {
+        return (ultimo, limite) -> consulta.buscar(ultimo != null ? id.apply(ultimo) : 0L, PageRequest.of(0, limite));
+    }
+
+    /**
+     * Fuente ordenada por (fecha, id) descendente con las consultas keyset del repositorio (ver ConsultaKeyset)
+     *
+     * @param primera    primeras filas, ORDER BY fecha DESC, id DESC
+     * @param siguientes filas anteriores a (fecha, id), ORDER BY fecha DESC, id DESC
+     */
+    static <T> FuentePaginada<T> porFechaDescendente(Function<Pageable, List<T>> primera,
+                                                     ConsultaKeyset.ConsultaDesde<T> siguientes,
+                                                     Function<T, LocalDateTime> fecha,
+                                                     Function<T, Long> id) {
+        return (ultimo, limite) -> ultimo == null
+                ? primera.apply(PageRequest.of(0, limite))
+                : siguientes.buscar(fecha.apply(ultimo), id.apply(ultimo), PageRequest.of(0, limite));
+    }
+}
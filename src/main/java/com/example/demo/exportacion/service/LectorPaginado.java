@@ -0,0 +1,84 @@
+package com.example.demo.exportacion.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorre una exportación página a página.
+ * Cada página se lee y se convierte a valores en su propia transacción de solo lectura,
+ * así el contexto de persistencia no crece con el tamaño de la exportación. Las páginas se
+ * piden por cursor (ver FuentePaginada): el tiempo por página es el mismo al principio y al final.
+ */
+@Component
+public class LectorPaginado {
+
+    /**
+     * Recibe cada fila ya convertida a valores de celda
+     */
+    @FunctionalInterface
+    public interface ConsumidorFilas {
+        void aceptar(Object[] fila) throws IOException;
+    }
+
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoPagina;
+
+    public LectorPaginado(PlatformTransactionManager transactionManager,
+                          @Value("${exportacion.tamano-pagina:1000}") int tamanoPagina) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.tamanoPagina = tamanoPagina;
+    }
+
+    /**
+     * Recorre todas las páginas y devuelve la cantidad de filas procesadas
+     */
+    public <T> long recorrer(DefinicionExportacion<T> definicion, ConsumidorFilas consumidor) throws IOException {
+        T ultimo = null;
+        long total = 0;
+        boolean hayMas = true;
+
+        while (hayMas) {
+            T desde = ultimo;
+            PaginaConvertida<T> pagina = transactionTemplate.execute(status -> convertir(definicion, desde));
+
+            for (Object[] fila : pagina.filas()) {
+                consumidor.aceptar(fila);
+            }
+            total += pagina.filas().size();
+            // Una página incompleta es la última
+            hayMas = pagina.filas().size() == tamanoPagina;
+            ultimo = pagina.ultimo();
+        }
+
+        return total;
+    }
+
+    private <T> PaginaConvertida<T> convertir(DefinicionExportacion<T> definicion, T desde) {
+        List<T> registros = definicion.getFuente().siguientes(desde, tamanoPagina);
+        List<ColumnaExportacion<T>> columnas = definicion.getColumnas();
+        List<Object[]> filas = new ArrayList<>(registros.size());
+
+        for (T registro : registros) {
+            Object[] fila = new Object[columnas.size()];
+            for (int i = 0; i < columnas.size(); i++) {
+                fila[i] = columnas.get(i).valor().apply(registro);
+            }
+            filas.add(fila);
+        }
+
+        return new PaginaConvertida<>(filas, registros.isEmpty() ? desde : registros.get(registros.size() - 1));
+    }
+
+    /**
+     * Filas convertidas y último registro leído (posición del cursor para la página siguiente)
+     */
+    private record PaginaConvertida<T>(List<Object[]> filas, T ultimo) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.exportacion.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación en streaming a CSV o NDJSON.
+ * Las filas se escriben a medida que se leen, con un buffer fijo, y la respuesta
+ * se comprime con gzip cuando el cliente lo acepta.
+ */
+@Component
+@RequiredArgsConstructor
+public class TextoExportador {
+
+    private static final int TAMANO_BUFFER = 8 * 1024;
+    private static final String INICIO_FORMULA = "=+-@";
+
+    private final LectorPaginado lectorPaginado;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Exporta la definición como CSV y devuelve la cantidad de filas escritas
+     */
+    public <T> long exportarCsv(DefinicionExportacion<T> definicion,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (OutputStream out = abrirSalida(definicion, FormatoExportacion.CSV, request, response);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), TAMANO_BUFFER)) {
+
+            escribirLineaCsv(writer, definicion.getTitulos());
+            return lectorPaginado.recorrer(definicion, fila -> escribirLineaCsv(writer, fila));
+        }
+    }
+
+    /**
+     * Exporta la definición como NDJSON (un objeto JSON por línea) y devuelve la cantidad de filas escritas
+     */
+    public <T> long exportarNdjson(DefinicionExportacion<T> definicion,
+                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String[] claves = definicion.getClaves();
+
+        try (OutputStream out = abrirSalida(definicion, FormatoExportacion.NDJSON, request, response);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+
+            generator.setRootValueSeparator(null);
+            return lectorPaginado.recorrer(definicion, fila -> {
+                generator.writeStartObject();
+                for (int i = 0; i < fila.length; i++) {
+                    generator.writeFieldName(claves[i]);
+                    escribirValorJson(generator, fila[i]);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private OutputStream abrirSalida(DefinicionExportacion<?> definicion, FormatoExportacion formato,
+                                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(formato.getContentType());
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"" + definicion.getNombreArchivo() + "." + formato.getExtension() + "\"");
+        response.setHeader("Vary", "Accept-Encoding");
+
+        if (aceptaGzip(request.getHeader("Accept-Encoding"))) {
+            response.setHeader("Content-Encoding", "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), TAMANO_BUFFER);
+        }
+        return response.getOutputStream();
+    }
+
+    /**
+     * gzip aceptado salvo que venga explícitamente con q=0
+     */
+    private boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String parte : acceptEncoding.split(",")) {
+            String[] tokens = parte.trim().split(";");
+            if (!"gzip".equalsIgnoreCase(tokens[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String parametro = tokens[i].trim().replace(" ", "");
+                if (parametro.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parametro.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void escribirLineaCsv(Writer writer, Object[] valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            escribirCampoCsv(writer, textoCsv(valores[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private void escribirCampoCsv(Writer writer, String campo) throws IOException {
+        boolean requiereComillas = false;
+        for (int i = 0; i < campo.length() && !requiereComillas; i++) {
+            char c = campo.charAt(i);
+            requiereComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!requiereComillas) {
+            writer.write(campo);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < campo.length(); i++) {
+            char c = campo.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private String textoCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        String texto = valor.toString();
+        // Texto que una planilla tomaría como fórmula (=, +, -, @): se antepone ' para que quede como texto
+        if (!(valor instanceof Number) && !texto.isEmpty() && INICIO_FORMULA.indexOf(texto.charAt(0)) >= 0) {
+            return "'" + texto;
+        }
+        return texto;
+    }
+
+    private void escribirValorJson(JsonGenerator generator, Object valor) throws IOException {
+        if (valor == null) {
+            generator.writeNull();
+        } else if (valor instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (valor instanceof Long || valor instanceof Integer) {
+            generator.writeNumber(((Number) valor).longValue());
+        } else if (valor instanceof Number numero) {
+            generator.writeNumber(numero.doubleValue());
+        } else if (valor instanceof Boolean booleano) {
+            generator.writeBoolean(booleano);
+        } else {
+            generator.writeString(valor.toString());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.exportacion.web;
+
+import com.example.demo.exportacion.service.FormatoExportacion;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Convierte el parámetro format (xlsx, csv, ndjson; sin distinguir mayúsculas) de los endpoints de exportación
+ */
+@Component
+public class FormatoExportacionConverter implements Converter<String, FormatoExportacion> {
+
+    @Override
+    public FormatoExportacion convert(String valor) {
+        return FormatoExportacion.desde(valor);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.importacion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de una importación masiva (CSV o XLSX)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacionDTO {
+
+    private String id;
+
+    private String tipo;
+
+    private String archivo;
+
+    private String usuario;
+
+    /**
+     * EN_CURSO, COMPLETADA o FALLIDA
+     */
+    private String estado;
+
+    private long filasLeidas;
+
+    private long importadas;
+
+    private long rechazadas;
+
+    private LocalDateTime inicio;
+
+    private LocalDateTime fin;
+
+    private String mensaje;
+}
@@ -0,0 +1,144 @@
+package com.example.demo.importacion.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Una fila del archivo importado con acceso a sus valores por nombre de columna.
+ * Los métodos de conversión agregan el problema a la lista de errores y devuelven null,
+ * para informar todos los errores de la fila de una vez.
+ */
+public final class FilaImportacion {
+
+    private static final DateTimeFormatter FECHA_DIA_MES_ANIO = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FECHA_HORA_ISO = DateTimeFormatter.ofPattern("yyyy-MM-dd[ ]['T']HH:mm[:ss]");
+
+    private final long numero;
+    private final Map<String, Integer> columnas;
+    private final List<String> valores;
+
+    public FilaImportacion(long numero, Map<String, Integer> columnas, List<String> valores) {
+        this.numero = numero;
+        this.columnas = columnas;
+        this.valores = valores;
+    }
+
+    /**
+     * Número de fila en el archivo (1 = encabezado)
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Valor sin espacios al inicio ni al final; null si la columna no existe o está vacía
+     */
+    public String texto(String columna) {
+        Integer indice = columnas.get(columna);
+        if (indice == null || indice >= valores.size()) {
+            return null;
+        }
+        String valor = valores.get(indice);
+        if (valor == null) {
+            return null;
+        }
+        valor = valor.trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    public String obligatorio(String columna, List<String> errores) {
+        String valor = texto(columna);
+        if (valor == null) {
+            errores.add(columna + ": es obligatorio");
+        }
+        return valor;
+    }
+
+    /**
+     * Texto limitado al largo de la columna de destino
+     */
+    public String texto(String columna, int largoMaximo, List<String> errores) {
+        String valor = texto(columna);
+        if (valor != null && valor.length() > largoMaximo) {
+            errores.add(columna + ": supera " + largoMaximo + " caracteres");
+            return null;
+        }
+        return valor;
+    }
+
+    /**
+     * Número con punto decimal; se acepta coma decimal si no hay punto ("1234,50")
+     */
+    public BigDecimal decimal(String columna, List<String> errores) {
+        String valor = texto(columna);
+        if (valor == null) {
+            return null;
+        }
+        String normalizado = valor.replace(" ", "");
+        if (normalizado.indexOf('.') < 0) {
+            normalizado = normalizado.replace(',', '.');
+        }
+        try {
+            return new BigDecimal(normalizado);
+        } catch (NumberFormatException e) {
+            errores.add(columna + ": número inválido '" + valor + "'");
+            return null;
+        }
+    }
+
+    /**
+     * Fecha con hora opcional: yyyy-MM-dd, yyyy-MM-dd HH:mm[:ss] o dd/MM/yyyy
+     */
+    public LocalDateTime fechaHora(String columna, List<String> errores) {
+        String valor = texto(columna);
+        if (valor == null) {
+            return null;
+        }
+        try {
+            if (valor.length() <= 10) {
+                LocalDate fecha = valor.indexOf('/') > 0
+                        ? LocalDate.parse(valor, FECHA_DIA_MES_ANIO)
+                        : LocalDate.parse(valor);
+                return fecha.atStartOfDay();
+            }
+            return LocalDateTime.parse(valor, FECHA_HORA_ISO);
+        } catch (DateTimeParseException e) {
+            errores.add(columna + ": fecha inválida '" + valor + "'");
+            return null;
+        }
+    }
+
+    /**
+     * Valor de un enum por nombre, sin distinguir mayúsculas y con espacios como guion bajo
+     */
+    public <E extends Enum<E>> E enumerado(String columna, Class<E> tipo, E porDefecto, List<String> errores) {
+        String valor = texto(columna);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Enum.valueOf(tipo, valor.toUpperCase().replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            errores.add(columna + ": valor no reconocido '" + valor + "'");
+            return null;
+        }
+    }
+
+    public Long entero(String columna, List<String> errores) {
+        String valor = texto(columna);
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(valor);
+        } catch (NumberFormatException e) {
+            errores.add(columna + ": entero inválido '" + valor + "'");
+            return null;
+        }
+    }
+}
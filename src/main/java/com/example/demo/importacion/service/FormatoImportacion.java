@@ -0,0 +1,34 @@
+package com.example.demo.importacion.service;
+
+import java.util.Locale;
+
+/**
+ * Formatos de archivo aceptados por la importación, según la extensión del archivo subido
+ */
+public enum FormatoImportacion {
+    CSV("csv"),
+    XLSX("xlsx");
+
+    private final String extension;
+
+    FormatoImportacion(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static FormatoImportacion desde(String nombreArchivo) {
+        if (nombreArchivo != null) {
+            String nombre = nombreArchivo.toLowerCase(Locale.ROOT);
+            for (FormatoImportacion formato : values()) {
+                if (nombre.endsWith("." + formato.extension)) {
+                    return formato;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Formato de importación no soportado: " + nombreArchivo +
+                " (se acepta .csv o .xlsx)");
+    }
+}
@@ -0,0 +1,435 @@
+package com.example.demo.importacion.service;
+
+import com.example.demo.importacion.dto.ImportacionDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Importación masiva de registros desde CSV o XLSX.
+ * El archivo se lee en streaming y se agrupa en lotes de tamano-lote filas; cada lote se
+ * valida en el pool de validación mientras se leen los siguientes, y los lotes validados
+ * se escriben en orden desde el hilo de la importación con un batch JDBC por lote y su
+ * propia transacción. Como mucho hay hilos-validacion + 1 lotes en memoria.
+ * Las filas rechazadas (validación, duplicados o lote rechazado por la base de datos) se
+ * registran en un informe CSV que se descarga al terminar.
+ * El estado de cada importación se guarda en memoria: se consulta en la instancia que la recibió.
+ */
+@Service
+@Slf4j
+public class ImportacionService {
+
+    public static final String EN_CURSO = "EN_CURSO";
+    public static final String COMPLETADA = "COMPLETADA";
+    public static final String FALLIDA = "FALLIDA";
+
+    private final Map<String, Importador<?>> importadores = new HashMap<>();
+    private final Map<FormatoImportacion, LectorArchivo> lectores = new EnumMap<>(FormatoImportacion.class);
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Path directorio;
+    private final int tamanoLote;
+    private final int hilosValidacion;
+    private final Duration retencion;
+
+    private final ExecutorService importaciones = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService validacion;
+    private final Semaphore permisos;
+    private final Map<String, Estado> estados = new ConcurrentHashMap<>();
+
+    public ImportacionService(List<Importador<?>> importadores,
+                              List<LectorArchivo> lectores,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${importacion.directorio:./archivo/importacion}") String directorio,
+                              @Value("${importacion.tamano-lote:2000}") int tamanoLote,
+                              @Value("${importacion.hilos-validacion:0}") int hilosValidacion,
+                              @Value("${importacion.max-concurrentes:2}") int maxConcurrentes,
+                              @Value("${importacion.retencion-horas:24}") long retencionHoras) {
+        importadores.forEach(importador -> this.importadores.put(importador.getTipo(), importador));
+        lectores.forEach(lector -> this.lectores.put(lector.getFormato(), lector));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.directorio = Paths.get(directorio);
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.hilosValidacion = hilosValidacion > 0
+                ? hilosValidacion
+                : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.validacion = Executors.newFixedThreadPool(this.hilosValidacion);
+        this.permisos = new Semaphore(Math.max(1, maxConcurrentes));
+        this.retencion = Duration.ofHours(Math.max(1, retencionHoras));
+    }
+
+    @PreDestroy
+    public void detener() {
+        importaciones.shutdownNow();
+        validacion.shutdownNow();
+    }
+
+    /**
+     * Guarda el archivo y lanza la importación en segundo plano; devuelve el estado inicial
+     */
+    public ImportacionDTO iniciar(String tipo, MultipartFile archivo, String usuario) throws IOException {
+        Importador<?> importador = importadores.get(tipo);
+        if (importador == null) {
+            throw new IllegalArgumentException("Tipo de importación desconocido: " + tipo);
+        }
+        if (archivo == null || archivo.isEmpty()) {
+            throw new IllegalArgumentException("El archivo está vacío");
+        }
+        LectorArchivo lector = lectores.get(FormatoImportacion.desde(archivo.getOriginalFilename()));
+        if (!permisos.tryAcquire()) {
+            throw new IllegalStateException("Hay demasiadas importaciones en curso; intente más tarde");
+        }
+
+        Estado estado;
+        try {
+            limpiarAntiguas();
+            Files.createDirectories(directorio);
+            estado = new Estado(UUID.randomUUID().toString(), tipo, archivo.getOriginalFilename(), usuario);
+            Path copia = directorio.resolve(estado.id + "." + lector.getFormato().getExtension());
+            archivo.transferTo(copia);
+            estados.put(estado.id, estado);
+            importaciones.submit(() -> {
+                try {
+                    ejecutar(estado, importador, lector, copia);
+                } finally {
+                    permisos.release();
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+        log.info("Importación {} de {} iniciada por {}: {}", estado.id, tipo, usuario, archivo.getOriginalFilename());
+        return estado.aDto();
+    }
+
+    public Optional<ImportacionDTO> obtener(String id) {
+        return Optional.ofNullable(estados.get(id)).map(Estado::aDto);
+    }
+
+    /**
+     * Informe de filas rechazadas; vacío si la importación no existe o todavía no terminó
+     */
+    public Optional<Path> informeErrores(String id) {
+        Estado estado = estados.get(id);
+        if (estado == null || EN_CURSO.equals(estado.estado)) {
+            return Optional.empty();
+        }
+        Path informe = rutaInforme(id);
+        return Files.exists(informe) ? Optional.of(informe) : Optional.empty();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private <T> void ejecutar(Estado estado, Importador<T> importador, LectorArchivo lector, Path archivo) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        try (InformeErrores informe = new InformeErrores(rutaInforme(estado.id))) {
+            Importador.Sesion<T> sesion = importador.iniciar(estado.usuario);
+            Canalizacion<T> canalizacion = new Canalizacion<>(estado, importador, sesion, informe);
+            try {
+                lector.leer(archivo, canalizacion::recibir);
+                canalizacion.terminar();
+            } finally {
+                canalizacion.cancelar();
+            }
+            sesion.finalizar(estado.importadas.get());
+            estado.terminar(COMPLETADA, null);
+            log.info("Importación {} de {} terminada: {} filas, {} importadas, {} rechazadas", estado.id,
+                    estado.tipo, estado.filasLeidas.get(), estado.importadas.get(), estado.rechazadas.get());
+        } catch (Exception e) {
+            Throwable causa = e instanceof UncheckedIOException ? e.getCause() : e;
+            estado.terminar(FALLIDA, causa.getMessage());
+            log.error("Importación {} de {} fallida: {}", estado.id, estado.tipo, causa.getMessage(), causa);
+        } finally {
+            muestra.stop(Timer.builder("importacion.duracion")
+                    .description("Duración de cada importación masiva")
+                    .tag("tipo", estado.tipo)
+                    .tag("estado", estado.estado)
+                    .register(meterRegistry));
+            Counter.builder("importacion.filas").tag("tipo", estado.tipo).tag("resultado", "importada")
+                    .register(meterRegistry).increment(estado.importadas.get());
+            Counter.builder("importacion.filas").tag("tipo", estado.tipo).tag("resultado", "rechazada")
+                    .register(meterRegistry).increment(estado.rechazadas.get());
+            try {
+                Files.deleteIfExists(archivo);
+            } catch (IOException e) {
+                log.warn("No se pudo eliminar el archivo importado {}: {}", archivo, e.getMessage());
+            }
+        }
+    }
+
+    private Path rutaInforme(String id) {
+        return directorio.resolve(id + "-errores.csv");
+    }
+
+    /**
+     * Descarta el estado y el informe de las importaciones terminadas hace más de retencion-horas
+     */
+    private void limpiarAntiguas() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencion);
+        estados.values().removeIf(estado -> {
+            if (estado.fin == null || estado.fin.isAfter(limite)) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(rutaInforme(estado.id));
+            } catch (IOException e) {
+                log.warn("No se pudo eliminar el informe {}: {}", estado.id, e.getMessage());
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Nombre de columna normalizado: minúsculas, sin acentos y con guion bajo ("Razón Social" -> "razon_social")
+     */
+    public static String normalizarColumna(String titulo) {
+        if (titulo == null) {
+            return "";
+        }
+        String sinAcentos = Normalizer.normalize(titulo.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinAcentos.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "_").replaceAll("^_|_$", "");
+    }
+
+    /**
+     * Lectura, validación en paralelo y escritura en orden de una importación
+     */
+    private final class Canalizacion<T> {
+
+        private final Estado estado;
+        private final Importador<T> importador;
+        private final Importador.Sesion<T> sesion;
+        private final InformeErrores informe;
+        private final Deque<Future<List<Validada<T>>>> enCurso = new ArrayDeque<>();
+
+        private Map<String, Integer> columnas;
+        private List<FilaImportacion> lote = new ArrayList<>();
+
+        private Canalizacion(Estado estado, Importador<T> importador, Importador.Sesion<T> sesion,
+                             InformeErrores informe) {
+            this.estado = estado;
+            this.importador = importador;
+            this.sesion = sesion;
+            this.informe = informe;
+        }
+
+        void recibir(long numero, List<String> valores) {
+            if (columnas == null) {
+                leerEncabezado(valores);
+                return;
+            }
+            estado.filasLeidas.incrementAndGet();
+            lote.add(new FilaImportacion(numero, columnas, valores));
+            if (lote.size() >= tamanoLote) {
+                despachar();
+            }
+        }
+
+        void terminar() {
+            if (columnas == null) {
+                throw new IllegalArgumentException("El archivo no tiene encabezado");
+            }
+            if (!lote.isEmpty()) {
+                despachar();
+            }
+            while (!enCurso.isEmpty()) {
+                escribir(esperar(enCurso.poll()));
+            }
+        }
+
+        void cancelar() {
+            enCurso.forEach(futuro -> futuro.cancel(true));
+            enCurso.clear();
+        }
+
+        private void leerEncabezado(List<String> valores) {
+            Map<String, Integer> indice = new HashMap<>();
+            for (int i = 0; i < valores.size(); i++) {
+                indice.putIfAbsent(normalizarColumna(valores.get(i)), i);
+            }
+            List<String> faltantes = importador.getColumnasObligatorias().stream()
+                    .filter(columna -> !indice.containsKey(columna))
+                    .toList();
+            if (!faltantes.isEmpty()) {
+                throw new IllegalArgumentException("Faltan columnas en el encabezado: " + String.join(", ", faltantes));
+            }
+            columnas = Map.copyOf(indice);
+        }
+
+        /**
+         * Envía el lote a validar; si ya hay hilos-validacion lotes en curso, escribe el más antiguo
+         * antes de seguir leyendo para acotar la memoria
+         */
+        private void despachar() {
+            List<FilaImportacion> filas = lote;
+            lote = new ArrayList<>(tamanoLote);
+            enCurso.add(validacion.submit(() -> validar(filas)));
+            while (enCurso.size() > hilosValidacion) {
+                escribir(esperar(enCurso.poll()));
+            }
+        }
+
+        private List<Validada<T>> validar(List<FilaImportacion> filas) {
+            List<Validada<T>> validadas = new ArrayList<>(filas.size());
+            for (FilaImportacion fila : filas) {
+                List<String> errores = new ArrayList<>(2);
+                T registro = null;
+                try {
+                    registro = sesion.validar(fila, errores);
+                } catch (RuntimeException e) {
+                    errores.add(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                }
+                validadas.add(new Validada<>(fila.getNumero(), errores.isEmpty() ? registro : null, errores));
+            }
+            return validadas;
+        }
+
+        /**
+         * Reserva las claves únicas en orden de archivo y escribe las filas válidas del lote
+         * en una transacción; si la base de datos rechaza el lote, todas sus filas van al informe
+         * y sus claves se liberan
+         */
+        private void escribir(List<Validada<T>> validadas) {
+            List<T> registros = new ArrayList<>(validadas.size());
+            List<Long> numeros = new ArrayList<>(validadas.size());
+            for (Validada<T> validada : validadas) {
+                if (validada.registro() == null) {
+                    rechazar(validada.numero(), validada.errores().isEmpty()
+                            ? List.of("Fila no importable") : validada.errores());
+                    continue;
+                }
+                String duplicado = sesion.registrar(validada.registro());
+                if (duplicado != null) {
+                    rechazar(validada.numero(), List.of(duplicado));
+                    continue;
+                }
+                registros.add(validada.registro());
+                numeros.add(validada.numero());
+            }
+            if (registros.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> sesion.escribir(registros));
+                estado.importadas.addAndGet(registros.size());
+            } catch (RuntimeException e) {
+                String motivo = "Lote rechazado por la base de datos: " + causaRaiz(e);
+                log.warn("Importación {}: lote de las filas {}-{} rechazado: {}", estado.id,
+                        numeros.get(0), numeros.get(numeros.size() - 1), causaRaiz(e));
+                numeros.forEach(numero -> rechazar(numero, List.of(motivo)));
+                // Ninguna fila del lote quedó escrita: sus claves no deben bloquear filas posteriores
+                registros.forEach(sesion::liberar);
+            }
+        }
+
+        private void rechazar(long numero, List<String> errores) {
+            informe.agregar(numero, errores);
+            estado.rechazadas.incrementAndGet();
+        }
+
+        private List<Validada<T>> esperar(Future<List<Validada<T>>> futuro) {
+            try {
+                return futuro.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Importación interrumpida", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error validando un lote: " + causaRaiz(e), e.getCause());
+            }
+        }
+    }
+
+    private static String causaRaiz(Throwable error) {
+        Throwable causa = error;
+        while (causa.getCause() != null && causa.getCause() != causa) {
+            causa = causa.getCause();
+        }
+        return causa.getMessage() != null ? causa.getMessage() : causa.getClass().getSimpleName();
+    }
+
+    private record Validada<T>(long numero, T registro, List<String> errores) {
+    }
+
+    /**
+     * Estado mutable de una importación; el DTO es una copia para la respuesta
+     */
+    private static final class Estado {
+
+        private final String id;
+        private final String tipo;
+        private final String archivo;
+        private final String usuario;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final AtomicLong filasLeidas = new AtomicLong();
+        private final AtomicLong importadas = new AtomicLong();
+        private final AtomicLong rechazadas = new AtomicLong();
+        private volatile String estado = EN_CURSO;
+        private volatile LocalDateTime fin;
+        private volatile String mensaje;
+
+        private Estado(String id, String tipo, String archivo, String usuario) {
+            this.id = id;
+            this.tipo = tipo;
+            this.archivo = archivo;
+            this.usuario = usuario;
+        }
+
+        private void terminar(String estadoFinal, String mensajeFinal) {
+            this.mensaje = mensajeFinal;
+            this.fin = LocalDateTime.now();
+            this.estado = estadoFinal;
+        }
+
+        private ImportacionDTO aDto() {
+            return ImportacionDTO.builder()
+                    .id(id)
+                    .tipo(tipo)
+                    .archivo(archivo)
+                    .usuario(usuario)
+                    .estado(estado)
+                    .filasLeidas(filasLeidas.get())
+                    .importadas(importadas.get())
+                    .rechazadas(rechazadas.get())
+                    .inicio(inicio)
+                    .fin(fin)
+                    .mensaje(mensaje)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.importacion.service;
+
+import java.util.List;
+
+/**
+ * Tipo de registro importable desde CSV o XLSX. Cada módulo registra el suyo como bean
+ * y ImportacionService lo elige por {@link #getTipo()}.
+ */
+public interface Importador<T> {
+
+    /**
+     * Nombre usado en la URL y en el informe (ej. "contribuyentes")
+     */
+    String getTipo();
+
+    /**
+     * Columnas que debe traer el encabezado, en minúsculas y con guion bajo (ej. "razon_social")
+     */
+    List<String> getColumnasObligatorias();
+
+    /**
+     * Precarga lo necesario para validar sin consultas por fila (RIF existentes, referencias...).
+     * Se llama una vez por importación.
+     */
+    Sesion<T> iniciar(String usuario);
+
+    /**
+     * Estado de una importación en curso.
+     * {@link #validar} corre en paralelo desde varios hilos y solo debe leer lo precargado;
+     * {@link #registrar}, {@link #escribir} y {@link #liberar} se llaman en orden desde un único hilo.
+     */
+    interface Sesion<T> {
+
+        /**
+         * Convierte y valida la fila; agrega los problemas a errores y devuelve null si no es importable
+         */
+        T validar(FilaImportacion fila, List<String> errores);
+
+        /**
+         * Reserva la clave única del registro (RIF, referencia...). Devuelve el mensaje de error
+         * si ya apareció antes en el archivo, o null si se puede escribir.
+         */
+        String registrar(T registro);
+
+        /**
+         * Devuelve la clave reservada por {@link #registrar} cuando la base de datos rechazó el lote
+         * del registro, para que una fila posterior con la misma clave se pueda importar
+         */
+        void liberar(T registro);
+
+        /**
+         * Inserta el lote con un batch JDBC. Corre dentro de la transacción del lote.
+         */
+        void escribir(List<T> registros);
+
+        /**
+         * Se llama al terminar la importación (recargar índices, etc.)
+         */
+        default void finalizar(long importados) {
+        }
+    }
+}
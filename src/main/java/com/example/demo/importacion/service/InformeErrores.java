@@ -0,0 +1,55 @@
+package com.example.demo.importacion.service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Informe CSV de las filas rechazadas (número de fila y motivos), escrito a medida que
+ * avanza la importación. Lo usa un único hilo: el que escribe los lotes.
+ */
+class InformeErrores implements Closeable {
+
+    private final Writer writer;
+    private long filas;
+
+    InformeErrores(Path archivo) throws IOException {
+        BufferedWriter salida = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8);
+        // BOM para que Excel abra el informe como UTF-8
+        salida.write('\uFEFF');
+        salida.write("fila,errores\n");
+        this.writer = salida;
+    }
+
+    void agregar(long fila, List<String> errores) {
+        agregar(fila, String.join("; ", errores));
+    }
+
+    void agregar(long fila, String errores) {
+        try {
+            writer.write(Long.toString(fila));
+            writer.write(',');
+            writer.write('"');
+            writer.write(errores.replace("\"", "\"\""));
+            writer.write("\"\n");
+            filas++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long getFilas() {
+        return filas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
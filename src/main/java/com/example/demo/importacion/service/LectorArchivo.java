@@ -0,0 +1,23 @@
+package com.example.demo.importacion.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Lee un archivo fila por fila sin cargarlo completo en memoria
+ */
+public interface LectorArchivo {
+
+    FormatoImportacion getFormato();
+
+    /**
+     * Entrega cada fila en orden con su número en el archivo (desde 1); las filas vacías se omiten
+     */
+    void leer(Path archivo, ReceptorFilas receptor) throws IOException;
+
+    @FunctionalInterface
+    interface ReceptorFilas {
+        void fila(long numero, List<String> valores) throws IOException;
+    }
+}
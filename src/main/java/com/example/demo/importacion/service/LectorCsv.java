@@ -0,0 +1,131 @@
+package com.example.demo.importacion.service;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector de CSV en streaming (RFC 4180): comillas dobles, comillas escapadas y saltos de
+ * línea dentro de un campo. El separador (coma o punto y coma) se detecta en el encabezado.
+ */
+@Component
+public class LectorCsv implements LectorArchivo {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final char BOM = '\uFEFF';
+
+    @Override
+    public FormatoImportacion getFormato() {
+        return FormatoImportacion.CSV;
+    }
+
+    @Override
+    public void leer(Path archivo, ReceptorFilas receptor) throws IOException {
+        try (BufferedReader entrada = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(archivo), StandardCharsets.UTF_8), TAMANO_BUFFER)) {
+            char separador = detectarSeparador(entrada);
+
+            List<String> campos = new ArrayList<>();
+            StringBuilder campo = new StringBuilder();
+            boolean entreComillas = false;
+            boolean inicioCampo = true;
+            long numero = 1;
+            long numeroInicio = 1;
+            int c = leerSinBom(entrada);
+
+            while (c != -1) {
+                char ch = (char) c;
+                if (entreComillas) {
+                    if (ch == '"') {
+                        int siguiente = entrada.read();
+                        if (siguiente == '"') {
+                            campo.append('"');
+                        } else {
+                            entreComillas = false;
+                            c = siguiente;
+                            continue;
+                        }
+                    } else {
+                        if (ch == '\n') {
+                            numero++;
+                        }
+                        campo.append(ch);
+                    }
+                } else if (ch == '"' && inicioCampo) {
+                    entreComillas = true;
+                    inicioCampo = false;
+                } else if (ch == separador) {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                    inicioCampo = true;
+                } else if (ch == '\r' || ch == '\n') {
+                    if (ch == '\r') {
+                        entrada.mark(1);
+                        if (entrada.read() != '\n') {
+                            entrada.reset();
+                        }
+                    }
+                    campos.add(campo.toString());
+                    entregar(receptor, numeroInicio, campos);
+                    campos = new ArrayList<>(campos.size());
+                    campo.setLength(0);
+                    inicioCampo = true;
+                    numero++;
+                    numeroInicio = numero;
+                } else {
+                    campo.append(ch);
+                    inicioCampo = false;
+                }
+                c = entrada.read();
+            }
+            if (!campos.isEmpty() || campo.length() > 0) {
+                campos.add(campo.toString());
+                entregar(receptor, numeroInicio, campos);
+            }
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static void entregar(ReceptorFilas receptor, long numero, List<String> campos) throws IOException {
+        for (String valor : campos) {
+            if (!valor.isBlank()) {
+                receptor.fila(numero, campos);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Punto y coma si aparece más que la coma en la primera línea (planillas con coma decimal)
+     */
+    private static char detectarSeparador(BufferedReader entrada) throws IOException {
+        entrada.mark(TAMANO_BUFFER);
+        int comas = 0;
+        int puntosYComa = 0;
+        int c;
+        int leidos = 0;
+        while ((c = entrada.read()) != -1 && c != '\n' && c != '\r' && leidos++ < TAMANO_BUFFER - 1) {
+            if (c == ',') {
+                comas++;
+            } else if (c == ';') {
+                puntosYComa++;
+            }
+        }
+        entrada.reset();
+        return puntosYComa > comas ? ';' : ',';
+    }
+
+    private static int leerSinBom(Reader entrada) throws IOException {
+        int c = entrada.read();
+        return c == BOM ? entrada.read() : c;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.importacion.service;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Lector de XLSX con la API de eventos (SAX) de POI: recorre el XML de la primera hoja
+ * celda por celda en lugar de construir el libro en memoria. Solo la tabla de textos
+ * compartidos se mantiene en memoria. Las fechas se entregan en ISO (yyyy-MM-dd HH:mm:ss)
+ * y los números sin separador de miles, independientemente del formato de la celda.
+ */
+@Component
+public class LectorXlsx implements LectorArchivo {
+
+    @Override
+    public FormatoImportacion getFormato() {
+        return FormatoImportacion.XLSX;
+    }
+
+    @Override
+    public void leer(Path archivo, ReceptorFilas receptor) throws IOException {
+        try (OPCPackage paquete = OPCPackage.open(archivo.toFile(), PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(paquete);
+            ReadOnlySharedStringsTable textos = new ReadOnlySharedStringsTable(paquete);
+            StylesTable estilos = xssfReader.getStylesTable();
+
+            Iterator<InputStream> hojas = xssfReader.getSheetsData();
+            if (!hojas.hasNext()) {
+                return;
+            }
+            try (InputStream hoja = hojas.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(estilos, null, textos,
+                        new ManejadorHoja(receptor), new FormatoCeldas(), false));
+                parser.parse(new InputSource(hoja));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("No se pudo leer el archivo XLSX: " + e.getMessage(), e);
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Arma cada fila con las celdas en su columna (las celdas vacías no generan eventos)
+     */
+    private static final class ManejadorHoja implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final ReceptorFilas receptor;
+        private final List<String> valores = new ArrayList<>();
+        private boolean conValores;
+
+        private ManejadorHoja(ReceptorFilas receptor) {
+            this.receptor = receptor;
+        }
+
+        @Override
+        public void startRow(int numeroFila) {
+            valores.clear();
+            conValores = false;
+        }
+
+        @Override
+        public void endRow(int numeroFila) {
+            if (!conValores) {
+                return;
+            }
+            try {
+                receptor.fila(numeroFila + 1L, new ArrayList<>(valores));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void cell(String referencia, String valor, XSSFComment comentario) {
+            int columna = new CellReference(referencia).getCol();
+            while (valores.size() < columna) {
+                valores.add(null);
+            }
+            valores.add(valor);
+            if (valor != null && !valor.isBlank()) {
+                conValores = true;
+            }
+        }
+    }
+
+    /**
+     * Formato neutral para las celdas numéricas: fechas en ISO y números en texto plano
+     */
+    private static final class FormatoCeldas extends DataFormatter {
+
+        private static final DateTimeFormatter FECHA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        @Override
+        public String formatRawCellContents(double valor, int indiceFormato, String formato) {
+            if (DateUtil.isADateFormat(indiceFormato, formato) && DateUtil.isValidExcelDate(valor)) {
+                LocalDateTime fecha = DateUtil.getLocalDateTime(valor);
+                return fecha.format(FECHA_HORA);
+            }
+            return BigDecimal.valueOf(valor).stripTrailingZeros().toPlainString();
+        }
+    }
+}
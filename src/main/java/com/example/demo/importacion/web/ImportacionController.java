@@ -0,0 +1,111 @@
+package com.example.demo.importacion.web;
+
+import com.example.demo.importacion.dto.ImportacionDTO;
+import com.example.demo.importacion.service.ImportacionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Importación masiva desde CSV o XLSX. La carga responde enseguida con el id de la importación;
+ * el avance y el informe de filas rechazadas se consultan por ese id (solo quien la inició).
+ */
+@Controller
+@RequestMapping("/importacion")
+@RequiredArgsConstructor
+@Slf4j
+public class ImportacionController {
+
+    private final ImportacionService importacionService;
+
+    @PostMapping("/api/contribuyentes")
+    @PreAuthorize("hasAnyAuthority('CONTRIBUYENTES_WRITE','CONTRIBUYENTES_GESTIONAR') or hasRole('ADMIN_TRIBUTARIO')")
+    @ResponseBody
+    public ResponseEntity<?> importarContribuyentes(@RequestParam("archivo") MultipartFile archivo,
+                                                    Authentication authentication) {
+        return iniciar("contribuyentes", archivo, authentication);
+    }
+
+    @PostMapping("/api/pagos")
+    @PreAuthorize("hasAnyAuthority('PAGOS_WRITE', 'PAGOS_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<?> importarPagos(@RequestParam("archivo") MultipartFile archivo,
+                                           Authentication authentication) {
+        return iniciar("pagos", archivo, authentication);
+    }
+
+    @PostMapping("/api/declaraciones")
+    @PreAuthorize("hasAuthority('DECLARACIONES_WRITE') or hasRole('ADMIN_TRIBUTARIO')")
+    @ResponseBody
+    public ResponseEntity<?> importarDeclaraciones(@RequestParam("archivo") MultipartFile archivo,
+                                                   Authentication authentication) {
+        return iniciar("declaraciones", archivo, authentication);
+    }
+
+    /**
+     * Avance de la importación (filas leídas, importadas y rechazadas)
+     */
+    @GetMapping("/api/{id}")
+    @ResponseBody
+    public ResponseEntity<ImportacionDTO> obtener(@PathVariable String id, Authentication authentication) {
+        return propia(id, authentication)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Informe CSV de las filas rechazadas, disponible cuando la importación terminó
+     */
+    @GetMapping("/api/{id}/errores")
+    public ResponseEntity<Resource> descargarErrores(@PathVariable String id, Authentication authentication) {
+        if (propia(id, authentication).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return importacionService.informeErrores(id)
+                .<ResponseEntity<Resource>>map(informe -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"importacion-" + id + "-errores.csv\"")
+                        .body(new FileSystemResource(informe)))
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private ResponseEntity<?> iniciar(String tipo, MultipartFile archivo, Authentication authentication) {
+        try {
+            ImportacionDTO importacion = importacionService.iniciar(tipo, archivo, authentication.getName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importacion);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al iniciar la importación de {}", tipo, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "No se pudo iniciar la importación: " + e.getMessage()));
+        }
+    }
+
+    private Optional<ImportacionDTO> propia(String id, Authentication authentication) {
+        return importacionService.obtener(id)
+                .filter(importacion -> importacion.getUsuario().equals(authentication.getName()));
+    }
+}
@@ -19,7 +19,9 @@ import java.time.LocalDateTime;
 public class Multa {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "multas_id")
+    @TableGenerator(name = "multas_id", table = "secuencias_id", pkColumnName = "nombre",
+            valueColumnName = "ultimo_id", pkColumnValue = "multas", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
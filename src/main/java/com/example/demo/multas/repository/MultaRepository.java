@@ -5,6 +5,7 @@ import com.example.demo.multas.model.Multa;
 import com.example.demo.multas.model.TipoInfraccion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,18 +23,16 @@ public interface MultaRepository extends JpaRepository<Multa, Long> {
     Optional<Multa> findByNumeroMulta(String numeroMulta);
     
     // Buscar por contribuyente
+    @EntityGraph(attributePaths = "contribuyente")
     Page<Multa> findByContribuyenteId(Long contribuyenteId, Pageable pageable);
     
     // Buscar por estado
+    @EntityGraph(attributePaths = "contribuyente")
     Page<Multa> findByEstado(EstadoMulta estado, Pageable pageable);
     
     // Buscar por tipo de infracción
     Page<Multa> findByTipoInfraccion(TipoInfraccion tipoInfraccion, Pageable pageable);
     
-    // Buscar multas vencidas
-    @Query("SELECT m FROM Multa m WHERE m.fechaVencimiento < :fecha AND m.estado IN :estados")
-    List<Multa> findMultasVencidas(@Param("fecha") LocalDateTime fecha, @Param("estados") List<EstadoMulta> estados);
-    
     // Buscar por rango de fechas
     @Query("SELECT m FROM Multa m WHERE m.fechaInfraccion BETWEEN :fechaInicio AND :fechaFin")
     Page<Multa> findByFechaInfraccionBetween(@Param("fechaInicio") LocalDateTime fechaInicio, 
@@ -65,4 +64,30 @@ public interface MultaRepository extends JpaRepository<Multa, Long> {
     List<Multa> findMultasProximasAVencer(@Param("fechaInicio") LocalDateTime fechaInicio,
                                         @Param("fechaFin") LocalDateTime fechaFin,
                                         @Param("estados") List<EstadoMulta> estados);
+
+    // Cantidad y monto por estado (reconciliación del resumen de estadísticas)
+    @Query("SELECT m.estado, COUNT(m), COALESCE(SUM(m.monto), 0) FROM Multa m GROUP BY m.estado")
+    List<Object[]> resumenPorEstado();
+
+    // Números de multa con un prefijo, del mayor al menor (punto de partida de la numeración)
+    @Query("SELECT m.numeroMulta FROM Multa m WHERE m.numeroMulta LIKE CONCAT(:prefijo, '%') " +
+           "ORDER BY LENGTH(m.numeroMulta) DESC, m.numeroMulta DESC")
+    List<String> findNumerosConPrefijo(@Param("prefijo") String prefijo, Pageable pageable);
+
+    // Paginación keyset por (fechaRegistro, id): primera página, más antiguos y más recientes que el cursor
+    @Query("SELECT m FROM Multa m LEFT JOIN FETCH m.contribuyente ORDER BY m.fechaRegistro DESC, m.id DESC")
+    List<Multa> findPrimerosKeyset(Pageable limite);
+
+    @Query("SELECT m FROM Multa m LEFT JOIN FETCH m.contribuyente WHERE m.fechaRegistro <= :fecha AND (m.fechaRegistro < :fecha OR m.id < :id) " +
+           "ORDER BY m.fechaRegistro DESC, m.id DESC")
+    List<Multa> findSiguientesKeyset(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
+
+    @Query("SELECT m FROM Multa m LEFT JOIN FETCH m.contribuyente WHERE m.fechaRegistro >= :fecha AND (m.fechaRegistro > :fecha OR m.id > :id) " +
+           "ORDER BY m.fechaRegistro ASC, m.id ASC")
+    List<Multa> findAnterioresKeyset(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
+
+    // Página de multas con su contribuyente en la misma consulta (listados; el conteo no hace join)
+    @EntityGraph(attributePaths = "contribuyente")
+    @Query("SELECT m FROM Multa m")
+    Page<Multa> findAllConContribuyente(Pageable pageable);
 }
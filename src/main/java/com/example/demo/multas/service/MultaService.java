@@ -1,13 +1,19 @@
 package com.example.demo.multas.service;
 
+import com.example.demo.estadisticas.service.AporteEstadistico;
+import com.example.demo.estadisticas.service.EstadisticasResumenService;
 import com.example.demo.multas.dto.MultaRequest;
 import com.example.demo.multas.dto.MultaResponse;
 import com.example.demo.multas.exception.MultaException;
 import com.example.demo.multas.model.EstadoMulta;
 import com.example.demo.multas.model.Multa;
 import com.example.demo.multas.repository.MultaRepository;
+import com.example.demo.numeracion.service.NumeracionService;
+import com.example.demo.paginacion.dto.PaginaCursor;
+import com.example.demo.paginacion.service.ConsultaKeyset;
 import com.example.demo.tributario.model.Contribuyente;
 import com.example.demo.tributario.repository.ContribuyenteRepository;
+import com.example.demo.vencimientos.service.VencimientosService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -15,13 +21,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +37,9 @@ public class MultaService {
     
     private final MultaRepository multaRepository;
     private final ContribuyenteRepository contribuyenteRepository;
+    private final EstadisticasResumenService estadisticasResumenService;
+    private final NumeracionService numeracionService;
+    private final VencimientosService vencimientosService;
     
     /**
      * Crear una nueva multa
@@ -66,6 +75,7 @@ public class MultaService {
         
         // Guardar
         Multa multaGuardada = multaRepository.save(multa);
+        estadisticasResumenService.registrarCambio(null, AporteEstadistico.de(multaGuardada));
         
         log.info("Multa creada exitosamente con ID: {} y número: {}", multaGuardada.getId(), numeroMulta);
         return convertirAResponse(multaGuardada);
@@ -89,10 +99,22 @@ public class MultaService {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return multaRepository.findAll(pageable)
+        return multaRepository.findAllConContribuyente(pageable)
                 .map(this::convertirAResponse);
     }
     
+    /**
+     * Listar multas por cursor (keyset sobre fechaRegistro, id), sin conteo salvo que se pida
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<MultaResponse> listarMultasPorCursor(String cursor, int size, boolean incluirTotal) {
+        return ConsultaKeyset.de(multaRepository::findPrimerosKeyset,
+                        multaRepository::findSiguientesKeyset,
+                        multaRepository::findAnterioresKeyset,
+                        Multa::getFechaRegistro, Multa::getId)
+                .paginar(cursor, size, this::convertirAResponse, incluirTotal ? multaRepository::count : null);
+    }
+    
     /**
      * Actualizar multa
      */
@@ -115,6 +137,7 @@ public class MultaService {
         }
         
         // Actualizar campos
+        AporteEstadistico antes = AporteEstadistico.de(multa);
         multa.setTipoInfraccion(request.getTipoInfraccion());
         multa.setDescripcion(request.getDescripcion());
         multa.setMonto(request.getMonto());
@@ -124,6 +147,7 @@ public class MultaService {
         multa.setUsuarioModificacion(request.getUsuarioRegistro());
         
         Multa multaActualizada = multaRepository.save(multa);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(multaActualizada));
         
         log.info("Multa actualizada exitosamente con ID: {}", id);
         return convertirAResponse(multaActualizada);
@@ -142,12 +166,14 @@ public class MultaService {
             throw new MultaException("No se puede anular una multa que ya está pagada");
         }
         
+        AporteEstadistico antes = AporteEstadistico.de(multa);
         multa.setEstado(EstadoMulta.ANULADA);
         multa.setObservaciones((multa.getObservaciones() != null ? multa.getObservaciones() + "\n" : "") + 
                               "ANULADA: " + motivo + " - " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
         multa.setUsuarioModificacion(usuario);
         
         Multa multaAnulada = multaRepository.save(multa);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(multaAnulada));
         
         log.info("Multa anulada exitosamente con ID: {}", id);
         return convertirAResponse(multaAnulada);
@@ -172,6 +198,7 @@ public class MultaService {
             throw new MultaException("El monto a pagar excede el saldo pendiente de la multa");
         }
         
+        AporteEstadistico antes = AporteEstadistico.de(multa);
         multa.setMontoPagado(nuevoMontoPagado);
         multa.setUsuarioModificacion(usuario);
         
@@ -184,6 +211,7 @@ public class MultaService {
         }
         
         Multa multaActualizada = multaRepository.save(multa);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(multaActualizada));
         
         log.info("Pago registrado exitosamente para multa ID: {}", id);
         return convertirAResponse(multaActualizada);
@@ -233,22 +261,12 @@ public class MultaService {
     }
     
     /**
-     * Actualizar multas vencidas
+     * Actualizar multas vencidas con UPDATE por bloques (VencimientosJob lo ejecuta a diario).
+     * Fuera de la transacción de la clase: cada bloque se confirma por separado.
      */
-    @Transactional
-    public void actualizarMultasVencidas() {
-        List<EstadoMulta> estadosPermitidos = List.of(EstadoMulta.PENDIENTE, EstadoMulta.PARCIALMENTE_PAGADA);
-        List<Multa> multasVencidas = multaRepository.findMultasVencidas(LocalDateTime.now(), estadosPermitidos);
-        
-        multasVencidas.forEach(multa -> {
-            multa.setEstado(EstadoMulta.VENCIDA);
-            multa.setUsuarioModificacion("SISTEMA");
-        });
-        
-        if (!multasVencidas.isEmpty()) {
-            multaRepository.saveAll(multasVencidas);
-            log.info("Actualizadas {} multas a estado VENCIDA", multasVencidas.size());
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long actualizarMultasVencidas() {
+        return vencimientosService.actualizarMultasVencidas();
     }
     
     /**
@@ -257,16 +275,16 @@ public class MultaService {
     private String generarNumeroMulta() {
         String prefijo = "MUL";
         String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
+        String prefijoCompleto = prefijo + "-" + fecha + "-";
         
-        String numeroBase;
-        int contador = 1;
-        
-        do {
-            numeroBase = String.format("%s-%s-%04d", prefijo, fecha, contador);
-            contador++;
-        } while (multaRepository.existsByNumeroMulta(numeroBase));
+        // La secuencia del mes continúa desde el último número ya emitido
+        long contador = numeracionService.siguiente(prefijo, fecha, () ->
+                multaRepository.findNumerosConPrefijo(prefijoCompleto, PageRequest.of(0, 1)).stream()
+                        .mapToLong(ultimo -> NumeracionService.valorNumerico(ultimo, prefijoCompleto))
+                        .findFirst()
+                        .orElse(0));
         
-        return numeroBase;
+        return String.format("%s-%s-%04d", prefijo, fecha, contador);
     }
     
     /**
@@ -5,6 +5,7 @@ import com.example.demo.multas.dto.MultaResponse;
 import com.example.demo.multas.model.EstadoMulta;
 import com.example.demo.multas.model.TipoInfraccion;
 import com.example.demo.multas.service.MultaService;
+import com.example.demo.paginacion.dto.PaginaCursor;
 import com.example.demo.tributario.service.TributarioService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +19,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/multas")
@@ -148,6 +150,27 @@ public class MultaController {
         }
     }
     
+    /**
+     * API: Listar multas por cursor (paginación keyset por fecha de registro, sin conteo salvo incluirTotal=true)
+     */
+    @GetMapping("/api/cursor")
+    @PreAuthorize("hasAnyAuthority('MULTAS_READ', 'MULTAS_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<?> listarMultasPorCursorApi(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        try {
+            PaginaCursor<MultaResponse> multas = multaService.listarMultasPorCursor(cursor, size, incluirTotal);
+            return ResponseEntity.ok(multas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al listar multas por cursor via API", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     /**
      * API: Actualizar multa
      */
@@ -0,0 +1,63 @@
+package com.example.demo.numeracion.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Reserva de ids para las escrituras JDBC por lotes (importaciones, auditoría).
+ * Usa la misma tabla secuencias_id que los @TableGenerator de las entidades, con la misma
+ * convención (se guarda el último id reservado), así que los ids asignados aquí y los que
+ * asigna Hibernate nunca se pisan. Un rango reservado y no usado queda como hueco.
+ */
+@Service
+@Slf4j
+public class IdentificadorService {
+
+    private static final String SQL_BLOQUEAR =
+            "SELECT ultimo_id FROM secuencias_id WHERE nombre = ? FOR UPDATE";
+    private static final String SQL_AVANZAR =
+            "UPDATE secuencias_id SET ultimo_id = ? WHERE nombre = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public IdentificadorService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Transacción propia y corta, como hace Hibernate con sus generadores de tabla
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Reserva cantidad ids consecutivos de la secuencia y devuelve el primero
+     */
+    public long reservar(String secuencia, int cantidad) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad de ids a reservar debe ser mayor a 0");
+        }
+        Long primero = transactionTemplate.execute(status -> {
+            List<Long> valores = jdbcTemplate.queryForList(SQL_BLOQUEAR, Long.class, secuencia);
+            if (valores.isEmpty()) {
+                throw new IllegalStateException("No existe la secuencia de ids: " + secuencia);
+            }
+            long ultimo = valores.get(0);
+            jdbcTemplate.update(SQL_AVANZAR, ultimo + cantidad, secuencia);
+            return ultimo + 1;
+        });
+
+        meterRegistry.counter("identificadores.reservas", "secuencia", secuencia).increment();
+        log.debug("Reservados {} ids de {} desde {}", cantidad, secuencia, primero);
+        return primero;
+    }
+}
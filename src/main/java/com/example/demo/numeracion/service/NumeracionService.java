@@ -0,0 +1,152 @@
+package com.example.demo.numeracion.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Numeración de documentos (tasas, multas, transacciones) por prefijo y período.
+ * Los números se reservan en bloques sobre la tabla secuencias_documento con un bloqueo
+ * de fila y se entregan desde memoria, así que solo hay una consulta por bloque.
+ * Las reservas usan un pool de conexiones propio (numeracion.conexiones) en una transacción
+ * corta: el llamador conserva su conexión del pool principal mientras espera, pero nunca
+ * compite por una segunda, así que las altas concurrentes no pueden agotar ese pool.
+ * Los números no usados de un bloque se pierden al reiniciar (o al descartar una serie
+ * poco usada) y los de una transacción revertida no se reutilizan: la numeración es única,
+ * pero puede tener huecos.
+ */
+@Service
+@Slf4j
+public class NumeracionService {
+
+    private static final String SQL_BLOQUEAR =
+            "SELECT ultimo_valor FROM secuencias_documento WHERE prefijo = ? AND periodo = ? FOR UPDATE";
+    private static final String SQL_CREAR =
+            "INSERT IGNORE INTO secuencias_documento (prefijo, periodo, ultimo_valor) VALUES (?, ?, ?)";
+    private static final String SQL_AVANZAR =
+            "UPDATE secuencias_documento SET ultimo_valor = ? WHERE prefijo = ? AND periodo = ?";
+
+    private final HikariDataSource conexiones;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int tamanoBloque;
+
+    // Series recientes por prefijo|período; los períodos viejos salen solos al superar max-series
+    private final Map<String, Bloque> bloques;
+
+    public NumeracionService(DataSourceProperties dataSourceProperties,
+                             MeterRegistry meterRegistry,
+                             @Value("${numeracion.tamano-bloque:50}") int tamanoBloque,
+                             @Value("${numeracion.conexiones:2}") int maximoConexiones,
+                             @Value("${numeracion.max-series:256}") int maximoSeries) {
+        this.conexiones = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.conexiones.setPoolName("numeracion");
+        this.conexiones.setMaximumPoolSize(Math.max(1, maximoConexiones));
+        this.conexiones.setMinimumIdle(0);
+        this.jdbcTemplate = new JdbcTemplate(conexiones);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(conexiones));
+        this.meterRegistry = meterRegistry;
+        this.tamanoBloque = Math.max(1, tamanoBloque);
+        int series = Math.max(1, maximoSeries);
+        this.bloques = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bloque> mayor) {
+                return size() > series;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void detener() {
+        conexiones.close();
+    }
+
+    /**
+     * Devuelve el siguiente número para el prefijo y período.
+     * La primera vez que se usa un par prefijo/período la secuencia parte de ultimoExistente,
+     * que debe devolver el mayor número ya emitido con el formato anterior (0 si no hay).
+     */
+    public long siguiente(String prefijo, String periodo, LongSupplier ultimoExistente) {
+        Bloque bloque = bloques.computeIfAbsent(prefijo + "|" + periodo, clave -> new Bloque());
+        // ReentrantLock y no synchronized: un hilo virtual que espera aquí no retiene su hilo portador
+        bloque.lock.lock();
+        try {
+            if (bloque.siguiente > bloque.limite) {
+                long ultimoReservado = reservar(prefijo, periodo, ultimoExistente);
+                bloque.siguiente = ultimoReservado - tamanoBloque + 1;
+                bloque.limite = ultimoReservado;
+            }
+            return bloque.siguiente++;
+        } finally {
+            bloque.lock.unlock();
+        }
+    }
+
+    /**
+     * Valor numérico de un número de documento emitido con el prefijo dado (ej. "TAS-202610-0042" → 42).
+     * Sirve para calcular el punto de partida de una secuencia a partir de los datos existentes.
+     */
+    public static long valorNumerico(String numero, String prefijoCompleto) {
+        if (numero == null || !numero.startsWith(prefijoCompleto)) {
+            return 0;
+        }
+        String resto = numero.substring(prefijoCompleto.length());
+        int fin = 0;
+        while (fin < resto.length() && Character.isDigit(resto.charAt(fin))) {
+            fin++;
+        }
+        return fin == 0 ? 0 : Long.parseLong(resto.substring(0, fin));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Reserva un bloque y devuelve el último número reservado
+     */
+    private long reservar(String prefijo, String periodo, LongSupplier ultimoExistente) {
+        Long reservado = transactionTemplate.execute(status -> {
+            Long actual = leerBloqueando(prefijo, periodo);
+            if (actual == null) {
+                // Primera vez: se parte del último número existente; si otra instancia se adelanta, se ignora
+                jdbcTemplate.update(SQL_CREAR, prefijo, periodo, ultimoExistente.getAsLong());
+                actual = leerBloqueando(prefijo, periodo);
+            }
+            long ultimo = actual + tamanoBloque;
+            jdbcTemplate.update(SQL_AVANZAR, ultimo, prefijo, periodo);
+            return ultimo;
+        });
+
+        meterRegistry.counter("numeracion.bloques", "prefijo", prefijo).increment();
+        log.debug("Reservado bloque de numeración {}-{} hasta {}", prefijo, periodo, reservado);
+        return reservado;
+    }
+
+    private Long leerBloqueando(String prefijo, String periodo) {
+        List<Long> valores = jdbcTemplate.queryForList(SQL_BLOQUEAR, Long.class, prefijo, periodo);
+        return valores.isEmpty() ? null : valores.get(0);
+    }
+
+    /**
+     * Rango [siguiente, limite] de números ya reservados en la tabla
+     */
+    private static final class Bloque {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long siguiente = 1;
+        private long limite = 0;
+    }
+}
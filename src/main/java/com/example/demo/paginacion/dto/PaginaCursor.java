@@ -0,0 +1,28 @@
+package com.example.demo.paginacion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de una consulta por cursor (keyset).
+ * Los cursores son opacos: se reenvían tal cual en el parámetro "cursor" para pedir
+ * la página siguiente o la anterior. El total solo se calcula si se solicita.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursor<T> {
+
+    private List<T> contenido;
+    private int tamano;
+    private boolean haySiguiente;
+    private boolean hayAnterior;
+    private String siguienteCursor;
+    private String anteriorCursor;
+    private Long totalElementos;
+}
@@ -0,0 +1,117 @@
+package com.example.demo.paginacion.service;
+
+import com.example.demo.paginacion.dto.PaginaCursor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Paginación keyset sobre (columna de fecha, id) en orden descendente.
+ * En lugar de OFFSET cada página continúa desde la posición del cursor, así que el costo
+ * no crece con la profundidad; tampoco se ejecuta COUNT salvo que se pida el total.
+ * Las consultas del repositorio deben ordenar por (fecha, id) y traer a lo sumo limite.getPageSize() filas.
+ *
+ * @param <E> entidad consultada
+ */
+public final class ConsultaKeyset<E> {
+
+    public static final int TAMANO_MAXIMO = 200;
+
+    /**
+     * Consulta que continúa desde una posición: (fecha, id) del cursor y cantidad máxima de filas
+     */
+    @FunctionalInterface
+    public interface ConsultaDesde<E> {
+        List<E> buscar(LocalDateTime fecha, Long id, Pageable limite);
+    }
+
+    private final Function<Pageable, List<E>> primera;
+    private final ConsultaDesde<E> siguientes;
+    private final ConsultaDesde<E> anteriores;
+    private final Function<E, LocalDateTime> fecha;
+    private final Function<E, Long> id;
+
+    private ConsultaKeyset(Function<Pageable, List<E>> primera, ConsultaDesde<E> siguientes,
+                           ConsultaDesde<E> anteriores, Function<E, LocalDateTime> fecha, Function<E, Long> id) {
+        this.primera = primera;
+        this.siguientes = siguientes;
+        this.anteriores = anteriores;
+        this.fecha = fecha;
+        this.id = id;
+    }
+
+    /**
+     * Define la paginación a partir de las tres consultas del repositorio
+     *
+     * @param primera    primeras filas, ORDER BY fecha DESC, id DESC
+     * @param siguientes filas anteriores al cursor (más antiguas), ORDER BY fecha DESC, id DESC
+     * @param anteriores filas posteriores al cursor (más recientes), ORDER BY fecha ASC, id ASC
+     */
+    public static <E> ConsultaKeyset<E> de(Function<Pageable, List<E>> primera,
+                                           ConsultaDesde<E> siguientes,
+                                           ConsultaDesde<E> anteriores,
+                                           Function<E, LocalDateTime> fecha,
+                                           Function<E, Long> id) {
+        return new ConsultaKeyset<>(primera, siguientes, anteriores, fecha, id);
+    }
+
+    /**
+     * Obtiene la página indicada por el cursor (null para la primera)
+     *
+     * @param total si no es null se usa para informar el total de elementos
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public <R> PaginaCursor<R> paginar(String cursor, int tamano, Function<E, R> mapeo, LongSupplier total) {
+        int tamanoPagina = Math.max(1, Math.min(tamano, TAMANO_MAXIMO));
+        // Una fila extra indica si hay más resultados en ese sentido
+        Pageable limite = PageRequest.of(0, tamanoPagina + 1);
+
+        CursorKeyset posicion = cursor != null && !cursor.isBlank() ? CursorKeyset.decodificar(cursor) : null;
+        List<E> filas;
+        if (posicion == null) {
+            filas = primera.apply(limite);
+        } else if (posicion.haciaAtras()) {
+            filas = anteriores.buscar(posicion.fecha(), posicion.id(), limite);
+        } else {
+            filas = siguientes.buscar(posicion.fecha(), posicion.id(), limite);
+        }
+
+        boolean hayMas = filas.size() > tamanoPagina;
+        List<E> pagina = new ArrayList<>(hayMas ? filas.subList(0, tamanoPagina) : filas);
+        boolean haciaAtras = posicion != null && posicion.haciaAtras();
+        if (haciaAtras) {
+            Collections.reverse(pagina);
+        }
+
+        // Hacia adelante: siempre se puede volver si se llegó con cursor. Hacia atrás: siempre se puede avanzar.
+        boolean haySiguiente = haciaAtras || hayMas;
+        boolean hayAnterior = haciaAtras ? hayMas : posicion != null;
+
+        List<R> contenido = new ArrayList<>(pagina.size());
+        for (E entidad : pagina) {
+            contenido.add(mapeo.apply(entidad));
+        }
+
+        return PaginaCursor.<R>builder()
+                .contenido(contenido)
+                .tamano(tamanoPagina)
+                .haySiguiente(haySiguiente && !pagina.isEmpty())
+                .hayAnterior(hayAnterior && !pagina.isEmpty())
+                .siguienteCursor(haySiguiente && !pagina.isEmpty() ? cursorDe(pagina.get(pagina.size() - 1), false) : null)
+                .anteriorCursor(hayAnterior && !pagina.isEmpty() ? cursorDe(pagina.get(0), true) : null)
+                .totalElementos(total != null ? total.getAsLong() : null)
+                .build();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private String cursorDe(E entidad, boolean haciaAtras) {
+        return new CursorKeyset(fecha.apply(entidad), id.apply(entidad), haciaAtras).codificar();
+    }
+}
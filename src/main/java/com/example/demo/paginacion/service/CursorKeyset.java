@@ -0,0 +1,37 @@
+package com.example.demo.paginacion.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posición de una paginación keyset: valor de la columna de orden e id del último (o primer)
+ * registro visto, y el sentido en que se continúa. Se serializa como texto opaco en Base64.
+ */
+public record CursorKeyset(LocalDateTime fecha, long id, boolean haciaAtras) {
+
+    private static final String VERSION = "1";
+
+    public String codificar() {
+        String texto = String.join("|", VERSION, haciaAtras ? "A" : "S", fecha.toString(), Long.toString(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente
+     *
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static CursorKeyset decodificar(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = texto.split("\\|");
+            if (partes.length != 4 || !VERSION.equals(partes[0])) {
+                throw new IllegalArgumentException("Cursor de paginación no válido");
+            }
+            return new CursorKeyset(LocalDateTime.parse(partes[2]), Long.parseLong(partes[3]), "A".equals(partes[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido", e);
+        }
+    }
+}
@@ -21,7 +21,9 @@ import java.time.LocalDateTime;
 public class Pago {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pagos_id")
+    @TableGenerator(name = "pagos_id", table = "secuencias_id", pkColumnName = "nombre",
+            valueColumnName = "ultimo_id", pkColumnValue = "pagos", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
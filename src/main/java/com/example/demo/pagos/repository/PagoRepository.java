@@ -5,6 +5,7 @@ import com.example.demo.pagos.model.MetodoPago;
 import com.example.demo.pagos.model.Pago;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,14 +20,17 @@ import java.util.Optional;
 public interface PagoRepository extends JpaRepository<Pago, Long> {
 
     // Buscar pagos por contribuyente
+    @EntityGraph(attributePaths = "contribuyente")
     List<Pago> findByContribuyenteIdOrderByFechaPagoDesc(Long contribuyenteId);
     
     Page<Pago> findByContribuyenteIdOrderByFechaPagoDesc(Long contribuyenteId, Pageable pageable);
 
     // Buscar pagos por declaración
+    @EntityGraph(attributePaths = "contribuyente")
     List<Pago> findByDeclaracionIdOrderByFechaPagoDesc(Long declaracionId);
 
     // Buscar pagos por estado
+    @EntityGraph(attributePaths = "contribuyente")
     List<Pago> findByEstadoOrderByFechaPagoDesc(EstadoPago estado);
     
     Page<Pago> findByEstadoOrderByFechaPagoDesc(EstadoPago estado, Pageable pageable);
@@ -54,10 +58,12 @@ public interface PagoRepository extends JpaRepository<Pago, Long> {
     long countByEstado(EstadoPago estado);
 
     // Obtener pagos recientes
+    @EntityGraph(attributePaths = "contribuyente")
     @Query("SELECT p FROM Pago p ORDER BY p.creadoEn DESC")
     List<Pago> findRecentPayments(Pageable pageable);
 
     // Buscar pagos por concepto (búsqueda parcial)
+    @EntityGraph(attributePaths = "contribuyente")
     @Query("SELECT p FROM Pago p WHERE LOWER(p.concepto) LIKE LOWER(CONCAT('%', :concepto, '%')) ORDER BY p.fechaPago DESC")
     List<Pago> findByConceptoContainingIgnoreCase(@Param("concepto") String concepto);
 
@@ -66,9 +72,36 @@ public interface PagoRepository extends JpaRepository<Pago, Long> {
     List<Object[]> getEstadisticasByMetodoPago(@Param("estado") EstadoPago estado);
 
     // Pagos del día actual
+    @EntityGraph(attributePaths = "contribuyente")
     @Query("SELECT p FROM Pago p WHERE DATE(p.fechaPago) = CURRENT_DATE ORDER BY p.fechaPago DESC")
     List<Pago> findPagosDelDia();
 
     // Verificar si existe pago con referencia para evitar duplicados
     boolean existsByReferenciaAndEstadoNot(String referencia, EstadoPago estado);
+
+    // Referencias en uso (mismo criterio que existsByReferenciaAndEstadoNot) para las importaciones masivas
+    @Query("SELECT p.referencia FROM Pago p WHERE p.referencia IS NOT NULL AND p.estado <> :estado")
+    List<String> findReferenciasConEstadoNot(@Param("estado") EstadoPago estado);
+
+    // Cantidad y monto por estado (reconciliación del resumen de estadísticas)
+    @Query("SELECT p.estado, COUNT(p), COALESCE(SUM(p.monto), 0) FROM Pago p GROUP BY p.estado")
+    List<Object[]> resumenPorEstado();
+
+    // Paginación keyset por (fechaPago, id): primera página, más antiguos y más recientes que el cursor.
+    // La exportación recorre las dos primeras.
+    @Query("SELECT p FROM Pago p LEFT JOIN FETCH p.contribuyente ORDER BY p.fechaPago DESC, p.id DESC")
+    List<Pago> findPrimerosKeyset(Pageable limite);
+
+    @Query("SELECT p FROM Pago p LEFT JOIN FETCH p.contribuyente WHERE p.fechaPago <= :fecha AND (p.fechaPago < :fecha OR p.id < :id) " +
+           "ORDER BY p.fechaPago DESC, p.id DESC")
+    List<Pago> findSiguientesKeyset(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
+
+    @Query("SELECT p FROM Pago p LEFT JOIN FETCH p.contribuyente WHERE p.fechaPago >= :fecha AND (p.fechaPago > :fecha OR p.id > :id) " +
+           "ORDER BY p.fechaPago ASC, p.id ASC")
+    List<Pago> findAnterioresKeyset(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
+
+    // Página de pagos con su contribuyente en la misma consulta (listados; el conteo no hace join)
+    @EntityGraph(attributePaths = "contribuyente")
+    @Query("SELECT p FROM Pago p")
+    Page<Pago> findAllConContribuyente(Pageable pageable);
 }
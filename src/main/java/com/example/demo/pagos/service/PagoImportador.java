@@ -0,0 +1,209 @@
+package com.example.demo.pagos.service;
+
+import com.example.demo.estadisticas.service.AporteEstadistico;
+import com.example.demo.estadisticas.service.ClavesEstadisticas;
+import com.example.demo.estadisticas.service.EstadisticasResumenService;
+import com.example.demo.importacion.service.FilaImportacion;
+import com.example.demo.importacion.service.Importador;
+import com.example.demo.numeracion.service.IdentificadorService;
+import com.example.demo.pagos.model.EstadoPago;
+import com.example.demo.pagos.model.MetodoPago;
+import com.example.demo.pagos.repository.PagoRepository;
+import com.example.demo.tributario.repository.ContribuyenteRepository;
+import com.example.demo.tributario.repository.DeclaracionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Importación masiva de pagos (carga de históricos). Aplica las validaciones de
+ * PagoService.crearPago con el contribuyente resuelto por RIF y las referencias en uso
+ * precargadas en memoria; los pagos se insertan por batch JDBC con ids reservados en
+ * secuencias_id y cada lote registra
+ * su aporte al resumen de estadísticas.
+ */
+@Component
+@RequiredArgsConstructor
+public class PagoImportador implements Importador<PagoImportador.FilaPago> {
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO pagos (id, contribuyente_id, declaracion_id, monto, metodo_pago, referencia, estado, " +
+            "fecha_pago, concepto, creado_en, usuario_registro) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Misma secuencia que el @TableGenerator de Pago
+    private static final String SECUENCIA_ID = "pagos";
+
+    // Igual que hibernate.jdbc.time_zone
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    private final ContribuyenteRepository contribuyenteRepository;
+    private final DeclaracionRepository declaracionRepository;
+    private final PagoRepository pagoRepository;
+    private final EstadisticasResumenService estadisticasResumenService;
+    private final IdentificadorService identificadorService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String getTipo() {
+        return "pagos";
+    }
+
+    @Override
+    public List<String> getColumnasObligatorias() {
+        return List.of("rif", "monto", "metodo_pago", "concepto");
+    }
+
+    @Override
+    public Sesion<FilaPago> iniciar(String usuario) {
+        Map<String, Long> contribuyentes = new HashMap<>();
+        for (Object[] fila : contribuyenteRepository.findIdsPorRif()) {
+            contribuyentes.put(((String) fila[0]).toUpperCase(Locale.ROOT), (Long) fila[1]);
+        }
+        Set<Long> declaraciones = new HashSet<>(declaracionRepository.findAllIds());
+        Set<String> referencias = new HashSet<>(pagoRepository.findReferenciasConEstadoNot(EstadoPago.ANULADO));
+        return new SesionPagos(usuario, contribuyentes, declaraciones, referencias);
+    }
+
+    /**
+     * Pago validado, con el contribuyente ya resuelto
+     */
+    public record FilaPago(Long contribuyenteId, Long declaracionId, BigDecimal monto, MetodoPago metodoPago,
+                           String referencia, EstadoPago estado, LocalDateTime fechaPago, String concepto) {
+    }
+
+    private final class SesionPagos implements Sesion<FilaPago> {
+
+        private final String usuario;
+        private final Map<String, Long> contribuyentes;
+        private final Set<Long> declaraciones;
+        private final Set<String> referencias;
+        private final Set<String> vistas = new HashSet<>();
+
+        private SesionPagos(String usuario, Map<String, Long> contribuyentes, Set<Long> declaraciones,
+                            Set<String> referencias) {
+            this.usuario = usuario;
+            this.contribuyentes = contribuyentes;
+            this.declaraciones = declaraciones;
+            this.referencias = referencias;
+        }
+
+        @Override
+        public FilaPago validar(FilaImportacion fila, List<String> errores) {
+            Long contribuyenteId = null;
+            String rif = fila.obligatorio("rif", errores);
+            if (rif != null) {
+                contribuyenteId = contribuyentes.get(rif.toUpperCase(Locale.ROOT));
+                if (contribuyenteId == null) {
+                    errores.add("No existe un contribuyente con el RIF: " + rif);
+                }
+            }
+
+            BigDecimal monto = fila.decimal("monto", errores);
+            if (monto == null && fila.texto("monto") == null) {
+                errores.add("monto: es obligatorio");
+            } else if (monto != null && monto.compareTo(new BigDecimal("0.01")) < 0) {
+                errores.add("monto: debe ser mayor a 0");
+            }
+
+            MetodoPago metodoPago = fila.enumerado("metodo_pago", MetodoPago.class, null, errores);
+            if (metodoPago == null && fila.texto("metodo_pago") == null) {
+                errores.add("metodo_pago: es obligatorio");
+            }
+
+            String referencia = fila.texto("referencia", 100, errores);
+            if (referencia != null && referencias.contains(referencia)) {
+                errores.add("Ya existe un pago con la referencia: " + referencia);
+            }
+
+            Long declaracionId = fila.entero("declaracion_id", errores);
+            if (declaracionId != null && !declaraciones.contains(declaracionId)) {
+                errores.add("Declaración no encontrada con ID: " + declaracionId);
+            }
+
+            String concepto = fila.obligatorio("concepto", errores);
+            if (concepto != null && concepto.length() > 200) {
+                errores.add("concepto: supera 200 caracteres");
+            }
+
+            EstadoPago estado = fila.enumerado("estado", EstadoPago.class, EstadoPago.PENDIENTE, errores);
+            LocalDateTime fechaPago = fila.fechaHora("fecha_pago", errores);
+
+            if (!errores.isEmpty()) {
+                return null;
+            }
+            return new FilaPago(contribuyenteId, declaracionId, monto, metodoPago, referencia, estado,
+                    fechaPago != null ? fechaPago : LocalDateTime.now(), concepto);
+        }
+
+        @Override
+        public String registrar(FilaPago pago) {
+            if (pago.referencia() == null || vistas.add(pago.referencia())) {
+                return null;
+            }
+            return "Referencia repetida en el archivo: " + pago.referencia();
+        }
+
+        @Override
+        public void liberar(FilaPago pago) {
+            if (pago.referencia() != null) {
+                vistas.remove(pago.referencia());
+            }
+        }
+
+        @Override
+        public void escribir(List<FilaPago> pagos) {
+            Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+            long primerId = identificadorService.reservar(SECUENCIA_ID, pagos.size());
+            jdbcTemplate.batchUpdate(SQL_INSERTAR, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    FilaPago pago = pagos.get(i);
+                    ps.setLong(1, primerId + i);
+                    ps.setLong(2, pago.contribuyenteId());
+                    if (pago.declaracionId() != null) {
+                        ps.setLong(3, pago.declaracionId());
+                    } else {
+                        ps.setNull(3, Types.BIGINT);
+                    }
+                    ps.setBigDecimal(4, pago.monto());
+                    ps.setString(5, pago.metodoPago().name());
+                    ps.setString(6, pago.referencia());
+                    ps.setString(7, pago.estado().name());
+                    ps.setTimestamp(8, Timestamp.valueOf(pago.fechaPago()), Calendar.getInstance(ZONA_JDBC));
+                    ps.setString(9, pago.concepto());
+                    ps.setTimestamp(10, ahora, Calendar.getInstance(ZONA_JDBC));
+                    ps.setString(11, usuario);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return pagos.size();
+                }
+            });
+
+            // Mismas claves que AporteEstadistico.de(Pago), acumuladas para todo el lote
+            AporteEstadistico aporte = AporteEstadistico.vacio()
+                    .sumar(ClavesEstadisticas.total(ClavesEstadisticas.PAGOS), pagos.size(), BigDecimal.ZERO);
+            for (FilaPago pago : pagos) {
+                aporte.sumar(ClavesEstadisticas.estado(ClavesEstadisticas.PAGOS, pago.estado()), 1, pago.monto());
+            }
+            estadisticasResumenService.registrarCambio(null, aporte);
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.example.demo.pagos.service;
 
+import com.example.demo.estadisticas.service.AporteEstadistico;
+import com.example.demo.estadisticas.service.EstadisticasResumenService;
+import com.example.demo.exportacion.service.DefinicionExportacion;
+import com.example.demo.exportacion.service.ExportacionService;
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.exportacion.service.FuentePaginada;
 import com.example.demo.pagos.dto.PagoRequest;
 import com.example.demo.pagos.dto.PagoResponse;
 import com.example.demo.pagos.exception.PagoException;
 import com.example.demo.pagos.model.EstadoPago;
 import com.example.demo.pagos.model.Pago;
 import com.example.demo.pagos.repository.PagoRepository;
+import com.example.demo.paginacion.dto.PaginaCursor;
+import com.example.demo.paginacion.service.ConsultaKeyset;
 import com.example.demo.tributario.model.Contribuyente;
 import com.example.demo.tributario.model.Declaracion;
 import com.example.demo.tributario.repository.ContribuyenteRepository;
@@ -18,11 +26,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -41,6 +49,8 @@ public class PagoService {
     private final PagoRepository pagoRepository;
     private final ContribuyenteRepository contribuyenteRepository;
     private final DeclaracionRepository declaracionRepository;
+    private final ExportacionService exportacionService;
+    private final EstadisticasResumenService estadisticasResumenService;
     // private final MultaService multaService;
 
     /**
@@ -86,6 +96,7 @@ public class PagoService {
                 .build();
 
         Pago pagoGuardado = pagoRepository.save(pago);
+        estadisticasResumenService.registrarCambio(null, AporteEstadistico.de(pagoGuardado));
         log.info("Pago creado exitosamente con ID: {}", pagoGuardado.getId());
         return convertirAResponse(pagoGuardado);
     }
@@ -105,10 +116,22 @@ public class PagoService {
     @Transactional(readOnly = true)
     public Page<PagoResponse> listarPagos(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("fechaPago").descending());
-        return pagoRepository.findAll(pageable)
+        return pagoRepository.findAllConContribuyente(pageable)
                 .map(this::convertirAResponse);
     }
 
+    /**
+     * Listar pagos por cursor (keyset sobre fechaPago, id), sin conteo salvo que se pida
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<PagoResponse> listarPagosPorCursor(String cursor, int size, boolean incluirTotal) {
+        return ConsultaKeyset.de(pagoRepository::findPrimerosKeyset,
+                        pagoRepository::findSiguientesKeyset,
+                        pagoRepository::findAnterioresKeyset,
+                        Pago::getFechaPago, Pago::getId)
+                .paginar(cursor, size, this::convertirAResponse, incluirTotal ? pagoRepository::count : null);
+    }
+
     /**
      * Obtener pagos por contribuyente
      */
@@ -155,9 +178,11 @@ public class PagoService {
             throw new PagoException("Solo se pueden procesar pagos en estado PENDIENTE");
         }
 
+        AporteEstadistico antes = AporteEstadistico.de(pago);
         pago.setEstado(EstadoPago.PROCESADO);
 
         Pago pagoActualizado = pagoRepository.save(pago);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(pagoActualizado));
         log.info("Pago procesado exitosamente con ID: {}", pagoId);
         return convertirAResponse(pagoActualizado);
     }
@@ -175,10 +200,12 @@ public class PagoService {
             throw new PagoException("Solo se pueden confirmar pagos en estado PROCESADO");
         }
 
+        AporteEstadistico antes = AporteEstadistico.de(pago);
         pago.setEstado(EstadoPago.CONFIRMADO);
         pago.setUsuarioRegistro(usuarioRegistro);
         
         Pago pagoActualizado = pagoRepository.save(pago);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(pagoActualizado));
         log.info("Pago confirmado exitosamente: {}", pagoId);
 
         return convertirAResponse(pagoActualizado);
@@ -197,10 +224,12 @@ public class PagoService {
             throw new PagoException("No se pueden anular pagos confirmados");
         }
 
+        AporteEstadistico antes = AporteEstadistico.de(pago);
         pago.setEstado(EstadoPago.ANULADO);
         pago.setUsuarioRegistro(usuarioRegistro);
         
         Pago pagoActualizado = pagoRepository.save(pago);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(pagoActualizado));
         log.info("Pago anulado exitosamente: {}", pagoId);
 
         return convertirAResponse(pagoActualizado);
@@ -312,6 +341,7 @@ public class PagoService {
         }
 
         // Actualizar campos del pago
+        AporteEstadistico antes = AporteEstadistico.de(pago);
         pago.setContribuyente(contribuyente);
         pago.setDeclaracion(declaracion);
         pago.setMonto(request.getMonto());
@@ -322,119 +352,42 @@ public class PagoService {
 
         // Guardar cambios
         Pago pagoActualizado = pagoRepository.save(pago);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(pagoActualizado));
         
         log.info("Pago actualizado exitosamente con ID: {}", pagoActualizado.getId());
         return convertirAResponse(pagoActualizado);
     }
 
     /**
-     * Exportar pagos a Excel
+     * Exportar pagos (xlsx, csv o ndjson)
      */
-    public void exportarPagosExcel(HttpServletResponse response) throws IOException {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportarPagos(FormatoExportacion formato, HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
-            List<Pago> pagos = pagoRepository.findAll(Sort.by(Sort.Direction.DESC, "fechaPago"));
-            
-            // Crear workbook de Excel
-            Workbook workbook = new XSSFWorkbook();
-            Sheet sheet = workbook.createSheet("Pagos");
-            
-            // Estilo para el encabezado
-            CellStyle headerStyle = workbook.createCellStyle();
-            headerStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            
-            Font headerFont = workbook.createFont();
-            headerFont.setColor(IndexedColors.WHITE.getIndex());
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            
-            // Bordes para el encabezado
-            headerStyle.setBorderBottom(BorderStyle.THIN);
-            headerStyle.setBorderTop(BorderStyle.THIN);
-            headerStyle.setBorderRight(BorderStyle.THIN);
-            headerStyle.setBorderLeft(BorderStyle.THIN);
-            
-            // Crear encabezados
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "Contribuyente", "RIF", "Concepto", "Monto", "Método Pago", "Estado", "Referencia", "Fecha Pago", "Usuario Registro"};
-            
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // Estilo para las celdas de datos
-            CellStyle dataStyle = workbook.createCellStyle();
-            dataStyle.setBorderBottom(BorderStyle.THIN);
-            dataStyle.setBorderTop(BorderStyle.THIN);
-            dataStyle.setBorderRight(BorderStyle.THIN);
-            dataStyle.setBorderLeft(BorderStyle.THIN);
-            
-            // Llenar datos
-            int rowNum = 1;
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-            
-            for (Pago pago : pagos) {
-                Row row = sheet.createRow(rowNum++);
-                
-                Cell cell0 = row.createCell(0);
-                cell0.setCellValue(pago.getId());
-                cell0.setCellStyle(dataStyle);
-                
-                Cell cell1 = row.createCell(1);
-                cell1.setCellValue(obtenerNombreContribuyente(pago.getContribuyente()));
-                cell1.setCellStyle(dataStyle);
-                
-                Cell cell2 = row.createCell(2);
-                cell2.setCellValue(pago.getContribuyente().getRif());
-                cell2.setCellStyle(dataStyle);
-                
-                Cell cell3 = row.createCell(3);
-                cell3.setCellValue(pago.getConcepto());
-                cell3.setCellStyle(dataStyle);
-                
-                Cell cell4 = row.createCell(4);
-                cell4.setCellValue(pago.getMonto().doubleValue());
-                cell4.setCellStyle(dataStyle);
-                
-                Cell cell5 = row.createCell(5);
-                cell5.setCellValue(pago.getMetodoPago().getDescripcion());
-                cell5.setCellStyle(dataStyle);
-                
-                Cell cell6 = row.createCell(6);
-                cell6.setCellValue(pago.getEstado().getDescripcion());
-                cell6.setCellStyle(dataStyle);
-                
-                Cell cell7 = row.createCell(7);
-                cell7.setCellValue(pago.getReferencia() != null ? pago.getReferencia() : "");
-                cell7.setCellStyle(dataStyle);
-                
-                Cell cell8 = row.createCell(8);
-                cell8.setCellValue(pago.getFechaPago().format(formatter));
-                cell8.setCellStyle(dataStyle);
-                
-                Cell cell9 = row.createCell(9);
-                cell9.setCellValue(pago.getUsuarioRegistro() != null ? pago.getUsuarioRegistro() : "");
-                cell9.setCellStyle(dataStyle);
-            }
-            
-            // Auto-ajustar el ancho de las columnas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            // Configurar respuesta HTTP
-            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-            response.setHeader("Content-Disposition", "attachment; filename=\"pagos.xlsx\"");
-            
-            // Escribir el archivo Excel a la respuesta
-            workbook.write(response.getOutputStream());
-            workbook.close();
-            
+            exportacionService.exportar(definicionExportacion(), formato, request, response);
         } catch (Exception e) {
-            log.error("Error al generar archivo Excel de pagos", e);
-            throw new IOException("Error al generar archivo Excel", e);
+            log.error("Error al generar la exportación de pagos", e);
+            throw new IOException("Error al generar la exportación", e);
         }
     }
+
+    /**
+     * Columnas y origen de datos de la exportación de pagos
+     */
+    private DefinicionExportacion<Pago> definicionExportacion() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        return DefinicionExportacion.<Pago>de("pagos", "Pagos",
+                        FuentePaginada.porFechaDescendente(pagoRepository::findPrimerosKeyset,
+                                pagoRepository::findSiguientesKeyset, Pago::getFechaPago, Pago::getId))
+                .columna("ID", Pago::getId)
+                .columna("Contribuyente", p -> p.getContribuyente() != null ? obtenerNombreContribuyente(p.getContribuyente()) : "")
+                .columna("RIF", p -> p.getContribuyente() != null ? p.getContribuyente().getRif() : "")
+                .columna("Concepto", Pago::getConcepto)
+                .columna("Monto", Pago::getMonto)
+                .columna("Método Pago", p -> p.getMetodoPago().getDescripcion())
+                .columna("Estado", p -> p.getEstado().getDescripcion())
+                .columna("Referencia", Pago::getReferencia)
+                .columna("Fecha Pago", p -> p.getFechaPago().format(formatter))
+                .columna("Usuario Registro", Pago::getUsuarioRegistro);
+    }
 }
@@ -1,9 +1,11 @@
 package com.example.demo.pagos.web;
 
+import com.example.demo.exportacion.service.FormatoExportacion;
 import com.example.demo.pagos.dto.PagoRequest;
 import com.example.demo.pagos.dto.PagoResponse;
 import com.example.demo.pagos.model.EstadoPago;
 import com.example.demo.pagos.service.PagoService;
+import com.example.demo.paginacion.dto.PaginaCursor;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,10 +19,12 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/pagos")
@@ -192,6 +196,28 @@ public class PagoController {
         }
     }
 
+    /**
+     * API: Listar pagos por cursor (paginación keyset, sin conteo salvo incluirTotal=true)
+     */
+    @GetMapping("/api/cursor")
+    @PreAuthorize("hasAnyAuthority('PAGOS_READ', 'PAGOS_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<?> listarPagosPorCursorApi(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        
+        try {
+            PaginaCursor<PagoResponse> pagos = pagoService.listarPagosPorCursor(cursor, size, incluirTotal);
+            return ResponseEntity.ok(pagos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al listar pagos por cursor via API", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * API: Procesar pago
      */
@@ -318,16 +344,19 @@ public class PagoController {
     }
 
     /**
-     * Exportar pagos a Excel
+     * Exportar pagos (format=xlsx|csv|ndjson)
      */
     @GetMapping("/exportar")
     @PreAuthorize("hasAnyAuthority('PAGOS_READ', 'PAGOS_GESTIONAR')")
-    public void exportarPagos(HttpServletResponse response) throws IOException {
+    public void exportarPagos(@RequestParam(defaultValue = "xlsx") FormatoExportacion format,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
-            pagoService.exportarPagosExcel(response);
+            pagoService.exportarPagos(format, request, response);
         } catch (Exception e) {
             log.error("Error al exportar pagos", e);
-            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error al exportar pagos");
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error al exportar pagos");
+            }
         }
     }
 }
@@ -1,25 +1,38 @@
 package com.example.demo.personal.repository;
 
 import com.example.demo.personal.model.Personal;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface PersonalRepository extends JpaRepository<Personal, Long> {
     
+    // Las respuestas JSON incluyen el usuario con sus roles y permisos (asociaciones LAZY)
+    @Override
+    @EntityGraph(attributePaths = "usuario.roles.permisos")
+    List<Personal> findAll();
+    
+    @Override
+    @EntityGraph(attributePaths = "usuario.roles.permisos")
+    Optional<Personal> findById(Long id);
+    
     // Buscar por documento
     Optional<Personal> findByDocumento(String documento);
     
     // Buscar empleados activos
+    @EntityGraph(attributePaths = "usuario.roles.permisos")
     List<Personal> findByActivoTrue();
     
     // Buscar por cargo
     List<Personal> findByCargoContainingIgnoreCase(String cargo);
     
     // Buscar por nombres o apellidos
+    @EntityGraph(attributePaths = "usuario.roles.permisos")
     @Query("SELECT p FROM Personal p WHERE " +
            "LOWER(p.nombres) LIKE LOWER(CONCAT('%', :termino, '%')) OR " +
            "LOWER(p.apellidos) LIKE LOWER(CONCAT('%', :termino, '%')) OR " +
@@ -36,6 +49,10 @@ public interface PersonalRepository extends JpaRepository<Personal, Long> {
     
     // Buscar personal por ID de usuario
     Optional<Personal> findByUsuarioId(Long usuarioId);
+
+    // Documento (cédula) y nombre del personal por username, resuelto en una sola consulta
+    @Query("SELECT u.username, p.documento, p.nombres, p.apellidos FROM Personal p JOIN p.usuario u WHERE u.username IN :usernames")
+    List<Object[]> obtenerIdentidadPorUsernames(@Param("usernames") Collection<String> usernames);
 }
 
 
@@ -0,0 +1,152 @@
+package com.example.demo.personal.service;
+
+import com.example.demo.personal.repository.PersonalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché con TTL de la identidad del personal por username (cédula y nombre para mostrar).
+ * Se usa al registrar auditoría; PersonalService invalida las entradas al modificar personal.
+ */
+@Component
+@Slf4j
+public class PersonalIdentidadCache {
+
+    /**
+     * Identidad resuelta; ambos campos son null si el usuario no tiene personal asociado
+     */
+    public record IdentidadPersonal(String cedula, String nombreCompleto) {
+        static final IdentidadPersonal VACIA = new IdentidadPersonal(null, null);
+    }
+
+    private record Entrada(IdentidadPersonal identidad, long expiraEn) {
+        boolean vigente(long ahora) {
+            return ahora < expiraEn;
+        }
+    }
+
+    private final PersonalRepository personalRepository;
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final int maxEntradas;
+
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    public PersonalIdentidadCache(PersonalRepository personalRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${personal.identidad-cache.ttl-ms:600000}") long ttlMs,
+                                  @Value("${personal.identidad-cache.max-entradas:5000}") int maxEntradas) {
+        this.personalRepository = personalRepository;
+        this.ttlMs = ttlMs;
+        this.maxEntradas = maxEntradas;
+
+        this.aciertos = Counter.builder("personal.identidad.cache")
+                .tag("resultado", "hit")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("personal.identidad.cache")
+                .tag("resultado", "miss")
+                .register(meterRegistry);
+        Gauge.builder("personal.identidad.cache.entradas", entradas, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resuelve la identidad de un username
+     */
+    public IdentidadPersonal resolver(String username) {
+        return resolver(Set.of(username)).get(username);
+    }
+
+    /**
+     * Resuelve la identidad de varios usernames; los que no estén en caché se buscan en una sola consulta
+     */
+    public Map<String, IdentidadPersonal> resolver(Collection<String> usernames) {
+        long ahora = System.currentTimeMillis();
+        Map<String, IdentidadPersonal> resultado = new HashMap<>();
+        Set<String> pendientes = new HashSet<>();
+
+        for (String username : usernames) {
+            Entrada entrada = entradas.get(username);
+            if (entrada != null && entrada.vigente(ahora)) {
+                resultado.put(username, entrada.identidad());
+                aciertos.increment();
+            } else {
+                pendientes.add(username);
+                fallos.increment();
+            }
+        }
+
+        if (!pendientes.isEmpty()) {
+            Map<String, IdentidadPersonal> encontrados = new HashMap<>();
+            for (Object[] fila : personalRepository.obtenerIdentidadPorUsernames(pendientes)) {
+                encontrados.put((String) fila[0],
+                        new IdentidadPersonal((String) fila[1], fila[2] + " " + fila[3]));
+            }
+
+            liberarEspacio(ahora, pendientes.size());
+            long expiraEn = ahora + ttlMs;
+            for (String username : pendientes) {
+                // También se guardan los usuarios sin personal para no volver a consultarlos
+                IdentidadPersonal identidad = encontrados.getOrDefault(username, IdentidadPersonal.VACIA);
+                entradas.put(username, new Entrada(identidad, expiraEn));
+                resultado.put(username, identidad);
+            }
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Invalida la entrada de un username, ahora y al confirmar la transacción en curso
+     */
+    public void invalidar(String username) {
+        if (username == null) {
+            return;
+        }
+        entradas.remove(username);
+
+        // Evita que una lectura concurrente vuelva a guardar el valor anterior antes del commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entradas.remove(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Vacía la caché completa
+     */
+    public void invalidarTodo() {
+        entradas.clear();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void liberarEspacio(long ahora, int requeridas) {
+        if (entradas.size() + requeridas <= maxEntradas) {
+            return;
+        }
+        entradas.values().removeIf(entrada -> !entrada.vigente(ahora));
+        if (entradas.size() + requeridas > maxEntradas) {
+            log.debug("Caché de identidad de personal llena ({} entradas), se vacía", entradas.size());
+            entradas.clear();
+        }
+    }
+}
@@ -24,6 +24,7 @@ public class PersonalService {
     private final UsuarioRepository usuarioRepository;
     private final RolRepository rolRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PersonalIdentidadCache personalIdentidadCache;
 
     // Obtener todos los empleados
     public List<Personal> obtenerTodos() {
@@ -173,6 +174,7 @@ public class PersonalService {
         personalExistente.setObservaciones(personalActualizado.getObservaciones());
         personalExistente.setActivo(personalActualizado.isActivo());
 
+        invalidarIdentidad(personalExistente);
         return personalRepository.save(personalExistente);
     }
 
@@ -189,6 +191,7 @@ public class PersonalService {
             usuarioRepository.save(personal.getUsuario());
         }
 
+        invalidarIdentidad(personal);
         return personalRepository.save(personal);
     }
 
@@ -197,6 +200,8 @@ public class PersonalService {
         Personal personal = personalRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Empleado no encontrado con ID: " + id));
 
+        invalidarIdentidad(personal);
+
         // Si tiene usuario asociado, también eliminarlo
         if (personal.getUsuario() != null) {
             usuarioRepository.delete(personal.getUsuario());
@@ -269,6 +274,7 @@ public class PersonalService {
             personal = personalRepository.save(personal);
         }
 
+        invalidarIdentidad(personal);
         return personal;
     }
 
@@ -285,4 +291,11 @@ public class PersonalService {
 
         return personal;
     }
+
+    // Invalidar la identidad cacheada (cédula/nombre) del usuario asociado al empleado
+    private void invalidarIdentidad(Personal personal) {
+        if (personal.getUsuario() != null) {
+            personalIdentidadCache.invalidar(personal.getUsuario().getUsername());
+        }
+    }
 }
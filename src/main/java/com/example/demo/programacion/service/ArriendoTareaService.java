@@ -0,0 +1,88 @@
+package com.example.demo.programacion.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+/**
+ * Arriendos de tareas programadas (tabla tareas_arriendo) para que cada tarea corra en una
+ * sola instancia. A diferencia de GET_LOCK no retiene una conexión durante la tarea: el
+ * arriendo se toma con un UPDATE condicional, se renueva mientras la tarea avanza y, si la
+ * instancia cae, expira solo. Las horas se calculan con NOW() del servidor de base de datos
+ * para no depender del reloj de cada instancia.
+ * Cada operación se confirma por separado: no debe llamarse dentro de una transacción.
+ */
+@Service
+@Slf4j
+public class ArriendoTareaService {
+
+    private static final int LARGO_RESULTADO = 255;
+
+    private static final String SQL_REGISTRAR =
+            "INSERT IGNORE INTO tareas_arriendo (tarea) VALUES (?)";
+
+    private static final String SQL_ADQUIRIR =
+            "UPDATE tareas_arriendo SET propietario = ?, expira_en = NOW() + INTERVAL ? SECOND " +
+            "WHERE tarea = ? AND (propietario IS NULL OR propietario = ? OR expira_en < NOW())";
+
+    private static final String SQL_RENOVAR =
+            "UPDATE tareas_arriendo SET expira_en = NOW() + INTERVAL ? SECOND " +
+            "WHERE tarea = ? AND propietario = ?";
+
+    private static final String SQL_LIBERAR =
+            "UPDATE tareas_arriendo SET propietario = NULL, expira_en = NOW(), ultima_ejecucion = NOW(), " +
+            "ultimo_resultado = ? WHERE tarea = ? AND propietario = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // pid@host más un sufijo aleatorio: dos arranques en el mismo host no comparten arriendos
+    private final String propietario;
+
+    public ArriendoTareaService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.propietario = ManagementFactory.getRuntimeMXBean().getName() + "/" +
+                UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Toma el arriendo si está libre, vencido o ya es de esta instancia.
+     * Devuelve false si otra instancia lo tiene vigente.
+     */
+    public boolean adquirir(String tarea, int segundos) {
+        jdbcTemplate.update(SQL_REGISTRAR, tarea);
+        boolean adquirido = jdbcTemplate.update(SQL_ADQUIRIR, propietario, segundos, tarea, propietario) == 1;
+        if (!adquirido) {
+            log.debug("La tarea {} está en curso en otra instancia", tarea);
+        }
+        return adquirido;
+    }
+
+    /**
+     * Extiende el arriendo; devuelve false si se perdió (expiró y lo tomó otra instancia)
+     */
+    public boolean renovar(String tarea, int segundos) {
+        return jdbcTemplate.update(SQL_RENOVAR, segundos, tarea, propietario) == 1;
+    }
+
+    /**
+     * Libera el arriendo y deja registrado el resultado de la ejecución
+     */
+    public void liberar(String tarea, String resultado) {
+        String texto = resultado != null && resultado.length() > LARGO_RESULTADO
+                ? resultado.substring(0, LARGO_RESULTADO)
+                : resultado;
+        try {
+            jdbcTemplate.update(SQL_LIBERAR, texto, tarea, propietario);
+        } catch (Exception e) {
+            // El arriendo expira solo; no se pierde la ejecución por no poder liberarlo
+            log.warn("No se pudo liberar el arriendo de {}: {}", tarea, e.getMessage());
+        }
+    }
+
+    public String getPropietario() {
+        return propietario;
+    }
+}
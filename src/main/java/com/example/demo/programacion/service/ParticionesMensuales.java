@@ -0,0 +1,104 @@
+package com.example.demo.programacion.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Particiones mensuales por RANGE (TO_DAYS(fecha)) con una última partición p_futuro
+ * (MAXVALUE). Lee las particiones de una tabla y crea las de los próximos meses dividiendo
+ * p_futuro; lo usan las tareas de retención de auditoría y de historial de lecturas.
+ */
+@Service
+@Slf4j
+public class ParticionesMensuales {
+
+    public static final String PARTICION_FUTURO = "p_futuro";
+
+    private static final DateTimeFormatter FORMATO_PARTICION = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    // TO_DAYS('1970-01-01'): convierte los límites de partición (días desde el año 0) a LocalDate
+    private static final long DIAS_HASTA_EPOCH = 719528;
+
+    private static final String SQL_PARTICIONES =
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ParticionesMensuales(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Particiones de la tabla en orden; vacía si la tabla no está particionada
+     */
+    public List<Particion> leer(String tabla) {
+        return jdbcTemplate.query(SQL_PARTICIONES, (rs, i) ->
+                new Particion(rs.getString(1), limite(rs.getString(2))), tabla);
+    }
+
+    /**
+     * Divide p_futuro para que existan particiones hasta mesesAdelantados después del mes actual.
+     * Devuelve la cantidad de particiones creadas (0 si la tabla no está particionada).
+     */
+    public int asegurarFuturas(String tabla, int mesesAdelantados) {
+        return asegurarFuturas(tabla, leer(tabla), mesesAdelantados);
+    }
+
+    /**
+     * Igual que asegurarFuturas(tabla, meses) con las particiones ya leídas
+     */
+    public int asegurarFuturas(String tabla, List<Particion> particiones, int mesesAdelantados) {
+        if (particiones.isEmpty()) {
+            return 0;
+        }
+        LocalDate ultimoLimite = particiones.stream()
+                .map(Particion::hasta)
+                .filter(Objects::nonNull)
+                .max(LocalDate::compareTo)
+                .orElse(YearMonth.now().atDay(1));
+        YearMonth objetivo = YearMonth.now().plusMonths(mesesAdelantados);
+
+        List<String> nuevas = new ArrayList<>();
+        for (YearMonth mes = YearMonth.from(ultimoLimite); !mes.isAfter(objetivo); mes = mes.plusMonths(1)) {
+            nuevas.add("PARTITION " + mes.format(FORMATO_PARTICION) +
+                    " VALUES LESS THAN (TO_DAYS('" + mes.plusMonths(1).atDay(1) + "'))");
+        }
+        if (nuevas.isEmpty()) {
+            return 0;
+        }
+        int creadas = nuevas.size();
+        nuevas.add("PARTITION " + PARTICION_FUTURO + " VALUES LESS THAN MAXVALUE");
+        jdbcTemplate.execute("ALTER TABLE " + tabla + " REORGANIZE PARTITION " + PARTICION_FUTURO +
+                " INTO (" + String.join(", ", nuevas) + ")");
+        log.info("Creadas {} particiones de {} hasta {}", creadas, tabla, objetivo);
+        return creadas;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Límite superior de PARTITION_DESCRIPTION; null para MAXVALUE
+     */
+    static LocalDate limite(String descripcion) {
+        if (descripcion == null || "MAXVALUE".equalsIgnoreCase(descripcion.trim())) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(Long.parseLong(descripcion.trim()) - DIAS_HASTA_EPOCH);
+    }
+
+    /**
+     * Partición con su límite superior exclusivo (null para MAXVALUE)
+     */
+    public record Particion(String nombre, LocalDate hasta) {
+    }
+}
@@ -4,6 +4,7 @@ import com.example.demo.security.model.Permiso;
 import com.example.demo.security.model.Rol;
 import com.example.demo.security.repository.PermisoRepository;
 import com.example.demo.security.repository.RolRepository;
+import com.example.demo.security.service.AutoridadesCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,6 +23,7 @@ public class RolesController {
 
     private final RolRepository rolRepository;
     private final PermisoRepository permisoRepository;
+    private final AutoridadesCache autoridadesCache;
 
     @GetMapping("/roles")
     @PreAuthorize("hasAnyAuthority('ROLES_READ','ROLES_VER','ROLES_GESTIONAR') or hasRole('ADMIN_TRIBUTARIO')")
@@ -79,6 +81,7 @@ public class RolesController {
             }
             
             Rol rolGuardado = rolRepository.save(rol);
+            autoridadesCache.invalidar();
             
             response.put("success", true);
             response.put("message", "Rol creado exitosamente");
@@ -140,6 +143,7 @@ public class RolesController {
             }
             
             Rol rolActualizado = rolRepository.save(rol);
+            autoridadesCache.invalidar();
             
             response.put("success", true);
             response.put("message", "Rol actualizado exitosamente");
@@ -174,6 +178,7 @@ public class RolesController {
             }
             
             rolRepository.delete(rol);
+            autoridadesCache.invalidar();
             
             response.put("success", true);
             response.put("message", "Rol eliminado exitosamente");
@@ -246,6 +251,7 @@ public class RolesController {
             }
             
             Rol rolActualizado = rolRepository.save(rol);
+            autoridadesCache.invalidar();
             
             response.put("success", true);
             response.put("message", "Permisos actualizados exitosamente");
@@ -0,0 +1,38 @@
+package com.example.demo.security.config;
+
+import com.example.demo.security.exception.AutenticacionSaturadaException;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+
+import java.io.IOException;
+
+/**
+ * Fallo de login: si la verificación de contraseñas está saturada responde 429 con Retry-After,
+ * en otro caso redirige al formulario con el error como hasta ahora
+ */
+public class ManejadorFalloLogin implements AuthenticationFailureHandler {
+
+    private final AuthenticationFailureHandler porDefecto;
+    private final int reintentarEnSegundos;
+
+    public ManejadorFalloLogin(String urlFallo, int reintentarEnSegundos) {
+        this.porDefecto = new SimpleUrlAuthenticationFailureHandler(urlFallo);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    @Override
+    public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+                                        AuthenticationException exception) throws IOException, ServletException {
+        if (exception instanceof AutenticacionSaturadaException) {
+            response.setHeader("Retry-After", String.valueOf(reintentarEnSegundos));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), exception.getMessage());
+            return;
+        }
+        porDefecto.onAuthenticationFailure(request, response, exception);
+    }
+}
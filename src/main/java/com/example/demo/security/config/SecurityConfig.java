@@ -1,7 +1,10 @@
 package com.example.demo.security.config;
 
+import com.example.demo.security.service.CodificadorContrasenas;
 import com.example.demo.security.service.UsuarioDetallesService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,7 +12,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
@@ -37,7 +39,7 @@ public class SecurityConfig {
                 .formLogin(login -> login
                         .loginPage("/login")
                         .defaultSuccessUrl("/dashboard", true)
-                        .failureUrl("/login?error=true")
+                        .failureHandler(new ManejadorFalloLogin("/login?error=true", 5))
                         .permitAll()
                 )
                 .logout(logout -> logout
@@ -59,9 +61,20 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * BCrypt con pool de verificación acotado, rechazo inmediato (429) y caché corta de credenciales verificadas
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${seguridad.bcrypt.fuerza:10}") int fuerza,
+                                           @Value("${seguridad.bcrypt.hilos:0}") int hilos,
+                                           @Value("${seguridad.bcrypt.cola:32}") int cola,
+                                           @Value("${seguridad.bcrypt.espera-maxima-ms:3000}") long esperaMaximaMs,
+                                           @Value("${seguridad.bcrypt.cache-ttl-ms:60000}") long cacheTtlMs,
+                                           @Value("${seguridad.bcrypt.cache-maximo:10000}") int cacheMaximo) {
+        // Por defecto la mitad de los núcleos, para dejar CPU al resto de las peticiones
+        int maxHilos = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new CodificadorContrasenas(fuerza, maxHilos, cola, esperaMaximaMs, cacheTtlMs, cacheMaximo, meterRegistry);
     }
 
     @Bean
@@ -0,0 +1,18 @@
+package com.example.demo.security.exception;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * La verificación de contraseñas está al límite de su capacidad y el intento se rechaza sin esperar.
+ * Extiende InternalAuthenticationServiceException para que ProviderManager no reintente con otro proveedor.
+ */
+public class AutenticacionSaturadaException extends InternalAuthenticationServiceException {
+
+    public AutenticacionSaturadaException(String message) {
+        super(message);
+    }
+
+    public AutenticacionSaturadaException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
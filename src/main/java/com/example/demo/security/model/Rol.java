@@ -8,12 +8,19 @@ import java.util.Set;
 
 @Entity
 @Table(name = "roles")
+@NamedEntityGraph(name = Rol.GRAFO_PERMISOS, attributeNodes = @NamedAttributeNode("permisos"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Rol {
+
+    /**
+     * Plan de carga con los permisos del rol
+     */
+    public static final String GRAFO_PERMISOS = "Rol.permisos";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -24,7 +31,7 @@ public class Rol {
     @Column(length = 255)
     private String descripcion;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "roles_permisos",
             joinColumns = @JoinColumn(name = "rol_id"),
             inverseJoinColumns = @JoinColumn(name = "permiso_id"))
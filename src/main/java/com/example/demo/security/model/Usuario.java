@@ -9,12 +9,19 @@ import java.util.Set;
 
 @Entity
 @Table(name = "usuarios")
+@NamedEntityGraph(name = Usuario.GRAFO_ROLES, attributeNodes = @NamedAttributeNode("roles"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Usuario {
+
+    /**
+     * Plan de carga con los roles (autenticación; los permisos de cada rol salen de AutoridadesCache)
+     */
+    public static final String GRAFO_ROLES = "Usuario.roles";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -34,7 +41,7 @@ public class Usuario {
     @Column(name = "creado_en")
     private Instant creadoEn = Instant.now();
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "usuarios_roles",
             joinColumns = @JoinColumn(name = "usuario_id"),
             inverseJoinColumns = @JoinColumn(name = "rol_id"))
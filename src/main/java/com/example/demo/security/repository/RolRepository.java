@@ -1,12 +1,21 @@
 package com.example.demo.security.repository;
 
 import com.example.demo.security.model.Rol;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface RolRepository extends JpaRepository<Rol, Long> {
-    Optional<Rol> findByNombre(String nombre);
-}
+    // La gestión de roles muestra y edita los permisos: se cargan junto con el rol (la asociación es LAZY)
+    @Override
+    @EntityGraph(Rol.GRAFO_PERMISOS)
+    List<Rol> findAll();
 
+    @Override
+    @EntityGraph(Rol.GRAFO_PERMISOS)
+    Optional<Rol> findById(Long id);
 
+    Optional<Rol> findByNombre(String nombre);
+}
@@ -1,11 +1,14 @@
 package com.example.demo.security.repository;
 
 import com.example.demo.security.model.Usuario;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+    // Autenticación: usuario y roles en una sola consulta; los permisos se resuelven con AutoridadesCache
+    @EntityGraph(Usuario.GRAFO_ROLES)
     Optional<Usuario> findByUsername(String username);
     Optional<Usuario> findByEmail(String email);
     boolean existsByEmail(String email);
@@ -0,0 +1,167 @@
+package com.example.demo.security.service;
+
+import com.example.demo.security.model.Permiso;
+import com.example.demo.security.model.Rol;
+import com.example.demo.security.repository.RolRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de autoridades por rol.
+ * Guarda para cada rol una instantánea inmutable: sus permisos como conjunto de bits sobre
+ * el índice de claves de permiso y la máscara de módulos a los que da acceso. Así el login
+ * y el remember-me solo leen el usuario con sus roles; los permisos salen de memoria.
+ * Todos los roles se cargan en una consulta; la gestión de roles invalida la caché y,
+ * para los cambios hechos en otras instancias, la instantánea expira tras seguridad.autoridades.ttl-ms.
+ */
+@Service
+@Slf4j
+public class AutoridadesCache {
+
+    private final RolRepository rolRepository;
+    private final long ttlMs;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instantanea instantanea;
+
+    public AutoridadesCache(RolRepository rolRepository,
+                            @Value("${seguridad.autoridades.ttl-ms:300000}") long ttlMs) {
+        this.rolRepository = rolRepository;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Autoridades (ROLE_ + claves de permiso) y máscara de accesos de un usuario con los roles dados
+     */
+    public AutoridadesUsuario resolver(Collection<Rol> roles) {
+        Instantanea actual = obtener();
+        if (!actual.contieneTodos(roles)) {
+            // Rol creado después de la última carga (por ejemplo, en otra instancia)
+            invalidar();
+            actual = obtener();
+        }
+
+        BitSet permisos = new BitSet();
+        Set<GrantedAuthority> autoridades = new LinkedHashSet<>();
+        int accesos = 0;
+        for (Rol rol : roles) {
+            AutoridadesRol autoridadesRol = actual.porId().get(rol.getId());
+            if (autoridadesRol == null) {
+                continue;
+            }
+            autoridades.add(autoridadesRol.autoridadRol());
+            permisos.or(autoridadesRol.permisos());
+            accesos |= autoridadesRol.accesos();
+        }
+        for (int i = permisos.nextSetBit(0); i >= 0; i = permisos.nextSetBit(i + 1)) {
+            autoridades.add(actual.autoridades().get(i));
+        }
+        return new AutoridadesUsuario(Collections.unmodifiableSet(autoridades), accesos);
+    }
+
+    /**
+     * Descarta la instantánea; la próxima resolución vuelve a cargar los roles
+     */
+    public void invalidar() {
+        version.incrementAndGet();
+        instantanea = null;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Instantanea obtener() {
+        Instantanea actual = instantanea;
+        if (actual != null && !actual.expirada(ttlMs)) {
+            return actual;
+        }
+        synchronized (this) {
+            actual = instantanea;
+            if (actual != null && !actual.expirada(ttlMs)) {
+                return actual;
+            }
+            long versionCarga = version.get();
+            actual = cargar();
+            // Si se invalidó durante la carga, se usa el resultado pero no se guarda
+            if (version.get() == versionCarga) {
+                instantanea = actual;
+            }
+            return actual;
+        }
+    }
+
+    private Instantanea cargar() {
+        List<Rol> roles = rolRepository.findAll();
+
+        // Índice de bits: claves de permiso en orden estable
+        Set<String> claves = new TreeSet<>();
+        for (Rol rol : roles) {
+            for (Permiso permiso : rol.getPermisos()) {
+                claves.add(permiso.getClave());
+            }
+        }
+        List<GrantedAuthority> autoridades = new ArrayList<>(claves.size());
+        Map<String, Integer> indice = new HashMap<>();
+        for (String clave : claves) {
+            indice.put(clave, autoridades.size());
+            autoridades.add(new SimpleGrantedAuthority(clave));
+        }
+
+        Map<Long, AutoridadesRol> porId = new HashMap<>();
+        for (Rol rol : roles) {
+            String autoridadRol = "ROLE_" + rol.getNombre();
+            BitSet permisos = new BitSet(claves.size());
+            int accesos = ModuloAcceso.accesosDeAutoridad(autoridadRol);
+            for (Permiso permiso : rol.getPermisos()) {
+                permisos.set(indice.get(permiso.getClave()));
+                accesos |= ModuloAcceso.accesosDeAutoridad(permiso.getClave());
+            }
+            porId.put(rol.getId(), new AutoridadesRol(new SimpleGrantedAuthority(autoridadRol), permisos, accesos));
+        }
+
+        log.debug("Caché de autoridades cargada: {} roles, {} permisos", porId.size(), claves.size());
+        return new Instantanea(Map.copyOf(porId), List.copyOf(autoridades), System.currentTimeMillis());
+    }
+
+    /**
+     * Autoridades resueltas de un usuario
+     */
+    public record AutoridadesUsuario(Set<GrantedAuthority> autoridades, int accesos) {
+    }
+
+    /**
+     * Autoridades de un rol; el BitSet no se modifica después de construido
+     */
+    private record AutoridadesRol(GrantedAuthority autoridadRol, BitSet permisos, int accesos) {
+    }
+
+    private record Instantanea(Map<Long, AutoridadesRol> porId, List<GrantedAuthority> autoridades, long cargadaEn) {
+
+        boolean expirada(long ttlMs) {
+            return System.currentTimeMillis() - cargadaEn > ttlMs;
+        }
+
+        boolean contieneTodos(Collection<Rol> roles) {
+            for (Rol rol : roles) {
+                if (!porId.containsKey(rol.getId())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
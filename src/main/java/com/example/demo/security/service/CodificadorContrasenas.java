@@ -0,0 +1,214 @@
+package com.example.demo.security.service;
+
+import com.example.demo.security.exception.AutenticacionSaturadaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Codificador BCrypt que verifica las contraseñas en un pool propio y acotado.
+ * Los hilos de Tomcat solo esperan el resultado: como mucho "hilos" verificaciones corren a la vez,
+ * otras "cola" esperan turno y el resto se rechaza de inmediato con AutenticacionSaturadaException (HTTP 429),
+ * de modo que una ola de inicios de sesión no deja sin CPU al resto de la aplicación.
+ * Las verificaciones correctas se recuerdan durante un tiempo corto para no repetir el hash
+ * cuando el mismo usuario vuelve a autenticarse con la misma contraseña.
+ */
+@Slf4j
+public class CodificadorContrasenas implements PasswordEncoder {
+
+    private static final String ALGORITMO_CACHE = "HmacSHA256";
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final ThreadPoolExecutor hilos;
+    private final long esperaMaximaMs;
+    private final long cacheTtlMs;
+    private final int cacheMaximo;
+
+    // Clave aleatoria por proceso: las entradas de la caché no sirven fuera de esta instancia
+    private final SecretKeySpec claveCache;
+    private final Map<String, Long> verificadas = new ConcurrentHashMap<>();
+
+    private final Timer tiempoEspera;
+    private final Timer tiempoVerificacion;
+    private final Counter rechazadas;
+    private final Counter aciertosCache;
+
+    public CodificadorContrasenas(int fuerza, int maxHilos, int capacidadCola, long esperaMaximaMs,
+                                  long cacheTtlMs, int cacheMaximo, MeterRegistry meterRegistry) {
+        this.bcrypt = new BCryptPasswordEncoder(fuerza);
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.cacheTtlMs = cacheTtlMs;
+        this.cacheMaximo = cacheMaximo;
+
+        AtomicInteger numero = new AtomicInteger();
+        this.hilos = new ThreadPoolExecutor(maxHilos, maxHilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "bcrypt-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hilos.allowCoreThreadTimeOut(true);
+
+        byte[] clave = new byte[32];
+        new SecureRandom().nextBytes(clave);
+        this.claveCache = new SecretKeySpec(clave, ALGORITMO_CACHE);
+
+        this.tiempoEspera = Timer.builder("autenticacion.hash.espera")
+                .description("Tiempo en cola antes de verificar la contraseña")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.tiempoVerificacion = Timer.builder("autenticacion.hash.verificacion")
+                .description("Duración de la verificación BCrypt (depende de la fuerza configurada)")
+                .tag("fuerza", String.valueOf(fuerza))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rechazadas = Counter.builder("autenticacion.hash.rechazadas")
+                .description("Verificaciones rechazadas por capacidad (HTTP 429)")
+                .register(meterRegistry);
+        this.aciertosCache = Counter.builder("autenticacion.hash.cache.aciertos")
+                .description("Verificaciones resueltas con la caché de credenciales verificadas")
+                .register(meterRegistry);
+        Gauge.builder("autenticacion.hash.activas", hilos, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("autenticacion.hash.cola", hilos, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("autenticacion.hash.cache.entradas", verificadas, Map::size)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void detener() {
+        hilos.shutdownNow();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        // Altas y cambios de contraseña: poco frecuentes, se codifican en el hilo del llamador
+        return bcrypt.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+
+        String claveVerificada = cacheTtlMs > 0 ? claveCache(rawPassword, encodedPassword) : null;
+        if (claveVerificada != null && vigente(claveVerificada)) {
+            aciertosCache.increment();
+            return true;
+        }
+
+        long encolada = System.nanoTime();
+        Future<Boolean> resultado;
+        try {
+            resultado = hilos.submit(() -> {
+                tiempoEspera.record(System.nanoTime() - encolada, TimeUnit.NANOSECONDS);
+                return tiempoVerificacion.recordCallable(() -> bcrypt.matches(rawPassword, encodedPassword));
+            });
+        } catch (RejectedExecutionException e) {
+            rechazadas.increment();
+            throw new AutenticacionSaturadaException("Demasiados inicios de sesión simultáneos, intente nuevamente en unos segundos");
+        }
+
+        boolean coincide;
+        try {
+            coincide = resultado.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            rechazadas.increment();
+            throw new AutenticacionSaturadaException("La verificación de la contraseña superó el tiempo de espera");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.cancel(true);
+            throw new InternalAuthenticationServiceException("Verificación de la contraseña interrumpida", e);
+        } catch (ExecutionException e) {
+            // Solo el rechazo y la espera agotada son saturación (429); un fallo de BCrypt es un error interno
+            throw new InternalAuthenticationServiceException("Error al verificar la contraseña", e.getCause());
+        }
+
+        if (coincide && claveVerificada != null) {
+            recordar(claveVerificada);
+        }
+        return coincide;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return bcrypt.upgradeEncoding(encodedPassword);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * HMAC de la contraseña junto con su hash almacenado: si la contraseña cambia, la entrada deja de coincidir
+     */
+    private String claveCache(CharSequence rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO_CACHE);
+            mac.init(claveCache);
+            mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            log.warn("No se pudo calcular la clave de la caché de credenciales: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean vigente(String clave) {
+        Long expira = verificadas.get(clave);
+        if (expira == null) {
+            return false;
+        }
+        if (expira < System.currentTimeMillis()) {
+            verificadas.remove(clave, expira);
+            return false;
+        }
+        return true;
+    }
+
+    private void recordar(String clave) {
+        long ahora = System.currentTimeMillis();
+        if (verificadas.size() >= cacheMaximo) {
+            // Se descartan las vencidas; si sigue llena, no se agrega (la caché es solo un atajo)
+            Iterator<Map.Entry<String, Long>> it = verificadas.entrySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().getValue() < ahora) {
+                    it.remove();
+                }
+            }
+            if (verificadas.size() >= cacheMaximo) {
+                return;
+            }
+        }
+        verificadas.put(clave, ahora + cacheTtlMs);
+    }
+}
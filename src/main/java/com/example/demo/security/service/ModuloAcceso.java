@@ -0,0 +1,87 @@
+package com.example.demo.security.service;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Módulos del panel y autoridades (rol o permiso) que dan acceso a cada uno.
+ * Los accesos de un usuario se representan como una máscara de bits sobre el ordinal del módulo,
+ * calculada una vez por rol (ver AutoridadesCache) y guardada en el usuario autenticado.
+ */
+public enum ModuloAcceso {
+
+    CONTRIBUYENTES("contribuyentes", "ROLE_ADMIN_TRIBUTARIO",
+            "CONTRIBUYENTES_READ", "CONTRIBUYENTES_VER", "CONTRIBUYENTES_GESTIONAR"),
+    IMPUESTOS("impuestos", "ROLE_ADMIN_TRIBUTARIO",
+            "IMPUESTOS_READ", "IMPUESTOS_VER", "IMPUESTOS_GESTIONAR"),
+    RETENCIONES("retenciones", "ROLE_ADMIN_TRIBUTARIO",
+            "RETENCIONES_READ", "RETENCIONES_VER", "RETENCIONES_GESTIONAR"),
+    COMPROBANTES("comprobantes", "ROLE_ADMIN_TRIBUTARIO",
+            "COMPROBANTES_READ", "COMPROBANTES_VER", "COMPROBANTES_GESTIONAR"),
+    DECLARACIONES("declaraciones", "ROLE_ADMIN_TRIBUTARIO",
+            "DECLARACIONES_READ", "DECLARACIONES_VER", "DECLARACIONES_GESTIONAR"),
+    ROLES("roles", "ROLE_ADMIN_TRIBUTARIO",
+            "ROLES_READ", "ROLES_VER", "ROLES_GESTIONAR"),
+    PERSONAL("personal", "ROLE_ADMIN_TRIBUTARIO",
+            "USUARIOS_READ", "USUARIOS_VER", "USUARIOS_CREAR", "USUARIOS_EDITAR", "USUARIOS_ELIMINAR",
+            "PERSONAL_READ", "PERSONAL_VER", "PERSONAL_GESTIONAR"),
+    AUDITORIA("auditoria", "ROLE_SUPER_ADMIN",
+            "AUDITORIA_VER", "AUDITORIA_GESTIONAR", "AUDITORIA_EXPORTAR", "AUDITORIA_ESTADISTICAS");
+
+    private final String clave;
+    private final Set<String> autoridades;
+
+    ModuloAcceso(String clave, String... autoridades) {
+        this.clave = clave;
+        this.autoridades = Set.of(autoridades);
+    }
+
+    /**
+     * Clave del módulo en el modelo del dashboard
+     */
+    public String getClave() {
+        return clave;
+    }
+
+    public boolean permitido(int accesos) {
+        return (accesos & (1 << ordinal())) != 0;
+    }
+
+    /**
+     * Máscara de accesos que otorga una autoridad
+     */
+    public static int accesosDeAutoridad(String autoridad) {
+        int accesos = 0;
+        for (ModuloAcceso modulo : values()) {
+            if (modulo.autoridades.contains(autoridad)) {
+                accesos |= 1 << modulo.ordinal();
+            }
+        }
+        return accesos;
+    }
+
+    /**
+     * Máscara de accesos del usuario autenticado; si no fue cargado por UsuarioDetallesService
+     * se calcula a partir de sus autoridades
+     */
+    public static int accesosDe(Authentication authentication) {
+        if (authentication == null) {
+            return 0;
+        }
+        if (authentication.getPrincipal() instanceof UsuarioAutenticado usuario) {
+            return usuario.getAccesos();
+        }
+        return accesosDe(authentication.getAuthorities());
+    }
+
+    public static int accesosDe(Collection<? extends GrantedAuthority> autoridades) {
+        int accesos = 0;
+        for (GrantedAuthority autoridad : autoridades) {
+            accesos |= accesosDeAutoridad(autoridad.getAuthority());
+        }
+        return accesos;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.security.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Usuario autenticado con la máscara de módulos accesibles ya calculada (ver ModuloAcceso)
+ */
+public class UsuarioAutenticado extends User {
+
+    private final int accesos;
+
+    public UsuarioAutenticado(String username, String password, boolean habilitado,
+                              Collection<? extends GrantedAuthority> authorities, int accesos) {
+        super(username, password, habilitado, true, true, true, authorities);
+        this.accesos = accesos;
+    }
+
+    public int getAccesos() {
+        return accesos;
+    }
+}
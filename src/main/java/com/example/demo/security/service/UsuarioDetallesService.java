@@ -3,44 +3,31 @@ package com.example.demo.security.service;
 import com.example.demo.security.model.Usuario;
 import com.example.demo.security.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-
 @Service
 @RequiredArgsConstructor
 public class UsuarioDetallesService implements UserDetailsService {
 
     private final UsuarioRepository usuarioRepository;
+    private final AutoridadesCache autoridadesCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Usuario usuario = usuarioRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
 
-        // Convertir roles y permisos a authorities
-        Set<SimpleGrantedAuthority> authorities = usuario.getRoles().stream()
-                .map(rol -> new SimpleGrantedAuthority("ROLE_" + rol.getNombre()))
-                .collect(Collectors.toSet());
-
-        // Además, incluir authorities por cada permiso asociado a los roles del usuario
-        usuario.getRoles().forEach(rol -> {
-            rol.getPermisos().forEach(permiso -> {
-                authorities.add(new SimpleGrantedAuthority(permiso.getClave()));
-            });
-        });
+        // Roles y permisos convertidos a authorities desde la caché por rol (sin recorrer los permisos del usuario)
+        AutoridadesCache.AutoridadesUsuario autoridades = autoridadesCache.resolver(usuario.getRoles());
 
-        return User.builder()
-                .username(usuario.getUsername())
-                .password(usuario.getPassword())
-                .authorities(authorities)
-                .disabled(!usuario.isActivo())
-                .build();
+        return new UsuarioAutenticado(
+                usuario.getUsername(),
+                usuario.getPassword(),
+                usuario.isActivo(),
+                autoridades.autoridades(),
+                autoridades.accesos());
     }
 }
@@ -21,7 +21,9 @@ import java.time.LocalDateTime;
 public class Servicio {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "servicios_id")
+    @TableGenerator(name = "servicios_id", table = "secuencias_id", pkColumnName = "nombre",
+            valueColumnName = "ultimo_id", pkColumnValue = "servicios", allocationSize = 50)
     private Long id;
 
     @Column(name = "numero_servicio", unique = true, nullable = false, length = 20)
@@ -69,6 +71,9 @@ public class Servicio {
     @Column(name = "direccion_servicio", length = 500)
     private String direccionServicio;
 
+    @Column(name = "zona_municipal", length = 100)
+    private String zonaMunicipal;
+
     @Column(name = "medidor", length = 50)
     private String medidor;
 
@@ -0,0 +1,54 @@
+package com.example.demo.servicios.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Estado y avance de un ciclo de facturación por lecturas
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CicloFacturacionDTO {
+
+    private Long id;
+
+    private String archivo;
+
+    /**
+     * CARGANDO, PENDIENTE, EN_CURSO, COMPLETADO o FALLIDO
+     */
+    private String estado;
+
+    private String usuario;
+
+    private long lecturasLeidas;
+
+    private long lecturasPendientes;
+
+    private long lecturasFacturadas;
+
+    private long lecturasOmitidas;
+
+    private long lecturasRechazadas;
+
+    private BigDecimal montoFacturado;
+
+    private int particiones;
+
+    private int particionesCompletadas;
+
+    private LocalDateTime creadoEn;
+
+    private LocalDateTime iniciadoEn;
+
+    private LocalDateTime terminadoEn;
+
+    private String mensajeError;
+}
@@ -0,0 +1,38 @@
+package com.example.demo.servicios.dto;
+
+import com.example.demo.servicios.domain.TipoServicio;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Consumo de un mes, de un servicio o de una zona y tipo de servicio.
+ * Los meses sin lecturas se informan con lecturas = 0 y consumos en cero.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumoMensualDTO {
+
+    /**
+     * Solo en los resúmenes por zona (vacío = servicios sin zona)
+     */
+    private String zona;
+
+    private TipoServicio tipoServicio;
+
+    private YearMonth mes;
+
+    private long lecturas;
+
+    private BigDecimal consumoTotal;
+
+    private BigDecimal consumoPromedio;
+
+    private BigDecimal consumoMaximo;
+}
@@ -0,0 +1,33 @@
+package com.example.demo.servicios.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Lectura del historial de un servicio
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LecturaHistorialDTO {
+
+    private LocalDate fecha;
+
+    /**
+     * Valor acumulado del medidor
+     */
+    private BigDecimal lectura;
+
+    private BigDecimal consumo;
+
+    /**
+     * Ciclo de facturación de origen; null si la lectura se cargó a mano
+     */
+    private Long cicloId;
+}
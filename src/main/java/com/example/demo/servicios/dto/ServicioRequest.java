@@ -50,6 +50,9 @@ public class ServicioRequest {
     @Size(max = 500, message = "La dirección no puede exceder 500 caracteres")
     private String direccionServicio;
     
+    @Size(max = 100, message = "La zona no puede exceder 100 caracteres")
+    private String zonaMunicipal;
+    
     @Size(max = 50, message = "El medidor no puede exceder 50 caracteres")
     private String medidor;
     
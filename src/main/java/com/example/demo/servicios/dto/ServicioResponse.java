@@ -35,6 +35,7 @@ public class ServicioResponse {
     private LocalDate fechaProximaLectura;
     private LocalDate fechaCorte;
     private String direccionServicio;
+    private String zonaMunicipal;
     private String medidor;
     private String observaciones;
     private LocalDateTime fechaRegistro;
@@ -89,14 +89,6 @@ public interface ServicioRepository extends JpaRepository<Servicio, Long> {
            "WHERE s.montoFacturado > s.montoPagado")
     BigDecimal sumSaldoPendiente();
 
-    /**
-     * Servicios vencidos para corte
-     */
-    @Query("SELECT s FROM Servicio s WHERE s.fechaCorte < :fecha " +
-           "AND s.montoFacturado > s.montoPagado " +
-           "AND s.estado IN ('ACTIVO', 'SUSPENDIDO')")
-    List<Servicio> findServiciosVencidosParaCorte(@Param("fecha") LocalDate fecha);
-
     /**
      * Servicios que requieren lectura
      */
@@ -105,6 +97,11 @@ public interface ServicioRepository extends JpaRepository<Servicio, Long> {
            "AND s.estado = 'ACTIVO'")
     List<Servicio> findServiciosParaLectura(@Param("fecha") LocalDate fecha);
 
+    // Medidor e id de los servicios con lectura (carga de los ciclos de facturación)
+    @Query("SELECT s.medidor, s.id FROM Servicio s WHERE s.medidor IS NOT NULL " +
+           "AND s.tipoServicio IN ('AGUA_POTABLE', 'GAS_DOMESTICO')")
+    List<Object[]> findIdsPorMedidor();
+
     /**
      * Servicios por rango de fechas
      */
@@ -133,4 +130,8 @@ public interface ServicioRepository extends JpaRepository<Servicio, Long> {
            "FROM Servicio s WHERE s.consumoActual IS NOT NULL AND s.consumoAnterior IS NOT NULL " +
            "GROUP BY s.tipoServicio")
     List<Object[]> getEstadisticasConsumo();
+
+    // Cantidad y monto facturado por estado (reconciliación del resumen de estadísticas)
+    @Query("SELECT s.estado, COUNT(s), COALESCE(SUM(s.montoFacturado), 0) FROM Servicio s GROUP BY s.estado")
+    List<Object[]> resumenPorEstado();
 }
@@ -0,0 +1,636 @@
+package com.example.demo.servicios.service;
+
+import com.example.demo.importacion.service.FilaImportacion;
+import com.example.demo.importacion.service.FormatoImportacion;
+import com.example.demo.importacion.service.ImportacionService;
+import com.example.demo.importacion.service.LectorArchivo;
+import com.example.demo.programacion.service.ArriendoTareaService;
+import com.example.demo.servicios.dto.CicloFacturacionDTO;
+import com.example.demo.servicios.exception.ServicioException;
+import com.example.demo.servicios.repository.ServicioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ciclos de facturación de servicios a partir de un archivo de lecturas (medidor, lectura, fecha).
+ * La carga resuelve cada medidor contra los servicios de agua potable y gas doméstico y guarda
+ * las lecturas en ciclos_facturacion_lecturas; luego el rango de ids de servicio se divide en
+ * particiones que el pool de facturación procesa en paralelo, bloque a bloque, con
+ * FacturacionLecturasService. Cada bloque confirma junto con el punto de control de su
+ * partición, así que un ciclo interrumpido se reanuda sin repetir ni perder lecturas.
+ * Solo corre un ciclo a la vez en todo el despliegue (arriendo en tareas_arriendo).
+ */
+@Service
+@Slf4j
+public class CicloFacturacionService {
+
+    public static final String CARGANDO = "CARGANDO";
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String EN_CURSO = "EN_CURSO";
+    public static final String COMPLETADO = "COMPLETADO";
+    public static final String FALLIDO = "FALLIDO";
+
+    static final String TAREA = "servicios.facturacion";
+
+    private static final List<String> COLUMNAS = List.of("medidor", "lectura", "fecha");
+    private static final BigDecimal LECTURA_MAXIMA = new BigDecimal("99999999.99");
+    private static final int LARGO_MEDIDOR = 50;
+    private static final int LARGO_MENSAJE = 255;
+    private static final int LARGO_ERROR = 500;
+
+    // Marca de medidores asignados a más de un servicio
+    private static final long MEDIDOR_AMBIGUO = -1L;
+
+    private static final String SQL_CREAR =
+            "INSERT INTO ciclos_facturacion (archivo, estado, usuario, creado_en) VALUES (?, 'CARGANDO', ?, ?)";
+    private static final String SQL_CICLO =
+            "SELECT id, archivo, estado, usuario, lecturas_leidas, creado_en, cargado_en, iniciado_en, " +
+            "terminado_en, mensaje_error FROM ciclos_facturacion WHERE id = ?";
+    private static final String SQL_LECTURAS_POR_ESTADO =
+            "SELECT estado, COUNT(*), COALESCE(SUM(monto), 0) FROM ciclos_facturacion_lecturas " +
+            "WHERE ciclo_id = ? GROUP BY estado";
+    private static final String SQL_AVANCE_PARTICIONES =
+            "SELECT COUNT(*), COALESCE(SUM(estado = 'COMPLETADA'), 0) FROM ciclos_facturacion_particiones " +
+            "WHERE ciclo_id = ?";
+    private static final String SQL_BORRAR_PARTICIONES =
+            "DELETE FROM ciclos_facturacion_particiones WHERE ciclo_id = ?";
+    private static final String SQL_BORRAR_LECTURAS =
+            "DELETE FROM ciclos_facturacion_lecturas WHERE ciclo_id = ?";
+    private static final String SQL_INSERTAR_LECTURA =
+            "INSERT INTO ciclos_facturacion_lecturas (ciclo_id, fila, medidor, servicio_id, lectura, fecha, estado, " +
+            "mensaje) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_RANGO =
+            "SELECT MIN(servicio_id), MAX(servicio_id) FROM ciclos_facturacion_lecturas " +
+            "WHERE ciclo_id = ? AND estado = 'PENDIENTE'";
+    private static final String SQL_CREAR_PARTICION =
+            "INSERT INTO ciclos_facturacion_particiones (ciclo_id, particion, desde_id, hasta_id, ultimo_id, estado) " +
+            "VALUES (?, ?, ?, ?, ?, 'PENDIENTE')";
+    private static final String SQL_CARGADO =
+            "UPDATE ciclos_facturacion SET estado = 'PENDIENTE', lecturas_leidas = ?, lecturas_rechazadas = ?, " +
+            "cargado_en = ? WHERE id = ?";
+    private static final String SQL_INICIAR =
+            "UPDATE ciclos_facturacion SET estado = 'EN_CURSO', iniciado_en = ?, terminado_en = NULL, " +
+            "mensaje_error = NULL WHERE id = ?";
+    private static final String SQL_PARTICIONES_PENDIENTES =
+            "SELECT particion, ultimo_id, hasta_id FROM ciclos_facturacion_particiones " +
+            "WHERE ciclo_id = ? AND estado = 'PENDIENTE' ORDER BY particion";
+    private static final String SQL_COMPLETAR =
+            "UPDATE ciclos_facturacion c SET estado = 'COMPLETADO', terminado_en = ?, " +
+            "servicios_facturados = (SELECT COUNT(*) FROM ciclos_facturacion_lecturas l " +
+            "  WHERE l.ciclo_id = c.id AND l.estado = 'FACTURADA'), " +
+            "monto_facturado = (SELECT COALESCE(SUM(l.monto), 0) FROM ciclos_facturacion_lecturas l " +
+            "  WHERE l.ciclo_id = c.id AND l.estado = 'FACTURADA'), " +
+            "lecturas_rechazadas = (SELECT COUNT(*) FROM ciclos_facturacion_lecturas l " +
+            "  WHERE l.ciclo_id = c.id AND l.estado IN ('RECHAZADA', 'OMITIDA')) " +
+            "WHERE c.id = ?";
+    private static final String SQL_FALLAR =
+            "UPDATE ciclos_facturacion SET estado = 'FALLIDO', terminado_en = ?, mensaje_error = ? WHERE id = ?";
+    private static final String SQL_RECHAZOS =
+            "SELECT fila, medidor, estado, mensaje FROM ciclos_facturacion_lecturas " +
+            "WHERE ciclo_id = ? AND estado IN ('RECHAZADA', 'OMITIDA') ORDER BY fila";
+
+    // Igual que hibernate.jdbc.time_zone: las fechas con hora se guardan en UTC
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FacturacionLecturasService facturacionLecturasService;
+    private final ServicioRepository servicioRepository;
+    private final ArriendoTareaService arriendoTareaService;
+    private final Map<FormatoImportacion, LectorArchivo> lectores = new EnumMap<>(FormatoImportacion.class);
+    private final MeterRegistry meterRegistry;
+    private final Path directorio;
+    private final int tamanoLote;
+    private final int particiones;
+    private final int tamanoBloque;
+    private final int arriendoSegundos;
+
+    private final ExecutorService ciclos = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService facturacion;
+    // El arriendo es reentrante para la misma instancia: esta marca evita dos ciclos locales a la vez
+    private final AtomicBoolean ocupado = new AtomicBoolean();
+
+    public CicloFacturacionService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   FacturacionLecturasService facturacionLecturasService,
+                                   ServicioRepository servicioRepository,
+                                   ArriendoTareaService arriendoTareaService,
+                                   List<LectorArchivo> lectores,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${servicios.facturacion.directorio:./archivo/facturacion}") String directorio,
+                                   @Value("${servicios.facturacion.tamano-lote:2000}") int tamanoLote,
+                                   @Value("${servicios.facturacion.hilos:0}") int hilos,
+                                   @Value("${servicios.facturacion.particiones:16}") int particiones,
+                                   @Value("${servicios.facturacion.tamano-bloque:1000}") int tamanoBloque,
+                                   @Value("${servicios.facturacion.arriendo-segundos:300}") int arriendoSegundos) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.facturacionLecturasService = facturacionLecturasService;
+        this.servicioRepository = servicioRepository;
+        this.arriendoTareaService = arriendoTareaService;
+        lectores.forEach(lector -> this.lectores.put(lector.getFormato(), lector));
+        this.meterRegistry = meterRegistry;
+        this.directorio = Paths.get(directorio);
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.particiones = Math.max(1, particiones);
+        this.tamanoBloque = Math.max(1, tamanoBloque);
+        this.arriendoSegundos = Math.max(30, arriendoSegundos);
+        this.facturacion = Executors.newFixedThreadPool(hilos > 0
+                ? hilos
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    @PreDestroy
+    public void detener() {
+        ciclos.shutdownNow();
+        facturacion.shutdownNow();
+    }
+
+    /**
+     * Guarda el archivo de lecturas, crea el ciclo y lo ejecuta en segundo plano
+     */
+    public CicloFacturacionDTO iniciar(MultipartFile archivo, String usuario) throws IOException {
+        if (archivo == null || archivo.isEmpty()) {
+            throw new IllegalArgumentException("El archivo está vacío");
+        }
+        FormatoImportacion formato = FormatoImportacion.desde(archivo.getOriginalFilename());
+        reservar();
+
+        Long cicloId = null;
+        try {
+            Files.createDirectories(directorio);
+            cicloId = crearCiclo(archivo.getOriginalFilename(), usuario);
+            archivo.transferTo(rutaArchivo(cicloId, formato));
+            lanzar(cicloId, usuario, formato, true);
+        } catch (IOException | RuntimeException e) {
+            if (cicloId != null) {
+                fallar(cicloId, e.getMessage());
+            }
+            liberar("ERROR: " + e.getMessage());
+            throw e;
+        }
+        log.info("Ciclo de facturación {} iniciado por {}: {}", cicloId, usuario, archivo.getOriginalFilename());
+        return obtener(cicloId).orElseThrow();
+    }
+
+    /**
+     * Retoma un ciclo interrumpido o fallido desde sus puntos de control. Si la carga de
+     * lecturas no había terminado se repite completa desde la copia del archivo.
+     */
+    public CicloFacturacionDTO reanudar(long cicloId) {
+        Ciclo ciclo = leerCiclo(cicloId)
+                .orElseThrow(() -> new ServicioException("Ciclo de facturación no encontrado con ID: " + cicloId));
+        if (COMPLETADO.equals(ciclo.estado())) {
+            throw new ServicioException("El ciclo de facturación " + cicloId + " ya está completado");
+        }
+        FormatoImportacion formato = FormatoImportacion.desde(ciclo.archivo());
+        boolean cargar = ciclo.cargadoEn() == null;
+        if (cargar && !Files.exists(rutaArchivo(cicloId, formato))) {
+            throw new ServicioException("No se conserva el archivo de lecturas del ciclo " + cicloId +
+                    "; debe iniciarse un ciclo nuevo");
+        }
+        reservar();
+        try {
+            lanzar(cicloId, ciclo.usuario(), formato, cargar);
+        } catch (RuntimeException e) {
+            liberar("ERROR: " + e.getMessage());
+            throw e;
+        }
+        log.info("Ciclo de facturación {} reanudado{}", cicloId, cargar ? " desde la carga" : "");
+        return obtener(cicloId).orElseThrow();
+    }
+
+    /**
+     * Estado del ciclo con el avance calculado desde sus lecturas y particiones
+     */
+    public Optional<CicloFacturacionDTO> obtener(long cicloId) {
+        return leerCiclo(cicloId).map(ciclo -> {
+            CicloFacturacionDTO dto = CicloFacturacionDTO.builder()
+                    .id(ciclo.id())
+                    .archivo(ciclo.archivo())
+                    .estado(ciclo.estado())
+                    .usuario(ciclo.usuario())
+                    .lecturasLeidas(ciclo.lecturasLeidas())
+                    .montoFacturado(BigDecimal.ZERO)
+                    .creadoEn(ciclo.creadoEn())
+                    .iniciadoEn(ciclo.iniciadoEn())
+                    .terminadoEn(ciclo.terminadoEn())
+                    .mensajeError(ciclo.mensajeError())
+                    .build();
+            jdbcTemplate.query(SQL_LECTURAS_POR_ESTADO, rs -> {
+                long cantidad = rs.getLong(2);
+                switch (rs.getString(1)) {
+                    case FacturacionLecturasService.PENDIENTE -> dto.setLecturasPendientes(cantidad);
+                    case FacturacionLecturasService.FACTURADA -> {
+                        dto.setLecturasFacturadas(cantidad);
+                        dto.setMontoFacturado(rs.getBigDecimal(3));
+                    }
+                    case FacturacionLecturasService.OMITIDA -> dto.setLecturasOmitidas(cantidad);
+                    default -> dto.setLecturasRechazadas(dto.getLecturasRechazadas() + cantidad);
+                }
+            }, cicloId);
+            jdbcTemplate.query(SQL_AVANCE_PARTICIONES, rs -> {
+                dto.setParticiones(rs.getInt(1));
+                dto.setParticionesCompletadas(rs.getInt(2));
+            }, cicloId);
+            return dto;
+        });
+    }
+
+    /**
+     * Escribe en CSV las lecturas rechazadas u omitidas del ciclo (fila del archivo y motivo)
+     */
+    public void escribirRechazos(long cicloId, Writer writer) throws IOException {
+        // BOM para que Excel abra el informe como UTF-8
+        writer.write('\uFEFF');
+        writer.write("fila,medidor,estado,mensaje\n");
+        jdbcTemplate.query(SQL_RECHAZOS, rs -> {
+            try {
+                writer.write(Long.toString(rs.getLong(1)));
+                writer.write(',');
+                writer.write(csv(rs.getString(2)));
+                writer.write(',');
+                writer.write(rs.getString(3));
+                writer.write(',');
+                writer.write(csv(rs.getString(4)));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, cicloId);
+        writer.flush();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Toma la marca local y el arriendo del despliegue, o falla si ya hay un ciclo en curso
+     */
+    private void reservar() {
+        if (!ocupado.compareAndSet(false, true)) {
+            throw new IllegalStateException("Hay un ciclo de facturación en curso; intente más tarde");
+        }
+        if (!arriendoTareaService.adquirir(TAREA, arriendoSegundos)) {
+            ocupado.set(false);
+            throw new IllegalStateException("Hay un ciclo de facturación en curso en otra instancia; intente más tarde");
+        }
+    }
+
+    private void liberar(String resultado) {
+        arriendoTareaService.liberar(TAREA, resultado);
+        ocupado.set(false);
+    }
+
+    private void lanzar(long cicloId, String usuario, FormatoImportacion formato, boolean cargar) {
+        ciclos.submit(() -> ejecutar(cicloId, usuario, formato, cargar));
+    }
+
+    private void ejecutar(long cicloId, String usuario, FormatoImportacion formato, boolean cargar) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        Path archivo = rutaArchivo(cicloId, formato);
+        String estado = FALLIDO;
+        String resultado = null;
+        try {
+            if (cargar) {
+                cargar(cicloId, archivo, lectores.get(formato));
+            }
+            facturar(cicloId, usuario);
+            estado = COMPLETADO;
+            resultado = "OK: ciclo " + cicloId;
+            log.info("Ciclo de facturación {} completado", cicloId);
+            eliminarArchivo(archivo);
+        } catch (Exception e) {
+            Throwable causa = e instanceof UncheckedIOException ? e.getCause() : e;
+            resultado = "ERROR: ciclo " + cicloId + ": " + causa.getMessage();
+            fallar(cicloId, causa.getMessage());
+            log.error("Ciclo de facturación {} fallido: {}", cicloId, causa.getMessage(), causa);
+        } finally {
+            muestra.stop(Timer.builder("facturacion.ciclo")
+                    .description("Duración de cada ejecución de un ciclo de facturación")
+                    .tag("estado", estado)
+                    .register(meterRegistry));
+            liberar(resultado);
+        }
+    }
+
+    /**
+     * Carga las lecturas del archivo (reemplazando las de una carga anterior incompleta)
+     * y crea las particiones del ciclo
+     */
+    private void cargar(long cicloId, Path archivo, LectorArchivo lector) throws IOException {
+        jdbcTemplate.update(SQL_BORRAR_PARTICIONES, cicloId);
+        jdbcTemplate.update(SQL_BORRAR_LECTURAS, cicloId);
+
+        Map<String, Long> servicios = new HashMap<>();
+        for (Object[] fila : servicioRepository.findIdsPorMedidor()) {
+            servicios.merge(normalizarMedidor((String) fila[0]), (Long) fila[1], (actual, otro) -> MEDIDOR_AMBIGUO);
+        }
+
+        Carga carga = new Carga(cicloId, servicios);
+        lector.leer(archivo, carga::recibir);
+        carga.terminar();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            crearParticiones(cicloId);
+            jdbcTemplate.update(SQL_CARGADO, carga.leidas, carga.rechazadas, ahora(), cicloId);
+        });
+        log.info("Ciclo de facturación {}: {} lecturas cargadas, {} rechazadas", cicloId, carga.leidas, carga.rechazadas);
+    }
+
+    /**
+     * Divide [mínimo, máximo] de los ids de servicio con lectura pendiente en rangos iguales.
+     * Hay más particiones que hilos para que los rangos con más servicios no retrasen el ciclo.
+     */
+    private void crearParticiones(long cicloId) {
+        long[] rango = jdbcTemplate.query(SQL_RANGO, rs -> {
+            rs.next();
+            long minimo = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{minimo, rs.getLong(2)};
+        }, cicloId);
+        if (rango == null) {
+            return;
+        }
+        long ancho = Math.max(1, (rango[1] - rango[0] + particiones) / particiones);
+        List<Object[]> filas = new ArrayList<>(particiones);
+        int numero = 0;
+        for (long desde = rango[0]; desde <= rango[1]; desde += ancho) {
+            long hasta = Math.min(desde + ancho - 1, rango[1]);
+            filas.add(new Object[]{cicloId, numero++, desde, hasta, desde - 1});
+        }
+        jdbcTemplate.batchUpdate(SQL_CREAR_PARTICION, filas);
+    }
+
+    /**
+     * Factura las particiones pendientes en paralelo; si una falla se cancelan las demás
+     * y el ciclo queda para reanudar desde los puntos de control
+     */
+    private void facturar(long cicloId, String usuario) {
+        jdbcTemplate.update(SQL_INICIAR, ahora(), cicloId);
+        List<Particion> pendientes = jdbcTemplate.query(SQL_PARTICIONES_PENDIENTES,
+                (rs, i) -> new Particion(rs.getInt(1), rs.getLong(2), rs.getLong(3)), cicloId);
+
+        List<Future<?>> futuros = new ArrayList<>(pendientes.size());
+        try {
+            for (Particion particion : pendientes) {
+                futuros.add(facturacion.submit(() -> facturarParticion(cicloId, particion, usuario)));
+            }
+            for (Future<?> futuro : futuros) {
+                esperar(futuro);
+            }
+        } finally {
+            futuros.forEach(futuro -> futuro.cancel(true));
+        }
+        jdbcTemplate.update(SQL_COMPLETAR, ahora(), cicloId);
+    }
+
+    private void facturarParticion(long cicloId, Particion particion, String usuario) {
+        Counter facturadas = meterRegistry.counter("facturacion.lecturas", "resultado", "facturada");
+        Counter otras = meterRegistry.counter("facturacion.lecturas", "resultado", "no_facturada");
+        long ultimoId = particion.ultimoId();
+        boolean completa = false;
+        while (!completa) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Facturación interrumpida en la partición " + particion.numero());
+            }
+            FacturacionLecturasService.Bloque bloque = facturacionLecturasService.facturarBloque(
+                    cicloId, particion.numero(), ultimoId, particion.hastaId(), tamanoBloque, usuario);
+            ultimoId = bloque.ultimoId();
+            completa = bloque.completa();
+            facturadas.increment(bloque.facturadas());
+            otras.increment(bloque.lecturas() - bloque.facturadas());
+
+            if (!arriendoTareaService.renovar(TAREA, arriendoSegundos)) {
+                throw new IllegalStateException("Se perdió el arriendo de la facturación en el servicio " + ultimoId);
+            }
+        }
+    }
+
+    private static void esperar(Future<?> futuro) {
+        try {
+            futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Facturación interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            throw causa instanceof RuntimeException error ? error : new IllegalStateException(causa);
+        }
+    }
+
+    private long crearCiclo(String archivo, String usuario) {
+        KeyHolder id = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_CREAR, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, archivo);
+            ps.setString(2, usuario);
+            ps.setTimestamp(3, ahora(), Calendar.getInstance(ZONA_JDBC));
+            return ps;
+        }, id);
+        return id.getKey().longValue();
+    }
+
+    private void eliminarArchivo(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el archivo de lecturas {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    private void fallar(long cicloId, String mensaje) {
+        String texto = mensaje != null && mensaje.length() > LARGO_ERROR ? mensaje.substring(0, LARGO_ERROR) : mensaje;
+        try {
+            jdbcTemplate.update(SQL_FALLAR, ahora(), texto, cicloId);
+        } catch (Exception e) {
+            log.warn("No se pudo marcar como fallido el ciclo de facturación {}: {}", cicloId, e.getMessage());
+        }
+    }
+
+    private Optional<Ciclo> leerCiclo(long cicloId) {
+        return jdbcTemplate.query(SQL_CICLO, (rs, i) -> new Ciclo(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getLong(5),
+                fechaHora(rs, 6),
+                fechaHora(rs, 7),
+                fechaHora(rs, 8),
+                fechaHora(rs, 9),
+                rs.getString(10)), cicloId).stream().findFirst();
+    }
+
+    private Path rutaArchivo(long cicloId, FormatoImportacion formato) {
+        return directorio.resolve("ciclo-" + cicloId + "." + formato.getExtension());
+    }
+
+    private static LocalDateTime fechaHora(ResultSet rs, int columna) throws SQLException {
+        Timestamp valor = rs.getTimestamp(columna, Calendar.getInstance(ZONA_JDBC));
+        return valor != null ? valor.toLocalDateTime() : null;
+    }
+
+    private static Timestamp ahora() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    private static String normalizarMedidor(String medidor) {
+        return medidor.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String recortar(String texto, int largo) {
+        return texto != null && texto.length() > largo ? texto.substring(0, largo) : texto;
+    }
+
+    private static String csv(String valor) {
+        return valor == null ? "" : "\"" + valor.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Lectura del archivo: valida cada fila, resuelve el medidor y escribe las lecturas por lotes
+     */
+    private final class Carga {
+
+        private final long cicloId;
+        private final Map<String, Long> servicios;
+        private final Set<Long> vistos = new HashSet<>();
+        private final List<Object[]> lote = new ArrayList<>();
+        private Map<String, Integer> columnas;
+        private long leidas;
+        private long rechazadas;
+
+        private Carga(long cicloId, Map<String, Long> servicios) {
+            this.cicloId = cicloId;
+            this.servicios = servicios;
+        }
+
+        void recibir(long numero, List<String> valores) {
+            if (columnas == null) {
+                leerEncabezado(valores);
+                return;
+            }
+            leidas++;
+            FilaImportacion fila = new FilaImportacion(numero, columnas, valores);
+            List<String> errores = new ArrayList<>(2);
+
+            String medidor = fila.obligatorio("medidor", errores);
+            BigDecimal lectura = fila.decimal("lectura", errores);
+            if (lectura != null) {
+                lectura = lectura.setScale(2, RoundingMode.HALF_UP);
+            }
+            if (lectura == null && fila.texto("lectura") == null) {
+                errores.add("lectura: es obligatoria");
+            } else if (lectura != null && (lectura.signum() < 0 || lectura.compareTo(LECTURA_MAXIMA) > 0)) {
+                errores.add("lectura: debe estar entre 0 y " + LECTURA_MAXIMA.toPlainString());
+            }
+            LocalDateTime fechaHora = fila.fechaHora("fecha", errores);
+            if (fechaHora == null && fila.texto("fecha") == null) {
+                errores.add("fecha: es obligatoria");
+            } else if (fechaHora != null && fechaHora.toLocalDate().isAfter(LocalDate.now())) {
+                errores.add("fecha: no puede ser futura");
+            }
+
+            Long servicioId = null;
+            if (errores.isEmpty()) {
+                servicioId = servicios.get(normalizarMedidor(medidor));
+                if (servicioId == null) {
+                    errores.add("No hay un servicio de agua potable o gas doméstico con el medidor: " + medidor);
+                } else if (servicioId == MEDIDOR_AMBIGUO) {
+                    errores.add("El medidor está asignado a más de un servicio: " + medidor);
+                } else if (!vistos.add(servicioId)) {
+                    errores.add("Lectura repetida para el medidor: " + medidor);
+                }
+            }
+
+            if (errores.isEmpty()) {
+                lote.add(new Object[]{cicloId, numero, medidor, servicioId,
+                        lectura, Date.valueOf(fechaHora.toLocalDate()),
+                        FacturacionLecturasService.PENDIENTE, null});
+            } else {
+                rechazadas++;
+                lote.add(new Object[]{cicloId, numero, recortar(medidor, LARGO_MEDIDOR), null, null, null,
+                        FacturacionLecturasService.RECHAZADA, recortar(String.join("; ", errores), LARGO_MENSAJE)});
+            }
+            if (lote.size() >= tamanoLote) {
+                escribir();
+            }
+        }
+
+        void terminar() {
+            if (columnas == null) {
+                throw new IllegalArgumentException("El archivo no tiene encabezado");
+            }
+            if (!lote.isEmpty()) {
+                escribir();
+            }
+        }
+
+        private void leerEncabezado(List<String> valores) {
+            Map<String, Integer> indice = new HashMap<>();
+            for (int i = 0; i < valores.size(); i++) {
+                indice.putIfAbsent(ImportacionService.normalizarColumna(valores.get(i)), i);
+            }
+            List<String> faltantes = COLUMNAS.stream().filter(columna -> !indice.containsKey(columna)).toList();
+            if (!faltantes.isEmpty()) {
+                throw new IllegalArgumentException("Faltan columnas en el encabezado: " + String.join(", ", faltantes));
+            }
+            columnas = Map.copyOf(indice);
+        }
+
+        private void escribir() {
+            jdbcTemplate.batchUpdate(SQL_INSERTAR_LECTURA, lote);
+            lote.clear();
+        }
+    }
+
+    private record Ciclo(long id, String archivo, String estado, String usuario, long lecturasLeidas,
+                         LocalDateTime creadoEn, LocalDateTime cargadoEn, LocalDateTime iniciadoEn,
+                         LocalDateTime terminadoEn, String mensajeError) {
+    }
+
+    private record Particion(int numero, long ultimoId, long hastaId) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.servicios.service;
+
+import com.example.demo.estadisticas.service.AporteEstadistico;
+import com.example.demo.estadisticas.service.ClavesEstadisticas;
+import com.example.demo.estadisticas.service.EstadisticasResumenService;
+import com.example.demo.servicios.domain.EstadoServicio;
+import com.example.demo.servicios.domain.TipoServicio;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Facturación de un bloque de lecturas de un ciclo (ver CicloFacturacionService).
+ * Cada bloque toma hasta tamano-bloque lecturas pendientes de una partición en orden de
+ * servicio, con sus servicios bloqueados, y en una sola transacción actualiza los servicios
+ * y las lecturas por batch JDBC y avanza el punto de control de la partición. Si la
+ * transacción se revierte, el bloque vuelve a quedar pendiente completo. Las lecturas
+ * facturadas se agregan al historial (HistorialLecturasService) en la misma transacción.
+ */
+@Service
+public class FacturacionLecturasService {
+
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String FACTURADA = "FACTURADA";
+    public static final String OMITIDA = "OMITIDA";
+    public static final String RECHAZADA = "RECHAZADA";
+    public static final String PARTICION_COMPLETADA = "COMPLETADA";
+
+    private static final String SQL_PENDIENTES =
+            "SELECT l.id, l.servicio_id, l.lectura, l.fecha, s.estado, s.consumo_actual, s.tarifa_base, " +
+            "s.fecha_ultima_lectura, s.tipo_servicio, s.zona_municipal " +
+            "FROM ciclos_facturacion_lecturas l JOIN servicios s ON s.id = l.servicio_id " +
+            "WHERE l.ciclo_id = ? AND l.servicio_id > ? AND l.servicio_id <= ? AND l.estado = 'PENDIENTE' " +
+            "ORDER BY l.servicio_id LIMIT ? FOR UPDATE";
+
+    // MySQL asigna de izquierda a derecha: consumo_anterior recibe la lectura previa
+    private static final String SQL_FACTURAR_SERVICIO =
+            "UPDATE servicios SET consumo_anterior = consumo_actual, consumo_actual = ?, " +
+            "monto_facturado = monto_facturado + ?, fecha_ultima_lectura = ?, fecha_proxima_lectura = ?, " +
+            "fecha_modificacion = ?, usuario_modificacion = ? WHERE id = ?";
+
+    private static final String SQL_RESULTADO_LECTURA =
+            "UPDATE ciclos_facturacion_lecturas SET estado = ?, consumo = ?, monto = ?, mensaje = ? WHERE id = ?";
+
+    private static final String SQL_PUNTO_CONTROL =
+            "UPDATE ciclos_facturacion_particiones SET ultimo_id = ?, estado = ? WHERE ciclo_id = ? AND particion = ?";
+
+    // Igual que hibernate.jdbc.time_zone: las fechas con hora se guardan en UTC
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EstadisticasResumenService estadisticasResumenService;
+    private final HistorialLecturasService historialLecturasService;
+    private final int mesesEntreLecturas;
+
+    public FacturacionLecturasService(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      EstadisticasResumenService estadisticasResumenService,
+                                      HistorialLecturasService historialLecturasService,
+                                      @Value("${servicios.facturacion.meses-entre-lecturas:1}") int mesesEntreLecturas) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.estadisticasResumenService = estadisticasResumenService;
+        this.historialLecturasService = historialLecturasService;
+        this.mesesEntreLecturas = Math.max(1, mesesEntreLecturas);
+    }
+
+    /**
+     * Factura el siguiente bloque de la partición: lecturas pendientes con servicio_id en
+     * (ultimoId, hastaId]. El resultado trae el nuevo punto de control.
+     */
+    public Bloque facturarBloque(long cicloId, int particion, long ultimoId, long hastaId, int tamanoBloque,
+                                 String usuario) {
+        return transactionTemplate.execute(status -> {
+            List<Lectura> lecturas = jdbcTemplate.query(SQL_PENDIENTES, (rs, i) -> new Lectura(
+                    rs.getLong(1),
+                    rs.getLong(2),
+                    rs.getBigDecimal(3),
+                    rs.getObject(4, LocalDate.class),
+                    EstadoServicio.valueOf(rs.getString(5)),
+                    rs.getBigDecimal(6),
+                    rs.getBigDecimal(7),
+                    rs.getObject(8, LocalDate.class),
+                    TipoServicio.valueOf(rs.getString(9)),
+                    rs.getString(10)), cicloId, ultimoId, hastaId, tamanoBloque);
+
+            List<Resultado> resultados = new ArrayList<>(lecturas.size());
+            for (Lectura lectura : lecturas) {
+                resultados.add(calcular(lectura));
+            }
+            List<Resultado> facturadas = resultados.stream()
+                    .filter(resultado -> FACTURADA.equals(resultado.estado()))
+                    .toList();
+
+            Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(SQL_FACTURAR_SERVICIO, facturadas, facturadas.size(), (ps, resultado) -> {
+                Lectura lectura = resultado.lectura();
+                ps.setBigDecimal(1, lectura.lectura());
+                ps.setBigDecimal(2, resultado.monto());
+                ps.setDate(3, Date.valueOf(lectura.fecha()));
+                ps.setDate(4, Date.valueOf(lectura.fecha().plusMonths(mesesEntreLecturas)));
+                ps.setTimestamp(5, ahora, Calendar.getInstance(ZONA_JDBC));
+                ps.setString(6, usuario);
+                ps.setLong(7, lectura.servicioId());
+            });
+            historialLecturasService.registrar(facturadas.stream()
+                    .map(resultado -> resultado.registroHistorial(cicloId))
+                    .toList());
+            jdbcTemplate.batchUpdate(SQL_RESULTADO_LECTURA, resultados, resultados.size(), (ps, resultado) -> {
+                ps.setString(1, resultado.estado());
+                if (resultado.consumo() != null) {
+                    ps.setBigDecimal(2, resultado.consumo());
+                    ps.setBigDecimal(3, resultado.monto());
+                } else {
+                    ps.setNull(2, Types.DECIMAL);
+                    ps.setNull(3, Types.DECIMAL);
+                }
+                ps.setString(4, resultado.mensaje());
+                ps.setLong(5, resultado.lectura().id());
+            });
+
+            // Un bloque incompleto agota la partición
+            boolean completa = lecturas.size() < tamanoBloque;
+            long puntoControl = completa ? hastaId : lecturas.get(lecturas.size() - 1).servicioId();
+            jdbcTemplate.update(SQL_PUNTO_CONTROL, puntoControl, completa ? PARTICION_COMPLETADA : PENDIENTE,
+                    cicloId, particion);
+
+            // Solo cambia el monto facturado: la cantidad de servicios por estado es la misma
+            AporteEstadistico aporte = AporteEstadistico.vacio();
+            BigDecimal monto = BigDecimal.ZERO;
+            for (Resultado resultado : facturadas) {
+                aporte.sumar(ClavesEstadisticas.estado(ClavesEstadisticas.SERVICIOS, resultado.lectura().estado()),
+                        0, resultado.monto());
+                monto = monto.add(resultado.monto());
+            }
+            estadisticasResumenService.registrarCambio(null, aporte);
+
+            return new Bloque(puntoControl, completa, lecturas.size(), facturadas.size(), monto);
+        });
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Consumo del período (lectura menos la lectura anterior del medidor) por la tarifa base
+     */
+    private static Resultado calcular(Lectura lectura) {
+        if (!lectura.estado().permiteFacturacion()) {
+            return Resultado.sinFacturar(lectura, RECHAZADA,
+                    "El servicio no permite facturación en estado " + lectura.estado().name());
+        }
+        if (lectura.fechaUltimaLectura() != null && !lectura.fecha().isAfter(lectura.fechaUltimaLectura())) {
+            // Ya facturada por otro ciclo o cargada a mano: no se cobra dos veces
+            return Resultado.sinFacturar(lectura, OMITIDA,
+                    "El servicio ya tiene una lectura al " + lectura.fechaUltimaLectura());
+        }
+        BigDecimal anterior = lectura.consumoActual() != null ? lectura.consumoActual() : BigDecimal.ZERO;
+        BigDecimal consumo = lectura.lectura().subtract(anterior);
+        if (consumo.signum() < 0) {
+            return Resultado.sinFacturar(lectura, RECHAZADA,
+                    "La lectura es menor que la anterior (" + anterior.toPlainString() + ")");
+        }
+        BigDecimal monto = consumo.multiply(lectura.tarifaBase()).setScale(2, RoundingMode.HALF_UP);
+        return new Resultado(lectura, FACTURADA, consumo, monto, null);
+    }
+
+    /**
+     * Resultado de un bloque: nuevo punto de control y si la partición quedó completa
+     */
+    public record Bloque(long ultimoId, boolean completa, int lecturas, int facturadas, BigDecimal monto) {
+    }
+
+    private record Lectura(long id, long servicioId, BigDecimal lectura, LocalDate fecha, EstadoServicio estado,
+                           BigDecimal consumoActual, BigDecimal tarifaBase, LocalDate fechaUltimaLectura,
+                           TipoServicio tipoServicio, String zona) {
+    }
+
+    private record Resultado(Lectura lectura, String estado, BigDecimal consumo, BigDecimal monto, String mensaje) {
+
+        static Resultado sinFacturar(Lectura lectura, String estado, String mensaje) {
+            return new Resultado(lectura, estado, null, null, mensaje);
+        }
+
+        HistorialLecturasService.Registro registroHistorial(long cicloId) {
+            return new HistorialLecturasService.Registro(lectura.servicioId(), lectura.tipoServicio(), lectura.zona(),
+                    lectura.fecha(), lectura.lectura(), consumo, cicloId);
+        }
+    }
+}
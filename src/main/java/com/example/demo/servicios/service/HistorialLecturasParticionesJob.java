@@ -0,0 +1,90 @@
+package com.example.demo.servicios.service;
+
+import com.example.demo.programacion.service.ArriendoTareaService;
+import com.example.demo.programacion.service.ParticionesMensuales;
+import com.example.demo.programacion.service.ParticionesMensuales.Particion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Mantiene creadas las particiones mensuales de lecturas_historial para los próximos meses,
+ * dividiendo p_futuro (mismo esquema que la retención de auditoría). El historial no se
+ * elimina: las particiones anteriores se conservan. Entre instancias se serializa con un
+ * arriendo en tareas_arriendo.
+ */
+@Component
+@Slf4j
+public class HistorialLecturasParticionesJob {
+
+    private static final String TAREA = "servicios.historial.particiones";
+    private static final String TABLA = "lecturas_historial";
+
+    private final ParticionesMensuales particionesMensuales;
+    private final ArriendoTareaService arriendoTareaService;
+    private final boolean habilitado;
+    private final int mesesAdelantados;
+    private final int arriendoSegundos;
+
+    public HistorialLecturasParticionesJob(ParticionesMensuales particionesMensuales,
+                                           ArriendoTareaService arriendoTareaService,
+                                           @Value("${servicios.historial.particiones.habilitado:true}") boolean habilitado,
+                                           @Value("${servicios.historial.particiones.meses-adelantados:3}") int mesesAdelantados,
+                                           @Value("${servicios.historial.particiones.arriendo-segundos:300}") int arriendoSegundos) {
+        this.particionesMensuales = particionesMensuales;
+        this.arriendoTareaService = arriendoTareaService;
+        this.habilitado = habilitado;
+        this.mesesAdelantados = Math.max(1, mesesAdelantados);
+        this.arriendoSegundos = Math.max(30, arriendoSegundos);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        ejecutar();
+    }
+
+    @Scheduled(cron = "${servicios.historial.particiones.cron:0 45 2 * * *}")
+    public void ejecutar() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            if (!arriendoTareaService.adquirir(TAREA, arriendoSegundos)) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("No se pudo tomar el arriendo de particiones del historial de lecturas: {}", e.getMessage());
+            return;
+        }
+        String resultado = null;
+        try {
+            int creadas = asegurarParticionesFuturas();
+            resultado = "OK: " + creadas + " particiones";
+        } catch (Exception e) {
+            resultado = "ERROR: " + e.getMessage();
+            log.error("No se pudieron preparar las particiones del historial de lecturas: {}", e.getMessage(), e);
+        } finally {
+            arriendoTareaService.liberar(TAREA, resultado);
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Divide p_futuro para que existan particiones hasta meses-adelantados después del mes actual.
+     * Devuelve la cantidad de particiones creadas.
+     */
+    private int asegurarParticionesFuturas() {
+        List<Particion> particiones = particionesMensuales.leer(TABLA);
+        if (particiones.isEmpty()) {
+            log.warn("La tabla {} no está particionada; no se crean particiones", TABLA);
+            return 0;
+        }
+        return particionesMensuales.asegurarFuturas(TABLA, particiones, mesesAdelantados);
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.demo.servicios.service;
+
+import com.example.demo.servicios.domain.TipoServicio;
+import com.example.demo.servicios.dto.ConsumoMensualDTO;
+import com.example.demo.servicios.dto.LecturaHistorialDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Historial de lecturas de los servicios (tabla lecturas_historial, particionada por mes).
+ * Las lecturas solo se insertan, una por servicio y fecha; en la misma transacción se
+ * acumulan los resúmenes mensuales por servicio (lecturas_servicio_mes) y por zona y tipo
+ * (lecturas_zona_mes), así que las curvas de consumo no recorren las lecturas.
+ * La zona de un resumen es la del servicio al momento de la lectura.
+ */
+@Service
+public class HistorialLecturasService {
+
+    // Zona de los resúmenes de servicios sin zona (la clave primaria no admite NULL)
+    public static final String SIN_ZONA = "";
+
+    private static final String SQL_EXISTENTES =
+            "SELECT servicio_id, fecha FROM lecturas_historial WHERE servicio_id IN (%s) AND fecha BETWEEN ? AND ?";
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO lecturas_historial (servicio_id, fecha, lectura, consumo, ciclo_id) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SQL_ACUMULAR_SERVICIO =
+            "INSERT INTO lecturas_servicio_mes (servicio_id, mes, lecturas, consumo_total, consumo_maximo) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE lecturas = lecturas + VALUES(lecturas), " +
+            "consumo_total = consumo_total + VALUES(consumo_total), " +
+            "consumo_maximo = GREATEST(consumo_maximo, VALUES(consumo_maximo))";
+
+    private static final String SQL_ACUMULAR_ZONA =
+            "INSERT INTO lecturas_zona_mes (zona, tipo_servicio, mes, lecturas, consumo_total, consumo_maximo) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE lecturas = lecturas + VALUES(lecturas), " +
+            "consumo_total = consumo_total + VALUES(consumo_total), " +
+            "consumo_maximo = GREATEST(consumo_maximo, VALUES(consumo_maximo))";
+
+    // El filtro por fecha limita la consulta a las particiones del rango
+    private static final String SQL_RANGO =
+            "SELECT fecha, lectura, consumo, ciclo_id FROM lecturas_historial " +
+            "WHERE servicio_id = ? AND fecha >= ? AND fecha <= ? ORDER BY fecha";
+
+    private static final String SQL_MESES_SERVICIO =
+            "SELECT mes, lecturas, consumo_total, consumo_maximo FROM lecturas_servicio_mes " +
+            "WHERE servicio_id = ? AND mes >= ? AND mes <= ? ORDER BY mes";
+
+    private static final String SQL_MESES_ZONA =
+            "SELECT zona, tipo_servicio, mes, lecturas, consumo_total, consumo_maximo FROM lecturas_zona_mes " +
+            "WHERE mes >= ? AND mes <= ?";
+
+    // Mismo orden de claves en todos los bloques para que los ciclos en paralelo no se bloqueen mutuamente
+    private static final Comparator<ClaveServicio> ORDEN_SERVICIOS = Comparator.comparingLong(ClaveServicio::servicioId)
+            .thenComparing(ClaveServicio::mes);
+
+    private static final Comparator<ClaveZona> ORDEN_ZONAS = Comparator.comparing(ClaveZona::zona)
+            .thenComparing(ClaveZona::tipoServicio)
+            .thenComparing(ClaveZona::mes);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int mesesCurva;
+    private final int maximoMeses;
+    private final Counter lecturasRegistradas;
+
+    public HistorialLecturasService(JdbcTemplate jdbcTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${servicios.historial.meses-curva:24}") int mesesCurva,
+                                    @Value("${servicios.historial.maximo-meses:120}") int maximoMeses) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maximoMeses = Math.max(1, maximoMeses);
+        this.mesesCurva = Math.min(Math.max(1, mesesCurva), this.maximoMeses);
+        this.lecturasRegistradas = Counter.builder("servicios.historial.lecturas")
+                .description("Lecturas agregadas al historial de servicios")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Agrega las lecturas al historial y a los resúmenes mensuales dentro de la transacción
+     * en curso. Se omiten las que ya existen para el mismo servicio y fecha, así que volver a
+     * registrar un bloque no duplica consumos. Devuelve la cantidad de lecturas agregadas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int registrar(List<Registro> registros) {
+        List<Registro> nuevas = filtrarExistentes(registros);
+        if (nuevas.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, nuevas, nuevas.size(), (ps, registro) -> {
+            ps.setLong(1, registro.servicioId());
+            ps.setDate(2, Date.valueOf(registro.fecha()));
+            ps.setBigDecimal(3, registro.lectura());
+            ps.setBigDecimal(4, registro.consumo());
+            if (registro.cicloId() != null) {
+                ps.setLong(5, registro.cicloId());
+            } else {
+                ps.setNull(5, Types.BIGINT);
+            }
+        });
+
+        Map<ClaveServicio, Acumulado> porServicio = new HashMap<>();
+        Map<ClaveZona, Acumulado> porZona = new HashMap<>();
+        for (Registro registro : nuevas) {
+            YearMonth mes = YearMonth.from(registro.fecha());
+            porServicio.computeIfAbsent(new ClaveServicio(registro.servicioId(), mes), clave -> new Acumulado())
+                    .sumar(registro.consumo());
+            String zona = registro.zona() != null && !registro.zona().isBlank() ? registro.zona().trim() : SIN_ZONA;
+            porZona.computeIfAbsent(new ClaveZona(zona, registro.tipoServicio().name(), mes), clave -> new Acumulado())
+                    .sumar(registro.consumo());
+        }
+
+        List<Map.Entry<ClaveServicio, Acumulado>> servicios = new ArrayList<>(porServicio.entrySet());
+        servicios.sort(Map.Entry.comparingByKey(ORDEN_SERVICIOS));
+        jdbcTemplate.batchUpdate(SQL_ACUMULAR_SERVICIO, servicios, servicios.size(), (ps, entrada) -> {
+            ps.setLong(1, entrada.getKey().servicioId());
+            ps.setDate(2, Date.valueOf(entrada.getKey().mes().atDay(1)));
+            ps.setInt(3, entrada.getValue().lecturas);
+            ps.setBigDecimal(4, entrada.getValue().total);
+            ps.setBigDecimal(5, entrada.getValue().maximo);
+        });
+
+        List<Map.Entry<ClaveZona, Acumulado>> zonas = new ArrayList<>(porZona.entrySet());
+        zonas.sort(Map.Entry.comparingByKey(ORDEN_ZONAS));
+        jdbcTemplate.batchUpdate(SQL_ACUMULAR_ZONA, zonas, zonas.size(), (ps, entrada) -> {
+            ps.setString(1, entrada.getKey().zona());
+            ps.setString(2, entrada.getKey().tipoServicio());
+            ps.setDate(3, Date.valueOf(entrada.getKey().mes().atDay(1)));
+            ps.setInt(4, entrada.getValue().lecturas);
+            ps.setBigDecimal(5, entrada.getValue().total);
+            ps.setBigDecimal(6, entrada.getValue().maximo);
+        });
+
+        lecturasRegistradas.increment(nuevas.size());
+        return nuevas.size();
+    }
+
+    /**
+     * Lecturas de un servicio con fecha entre desde y hasta (ambas incluidas)
+     */
+    @Transactional(readOnly = true)
+    public List<LecturaHistorialDTO> consultar(long servicioId, LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha desde no puede ser posterior a la fecha hasta");
+        }
+        if (YearMonth.from(desde).plusMonths(maximoMeses).isBefore(YearMonth.from(hasta))) {
+            throw new IllegalArgumentException("El rango no puede superar " + maximoMeses + " meses");
+        }
+        return jdbcTemplate.query(SQL_RANGO, (rs, i) -> LecturaHistorialDTO.builder()
+                .fecha(rs.getObject("fecha", LocalDate.class))
+                .lectura(rs.getBigDecimal("lectura"))
+                .consumo(rs.getBigDecimal("consumo"))
+                .cicloId(rs.getObject("ciclo_id", Long.class))
+                .build(), servicioId, Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    /**
+     * Curva de consumo de un servicio: un elemento por mes, del más antiguo al mes actual,
+     * incluidos los meses sin lecturas. Se lee de lecturas_servicio_mes.
+     */
+    @Transactional(readOnly = true)
+    public List<ConsumoMensualDTO> curva(long servicioId, Integer meses) {
+        int cantidad = meses != null ? meses : mesesCurva;
+        if (cantidad < 1 || cantidad > maximoMeses) {
+            throw new IllegalArgumentException("La cantidad de meses debe estar entre 1 y " + maximoMeses);
+        }
+        YearMonth hasta = YearMonth.now();
+        YearMonth desde = hasta.minusMonths(cantidad - 1L);
+
+        Map<YearMonth, ConsumoMensualDTO> porMes = new HashMap<>();
+        jdbcTemplate.query(SQL_MESES_SERVICIO, rs -> {
+            ConsumoMensualDTO consumo = mapearMes(rs, null, null);
+            porMes.put(consumo.getMes(), consumo);
+        }, servicioId, Date.valueOf(desde.atDay(1)), Date.valueOf(hasta.atDay(1)));
+
+        List<ConsumoMensualDTO> curva = new ArrayList<>(cantidad);
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            ConsumoMensualDTO consumo = porMes.get(mes);
+            curva.add(consumo != null ? consumo : mesVacio(mes));
+        }
+        return curva;
+    }
+
+    /**
+     * Consumo mensual por zona y tipo de servicio entre dos meses (ambos incluidos).
+     * zona y tipoServicio son filtros opcionales; zona vacía corresponde a servicios sin zona.
+     */
+    @Transactional(readOnly = true)
+    public List<ConsumoMensualDTO> resumenPorZona(YearMonth desde, YearMonth hasta, String zona,
+                                                  TipoServicio tipoServicio) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("El mes desde no puede ser posterior al mes hasta");
+        }
+        if (desde.plusMonths(maximoMeses).isBefore(hasta)) {
+            throw new IllegalArgumentException("El rango no puede superar " + maximoMeses + " meses");
+        }
+        StringBuilder sql = new StringBuilder(SQL_MESES_ZONA);
+        List<Object> parametros = new ArrayList<>();
+        parametros.add(Date.valueOf(desde.atDay(1)));
+        parametros.add(Date.valueOf(hasta.atDay(1)));
+        if (zona != null) {
+            sql.append(" AND zona = ?");
+            parametros.add(zona.trim());
+        }
+        if (tipoServicio != null) {
+            sql.append(" AND tipo_servicio = ?");
+            parametros.add(tipoServicio.name());
+        }
+        sql.append(" ORDER BY zona, tipo_servicio, mes");
+        return jdbcTemplate.query(sql.toString(),
+                (rs, i) -> mapearMes(rs, rs.getString("zona"), TipoServicio.valueOf(rs.getString("tipo_servicio"))),
+                parametros.toArray());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Quita las lecturas repetidas dentro de la lista y las que ya están en el historial
+     */
+    private List<Registro> filtrarExistentes(List<Registro> registros) {
+        if (registros.isEmpty()) {
+            return registros;
+        }
+        Map<ClaveLectura, Registro> unicas = new LinkedHashMap<>();
+        for (Registro registro : registros) {
+            unicas.putIfAbsent(new ClaveLectura(registro.servicioId(), registro.fecha()), registro);
+        }
+
+        Set<Long> servicios = new HashSet<>();
+        LocalDate desde = null;
+        LocalDate hasta = null;
+        for (ClaveLectura clave : unicas.keySet()) {
+            servicios.add(clave.servicioId());
+            desde = desde == null || clave.fecha().isBefore(desde) ? clave.fecha() : desde;
+            hasta = hasta == null || clave.fecha().isAfter(hasta) ? clave.fecha() : hasta;
+        }
+
+        String marcadores = String.join(", ", Collections.nCopies(servicios.size(), "?"));
+        List<Object> parametros = new ArrayList<>(servicios);
+        parametros.add(Date.valueOf(desde));
+        parametros.add(Date.valueOf(hasta));
+        jdbcTemplate.query(SQL_EXISTENTES.formatted(marcadores), rs -> {
+            unicas.remove(new ClaveLectura(rs.getLong(1), rs.getObject(2, LocalDate.class)));
+        }, parametros.toArray());
+        return new ArrayList<>(unicas.values());
+    }
+
+    private static ConsumoMensualDTO mapearMes(ResultSet rs, String zona, TipoServicio tipoServicio)
+            throws SQLException {
+        long lecturas = rs.getLong("lecturas");
+        BigDecimal total = rs.getBigDecimal("consumo_total");
+        return ConsumoMensualDTO.builder()
+                .zona(zona)
+                .tipoServicio(tipoServicio)
+                .mes(YearMonth.from(rs.getObject("mes", LocalDate.class)))
+                .lecturas(lecturas)
+                .consumoTotal(total)
+                .consumoPromedio(lecturas > 0
+                        ? total.divide(BigDecimal.valueOf(lecturas), 2, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO)
+                .consumoMaximo(rs.getBigDecimal("consumo_maximo"))
+                .build();
+    }
+
+    private static ConsumoMensualDTO mesVacio(YearMonth mes) {
+        return ConsumoMensualDTO.builder()
+                .mes(mes)
+                .lecturas(0)
+                .consumoTotal(BigDecimal.ZERO)
+                .consumoPromedio(BigDecimal.ZERO)
+                .consumoMaximo(BigDecimal.ZERO)
+                .build();
+    }
+
+    /**
+     * Lectura a registrar. zona puede ser null (servicio sin zona); cicloId es null en las cargas manuales.
+     */
+    public record Registro(long servicioId, TipoServicio tipoServicio, String zona, LocalDate fecha,
+                           BigDecimal lectura, BigDecimal consumo, Long cicloId) {
+    }
+
+    private record ClaveLectura(long servicioId, LocalDate fecha) {
+    }
+
+    private record ClaveServicio(long servicioId, YearMonth mes) {
+    }
+
+    private record ClaveZona(String zona, String tipoServicio, YearMonth mes) {
+    }
+
+    private static final class Acumulado {
+        private int lecturas;
+        private BigDecimal total = BigDecimal.ZERO;
+        private BigDecimal maximo = BigDecimal.ZERO;
+
+        void sumar(BigDecimal consumo) {
+            lecturas++;
+            total = total.add(consumo);
+            maximo = maximo.max(consumo);
+        }
+    }
+}
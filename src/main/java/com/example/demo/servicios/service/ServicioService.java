@@ -1,5 +1,8 @@
 package com.example.demo.servicios.service;
 
+import com.example.demo.estadisticas.service.AporteEstadistico;
+import com.example.demo.estadisticas.service.EstadisticasExecutor;
+import com.example.demo.estadisticas.service.EstadisticasResumenService;
 import com.example.demo.servicios.domain.EstadoServicio;
 import com.example.demo.servicios.domain.Servicio;
 import com.example.demo.servicios.domain.TipoServicio;
@@ -16,12 +19,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -38,6 +41,9 @@ public class ServicioService {
 
     private final ServicioRepository servicioRepository;
     private final ContribuyenteRepository contribuyenteRepository;
+    private final EstadisticasResumenService estadisticasResumenService;
+    private final EstadisticasExecutor estadisticasExecutor;
+    private final HistorialLecturasService historialLecturasService;
 
     /**
      * Obtener servicios con paginación y filtros
@@ -98,6 +104,7 @@ public class ServicioService {
         servicio.setFechaProximaLectura(request.getFechaProximaLectura());
         servicio.setFechaCorte(request.getFechaCorte());
         servicio.setDireccionServicio(request.getDireccionServicio());
+        servicio.setZonaMunicipal(request.getZonaMunicipal());
         servicio.setMedidor(request.getMedidor());
         servicio.setObservaciones(request.getObservaciones());
         servicio.setUsuarioRegistro(request.getUsuarioRegistro());
@@ -112,6 +119,8 @@ public class ServicioService {
         }
         
         Servicio servicioGuardado = servicioRepository.save(servicio);
+        estadisticasResumenService.registrarCambio(null, AporteEstadistico.de(servicioGuardado));
+        registrarLecturaManual(servicioGuardado, null);
         log.info("Servicio creado exitosamente con ID: {} y número: {}", 
                 servicioGuardado.getId(), servicioGuardado.getNumeroServicio());
         
@@ -135,6 +144,8 @@ public class ServicioService {
         }
         
         // Actualizar campos
+        AporteEstadistico antes = AporteEstadistico.de(servicio);
+        LocalDate lecturaAnterior = servicio.getFechaUltimaLectura();
         servicio.setTipoServicio(request.getTipoServicio());
         servicio.setEstado(request.getEstado());
         servicio.setTarifaBase(request.getTarifaBase());
@@ -146,12 +157,15 @@ public class ServicioService {
         servicio.setFechaProximaLectura(request.getFechaProximaLectura());
         servicio.setFechaCorte(request.getFechaCorte());
         servicio.setDireccionServicio(request.getDireccionServicio());
+        servicio.setZonaMunicipal(request.getZonaMunicipal());
         servicio.setMedidor(request.getMedidor());
         servicio.setObservaciones(request.getObservaciones());
         servicio.setUsuarioModificacion(request.getUsuarioRegistro());
         servicio.setFechaModificacion(LocalDateTime.now());
         
         Servicio servicioActualizado = servicioRepository.save(servicio);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(servicioActualizado));
+        registrarLecturaManual(servicioActualizado, lecturaAnterior);
         log.info("Servicio actualizado exitosamente con ID: {}", id);
         return convertirAResponse(servicioActualizado);
     }
@@ -171,6 +185,7 @@ public class ServicioService {
         }
         
         servicioRepository.delete(servicio);
+        estadisticasResumenService.registrarCambio(AporteEstadistico.de(servicio), null);
         log.info("Servicio eliminado exitosamente: {}", id);
     }
 
@@ -194,6 +209,7 @@ public class ServicioService {
         }
         
         // Actualizar montos
+        AporteEstadistico antes = AporteEstadistico.de(servicio);
         BigDecimal nuevoMontoPagado = servicio.getMontoPagado().add(montoPago);
         servicio.setMontoPagado(nuevoMontoPagado);
         
@@ -207,6 +223,7 @@ public class ServicioService {
         servicio.setFechaModificacion(LocalDateTime.now());
         
         servicioRepository.save(servicio);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(servicio));
         log.info("Pago registrado exitosamente para servicio: {}", servicioId);
         
         return convertirAResponse(servicio);
@@ -224,11 +241,13 @@ public class ServicioService {
         // Validar transición de estado
         validarCambioEstado(servicio.getEstado(), nuevoEstado, servicio);
         
+        AporteEstadistico antes = AporteEstadistico.de(servicio);
         servicio.setEstado(nuevoEstado);
         servicio.setUsuarioModificacion(usuario);
         servicio.setFechaModificacion(LocalDateTime.now());
         
         servicioRepository.save(servicio);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(servicio));
         log.info("Estado cambiado exitosamente para servicio: {}", servicioId);
         
         return convertirAResponse(servicio);
@@ -237,37 +256,30 @@ public class ServicioService {
     /**
      * Obtener estadísticas de servicios
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> obtenerEstadisticas() {
         log.info("Obteniendo estadísticas de servicios");
         
-        Map<String, Object> estadisticas = new HashMap<>();
-        
-        // Estadísticas por estado
-        List<Object[]> estadoStats = servicioRepository.countByEstado();
-        Map<String, Long> estadoMap = estadoStats.stream()
-                .collect(Collectors.toMap(
-                        arr -> ((EstadoServicio) arr[0]).name(),
-                        arr -> (Long) arr[1]
-                ));
-        estadisticas.put("porEstado", estadoMap);
-        
-        // Estadísticas por tipo
-        List<Object[]> tipoStats = servicioRepository.countByTipoServicio();
-        Map<String, Long> tipoMap = tipoStats.stream()
-                .collect(Collectors.toMap(
-                        arr -> ((TipoServicio) arr[0]).name(),
-                        arr -> (Long) arr[1]
-                ));
-        estadisticas.put("porTipo", tipoMap);
-        
-        // Estadísticas financieras
-        estadisticas.put("totalFacturado", servicioRepository.sumTotalFacturado());
-        estadisticas.put("totalPagado", servicioRepository.sumTotalPagado());
-        estadisticas.put("saldoPendiente", servicioRepository.sumSaldoPendiente());
-        estadisticas.put("totalServicios", servicioRepository.count());
-        
-        return estadisticas;
+        // Consultas independientes en paralelo, ver EstadisticasExecutor
+        return estadisticasExecutor.grupo("servicios")
+                // Estadísticas por estado
+                .consulta("porEstado", () -> servicioRepository.countByEstado().stream()
+                        .collect(Collectors.toMap(
+                                arr -> ((EstadoServicio) arr[0]).name(),
+                                arr -> (Long) arr[1]
+                        )), Map.<String, Long>of())
+                // Estadísticas por tipo
+                .consulta("porTipo", () -> servicioRepository.countByTipoServicio().stream()
+                        .collect(Collectors.toMap(
+                                arr -> ((TipoServicio) arr[0]).name(),
+                                arr -> (Long) arr[1]
+                        )), Map.<String, Long>of())
+                // Estadísticas financieras
+                .consulta("totalFacturado", servicioRepository::sumTotalFacturado, BigDecimal.ZERO)
+                .consulta("totalPagado", servicioRepository::sumTotalPagado, BigDecimal.ZERO)
+                .consulta("saldoPendiente", servicioRepository::sumSaldoPendiente, BigDecimal.ZERO)
+                .consulta("totalServicios", servicioRepository::count, 0L)
+                .ejecutar();
     }
 
     /**
@@ -312,6 +324,21 @@ public class ServicioService {
         }
     }
 
+    /**
+     * Agrega al historial la lectura cargada a mano si la fecha de última lectura avanzó
+     */
+    private void registrarLecturaManual(Servicio servicio, LocalDate lecturaAnterior) {
+        LocalDate fecha = servicio.getFechaUltimaLectura();
+        if (fecha == null || servicio.getConsumoActual() == null
+                || (lecturaAnterior != null && !fecha.isAfter(lecturaAnterior))) {
+            return;
+        }
+        BigDecimal consumo = servicio.getConsumoDelPeriodo().max(BigDecimal.ZERO);
+        historialLecturasService.registrar(List.of(new HistorialLecturasService.Registro(servicio.getId(),
+                servicio.getTipoServicio(), servicio.getZonaMunicipal(), fecha, servicio.getConsumoActual(),
+                consumo, null)));
+    }
+
     /**
      * Convertir entidad a DTO de respuesta
      */
@@ -339,6 +366,7 @@ public class ServicioService {
         response.setFechaProximaLectura(servicio.getFechaProximaLectura());
         response.setFechaCorte(servicio.getFechaCorte());
         response.setDireccionServicio(servicio.getDireccionServicio());
+        response.setZonaMunicipal(servicio.getZonaMunicipal());
         response.setMedidor(servicio.getMedidor());
         response.setObservaciones(servicio.getObservaciones());
         response.setFechaRegistro(servicio.getFechaRegistro());
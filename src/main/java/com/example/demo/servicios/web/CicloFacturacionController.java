@@ -0,0 +1,101 @@
+package com.example.demo.servicios.web;
+
+import com.example.demo.servicios.dto.CicloFacturacionDTO;
+import com.example.demo.servicios.exception.ServicioException;
+import com.example.demo.servicios.service.CicloFacturacionService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Ciclos de facturación de servicios por lectura de medidores. La carga del archivo
+ * responde enseguida con el ciclo; el avance se consulta por su id.
+ */
+@Controller
+@RequestMapping("/servicios/api/ciclos-facturacion")
+@RequiredArgsConstructor
+@Slf4j
+public class CicloFacturacionController {
+
+    private final CicloFacturacionService cicloFacturacionService;
+
+    /**
+     * Inicia un ciclo con un archivo CSV o XLSX de lecturas (columnas medidor, lectura, fecha)
+     */
+    @PostMapping
+    @PreAuthorize("hasAuthority('SERVICIOS_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<?> iniciar(@RequestParam("archivo") MultipartFile archivo, Authentication authentication) {
+        try {
+            CicloFacturacionDTO ciclo = cicloFacturacionService.iniciar(archivo, authentication.getName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ciclo);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al iniciar el ciclo de facturación", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "No se pudo iniciar el ciclo de facturación: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Reanuda un ciclo interrumpido o fallido desde sus puntos de control
+     */
+    @PostMapping("/{id}/reanudar")
+    @PreAuthorize("hasAuthority('SERVICIOS_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<?> reanudar(@PathVariable Long id) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(cicloFacturacionService.reanudar(id));
+        } catch (ServicioException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyAuthority('SERVICIOS_READ', 'SERVICIOS_WRITE', 'SERVICIOS_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<CicloFacturacionDTO> obtener(@PathVariable Long id) {
+        return cicloFacturacionService.obtener(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Lecturas rechazadas u omitidas del ciclo en CSV
+     */
+    @GetMapping("/{id}/rechazos")
+    @PreAuthorize("hasAnyAuthority('SERVICIOS_READ', 'SERVICIOS_WRITE', 'SERVICIOS_GESTIONAR')")
+    public void descargarRechazos(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        if (cicloFacturacionService.obtener(id).isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("text/csv; charset=UTF-8");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"ciclo-facturacion-" + id + "-rechazos.csv\"");
+        cicloFacturacionService.escribirRechazos(id, response.getWriter());
+    }
+}
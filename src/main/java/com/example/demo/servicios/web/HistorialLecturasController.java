@@ -0,0 +1,92 @@
+package com.example.demo.servicios.web;
+
+import com.example.demo.servicios.domain.TipoServicio;
+import com.example.demo.servicios.dto.ConsumoMensualDTO;
+import com.example.demo.servicios.repository.ServicioRepository;
+import com.example.demo.servicios.service.HistorialLecturasService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historial de lecturas de los servicios y consumo mensual por servicio y por zona.
+ * Las curvas y resúmenes se leen de las tablas mensuales, no de las lecturas.
+ */
+@Controller
+@RequestMapping("/servicios/api")
+@RequiredArgsConstructor
+public class HistorialLecturasController {
+
+    private final HistorialLecturasService historialLecturasService;
+    private final ServicioRepository servicioRepository;
+
+    /**
+     * Lecturas de un servicio entre dos fechas (por defecto, los últimos 12 meses)
+     */
+    @GetMapping("/{id}/lecturas")
+    @PreAuthorize("hasAnyAuthority('SERVICIOS_READ', 'SERVICIOS_WRITE', 'SERVICIOS_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<?> lecturas(@PathVariable Long id,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        if (!servicioRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusMonths(12);
+        try {
+            return ResponseEntity.ok(historialLecturasService.consultar(id, inicio, fin));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Curva de consumo mensual de un servicio hasta el mes actual (por defecto, 24 meses)
+     */
+    @GetMapping("/{id}/consumo-mensual")
+    @PreAuthorize("hasAnyAuthority('SERVICIOS_READ', 'SERVICIOS_WRITE', 'SERVICIOS_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<?> consumoMensual(@PathVariable Long id, @RequestParam(required = false) Integer meses) {
+        if (!servicioRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            List<ConsumoMensualDTO> curva = historialLecturasService.curva(id, meses);
+            return ResponseEntity.ok(curva);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Consumo mensual por zona y tipo de servicio (meses en formato AAAA-MM; por defecto, los últimos 12)
+     */
+    @GetMapping("/consumo-zonas")
+    @PreAuthorize("hasAnyAuthority('SERVICIOS_READ', 'SERVICIOS_WRITE', 'SERVICIOS_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<?> consumoPorZona(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth desde,
+                                            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth hasta,
+                                            @RequestParam(required = false) String zona,
+                                            @RequestParam(required = false) TipoServicio tipoServicio) {
+        YearMonth fin = hasta != null ? hasta : YearMonth.now();
+        YearMonth inicio = desde != null ? desde : fin.minusMonths(11);
+        try {
+            return ResponseEntity.ok(historialLecturasService.resumenPorZona(inicio, fin, zona, tipoServicio));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
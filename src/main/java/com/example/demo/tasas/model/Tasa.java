@@ -23,7 +23,9 @@ import java.time.LocalDateTime;
 public class Tasa {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "tasas_id")
+    @TableGenerator(name = "tasas_id", table = "secuencias_id", pkColumnName = "nombre",
+            valueColumnName = "ultimo_id", pkColumnValue = "tasas", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -5,6 +5,7 @@ import com.example.demo.tasas.model.Tasa;
 import com.example.demo.tasas.model.TipoTasa;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -28,24 +29,23 @@ public interface TasaRepository extends JpaRepository<Tasa, Long> {
     boolean existsByNumeroTasa(String numeroTasa);
 
     // Buscar por contribuyente
+    @EntityGraph(attributePaths = "contribuyente")
     List<Tasa> findByContribuyenteId(Long contribuyenteId);
     Page<Tasa> findByContribuyenteId(Long contribuyenteId, Pageable pageable);
 
     // Buscar por estado
+    @EntityGraph(attributePaths = "contribuyente")
     List<Tasa> findByEstado(EstadoTasa estado);
     Page<Tasa> findByEstado(EstadoTasa estado, Pageable pageable);
 
     // Buscar por tipo de tasa
+    @EntityGraph(attributePaths = "contribuyente")
     List<Tasa> findByTipoTasa(TipoTasa tipoTasa);
     Page<Tasa> findByTipoTasa(TipoTasa tipoTasa, Pageable pageable);
 
     // Buscar por zona municipal
     List<Tasa> findByZonaMunicipal(String zonaMunicipal);
 
-    // Buscar tasas vencidas
-    @Query("SELECT t FROM Tasa t WHERE t.fechaVencimiento < :fecha AND t.estado IN :estados")
-    List<Tasa> findTasasVencidas(@Param("fecha") LocalDateTime fecha, @Param("estados") List<EstadoTasa> estados);
-
     // Buscar tasas por rango de fechas
     @Query("SELECT t FROM Tasa t WHERE t.fechaInicio BETWEEN :fechaInicio AND :fechaFin")
     List<Tasa> findByFechaInicioBetween(@Param("fechaInicio") LocalDateTime fechaInicio, 
@@ -86,6 +86,7 @@ public interface TasaRepository extends JpaRepository<Tasa, Long> {
                                         @Param("estados") List<EstadoTasa> estados);
 
     // Buscar por múltiples criterios
+    @EntityGraph(attributePaths = "contribuyente")
     @Query("SELECT t FROM Tasa t WHERE " +
            "(:contribuyenteId IS NULL OR t.contribuyente.id = :contribuyenteId) AND " +
            "(:tipoTasa IS NULL OR t.tipoTasa = :tipoTasa) AND " +
@@ -102,4 +103,30 @@ public interface TasaRepository extends JpaRepository<Tasa, Long> {
 
     // Buscar tasas de un contribuyente por estado
     List<Tasa> findByContribuyenteIdAndEstado(Long contribuyenteId, EstadoTasa estado);
+
+    // Cantidad y monto base por estado (reconciliación del resumen de estadísticas)
+    @Query("SELECT t.estado, COUNT(t), COALESCE(SUM(t.montoBase), 0) FROM Tasa t GROUP BY t.estado")
+    List<Object[]> resumenPorEstado();
+
+    // Números de tasa con un prefijo, del mayor al menor (punto de partida de la numeración)
+    @Query("SELECT t.numeroTasa FROM Tasa t WHERE t.numeroTasa LIKE CONCAT(:prefijo, '%') " +
+           "ORDER BY LENGTH(t.numeroTasa) DESC, t.numeroTasa DESC")
+    List<String> findNumerosConPrefijo(@Param("prefijo") String prefijo, Pageable pageable);
+
+    // Paginación keyset por (fechaRegistro, id): primera página, más antiguos y más recientes que el cursor
+    @Query("SELECT t FROM Tasa t LEFT JOIN FETCH t.contribuyente ORDER BY t.fechaRegistro DESC, t.id DESC")
+    List<Tasa> findPrimerosKeyset(Pageable limite);
+
+    @Query("SELECT t FROM Tasa t LEFT JOIN FETCH t.contribuyente WHERE t.fechaRegistro <= :fecha AND (t.fechaRegistro < :fecha OR t.id < :id) " +
+           "ORDER BY t.fechaRegistro DESC, t.id DESC")
+    List<Tasa> findSiguientesKeyset(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
+
+    @Query("SELECT t FROM Tasa t LEFT JOIN FETCH t.contribuyente WHERE t.fechaRegistro >= :fecha AND (t.fechaRegistro > :fecha OR t.id > :id) " +
+           "ORDER BY t.fechaRegistro ASC, t.id ASC")
+    List<Tasa> findAnterioresKeyset(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
+
+    // Página de tasas con su contribuyente en la misma consulta (listados; el conteo no hace join)
+    @EntityGraph(attributePaths = "contribuyente")
+    @Query("SELECT t FROM Tasa t")
+    Page<Tasa> findAllConContribuyente(Pageable pageable);
 }
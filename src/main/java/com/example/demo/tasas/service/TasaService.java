@@ -1,5 +1,11 @@
 package com.example.demo.tasas.service;
 
+import com.example.demo.estadisticas.service.AporteEstadistico;
+import com.example.demo.estadisticas.service.EstadisticasExecutor;
+import com.example.demo.estadisticas.service.EstadisticasResumenService;
+import com.example.demo.numeracion.service.NumeracionService;
+import com.example.demo.paginacion.dto.PaginaCursor;
+import com.example.demo.paginacion.service.ConsultaKeyset;
 import com.example.demo.tasas.dto.TasaRequest;
 import com.example.demo.tasas.dto.TasaResponse;
 import com.example.demo.tasas.exception.TasaException;
@@ -9,6 +15,7 @@ import com.example.demo.tasas.model.TipoTasa;
 import com.example.demo.tasas.repository.TasaRepository;
 import com.example.demo.tributario.model.Contribuyente;
 import com.example.demo.tributario.repository.ContribuyenteRepository;
+import com.example.demo.vencimientos.service.VencimientosService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -16,10 +23,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
@@ -38,6 +47,10 @@ public class TasaService {
 
     private final TasaRepository tasaRepository;
     private final ContribuyenteRepository contribuyenteRepository;
+    private final EstadisticasResumenService estadisticasResumenService;
+    private final EstadisticasExecutor estadisticasExecutor;
+    private final NumeracionService numeracionService;
+    private final VencimientosService vencimientosService;
 
     /**
      * Crear una nueva tasa
@@ -71,6 +84,7 @@ public class TasaService {
                 .build();
 
         Tasa tasaGuardada = tasaRepository.save(tasa);
+        estadisticasResumenService.registrarCambio(null, AporteEstadistico.de(tasaGuardada));
         log.info("Tasa creada exitosamente con ID: {}", tasaGuardada.getId());
         return convertirAResponse(tasaGuardada);
     }
@@ -90,10 +104,22 @@ public class TasaService {
     @Transactional(readOnly = true)
     public Page<TasaResponse> listarTasas(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("fechaRegistro").descending());
-        return tasaRepository.findAll(pageable)
+        return tasaRepository.findAllConContribuyente(pageable)
                 .map(this::convertirAResponse);
     }
 
+    /**
+     * Listar tasas por cursor (keyset sobre fechaRegistro, id), sin conteo salvo que se pida
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<TasaResponse> listarTasasPorCursor(String cursor, int size, boolean incluirTotal) {
+        return ConsultaKeyset.de(tasaRepository::findPrimerosKeyset,
+                        tasaRepository::findSiguientesKeyset,
+                        tasaRepository::findAnterioresKeyset,
+                        Tasa::getFechaRegistro, Tasa::getId)
+                .paginar(cursor, size, this::convertirAResponse, incluirTotal ? tasaRepository::count : null);
+    }
+
     /**
      * Obtener tasas por contribuyente
      */
@@ -156,6 +182,7 @@ public class TasaService {
         }
 
         // Actualizar campos
+        AporteEstadistico antes = AporteEstadistico.de(tasa);
         tasa.setTipoTasa(request.getTipoTasa());
         tasa.setDescripcion(request.getDescripcion());
         tasa.setMontoBase(request.getMontoBase());
@@ -171,6 +198,7 @@ public class TasaService {
         tasa.setFechaModificacion(LocalDateTime.now());
 
         Tasa tasaActualizada = tasaRepository.save(tasa);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(tasaActualizada));
         log.info("Tasa actualizada exitosamente con ID: {}", id);
         return convertirAResponse(tasaActualizada);
     }
@@ -196,6 +224,7 @@ public class TasaService {
         }
 
         // Actualizar monto pagado
+        AporteEstadistico antes = AporteEstadistico.de(tasa);
         tasa.setMontoPagado(nuevoMontoPagado);
         
         // Actualizar estado según el pago
@@ -210,6 +239,7 @@ public class TasaService {
         tasa.setFechaModificacion(LocalDateTime.now());
 
         Tasa tasaActualizada = tasaRepository.save(tasa);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(tasaActualizada));
         log.info("Pago registrado exitosamente para tasa ID: {}", tasaId);
         return convertirAResponse(tasaActualizada);
     }
@@ -223,6 +253,7 @@ public class TasaService {
         Tasa tasa = tasaRepository.findById(tasaId)
                 .orElseThrow(() -> new TasaException("Tasa no encontrada con ID: " + tasaId));
 
+        AporteEstadistico antes = AporteEstadistico.de(tasa);
         tasa.setEstado(nuevoEstado);
         tasa.setUsuarioModificacion(usuario);
         tasa.setFechaModificacion(LocalDateTime.now());
@@ -233,81 +264,68 @@ public class TasaService {
         }
 
         Tasa tasaActualizada = tasaRepository.save(tasa);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(tasaActualizada));
         log.info("Estado cambiado exitosamente para tasa ID: {}", tasaId);
         return convertirAResponse(tasaActualizada);
     }
 
     /**
-     * Obtener estadísticas de tasas
+     * Obtener estadísticas de tasas (consultas en paralelo, ver EstadisticasExecutor)
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> obtenerEstadisticas() {
-        Map<String, Object> estadisticas = new HashMap<>();
-        
-        // Conteos por estado
-        List<Object[]> conteosPorEstado = tasaRepository.countTasasByEstado();
-        Map<String, Long> estadoStats = new HashMap<>();
-        for (Object[] row : conteosPorEstado) {
-            estadoStats.put(((EstadoTasa) row[0]).getDescripcion(), (Long) row[1]);
-        }
-        estadisticas.put("porEstado", estadoStats);
-
-        // Conteos por tipo
-        List<Object[]> conteosPorTipo = tasaRepository.countTasasByTipo();
-        Map<String, Long> tipoStats = new HashMap<>();
-        for (Object[] row : conteosPorTipo) {
-            tipoStats.put(((TipoTasa) row[0]).getDescripcion(), (Long) row[1]);
-        }
-        estadisticas.put("porTipo", tipoStats);
-
-        // Totales financieros
-        BigDecimal totalRecaudado = tasaRepository.getTotalRecaudado();
-        BigDecimal totalPendiente = tasaRepository.getTotalPendiente();
-        
-        estadisticas.put("totalRecaudado", totalRecaudado != null ? totalRecaudado : BigDecimal.ZERO);
-        estadisticas.put("totalPendiente", totalPendiente != null ? totalPendiente : BigDecimal.ZERO);
-        estadisticas.put("totalTasas", tasaRepository.count());
+        return estadisticasExecutor.grupo("tasas")
+                // Conteos por estado
+                .consulta("porEstado", () -> {
+                    Map<String, Long> estadoStats = new HashMap<>();
+                    for (Object[] row : tasaRepository.countTasasByEstado()) {
+                        estadoStats.put(((EstadoTasa) row[0]).getDescripcion(), (Long) row[1]);
+                    }
+                    return estadoStats;
+                }, Map.of())
+                // Conteos por tipo
+                .consulta("porTipo", () -> {
+                    Map<String, Long> tipoStats = new HashMap<>();
+                    for (Object[] row : tasaRepository.countTasasByTipo()) {
+                        tipoStats.put(((TipoTasa) row[0]).getDescripcion(), (Long) row[1]);
+                    }
+                    return tipoStats;
+                }, Map.of())
+                // Totales financieros
+                .consulta("totalRecaudado", () -> valorOCero(tasaRepository.getTotalRecaudado()), BigDecimal.ZERO)
+                .consulta("totalPendiente", () -> valorOCero(tasaRepository.getTotalPendiente()), BigDecimal.ZERO)
+                .consulta("totalTasas", tasaRepository::count, 0L)
+                .ejecutar();
+    }
 
-        return estadisticas;
+    private BigDecimal valorOCero(BigDecimal valor) {
+        return valor != null ? valor : BigDecimal.ZERO;
     }
 
     /**
-     * Actualizar tasas vencidas
+     * Actualizar tasas vencidas con UPDATE por bloques (VencimientosJob lo ejecuta a diario).
+     * Fuera de la transacción de la clase: cada bloque se confirma por separado.
      */
-    @Transactional
-    public void actualizarTasasVencidas() {
-        List<EstadoTasa> estadosActivos = List.of(EstadoTasa.ACTIVA, EstadoTasa.PARCIALMENTE_PAGADA);
-        List<Tasa> tasasVencidas = tasaRepository.findTasasVencidas(LocalDateTime.now(), estadosActivos);
-        
-        for (Tasa tasa : tasasVencidas) {
-            tasa.setEstado(EstadoTasa.VENCIDA);
-            tasa.setFechaModificacion(LocalDateTime.now());
-        }
-        
-        if (!tasasVencidas.isEmpty()) {
-            tasaRepository.saveAll(tasasVencidas);
-            log.info("Actualizadas {} tasas a estado VENCIDA", tasasVencidas.size());
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long actualizarTasasVencidas() {
+        return vencimientosService.actualizarTasasVencidas();
     }
 
     /**
      * Generar número de tasa único
      */
     private String generarNumeroTasa(TipoTasa tipoTasa) {
-        String prefijo = "TAS-" + LocalDateTime.now().getYear() + 
-                        String.format("%02d", LocalDateTime.now().getMonthValue()) + "-";
-        
-        // Buscar el último número para este mes
-        String patron = prefijo + "%";
-        long count = tasaRepository.count() + 1;
+        String periodo = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
+        String prefijo = "TAS-" + periodo + "-";
         
-        String numeroTasa;
-        do {
-            numeroTasa = prefijo + String.format("%04d", count);
-            count++;
-        } while (tasaRepository.existsByNumeroTasa(numeroTasa));
+        // La secuencia del mes continúa desde el último número ya emitido
+        long numero = numeracionService.siguiente("TAS", periodo, () ->
+                tasaRepository.findNumerosConPrefijo(prefijo, PageRequest.of(0, 1)).stream()
+                        .mapToLong(ultimo -> NumeracionService.valorNumerico(ultimo, prefijo))
+                        .findFirst()
+                        .orElse(0));
         
-        return numeroTasa;
+        return prefijo + String.format("%04d", numero);
     }
 
     /**
@@ -366,6 +384,7 @@ public class TasaService {
         }
         
         tasaRepository.delete(tasa);
+        estadisticasResumenService.registrarCambio(AporteEstadistico.de(tasa), null);
         log.info("Tasa eliminada exitosamente: {}", id);
     }
 
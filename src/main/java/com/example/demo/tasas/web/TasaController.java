@@ -5,6 +5,7 @@ import com.example.demo.tasas.dto.TasaResponse;
 import com.example.demo.tasas.model.EstadoTasa;
 import com.example.demo.tasas.model.TipoTasa;
 import com.example.demo.tasas.service.TasaService;
+import com.example.demo.paginacion.dto.PaginaCursor;
 import com.example.demo.tributario.service.ContribuyenteService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -104,6 +105,27 @@ public class TasaController {
         }
     }
 
+    /**
+     * API - Listar tasas por cursor (paginación keyset, sin conteo salvo incluirTotal=true)
+     */
+    @GetMapping("/api/cursor")
+    @PreAuthorize("hasAnyAuthority('TASAS_READ', 'TASAS_WRITE', 'TASAS_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<?> listarTasasPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        try {
+            PaginaCursor<TasaResponse> tasas = tasaService.listarTasasPorCursor(cursor, size, incluirTotal);
+            return ResponseEntity.ok(tasas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al listar tasas por cursor", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * API - Obtener tasa por ID
      */
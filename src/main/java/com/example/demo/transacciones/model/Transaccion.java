@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
 public class Transaccion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "transacciones_id")
+    @TableGenerator(name = "transacciones_id", table = "secuencias_id", pkColumnName = "nombre",
+            valueColumnName = "ultimo_id", pkColumnValue = "transacciones", allocationSize = 50)
     private Long id;
 
     @Column(name = "numero_transaccion", unique = true, nullable = false)
@@ -5,6 +5,7 @@ import com.example.demo.transacciones.model.TipoTransaccion;
 import com.example.demo.transacciones.model.Transaccion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,6 +23,7 @@ public interface TransaccionRepository extends JpaRepository<Transaccion, Long>
     Optional<Transaccion> findByNumeroTransaccion(String numeroTransaccion);
 
     // Buscar por contribuyente
+    @EntityGraph(attributePaths = "contribuyente")
     Page<Transaccion> findByContribuyenteId(Long contribuyenteId, Pageable pageable);
 
     // Buscar por estado
@@ -96,6 +98,7 @@ public interface TransaccionRepository extends JpaRepository<Transaccion, Long>
     List<Transaccion> findByContribuyenteAndEstado(@Param("contribuyenteId") Long contribuyenteId, @Param("estado") EstadoTransaccion estado);
 
     // Búsqueda avanzada
+    @EntityGraph(attributePaths = "contribuyente")
     @Query("SELECT t FROM Transaccion t WHERE " +
            "(:numeroTransaccion IS NULL OR t.numeroTransaccion LIKE %:numeroTransaccion%) AND " +
            "(:contribuyenteId IS NULL OR t.contribuyente.id = :contribuyenteId) AND " +
@@ -128,9 +131,49 @@ public interface TransaccionRepository extends JpaRepository<Transaccion, Long>
     List<Object[]> reporteTransaccionesPorPeriodo(@Param("fechaInicio") LocalDateTime fechaInicio, @Param("fechaFin") LocalDateTime fechaFin);
 
     // Transacciones recientes
+    @EntityGraph(attributePaths = "contribuyente")
     @Query("SELECT t FROM Transaccion t ORDER BY t.fechaRegistro DESC")
     List<Transaccion> findTransaccionesRecientes(Pageable pageable);
 
     // Verificar si existe número de transacción
     boolean existsByNumeroTransaccion(String numeroTransaccion);
+
+    // Exportación keyset por (fechaTransaccion, id) descendente, con el contribuyente: primera página y siguientes al cursor
+    @Query("SELECT t FROM Transaccion t LEFT JOIN FETCH t.contribuyente ORDER BY t.fechaTransaccion DESC, t.id DESC")
+    List<Transaccion> findParaExportacion(Pageable limite);
+
+    @Query("SELECT t FROM Transaccion t LEFT JOIN FETCH t.contribuyente " +
+           "WHERE t.fechaTransaccion <= :fecha AND (t.fechaTransaccion < :fecha OR t.id < :id) " +
+           "ORDER BY t.fechaTransaccion DESC, t.id DESC")
+    List<Transaccion> findParaExportacionDesde(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
+
+    // Cantidad y monto por estado (reconciliación del resumen de estadísticas)
+    @Query("SELECT t.estado, COUNT(t), COALESCE(SUM(t.monto), 0) FROM Transaccion t GROUP BY t.estado")
+    List<Object[]> resumenPorEstado();
+
+    // Ingresos, egresos y balance de transacciones efectivas en un rango [desde, hasta), usando el índice de fecha
+    @Query("SELECT " +
+           "COALESCE(SUM(CASE WHEN t.tipoTransaccion IN ('INGRESO', 'PAGO_SERVICIO', 'PAGO_IMPUESTO', 'PAGO_TASA', 'PAGO_MULTA') THEN t.monto ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN t.tipoTransaccion IN ('EGRESO', 'DEVOLUCION', 'COMISION') THEN t.monto ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN t.tipoTransaccion IN ('INGRESO', 'PAGO_SERVICIO', 'PAGO_IMPUESTO', 'PAGO_TASA', 'PAGO_MULTA') THEN t.monto ELSE -t.monto END), 0) " +
+           "FROM Transaccion t WHERE t.fechaTransaccion >= :desde AND t.fechaTransaccion < :hasta " +
+           "AND t.estado IN ('PROCESADA', 'CONFIRMADA')")
+    List<Object[]> flujoEntre(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    // Paginación keyset por (fechaTransaccion, id): primera página, más antiguos y más recientes que el cursor
+    @Query("SELECT t FROM Transaccion t LEFT JOIN FETCH t.contribuyente ORDER BY t.fechaTransaccion DESC, t.id DESC")
+    List<Transaccion> findPrimerosKeyset(Pageable limite);
+
+    @Query("SELECT t FROM Transaccion t LEFT JOIN FETCH t.contribuyente WHERE t.fechaTransaccion <= :fecha AND (t.fechaTransaccion < :fecha OR t.id < :id) " +
+           "ORDER BY t.fechaTransaccion DESC, t.id DESC")
+    List<Transaccion> findSiguientesKeyset(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
+
+    @Query("SELECT t FROM Transaccion t LEFT JOIN FETCH t.contribuyente WHERE t.fechaTransaccion >= :fecha AND (t.fechaTransaccion > :fecha OR t.id > :id) " +
+           "ORDER BY t.fechaTransaccion ASC, t.id ASC")
+    List<Transaccion> findAnterioresKeyset(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable limite);
+
+    // Página de transacciones con su contribuyente en la misma consulta (listados; el conteo no hace join)
+    @EntityGraph(attributePaths = "contribuyente")
+    @Query("SELECT t FROM Transaccion t")
+    Page<Transaccion> findAllConContribuyente(Pageable pageable);
 }
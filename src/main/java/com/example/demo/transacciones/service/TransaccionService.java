@@ -1,5 +1,15 @@
 package com.example.demo.transacciones.service;
 
+import com.example.demo.estadisticas.service.AporteEstadistico;
+import com.example.demo.estadisticas.service.ClavesEstadisticas;
+import com.example.demo.estadisticas.service.EstadisticasResumenService;
+import com.example.demo.exportacion.service.DefinicionExportacion;
+import com.example.demo.exportacion.service.ExportacionService;
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.exportacion.service.FuentePaginada;
+import com.example.demo.numeracion.service.NumeracionService;
+import com.example.demo.paginacion.dto.PaginaCursor;
+import com.example.demo.paginacion.service.ConsultaKeyset;
 import com.example.demo.transacciones.dto.TransaccionRequest;
 import com.example.demo.transacciones.dto.TransaccionResponse;
 import com.example.demo.transacciones.model.EstadoTransaccion;
@@ -15,10 +25,16 @@ import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +52,15 @@ public class TransaccionService {
     @Autowired
     private ContribuyenteRepository contribuyenteRepository;
 
+    @Autowired
+    private ExportacionService exportacionService;
+
+    @Autowired
+    private EstadisticasResumenService estadisticasResumenService;
+
+    @Autowired
+    private NumeracionService numeracionService;
+
     // Crear nueva transacción
     public TransaccionResponse crearTransaccion(TransaccionRequest request) {
         Transaccion transaccion = new Transaccion();
@@ -53,6 +78,7 @@ public class TransaccionService {
         }
         
         transaccion = transaccionRepository.save(transaccion);
+        estadisticasResumenService.registrarCambio(null, AporteEstadistico.de(transaccion));
         return mapearEntidadAResponse(transaccion);
     }
 
@@ -78,10 +104,20 @@ public class TransaccionService {
                    Sort.by(sortBy).ascending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        return transaccionRepository.findAll(pageable)
+        return transaccionRepository.findAllConContribuyente(pageable)
                 .map(this::mapearEntidadAResponse);
     }
 
+    // Listar transacciones por cursor (keyset sobre fechaTransaccion, id), sin conteo salvo que se pida
+    @Transactional(readOnly = true)
+    public PaginaCursor<TransaccionResponse> listarTransaccionesPorCursor(String cursor, int size, boolean incluirTotal) {
+        return ConsultaKeyset.de(transaccionRepository::findPrimerosKeyset,
+                        transaccionRepository::findSiguientesKeyset,
+                        transaccionRepository::findAnterioresKeyset,
+                        Transaccion::getFechaTransaccion, Transaccion::getId)
+                .paginar(cursor, size, this::mapearEntidadAResponse, incluirTotal ? transaccionRepository::count : null);
+    }
+
     // Actualizar transacción
     public TransaccionResponse actualizarTransaccion(Long id, TransaccionRequest request) {
         Transaccion transaccion = transaccionRepository.findById(id)
@@ -92,10 +128,12 @@ public class TransaccionService {
             throw new RuntimeException("Solo se pueden actualizar transacciones pendientes");
         }
 
+        AporteEstadistico antes = AporteEstadistico.de(transaccion);
         mapearRequestAEntidad(request, transaccion);
         transaccion.setFechaModificacion(LocalDateTime.now());
         
         transaccion = transaccionRepository.save(transaccion);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(transaccion));
         return mapearEntidadAResponse(transaccion);
     }
 
@@ -108,8 +146,10 @@ public class TransaccionService {
             throw new RuntimeException("Solo se pueden procesar transacciones pendientes");
         }
 
+        AporteEstadistico antes = AporteEstadistico.de(transaccion);
         transaccion.procesar(obtenerUsuarioActual());
         transaccion = transaccionRepository.save(transaccion);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(transaccion));
         
         return mapearEntidadAResponse(transaccion);
     }
@@ -123,8 +163,10 @@ public class TransaccionService {
             throw new RuntimeException("Solo se pueden confirmar transacciones procesadas");
         }
 
+        AporteEstadistico antes = AporteEstadistico.de(transaccion);
         transaccion.confirmar();
         transaccion = transaccionRepository.save(transaccion);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(transaccion));
         
         return mapearEntidadAResponse(transaccion);
     }
@@ -138,8 +180,10 @@ public class TransaccionService {
             throw new RuntimeException("La transacción ya está anulada");
         }
 
+        AporteEstadistico antes = AporteEstadistico.de(transaccion);
         transaccion.anular(motivo);
         transaccion = transaccionRepository.save(transaccion);
+        estadisticasResumenService.registrarCambio(antes, AporteEstadistico.de(transaccion));
         
         return mapearEntidadAResponse(transaccion);
     }
@@ -154,6 +198,7 @@ public class TransaccionService {
         }
 
         transaccionRepository.delete(transaccion);
+        estadisticasResumenService.registrarCambio(AporteEstadistico.de(transaccion), null);
     }
 
     // Búsqueda avanzada
@@ -171,26 +216,28 @@ public class TransaccionService {
         ).map(this::mapearEntidadAResponse);
     }
 
-    // Obtener estadísticas del dashboard
-    @Transactional(readOnly = true)
+    // Obtener estadísticas del dashboard (desde el resumen materializado, sin consultar la tabla)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> obtenerEstadisticas() {
         Map<String, Object> estadisticas = new HashMap<>();
+        String modulo = ClavesEstadisticas.TRANSACCIONES;
+        LocalDate hoy = LocalDate.now();
         
         // Contadores básicos
-        estadisticas.put("totalTransacciones", transaccionRepository.countTotalTransacciones());
-        estadisticas.put("transaccionesPendientes", transaccionRepository.countByEstado(EstadoTransaccion.PENDIENTE));
-        estadisticas.put("transaccionesProcesadas", transaccionRepository.countByEstado(EstadoTransaccion.PROCESADA));
-        estadisticas.put("transaccionesConfirmadas", transaccionRepository.countByEstado(EstadoTransaccion.CONFIRMADA));
+        estadisticas.put("totalTransacciones", estadisticasResumenService.conteo(ClavesEstadisticas.total(modulo)));
+        estadisticas.put("transaccionesPendientes", estadisticasResumenService.conteo(ClavesEstadisticas.estado(modulo, EstadoTransaccion.PENDIENTE)));
+        estadisticas.put("transaccionesProcesadas", estadisticasResumenService.conteo(ClavesEstadisticas.estado(modulo, EstadoTransaccion.PROCESADA)));
+        estadisticas.put("transaccionesConfirmadas", estadisticasResumenService.conteo(ClavesEstadisticas.estado(modulo, EstadoTransaccion.CONFIRMADA)));
         
         // Montos
-        estadisticas.put("ingresosHoy", transaccionRepository.sumIngresosHoy());
-        estadisticas.put("egresosHoy", transaccionRepository.sumEgresosHoy());
-        estadisticas.put("balanceMes", transaccionRepository.balanceMesActual());
+        estadisticas.put("ingresosHoy", estadisticasResumenService.monto(ClavesEstadisticas.ingresosDia(hoy)));
+        estadisticas.put("egresosHoy", estadisticasResumenService.monto(ClavesEstadisticas.egresosDia(hoy)));
+        estadisticas.put("balanceMes", estadisticasResumenService.monto(ClavesEstadisticas.balanceMes(YearMonth.from(hoy))));
         
         // Montos por estado
-        estadisticas.put("montoPendiente", transaccionRepository.sumMontoByEstado(EstadoTransaccion.PENDIENTE));
-        estadisticas.put("montoProcesado", transaccionRepository.sumMontoByEstado(EstadoTransaccion.PROCESADA));
-        estadisticas.put("montoConfirmado", transaccionRepository.sumMontoByEstado(EstadoTransaccion.CONFIRMADA));
+        estadisticas.put("montoPendiente", estadisticasResumenService.monto(ClavesEstadisticas.estado(modulo, EstadoTransaccion.PENDIENTE)));
+        estadisticas.put("montoProcesado", estadisticasResumenService.monto(ClavesEstadisticas.estado(modulo, EstadoTransaccion.PROCESADA)));
+        estadisticas.put("montoConfirmado", estadisticasResumenService.monto(ClavesEstadisticas.estado(modulo, EstadoTransaccion.CONFIRMADA)));
         
         return estadisticas;
     }
@@ -249,6 +296,29 @@ public class TransaccionService {
         }
     }
 
+    // Exportar transacciones (xlsx, csv o ndjson)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportarTransacciones(FormatoExportacion formato, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        DefinicionExportacion<Transaccion> definicion = DefinicionExportacion
+                .<Transaccion>de("transacciones", "Transacciones",
+                        FuentePaginada.porFechaDescendente(transaccionRepository::findParaExportacion,
+                                transaccionRepository::findParaExportacionDesde,
+                                Transaccion::getFechaTransaccion, Transaccion::getId))
+                .columna("ID", Transaccion::getId)
+                .columna("Número", Transaccion::getNumeroTransaccion)
+                .columna("Tipo", t -> t.getTipoTransaccion().getDescripcion())
+                .columna("Estado", t -> t.getEstado().getDescripcion())
+                .columna("Monto", Transaccion::getMonto)
+                .columna("Concepto", Transaccion::getConcepto)
+                .columna("Contribuyente", t -> t.getContribuyente() != null ? t.getContribuyente().getRazonSocial() : "")
+                .columna("RIF", t -> t.getContribuyente() != null ? t.getContribuyente().getRif() : "")
+                .columna("Referencia Externa", Transaccion::getReferenciaExterna)
+                .columna("Fecha Transacción", t -> t.getFechaTransaccion().format(formatter))
+                .columna("Usuario Registro", Transaccion::getUsuarioRegistro);
+        exportacionService.exportar(definicion, formato, request, response);
+    }
+
     private TransaccionResponse mapearEntidadAResponse(Transaccion transaccion) {
         TransaccionResponse response = new TransaccionResponse();
         
@@ -282,19 +352,10 @@ public class TransaccionService {
     }
 
     private String generarNumeroTransaccion() {
-        String prefijo = "TXN-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy"));
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        String numeroBase = prefijo + "-" + timestamp.substring(timestamp.length() - 8);
-        
-        // Verificar que no exista y generar uno nuevo si es necesario
-        int contador = 1;
-        String numeroFinal = numeroBase;
-        while (transaccionRepository.existsByNumeroTransaccion(numeroFinal)) {
-            numeroFinal = numeroBase + "-" + String.format("%03d", contador);
-            contador++;
-        }
-        
-        return numeroFinal;
+        // TXN-yyyyMM-000001: el formato anterior (TXN-yyyy-<marca de tiempo>) no puede coincidir con este
+        String periodo = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
+        long numero = numeracionService.siguiente("TXN", periodo, () -> 0L);
+        return "TXN-" + periodo + "-" + String.format("%06d", numero);
     }
 
     private String obtenerUsuarioActual() {
@@ -1,11 +1,16 @@
 package com.example.demo.transacciones.web;
 
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.paginacion.dto.PaginaCursor;
 import com.example.demo.transacciones.dto.TransaccionRequest;
 import com.example.demo.transacciones.dto.TransaccionResponse;
 import com.example.demo.transacciones.model.EstadoTransaccion;
 import com.example.demo.transacciones.model.TipoTransaccion;
 import com.example.demo.transacciones.service.TransaccionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -16,6 +21,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -24,6 +30,7 @@ import java.util.Map;
 
 @Controller
 @RequestMapping("/transacciones")
+@Slf4j
 public class TransaccionController {
 
     @Autowired
@@ -95,6 +102,26 @@ public class TransaccionController {
         }
     }
 
+    // Paginación keyset: tiempo constante en cualquier profundidad, sin conteo salvo incluirTotal=true
+    @GetMapping("/api/cursor")
+    @PreAuthorize("hasAnyAuthority('TRANSACCIONES_READ', 'TRANSACCIONES_WRITE', 'TRANSACCIONES_GESTIONAR')")
+    @ResponseBody
+    public ResponseEntity<?> listarTransaccionesPorCursorApi(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        
+        try {
+            PaginaCursor<TransaccionResponse> transacciones =
+                    transaccionService.listarTransaccionesPorCursor(cursor, size, incluirTotal);
+            return ResponseEntity.ok(transacciones);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/api/{id}")
     @PreAuthorize("hasAnyAuthority('TRANSACCIONES_READ', 'TRANSACCIONES_WRITE', 'TRANSACCIONES_GESTIONAR')")
     @ResponseBody
@@ -267,4 +294,18 @@ public class TransaccionController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @GetMapping("/exportar")
+    @PreAuthorize("hasAnyAuthority('TRANSACCIONES_READ', 'TRANSACCIONES_WRITE', 'TRANSACCIONES_GESTIONAR')")
+    public void exportarTransacciones(@RequestParam(defaultValue = "xlsx") FormatoExportacion format,
+                                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            transaccionService.exportarTransacciones(format, request, response);
+        } catch (Exception e) {
+            log.error("Error al exportar transacciones", e);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error al exportar transacciones");
+            }
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.demo.tributario.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de la búsqueda incremental (typeahead) de contribuyentes
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContribuyenteSugerenciaDTO {
+
+    private Long id;
+
+    private String rif;
+
+    private String razonSocial;
+
+    private String nombre;
+
+    private String apellido;
+}
@@ -15,7 +15,9 @@ import java.time.Instant;
 @Builder
 public class Declaracion {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "declaraciones_id")
+    @TableGenerator(name = "declaraciones_id", table = "secuencias_id", pkColumnName = "nombre",
+            valueColumnName = "ultimo_id", pkColumnValue = "declaraciones", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -12,18 +12,25 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "retenciones")
+@NamedEntityGraph(name = Retencion.GRAFO_CONTRIBUYENTE, attributeNodes = @NamedAttributeNode("contribuyente"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Retencion {
+
+    /**
+     * Plan de carga con el contribuyente, para las vistas y respuestas JSON que lo muestran
+     */
+    public static final String GRAFO_CONTRIBUYENTE = "Retencion.contribuyente";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotNull(message = "El contribuyente es obligatorio")
-    @ManyToOne(fetch = FetchType.EAGER)  // Cambiado de LAZY a EAGER
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "contribuyente_id", nullable = false)
     private Contribuyente contribuyente;
 
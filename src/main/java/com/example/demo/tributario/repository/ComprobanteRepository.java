@@ -1,6 +1,8 @@
 package com.example.demo.tributario.repository;
 
 import com.example.demo.tributario.model.Comprobante;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,16 +13,30 @@ import java.util.Optional;
 
 public interface ComprobanteRepository extends JpaRepository<Comprobante, Long> {
     
+    // Listado y detalle con el contribuyente en la misma consulta (la asociación es LAZY)
+    @Override
+    @EntityGraph(Comprobante.GRAFO_CONTRIBUYENTE)
+    List<Comprobante> findAll();
+    
+    @Override
+    @EntityGraph(Comprobante.GRAFO_CONTRIBUYENTE)
+    Optional<Comprobante> findById(Long id);
+    
+    @EntityGraph(Comprobante.GRAFO_CONTRIBUYENTE)
     List<Comprobante> findByContribuyenteId(Long contribuyenteId);
     
+    @EntityGraph(Comprobante.GRAFO_CONTRIBUYENTE)
     List<Comprobante> findByTipo(String tipo);
     
+    @EntityGraph(Comprobante.GRAFO_CONTRIBUYENTE)
     List<Comprobante> findByEstado(Comprobante.EstadoComprobante estado);
     
+    @EntityGraph(Comprobante.GRAFO_CONTRIBUYENTE)
     List<Comprobante> findByFechaEmisionBetween(LocalDate fechaInicio, LocalDate fechaFin);
     
     Optional<Comprobante> findByTipoAndSerieAndNumero(String tipo, String serie, String numero);
     
+    @EntityGraph(Comprobante.GRAFO_CONTRIBUYENTE)
     @Query("SELECT c FROM Comprobante c WHERE c.contribuyente.razonSocial LIKE %:termino% OR c.numero LIKE %:termino% OR c.serie LIKE %:termino%")
     List<Comprobante> buscarPorTermino(@Param("termino") String termino);
     
@@ -32,4 +48,8 @@ public interface ComprobanteRepository extends JpaRepository<Comprobante, Long>
     
     @Query("SELECT COUNT(c) FROM Comprobante c WHERE c.estado = :estado")
     long countPorEstado(@Param("estado") Comprobante.EstadoComprobante estado);
+
+    // Página keyset con el contribuyente para exportación: registros con id mayor que despuesDe, en orden de id
+    @Query("SELECT c FROM Comprobante c LEFT JOIN FETCH c.contribuyente WHERE c.id > :despuesDe ORDER BY c.id")
+    List<Comprobante> findParaExportacion(@Param("despuesDe") long despuesDe, Pageable limite);
 }
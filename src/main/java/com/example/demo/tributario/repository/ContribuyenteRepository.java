@@ -15,6 +15,18 @@ public interface ContribuyenteRepository extends JpaRepository<Contribuyente, Lo
     
     List<Contribuyente> findByActivoTrue();
     
+    // Datos del índice de búsqueda en memoria: [id, rif, razonSocial, nombre, apellido] de los activos
+    @Query("SELECT c.id, c.rif, c.razonSocial, c.nombre, c.apellido FROM Contribuyente c WHERE c.activo = true")
+    List<Object[]> findDatosBusquedaActivos();
+
+    // [rif, id] de todos los contribuyentes: las importaciones masivas resuelven el RIF en memoria
+    @Query("SELECT c.rif, c.id FROM Contribuyente c")
+    List<Object[]> findIdsPorRif();
+
+    // Página keyset de contribuyentes para exportación: registros con id mayor que despuesDe, en orden de id
+    @Query("SELECT c FROM Contribuyente c WHERE c.id > :despuesDe ORDER BY c.id")
+    List<Contribuyente> findParaExportacion(@Param("despuesDe") long despuesDe, Pageable limite);
+    
     List<Contribuyente> findByTipoContribuyente(Contribuyente.TipoContribuyente tipo);
     
     @Query("SELECT c FROM Contribuyente c WHERE " +
@@ -1,9 +1,25 @@
 package com.example.demo.tributario.repository;
 
 import com.example.demo.tributario.model.Declaracion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface DeclaracionRepository extends JpaRepository<Declaracion, Long> {
-}
 
+    // Página keyset de declaraciones con contribuyente e impuesto para exportación: id mayor que despuesDe, en orden de id
+    @Query("SELECT d FROM Declaracion d JOIN FETCH d.contribuyente JOIN FETCH d.impuesto " +
+           "WHERE d.id > :despuesDe ORDER BY d.id")
+    List<Declaracion> findParaExportacion(@Param("despuesDe") long despuesDe, Pageable limite);
 
+    // [contribuyenteId, impuestoId, periodo] de todas las declaraciones, para detectar duplicados al importar
+    @Query("SELECT d.contribuyente.id, d.impuesto.id, d.periodo FROM Declaracion d")
+    List<Object[]> findClavesPeriodo();
+
+    // Ids de todas las declaraciones, para validar referencias al importar pagos
+    @Query("SELECT d.id FROM Declaracion d")
+    List<Long> findAllIds();
+}
@@ -1,12 +1,20 @@
 package com.example.demo.tributario.repository;
 
 import com.example.demo.tributario.model.Impuesto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ImpuestoRepository extends JpaRepository<Impuesto, Long> {
     Optional<Impuesto> findByCodigo(String codigo);
+
+    // Página keyset de impuestos para exportación: registros con id mayor que despuesDe, en orden de id
+    @Query("SELECT i FROM Impuesto i WHERE i.id > :despuesDe ORDER BY i.id")
+    List<Impuesto> findParaExportacion(@Param("despuesDe") long despuesDe, Pageable limite);
 }
 
 
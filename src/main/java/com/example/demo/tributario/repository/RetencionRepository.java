@@ -1,23 +1,40 @@
 package com.example.demo.tributario.repository;
 
 import com.example.demo.tributario.model.Retencion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.math.BigDecimal;
 
 public interface RetencionRepository extends JpaRepository<Retencion, Long> {
     
+    // Listado y detalle con el contribuyente en la misma consulta (la asociación es LAZY)
+    @Override
+    @EntityGraph(Retencion.GRAFO_CONTRIBUYENTE)
+    List<Retencion> findAll();
+    
+    @Override
+    @EntityGraph(Retencion.GRAFO_CONTRIBUYENTE)
+    Optional<Retencion> findById(Long id);
+    
+    @EntityGraph(Retencion.GRAFO_CONTRIBUYENTE)
     List<Retencion> findByContribuyenteId(Long contribuyenteId);
     
+    @EntityGraph(Retencion.GRAFO_CONTRIBUYENTE)
     List<Retencion> findByFechaBetween(LocalDate fechaInicio, LocalDate fechaFin);
     
+    @EntityGraph(Retencion.GRAFO_CONTRIBUYENTE)
     List<Retencion> findByEstado(Retencion.EstadoRetencion estado);
     
     // Consulta más segura que evita problemas con enums
+    @EntityGraph(Retencion.GRAFO_CONTRIBUYENTE)
     @Query("SELECT r FROM Retencion r WHERE r.estado = :estado")
     List<Retencion> findByEstadoSeguro(@Param("estado") Retencion.EstadoRetencion estado);
     
@@ -26,10 +43,12 @@ public interface RetencionRepository extends JpaRepository<Retencion, Long> {
     BigDecimal sumMontoRetenidoAplicado(@Param("estado") Retencion.EstadoRetencion estado);
     
     // Consulta para obtener retenciones por contribuyente y estado
+    @EntityGraph(Retencion.GRAFO_CONTRIBUYENTE)
     @Query("SELECT r FROM Retencion r WHERE r.contribuyente.id = :contribuyenteId AND r.estado = :estado")
     List<Retencion> findByContribuyenteIdAndEstado(@Param("contribuyenteId") Long contribuyenteId, 
                                                    @Param("estado") Retencion.EstadoRetencion estado);
     
+    @EntityGraph(Retencion.GRAFO_CONTRIBUYENTE)
     @Query("SELECT r FROM Retencion r WHERE r.contribuyente.razonSocial LIKE %:termino% OR r.concepto LIKE %:termino%")
     List<Retencion> buscarPorTermino(@Param("termino") String termino);
     
@@ -37,6 +56,7 @@ public interface RetencionRepository extends JpaRepository<Retencion, Long> {
     long countCreatedThisMonth();
     
     // Método completamente seguro
+    @EntityGraph(Retencion.GRAFO_CONTRIBUYENTE)
     @Query("SELECT r FROM Retencion r WHERE r.estado = 'APLICADA'")
     List<Retencion> findByEstadoAplicada();
     
@@ -46,4 +66,37 @@ public interface RetencionRepository extends JpaRepository<Retencion, Long> {
     
     @Query("SELECT COUNT(r) FROM Retencion r WHERE YEAR(r.fecha) = YEAR(CURRENT_DATE) AND MONTH(r.fecha) = MONTH(CURRENT_DATE)")
     long countEsteMes();
+
+    // Página keyset con el contribuyente para exportación: registros con id mayor que despuesDe, en orden de id
+    @Query("SELECT r FROM Retencion r LEFT JOIN FETCH r.contribuyente WHERE r.id > :despuesDe ORDER BY r.id")
+    List<Retencion> findParaExportacion(@Param("despuesDe") long despuesDe, Pageable limite);
+
+    // Cantidad y monto retenido por estado (estadísticas, resuelto con idx_ret_estado_fecha_monto)
+    @Query("SELECT r.estado, COUNT(r), COALESCE(SUM(r.montoRetenido), 0) FROM Retencion r GROUP BY r.estado")
+    List<Object[]> resumenPorEstado();
+
+    // Cantidad de retenciones con fecha en [desde, hasta), usando el índice de fecha
+    @Query("SELECT COUNT(r) FROM Retencion r WHERE r.fecha >= :desde AND r.fecha < :hasta")
+    long contarEntreFechas(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Cantidad y monto retenido por mes y estado con fecha en [desde, hasta)
+    @Query("SELECT YEAR(r.fecha), MONTH(r.fecha), r.estado, COUNT(r), COALESCE(SUM(r.montoRetenido), 0) " +
+           "FROM Retencion r WHERE r.fecha >= :desde AND r.fecha < :hasta " +
+           "GROUP BY YEAR(r.fecha), MONTH(r.fecha), r.estado " +
+           "ORDER BY YEAR(r.fecha), MONTH(r.fecha)")
+    List<Object[]> resumenMensualPorEstado(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Búsqueda paginada por prefijo (concepto, razón social o RIF del contribuyente) y estado opcional
+    @EntityGraph(Retencion.GRAFO_CONTRIBUYENTE)
+    @Query(value = "SELECT r FROM Retencion r WHERE " +
+           "(:estado IS NULL OR r.estado = :estado) AND " +
+           "(:prefijo IS NULL OR r.concepto LIKE :prefijo OR r.contribuyente.id IN " +
+           "(SELECT c.id FROM Contribuyente c WHERE c.razonSocial LIKE :prefijo OR c.rif LIKE :prefijo))",
+           countQuery = "SELECT COUNT(r) FROM Retencion r WHERE " +
+           "(:estado IS NULL OR r.estado = :estado) AND " +
+           "(:prefijo IS NULL OR r.concepto LIKE :prefijo OR r.contribuyente.id IN " +
+           "(SELECT c.id FROM Contribuyente c WHERE c.razonSocial LIKE :prefijo OR c.rif LIKE :prefijo))")
+    Page<Retencion> buscarPaginado(@Param("prefijo") String prefijo,
+                                   @Param("estado") Retencion.EstadoRetencion estado,
+                                   Pageable pageable);
 }
@@ -1,12 +1,20 @@
 package com.example.demo.tributario.service;
 
+import com.example.demo.exportacion.service.DefinicionExportacion;
+import com.example.demo.exportacion.service.ExportacionService;
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.exportacion.service.FuentePaginada;
 import com.example.demo.tributario.model.Comprobante;
 import com.example.demo.tributario.repository.ComprobanteRepository;
 import com.example.demo.tributario.repository.ContribuyenteRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -20,6 +28,7 @@ public class ComprobanteService {
     
     private final ComprobanteRepository comprobanteRepository;
     private final ContribuyenteRepository contribuyenteRepository;
+    private final ExportacionService exportacionService;
 
     public List<Comprobante> listarTodos() {
         return comprobanteRepository.findAll();
@@ -138,4 +147,22 @@ public class ComprobanteService {
             "montoTotal", montoTotal.doubleValue()
         );
     }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportar(FormatoExportacion formato, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DefinicionExportacion<Comprobante> definicion = DefinicionExportacion
+                .<Comprobante>de("comprobantes_" + LocalDate.now(), "Comprobantes",
+                        FuentePaginada.porId(comprobanteRepository::findParaExportacion, Comprobante::getId))
+                .columna("Número", Comprobante::getNumero)
+                .columna("Serie", Comprobante::getSerie)
+                .columna("Tipo", Comprobante::getTipo)
+                .columna("Contribuyente", c -> c.getContribuyente() != null ? c.getContribuyente().getRazonSocial() : "")
+                .columna("RUC", c -> c.getContribuyente() != null ? c.getContribuyente().getRif() : "")
+                .columna("Fecha Emisión", Comprobante::getFechaEmision)
+                .columna("Subtotal", Comprobante::getSubtotal)
+                .columna("Impuesto", Comprobante::getImpuesto)
+                .columna("Total", Comprobante::getTotal)
+                .columna("Estado", c -> c.getEstado().getDescripcion());
+        exportacionService.exportar(definicion, formato, request, response);
+    }
 }
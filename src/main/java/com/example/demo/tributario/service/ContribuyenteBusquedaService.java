@@ -0,0 +1,460 @@
+package com.example.demo.tributario.service;
+
+import com.example.demo.tributario.dto.ContribuyenteSugerenciaDTO;
+import com.example.demo.tributario.model.Contribuyente;
+import com.example.demo.tributario.repository.ContribuyenteRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Búsqueda de contribuyentes activos sobre un índice en memoria (typeahead).
+ * Indexa RIF, razón social, nombre y apellido normalizados (sin acentos ni mayúsculas)
+ * por palabra, para búsqueda por prefijo, y por trigramas, para coincidencias parciales
+ * o con errores de tipeo cuando los prefijos no alcanzan.
+ * ContribuyenteService registra los cambios al confirmar la transacción; la recarga
+ * periódica recoge los cambios hechos por otras instancias.
+ */
+@Service
+@Slf4j
+public class ContribuyenteBusquedaService {
+
+    public static final int LIMITE_MAXIMO = 50;
+
+    // Similitud mínima (trigramas compartidos / trigramas de la consulta) para aceptar una coincidencia parcial
+    private static final double SIMILITUD_MINIMA = 0.4;
+
+    // Trigramas presentes en más contribuyentes que esto no discriminan y se ignoran
+    private static final int MAXIMO_POR_TRIGRAMA = 2000;
+
+    // Las coincidencias por prefijo (base + palabras) siempre superan a las de trigramas (hasta PUNTAJE_TRIGRAMAS)
+    private static final int PUNTAJE_RIF = 3000;
+    private static final int PUNTAJE_INICIO_NOMBRE = 1500;
+    private static final int PUNTAJE_PREFIJO = 200;
+    private static final int PUNTAJE_PALABRA_EXACTA = 20;
+    private static final int PUNTAJE_PALABRA_PREFIJO = 10;
+    private static final int PUNTAJE_TRIGRAMAS = 100;
+
+    private final ContribuyenteRepository contribuyenteRepository;
+    private final Timer tiempoBusqueda;
+
+    private volatile Indice indice = new Indice();
+
+    // Cambios aplicados mientras se construye un índice nuevo; se reaplican sobre él antes de publicarlo
+    private List<Cambio> cambiosDuranteRecarga;
+
+    public ContribuyenteBusquedaService(ContribuyenteRepository contribuyenteRepository, MeterRegistry meterRegistry) {
+        this.contribuyenteRepository = contribuyenteRepository;
+        Gauge.builder("contribuyentes.indice.entradas", this, servicio -> servicio.indice.entradas.size())
+                .description("Contribuyentes activos en el índice de búsqueda")
+                .register(meterRegistry);
+        this.tiempoBusqueda = Timer.builder("contribuyentes.indice.busqueda")
+                .register(meterRegistry);
+    }
+
+    // ==================== BÚSQUEDA ====================
+
+    /**
+     * Devuelve hasta limite contribuyentes activos que coinciden con el texto, del más al menos relevante:
+     * RIF que empieza con el texto, nombre que empieza con el texto, palabras que empiezan con cada palabra
+     * del texto y, si faltan resultados, coincidencias por trigramas.
+     */
+    public List<ContribuyenteSugerenciaDTO> sugerir(String texto, int limite) {
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return List.of();
+        }
+        int k = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        Timer.Sample muestra = Timer.start();
+        try {
+            return indice.buscar(normalizado, k);
+        } finally {
+            muestra.stop(tiempoBusqueda);
+        }
+    }
+
+    // ==================== ACTUALIZACIÓN ====================
+
+    /**
+     * Refleja el estado del contribuyente en el índice (los inactivos se quitan).
+     * Con transacción activa se aplica al confirmarla.
+     */
+    public void registrarCambio(Contribuyente contribuyente) {
+        Cambio cambio = Boolean.TRUE.equals(contribuyente.getActivo())
+                ? new Cambio(contribuyente.getId(), Entrada.de(contribuyente.getId(), contribuyente.getRif(),
+                        contribuyente.getRazonSocial(), contribuyente.getNombre(), contribuyente.getApellido()))
+                : new Cambio(contribuyente.getId(), null);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(cambio);
+                }
+            });
+        } else {
+            aplicar(cambio);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            cargar();
+            log.info("Índice de búsqueda de contribuyentes cargado: {} entradas", indice.entradas.size());
+        } catch (Exception e) {
+            log.error("No se pudo cargar el índice de búsqueda de contribuyentes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recoge los cambios hechos por otras instancias
+     */
+    @Scheduled(fixedDelayString = "${contribuyentes.indice.recarga-ms:300000}",
+               initialDelayString = "${contribuyentes.indice.recarga-ms:300000}")
+    public void recargar() {
+        try {
+            cargar();
+        } catch (Exception e) {
+            log.warn("No se pudo recargar el índice de búsqueda de contribuyentes: {}", e.getMessage());
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Construye un índice nuevo desde la base de datos y lo publica de una vez;
+     * si la carga falla se conserva el índice actual
+     */
+    private void cargar() {
+        synchronized (this) {
+            cambiosDuranteRecarga = new ArrayList<>();
+        }
+        Indice nuevo = new Indice();
+        try {
+            for (Object[] fila : contribuyenteRepository.findDatosBusquedaActivos()) {
+                nuevo.agregar(Entrada.de((Long) fila[0], (String) fila[1], (String) fila[2], (String) fila[3], (String) fila[4]));
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                cambiosDuranteRecarga = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            cambiosDuranteRecarga.forEach(nuevo::aplicar);
+            cambiosDuranteRecarga = null;
+            indice = nuevo;
+        }
+    }
+
+    private synchronized void aplicar(Cambio cambio) {
+        indice.aplicar(cambio);
+        if (cambiosDuranteRecarga != null) {
+            cambiosDuranteRecarga.add(cambio);
+        }
+    }
+
+    /**
+     * Minúsculas, sin acentos y con cualquier carácter que no sea letra o dígito convertido en espacio
+     */
+    static String normalizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return "";
+        }
+        String sinAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder resultado = new StringBuilder(sinAcentos.length());
+        boolean espacio = true;
+        for (int i = 0; i < sinAcentos.length(); i++) {
+            char c = sinAcentos.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                resultado.append(Character.toLowerCase(c));
+                espacio = false;
+            } else if (!espacio) {
+                resultado.append(' ');
+                espacio = true;
+            }
+        }
+        int fin = resultado.length();
+        return fin > 0 && resultado.charAt(fin - 1) == ' ' ? resultado.substring(0, fin - 1) : resultado.toString();
+    }
+
+    private static List<String> palabras(String normalizado) {
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : normalizado.split(" ")) {
+            if (!palabra.isEmpty()) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+
+    private static Set<String> trigramas(List<String> palabras) {
+        Set<String> trigramas = new HashSet<>();
+        for (String palabra : palabras) {
+            // Con relleno, para que las palabras cortas y los bordes también aporten trigramas
+            String conBordes = "  " + palabra + " ";
+            for (int i = 0; i + 3 <= conBordes.length(); i++) {
+                trigramas.add(conBordes.substring(i, i + 3));
+            }
+        }
+        return trigramas;
+    }
+
+    /**
+     * Contribuyente indexado: datos para mostrar y claves de búsqueda precalculadas
+     */
+    private record Entrada(Long id, String rif, String razonSocial, String nombre, String apellido,
+                           String rifCompacto, String texto, Set<String> palabras, Set<String> trigramas) {
+
+        static Entrada de(Long id, String rif, String razonSocial, String nombre, String apellido) {
+            String rifCompacto = normalizar(rif).replace(" ", "");
+            String nombreMostrado = razonSocial != null && !razonSocial.isBlank()
+                    ? razonSocial
+                    : (nombre != null ? nombre : "") + " " + (apellido != null ? apellido : "");
+            String texto = normalizar(nombreMostrado);
+
+            Set<String> palabras = new LinkedHashSet<>(ContribuyenteBusquedaService.palabras(texto));
+            palabras.addAll(ContribuyenteBusquedaService.palabras(normalizar(nombre)));
+            palabras.addAll(ContribuyenteBusquedaService.palabras(normalizar(apellido)));
+            if (!rifCompacto.isEmpty()) {
+                palabras.add(rifCompacto);
+                // Solo los dígitos, para encontrar el RIF sin la letra inicial
+                String digitos = rifCompacto.replaceAll("\\D", "");
+                if (!digitos.isEmpty()) {
+                    palabras.add(digitos);
+                }
+            }
+            Set<String> trigramas = ContribuyenteBusquedaService.trigramas(new ArrayList<>(palabras));
+            return new Entrada(id, rif, razonSocial, nombre, apellido, rifCompacto, texto,
+                    Collections.unmodifiableSet(palabras), Collections.unmodifiableSet(trigramas));
+        }
+
+        ContribuyenteSugerenciaDTO aSugerencia() {
+            return ContribuyenteSugerenciaDTO.builder()
+                    .id(id)
+                    .rif(rif)
+                    .razonSocial(razonSocial)
+                    .nombre(nombre)
+                    .apellido(apellido)
+                    .build();
+        }
+    }
+
+    /**
+     * Alta o modificación (entrada no nula) o baja (entrada nula) de un contribuyente
+     */
+    private record Cambio(Long id, Entrada entrada) {
+    }
+
+    private record Resultado(Entrada entrada, int puntaje) {
+    }
+
+    private static final Comparator<Resultado> MENOS_RELEVANTE_PRIMERO = Comparator
+            .comparingInt(Resultado::puntaje)
+            .thenComparing(r -> r.entrada().texto().length(), Comparator.reverseOrder())
+            .thenComparing(r -> r.entrada().id(), Comparator.reverseOrder());
+
+    /**
+     * Estructuras del índice. Las modificaciones se serializan en el servicio;
+     * las búsquedas leen sin bloqueo sobre colecciones concurrentes.
+     */
+    private static final class Indice {
+
+        private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, Set<Long>> porPalabra = new ConcurrentSkipListMap<>();
+        private final Map<String, Set<Long>> porTrigrama = new ConcurrentHashMap<>();
+
+        void aplicar(Cambio cambio) {
+            quitar(cambio.id());
+            if (cambio.entrada() != null) {
+                agregar(cambio.entrada());
+            }
+        }
+
+        void agregar(Entrada entrada) {
+            quitar(entrada.id());
+            entradas.put(entrada.id(), entrada);
+            for (String palabra : entrada.palabras()) {
+                porPalabra.computeIfAbsent(palabra, p -> ConcurrentHashMap.newKeySet()).add(entrada.id());
+            }
+            for (String trigrama : entrada.trigramas()) {
+                porTrigrama.computeIfAbsent(trigrama, t -> ConcurrentHashMap.newKeySet()).add(entrada.id());
+            }
+        }
+
+        void quitar(Long id) {
+            Entrada anterior = entradas.remove(id);
+            if (anterior == null) {
+                return;
+            }
+            for (String palabra : anterior.palabras()) {
+                quitarDe(porPalabra, palabra, id);
+            }
+            for (String trigrama : anterior.trigramas()) {
+                quitarDe(porTrigrama, trigrama, id);
+            }
+        }
+
+        List<ContribuyenteSugerenciaDTO> buscar(String normalizado, int k) {
+            List<String> consulta = palabras(normalizado);
+            String compacto = normalizado.replace(" ", "");
+            PriorityQueue<Resultado> mejores = new PriorityQueue<>(k + 1, MENOS_RELEVANTE_PRIMERO);
+            Set<Long> vistos = new HashSet<>();
+
+            // Candidatos por prefijo: se recorren los de la palabra más selectiva y el resto se verifica por entrada
+            NavigableMap<String, Set<Long>> conPrefijo = null;
+            long menor = Long.MAX_VALUE;
+            for (String palabra : consulta) {
+                NavigableMap<String, Set<Long>> candidatos = porPalabra.subMap(palabra, true,
+                        palabra + Character.MAX_VALUE, false);
+                long cantidad = contar(candidatos, menor);
+                if (cantidad < menor) {
+                    menor = cantidad;
+                    conPrefijo = candidatos;
+                }
+            }
+            // Solo las que puntúan por prefijo quedan fuera de los trigramas: las demás pueden ser errores de tipeo
+            Set<Long> revisados = new HashSet<>();
+            for (Set<Long> ids : conPrefijo.values()) {
+                for (Long id : ids) {
+                    Entrada entrada = entradas.get(id);
+                    if (entrada == null || !revisados.add(id)) {
+                        continue;
+                    }
+                    int puntaje = puntajePorPrefijo(entrada, consulta, normalizado, compacto);
+                    if (puntaje > 0) {
+                        vistos.add(id);
+                        ofrecer(mejores, new Resultado(entrada, puntaje), k);
+                    }
+                }
+            }
+
+            if (mejores.size() < k && normalizado.length() >= 3) {
+                buscarPorTrigramas(consulta, vistos, mejores, k);
+            }
+
+            List<Resultado> ordenados = new ArrayList<>(mejores);
+            ordenados.sort(MENOS_RELEVANTE_PRIMERO.reversed());
+            List<ContribuyenteSugerenciaDTO> sugerencias = new ArrayList<>(ordenados.size());
+            for (Resultado resultado : ordenados) {
+                sugerencias.add(resultado.entrada().aSugerencia());
+            }
+            return sugerencias;
+        }
+
+        /**
+         * Puntaje de una entrada en la que cada palabra de la consulta es prefijo de alguna palabra indexada; 0 si no
+         */
+        private int puntajePorPrefijo(Entrada entrada, List<String> consulta, String normalizado, String compacto) {
+            int puntaje = 0;
+            for (String buscada : consulta) {
+                int mejor = 0;
+                for (String palabra : entrada.palabras()) {
+                    if (palabra.equals(buscada)) {
+                        mejor = PUNTAJE_PALABRA_EXACTA;
+                        break;
+                    }
+                    if (palabra.startsWith(buscada)) {
+                        mejor = PUNTAJE_PALABRA_PREFIJO;
+                    }
+                }
+                if (mejor == 0) {
+                    return 0;
+                }
+                puntaje += mejor;
+            }
+            puntaje += PUNTAJE_PREFIJO;
+            if (!entrada.rifCompacto().isEmpty() && entrada.rifCompacto().startsWith(compacto)) {
+                puntaje += PUNTAJE_RIF;
+            }
+            if (entrada.texto().startsWith(normalizado)) {
+                puntaje += PUNTAJE_INICIO_NOMBRE;
+            }
+            return puntaje;
+        }
+
+        private void buscarPorTrigramas(List<String> consulta, Set<Long> vistos, PriorityQueue<Resultado> mejores, int k) {
+            // Solo cuentan los trigramas selectivos; los muy frecuentes ("com", "  a"...) no distinguen candidatos
+            int considerados = 0;
+            Map<Long, Integer> compartidos = new HashMap<>();
+            for (String trigrama : trigramas(consulta)) {
+                Set<Long> ids = porTrigrama.get(trigrama);
+                if (ids != null && ids.size() > MAXIMO_POR_TRIGRAMA) {
+                    continue;
+                }
+                considerados++;
+                if (ids != null) {
+                    for (Long id : ids) {
+                        if (!vistos.contains(id)) {
+                            compartidos.merge(id, 1, Integer::sum);
+                        }
+                    }
+                }
+            }
+            if (considerados < 2) {
+                return;
+            }
+            for (Map.Entry<Long, Integer> candidato : compartidos.entrySet()) {
+                double similitud = (double) candidato.getValue() / considerados;
+                Entrada entrada = entradas.get(candidato.getKey());
+                if (similitud >= SIMILITUD_MINIMA && entrada != null) {
+                    ofrecer(mejores, new Resultado(entrada, (int) Math.round(similitud * PUNTAJE_TRIGRAMAS)), k);
+                }
+            }
+        }
+
+        /**
+         * Cantidad de ids bajo el prefijo, sin seguir contando una vez alcanzado el límite
+         */
+        private static long contar(NavigableMap<String, Set<Long>> candidatos, long limite) {
+            long cantidad = 0;
+            for (Set<Long> ids : candidatos.values()) {
+                cantidad += ids.size();
+                if (cantidad >= limite) {
+                    break;
+                }
+            }
+            return cantidad;
+        }
+
+        private static void ofrecer(PriorityQueue<Resultado> mejores, Resultado resultado, int k) {
+            mejores.offer(resultado);
+            if (mejores.size() > k) {
+                mejores.poll();
+            }
+        }
+
+        private static void quitarDe(Map<String, Set<Long>> mapa, String clave, Long id) {
+            mapa.computeIfPresent(clave, (c, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
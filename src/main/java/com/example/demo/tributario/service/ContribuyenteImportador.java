@@ -0,0 +1,152 @@
+package com.example.demo.tributario.service;
+
+import com.example.demo.importacion.service.FilaImportacion;
+import com.example.demo.importacion.service.Importador;
+import com.example.demo.tributario.model.Contribuyente;
+import com.example.demo.tributario.repository.ContribuyenteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.regex.Pattern;
+
+/**
+ * Importación masiva de contribuyentes. Mismas reglas que el alta individual (RIF único,
+ * dirección y email obligatorios) pero con los RIF existentes precargados en memoria
+ * y alta por batch JDBC. El índice de búsqueda se recarga al terminar.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContribuyenteImportador implements Importador<Contribuyente> {
+
+    // Mismo formato que ContribuyenteDTO
+    private static final Pattern FORMATO_RIF = Pattern.compile("[VJEGPRC]-\\d{8}-\\d");
+    private static final Pattern FORMATO_EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO contribuyentes (rif, razon_social, nombre, apellido, direccion, telefono, email, " +
+            "tipo_contribuyente, representante_legal, activo, creado_en) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Igual que hibernate.jdbc.time_zone
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    private final ContribuyenteRepository contribuyenteRepository;
+    private final ContribuyenteBusquedaService contribuyenteBusquedaService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String getTipo() {
+        return "contribuyentes";
+    }
+
+    @Override
+    public List<String> getColumnasObligatorias() {
+        return List.of("rif", "direccion", "email");
+    }
+
+    @Override
+    public Sesion<Contribuyente> iniciar(String usuario) {
+        Set<String> existentes = new HashSet<>();
+        for (Object[] fila : contribuyenteRepository.findIdsPorRif()) {
+            existentes.add(((String) fila[0]).toUpperCase(Locale.ROOT));
+        }
+        return new SesionContribuyentes(existentes);
+    }
+
+    private final class SesionContribuyentes implements Sesion<Contribuyente> {
+
+        private final Set<String> existentes;
+        private final Set<String> vistos = new HashSet<>();
+
+        private SesionContribuyentes(Set<String> existentes) {
+            this.existentes = existentes;
+        }
+
+        @Override
+        public Contribuyente validar(FilaImportacion fila, List<String> errores) {
+            String rif = fila.obligatorio("rif", errores);
+            if (rif != null) {
+                rif = rif.toUpperCase(Locale.ROOT);
+                if (!FORMATO_RIF.matcher(rif).matches()) {
+                    errores.add("rif: debe tener formato V-12345678-9");
+                } else if (existentes.contains(rif)) {
+                    errores.add("Ya existe un contribuyente con el RIF: " + rif);
+                }
+            }
+            String email = fila.obligatorio("email", errores);
+            if (email != null && (email.length() > 150 || !FORMATO_EMAIL.matcher(email).matches())) {
+                errores.add("email: formato inválido");
+            }
+            String direccion = fila.obligatorio("direccion", errores);
+            if (direccion != null && direccion.length() > 255) {
+                errores.add("direccion: supera 255 caracteres");
+            }
+            String razonSocial = fila.texto("razon_social", 200, errores);
+            String nombre = fila.texto("nombre", 100, errores);
+            if (razonSocial == null && nombre == null) {
+                errores.add("razon_social o nombre: se requiere al menos uno");
+            }
+            Contribuyente.TipoContribuyente tipo = fila.enumerado("tipo_contribuyente",
+                    Contribuyente.TipoContribuyente.class, Contribuyente.TipoContribuyente.PERSONA_NATURAL, errores);
+
+            Contribuyente contribuyente = Contribuyente.builder()
+                    .rif(rif)
+                    .razonSocial(razonSocial)
+                    .nombre(nombre)
+                    .apellido(fila.texto("apellido", 100, errores))
+                    .direccion(direccion)
+                    .telefono(fila.texto("telefono", 40, errores))
+                    .email(email)
+                    .tipoContribuyente(tipo)
+                    .representanteLegal(fila.texto("representante_legal", 200, errores))
+                    .activo(true)
+                    .build();
+            return errores.isEmpty() ? contribuyente : null;
+        }
+
+        @Override
+        public String registrar(Contribuyente contribuyente) {
+            return vistos.add(contribuyente.getRif())
+                    ? null
+                    : "RIF repetido en el archivo: " + contribuyente.getRif();
+        }
+
+        @Override
+        public void liberar(Contribuyente contribuyente) {
+            vistos.remove(contribuyente.getRif());
+        }
+
+        @Override
+        public void escribir(List<Contribuyente> contribuyentes) {
+            Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(SQL_INSERTAR, contribuyentes, contribuyentes.size(), (ps, c) -> {
+                ps.setString(1, c.getRif());
+                ps.setString(2, c.getRazonSocial());
+                ps.setString(3, c.getNombre());
+                ps.setString(4, c.getApellido());
+                ps.setString(5, c.getDireccion());
+                ps.setString(6, c.getTelefono());
+                ps.setString(7, c.getEmail());
+                ps.setString(8, c.getTipoContribuyente().name());
+                ps.setString(9, c.getRepresentanteLegal());
+                ps.setBoolean(10, true);
+                ps.setTimestamp(11, ahora, Calendar.getInstance(ZONA_JDBC));
+            });
+        }
+
+        @Override
+        public void finalizar(long importados) {
+            if (importados > 0) {
+                contribuyenteBusquedaService.recargar();
+            }
+        }
+    }
+}
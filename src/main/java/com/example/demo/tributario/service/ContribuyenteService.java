@@ -1,13 +1,22 @@
 package com.example.demo.tributario.service;
 
+import com.example.demo.exportacion.service.DefinicionExportacion;
+import com.example.demo.exportacion.service.ExportacionService;
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.exportacion.service.FuentePaginada;
+import com.example.demo.tributario.dto.ContribuyenteSugerenciaDTO;
 import com.example.demo.tributario.model.Contribuyente;
 import com.example.demo.tributario.repository.ContribuyenteRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,6 +27,8 @@ import java.util.Optional;
 public class ContribuyenteService {
     
     private final ContribuyenteRepository contribuyenteRepository;
+    private final ExportacionService exportacionService;
+    private final ContribuyenteBusquedaService contribuyenteBusquedaService;
 
     public List<Contribuyente> listarTodos() {
         return contribuyenteRepository.findAll();
@@ -39,6 +50,13 @@ public class ContribuyenteService {
         return contribuyenteRepository.buscarPorTermino(termino);
     }
 
+    /**
+     * Sugerencias para los campos de contribuyente de los formularios, desde el índice en memoria
+     */
+    public List<ContribuyenteSugerenciaDTO> sugerir(String texto, int limite) {
+        return contribuyenteBusquedaService.sugerir(texto, limite);
+    }
+
     public Page<Contribuyente> buscarConFiltros(String termino, Contribuyente.TipoContribuyente tipo, 
                                                Boolean activo, Pageable pageable) {
         return contribuyenteRepository.buscarConFiltros(termino, tipo, activo, pageable);
@@ -50,7 +68,9 @@ public class ContribuyenteService {
             throw new IllegalArgumentException("Ya existe un contribuyente con el RIF: " + contribuyente.getRif());
         }
         
-        return contribuyenteRepository.save(contribuyente);
+        Contribuyente guardado = contribuyenteRepository.save(contribuyente);
+        contribuyenteBusquedaService.registrarCambio(guardado);
+        return guardado;
     }
 
     public Contribuyente actualizar(Long id, Contribuyente contribuyenteActualizado) {
@@ -72,7 +92,9 @@ public class ContribuyenteService {
         contribuyenteExistente.setTipoContribuyente(contribuyenteActualizado.getTipoContribuyente());
         contribuyenteExistente.setRepresentanteLegal(contribuyenteActualizado.getRepresentanteLegal());
 
-        return contribuyenteRepository.save(contribuyenteExistente);
+        Contribuyente guardado = contribuyenteRepository.save(contribuyenteExistente);
+        contribuyenteBusquedaService.registrarCambio(guardado);
+        return guardado;
     }
 
     public void cambiarEstado(Long id, Boolean nuevoEstado) {
@@ -81,6 +103,7 @@ public class ContribuyenteService {
         
         contribuyente.setActivo(nuevoEstado);
         contribuyenteRepository.save(contribuyente);
+        contribuyenteBusquedaService.registrarCambio(contribuyente);
     }
 
 
@@ -100,4 +123,22 @@ public class ContribuyenteService {
     public List<Contribuyente> listarPorTipo(Contribuyente.TipoContribuyente tipo) {
         return contribuyenteRepository.findByTipoContribuyente(tipo);
     }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportar(FormatoExportacion formato, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DefinicionExportacion<Contribuyente> definicion = DefinicionExportacion
+                .<Contribuyente>de("contribuyentes", "Contribuyentes",
+                        FuentePaginada.porId(contribuyenteRepository::findParaExportacion, Contribuyente::getId))
+                .columna("ID", Contribuyente::getId)
+                .columna("RUC", Contribuyente::getRif)
+                .columna("Razón Social", Contribuyente::getRazonSocial)
+                .columna("Tipo", c -> c.getTipoContribuyente().getDescripcion())
+                .columna("Dirección", Contribuyente::getDireccion)
+                .columna("Email", Contribuyente::getEmail)
+                .columna("Teléfono", Contribuyente::getTelefono)
+                .columna("Representante Legal", Contribuyente::getRepresentanteLegal)
+                .columna("Estado", c -> c.getActivo() ? "Activo" : "Inactivo")
+                .columna("Fecha Creación", Contribuyente::getCreadoEn);
+        exportacionService.exportar(definicion, formato, request, response);
+    }
 }
@@ -0,0 +1,195 @@
+package com.example.demo.tributario.service;
+
+import com.example.demo.importacion.service.FilaImportacion;
+import com.example.demo.importacion.service.Importador;
+import com.example.demo.numeracion.service.IdentificadorService;
+import com.example.demo.tributario.model.Impuesto;
+import com.example.demo.tributario.repository.ContribuyenteRepository;
+import com.example.demo.tributario.repository.DeclaracionRepository;
+import com.example.demo.tributario.repository.ImpuestoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Importación masiva de declaraciones. El contribuyente se resuelve por RIF y el impuesto
+ * por código desde mapas precargados; se rechaza una segunda declaración del mismo
+ * contribuyente, impuesto y período, ya sea en la base de datos o en el archivo.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeclaracionImportador implements Importador<DeclaracionImportador.FilaDeclaracion> {
+
+    private static final String ESTADO_INICIAL = "PENDIENTE";
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO declaraciones (id, contribuyente_id, impuesto_id, periodo, base_imponible, monto, estado, " +
+            "creado_en) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Misma secuencia que el @TableGenerator de Declaracion
+    private static final String SECUENCIA_ID = "declaraciones";
+
+    // Igual que hibernate.jdbc.time_zone
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    private final ContribuyenteRepository contribuyenteRepository;
+    private final ImpuestoRepository impuestoRepository;
+    private final DeclaracionRepository declaracionRepository;
+    private final IdentificadorService identificadorService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String getTipo() {
+        return "declaraciones";
+    }
+
+    @Override
+    public List<String> getColumnasObligatorias() {
+        return List.of("rif", "impuesto", "periodo", "monto");
+    }
+
+    @Override
+    public Sesion<FilaDeclaracion> iniciar(String usuario) {
+        Map<String, Long> contribuyentes = new HashMap<>();
+        for (Object[] fila : contribuyenteRepository.findIdsPorRif()) {
+            contribuyentes.put(((String) fila[0]).toUpperCase(Locale.ROOT), (Long) fila[1]);
+        }
+        Map<String, Long> impuestos = new HashMap<>();
+        for (Impuesto impuesto : impuestoRepository.findAll()) {
+            impuestos.put(impuesto.getCodigo().toUpperCase(Locale.ROOT), impuesto.getId());
+        }
+        Set<String> existentes = new HashSet<>();
+        for (Object[] fila : declaracionRepository.findClavesPeriodo()) {
+            existentes.add(clave((Long) fila[0], (Long) fila[1], (String) fila[2]));
+        }
+        return new SesionDeclaraciones(contribuyentes, impuestos, existentes);
+    }
+
+    /**
+     * Declaración validada, con contribuyente e impuesto ya resueltos
+     */
+    public record FilaDeclaracion(Long contribuyenteId, Long impuestoId, String periodo,
+                                  BigDecimal baseImponible, BigDecimal monto, String estado) {
+    }
+
+    private static String clave(Long contribuyenteId, Long impuestoId, String periodo) {
+        return contribuyenteId + "|" + impuestoId + "|" + periodo;
+    }
+
+    private final class SesionDeclaraciones implements Sesion<FilaDeclaracion> {
+
+        private final Map<String, Long> contribuyentes;
+        private final Map<String, Long> impuestos;
+        private final Set<String> existentes;
+        private final Set<String> vistas = new HashSet<>();
+
+        private SesionDeclaraciones(Map<String, Long> contribuyentes, Map<String, Long> impuestos,
+                                    Set<String> existentes) {
+            this.contribuyentes = contribuyentes;
+            this.impuestos = impuestos;
+            this.existentes = existentes;
+        }
+
+        @Override
+        public FilaDeclaracion validar(FilaImportacion fila, List<String> errores) {
+            Long contribuyenteId = null;
+            String rif = fila.obligatorio("rif", errores);
+            if (rif != null) {
+                contribuyenteId = contribuyentes.get(rif.toUpperCase(Locale.ROOT));
+                if (contribuyenteId == null) {
+                    errores.add("No existe un contribuyente con el RIF: " + rif);
+                }
+            }
+
+            Long impuestoId = null;
+            String codigo = fila.obligatorio("impuesto", errores);
+            if (codigo != null) {
+                impuestoId = impuestos.get(codigo.toUpperCase(Locale.ROOT));
+                if (impuestoId == null) {
+                    errores.add("No existe un impuesto con el código: " + codigo);
+                }
+            }
+
+            String periodo = fila.obligatorio("periodo", errores);
+            if (periodo != null && periodo.length() > 20) {
+                errores.add("periodo: supera 20 caracteres");
+            }
+
+            BigDecimal monto = fila.decimal("monto", errores);
+            if (monto == null && fila.texto("monto") == null) {
+                errores.add("monto: es obligatorio");
+            } else if (monto != null && monto.signum() < 0) {
+                errores.add("monto: no puede ser negativo");
+            }
+            BigDecimal baseImponible = fila.decimal("base_imponible", errores);
+            if (baseImponible != null && baseImponible.signum() < 0) {
+                errores.add("base_imponible: no puede ser negativa");
+            }
+
+            String estado = fila.texto("estado", 20, errores);
+
+            if (!errores.isEmpty()) {
+                return null;
+            }
+            if (existentes.contains(clave(contribuyenteId, impuestoId, periodo))) {
+                errores.add("Ya existe una declaración del contribuyente para ese impuesto y período");
+                return null;
+            }
+            return new FilaDeclaracion(contribuyenteId, impuestoId, periodo,
+                    baseImponible != null ? baseImponible : BigDecimal.ZERO, monto,
+                    estado != null ? estado.toUpperCase(Locale.ROOT) : ESTADO_INICIAL);
+        }
+
+        @Override
+        public String registrar(FilaDeclaracion declaracion) {
+            return vistas.add(clave(declaracion.contribuyenteId(), declaracion.impuestoId(), declaracion.periodo()))
+                    ? null
+                    : "Declaración repetida en el archivo (contribuyente, impuesto y período)";
+        }
+
+        @Override
+        public void liberar(FilaDeclaracion declaracion) {
+            vistas.remove(clave(declaracion.contribuyenteId(), declaracion.impuestoId(), declaracion.periodo()));
+        }
+
+        @Override
+        public void escribir(List<FilaDeclaracion> declaraciones) {
+            Timestamp ahora = Timestamp.from(Instant.now());
+            long primerId = identificadorService.reservar(SECUENCIA_ID, declaraciones.size());
+            jdbcTemplate.batchUpdate(SQL_INSERTAR, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    FilaDeclaracion declaracion = declaraciones.get(i);
+                    ps.setLong(1, primerId + i);
+                    ps.setLong(2, declaracion.contribuyenteId());
+                    ps.setLong(3, declaracion.impuestoId());
+                    ps.setString(4, declaracion.periodo());
+                    ps.setBigDecimal(5, declaracion.baseImponible());
+                    ps.setBigDecimal(6, declaracion.monto());
+                    ps.setString(7, declaracion.estado());
+                    ps.setTimestamp(8, ahora, Calendar.getInstance(ZONA_JDBC));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return declaraciones.size();
+                }
+            });
+        }
+    }
+}
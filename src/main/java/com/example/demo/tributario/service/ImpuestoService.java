@@ -1,11 +1,19 @@
 package com.example.demo.tributario.service;
 
+import com.example.demo.exportacion.service.DefinicionExportacion;
+import com.example.demo.exportacion.service.ExportacionService;
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.exportacion.service.FuentePaginada;
 import com.example.demo.tributario.model.Impuesto;
 import com.example.demo.tributario.repository.ImpuestoRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +25,7 @@ import java.util.Optional;
 public class ImpuestoService {
     
     private final ImpuestoRepository impuestoRepository;
+    private final ExportacionService exportacionService;
 
     public List<Impuesto> listarTodos() {
         return impuestoRepository.findAll();
@@ -110,4 +119,16 @@ public class ImpuestoService {
             "tasaPromedio", tasaPromedio.doubleValue()
         );
     }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportar(FormatoExportacion formato, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DefinicionExportacion<Impuesto> definicion = DefinicionExportacion
+                .<Impuesto>de("impuestos", "Impuestos",
+                        FuentePaginada.porId(impuestoRepository::findParaExportacion, Impuesto::getId))
+                .columna("ID", Impuesto::getId)
+                .columna("Código", Impuesto::getCodigo)
+                .columna("Nombre", Impuesto::getNombre)
+                .columna("Tasa (%)", Impuesto::getTasa);
+        exportacionService.exportar(definicion, formato, request, response);
+    }
 }
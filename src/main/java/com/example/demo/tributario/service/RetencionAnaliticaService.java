@@ -0,0 +1,146 @@
+package com.example.demo.tributario.service;
+
+import com.example.demo.tributario.model.Retencion;
+import com.example.demo.tributario.repository.RetencionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estadísticas y búsqueda de retenciones resueltas en la base de datos.
+ * Los conteos y sumas se calculan con consultas agrupadas y la búsqueda es paginada
+ * sobre columnas indexadas, de modo que ni el tiempo de respuesta ni la memoria
+ * dependen de la cantidad de retenciones registradas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class RetencionAnaliticaService {
+
+    public static final int TAMANO_MAXIMO_PAGINA = 100;
+    public static final int MESES_MAXIMOS = 36;
+
+    private final RetencionRepository retencionRepository;
+
+    /**
+     * Totales generales, por estado y del mes actual
+     */
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<Retencion.EstadoRetencion, Object[]> porEstado = new EnumMap<>(Retencion.EstadoRetencion.class);
+        for (Object[] fila : retencionRepository.resumenPorEstado()) {
+            if (fila[0] != null) {
+                porEstado.put((Retencion.EstadoRetencion) fila[0], fila);
+            }
+        }
+
+        long total = 0;
+        for (Object[] fila : porEstado.values()) {
+            total += cantidad(fila);
+        }
+        BigDecimal totalPendiente = monto(porEstado.get(Retencion.EstadoRetencion.PENDIENTE));
+        BigDecimal totalAplicado = monto(porEstado.get(Retencion.EstadoRetencion.APLICADA));
+
+        YearMonth mes = YearMonth.now();
+        long esteMes = retencionRepository.contarEntreFechas(mes.atDay(1), mes.plusMonths(1).atDay(1));
+
+        Map<String, Object> estadisticas = new HashMap<>();
+        estadisticas.put("total", total);
+        estadisticas.put("esteMes", esteMes);
+        estadisticas.put("montoTotal", totalPendiente.add(totalAplicado));
+        estadisticas.put("pendientes", cantidad(porEstado.get(Retencion.EstadoRetencion.PENDIENTE)));
+        estadisticas.put("aplicadas", cantidad(porEstado.get(Retencion.EstadoRetencion.APLICADA)));
+        estadisticas.put("anuladas", cantidad(porEstado.get(Retencion.EstadoRetencion.ANULADA)));
+        estadisticas.put("totalPendiente", totalPendiente);
+        estadisticas.put("totalAplicado", totalAplicado);
+        return estadisticas;
+    }
+
+    /**
+     * Cantidad y monto retenido por mes y estado de los últimos meses (incluido el actual).
+     * Los meses sin retenciones aparecen con valores en cero.
+     */
+    public List<Map<String, Object>> obtenerResumenMensual(int meses) {
+        int cantidadMeses = Math.max(1, Math.min(meses, MESES_MAXIMOS));
+        YearMonth hasta = YearMonth.now();
+        YearMonth desde = hasta.minusMonths(cantidadMeses - 1L);
+
+        Map<YearMonth, Map<String, Object>> porMes = new LinkedHashMap<>();
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            porMes.put(mes, mesVacio(mes));
+        }
+
+        List<Object[]> filas = retencionRepository.resumenMensualPorEstado(desde.atDay(1), hasta.plusMonths(1).atDay(1));
+        for (Object[] fila : filas) {
+            YearMonth mes = YearMonth.of(((Number) fila[0]).intValue(), ((Number) fila[1]).intValue());
+            Map<String, Object> resumen = porMes.get(mes);
+            if (resumen == null || fila[2] == null) {
+                continue;
+            }
+            String estado = ((Retencion.EstadoRetencion) fila[2]).name().toLowerCase();
+            long cantidad = ((Number) fila[3]).longValue();
+            BigDecimal monto = (BigDecimal) fila[4];
+            resumen.put(estado, cantidad);
+            resumen.put("monto" + Character.toUpperCase(estado.charAt(0)) + estado.substring(1), monto);
+            resumen.put("total", (Long) resumen.get("total") + cantidad);
+        }
+        return new ArrayList<>(porMes.values());
+    }
+
+    /**
+     * Búsqueda paginada por prefijo de concepto, razón social o RIF y por estado, más recientes primero
+     *
+     * @param termino texto inicial a buscar (null o vacío para no filtrar)
+     * @param estado  estado de la retención (null para no filtrar)
+     */
+    public Page<Retencion> buscar(String termino, Retencion.EstadoRetencion estado, int page, int size) {
+        int tamano = Math.max(1, Math.min(size, TAMANO_MAXIMO_PAGINA));
+        Pageable pageable = PageRequest.of(Math.max(0, page), tamano,
+                Sort.by(Sort.Order.desc("fecha"), Sort.Order.desc("id")));
+        String prefijo = termino != null && !termino.trim().isEmpty() ? escaparLike(termino.trim()) + "%" : null;
+        return retencionRepository.buscarPaginado(prefijo, estado, pageable);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Map<String, Object> mesVacio(YearMonth mes) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("mes", mes.toString());
+        resumen.put("total", 0L);
+        for (Retencion.EstadoRetencion estado : Retencion.EstadoRetencion.values()) {
+            String nombre = estado.name().toLowerCase();
+            resumen.put(nombre, 0L);
+            resumen.put("monto" + Character.toUpperCase(nombre.charAt(0)) + nombre.substring(1), BigDecimal.ZERO);
+        }
+        return resumen;
+    }
+
+    private long cantidad(Object[] fila) {
+        return fila != null ? ((Number) fila[1]).longValue() : 0L;
+    }
+
+    private BigDecimal monto(Object[] fila) {
+        return fila != null && fila[2] != null ? (BigDecimal) fila[2] : BigDecimal.ZERO;
+    }
+
+    /**
+     * Escapa los comodines de LIKE para que el término se busque literalmente
+     */
+    private String escaparLike(String termino) {
+        return termino.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.demo.tributario.service;
 
+import com.example.demo.exportacion.service.DefinicionExportacion;
+import com.example.demo.exportacion.service.ExportacionService;
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.exportacion.service.FuentePaginada;
 import com.example.demo.tributario.model.Retencion;
 import com.example.demo.tributario.model.Contribuyente;
 import com.example.demo.tributario.repository.RetencionRepository;
@@ -9,6 +13,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -21,6 +28,7 @@ public class RetencionService {
     
     private final RetencionRepository retencionRepository;
     private final ContribuyenteRepository contribuyenteRepository;
+    private final ExportacionService exportacionService;
     
     public List<Retencion> obtenerTodas() {
         try {
@@ -132,4 +140,21 @@ public class RetencionService {
             return List.of();
         }
     }
+
+    public void exportar(FormatoExportacion formato, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DefinicionExportacion<Retencion> definicion = DefinicionExportacion
+                .<Retencion>de("retenciones_" + LocalDate.now(), "Retenciones",
+                        FuentePaginada.porId(retencionRepository::findParaExportacion, Retencion::getId))
+                .columna("ID", Retencion::getId)
+                .columna("Contribuyente", r -> r.getContribuyente() != null ? r.getContribuyente().getRazonSocial() : "")
+                .columna("RUC", r -> r.getContribuyente() != null ? r.getContribuyente().getRif() : "")
+                .columna("Concepto", Retencion::getConcepto)
+                .columna("Fecha", Retencion::getFecha)
+                .columna("Porcentaje (%)", Retencion::getPorcentaje)
+                .columna("Monto Base", Retencion::getMontoBase)
+                .columna("Monto Retenido", Retencion::getMontoRetenido)
+                .columna("Estado", r -> r.getEstado().getDescripcion())
+                .columna("Creado En", Retencion::getCreadoEn);
+        exportacionService.exportar(definicion, formato, request, response);
+    }
 }
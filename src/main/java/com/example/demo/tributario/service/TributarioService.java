@@ -1,5 +1,9 @@
 package com.example.demo.tributario.service;
 
+import com.example.demo.exportacion.service.DefinicionExportacion;
+import com.example.demo.exportacion.service.ExportacionService;
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.exportacion.service.FuentePaginada;
 import com.example.demo.tributario.model.*;
 import com.example.demo.tributario.repository.*;
 import com.example.demo.pagos.model.Pago;
@@ -7,12 +11,11 @@ import com.example.demo.pagos.model.MetodoPago;
 import com.example.demo.pagos.model.EstadoPago;
 import com.example.demo.pagos.repository.PagoRepository;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -26,6 +29,7 @@ public class TributarioService {
     private final ImpuestoRepository impuestoRepository;
     private final DeclaracionRepository declaracionRepository;
     private final PagoRepository pagoRepository;
+    private final ExportacionService exportacionService;
 
     public List<Contribuyente> listarContribuyentes(){ return contribuyenteRepository.findByActivoTrue(); }
     public List<Impuesto> listarImpuestos(){ return impuestoRepository.findAll(); }
@@ -99,104 +103,23 @@ public class TributarioService {
         return declaracionRepository.save(declaracion);
     }
 
-    public void exportarDeclaracionesExcel(HttpServletResponse response) throws IOException {
+    public void exportarDeclaraciones(FormatoExportacion formato, HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
-            List<Declaracion> declaraciones = declaracionRepository.findAll();
-            
-            // Crear workbook de Excel
-            Workbook workbook = new XSSFWorkbook();
-            Sheet sheet = workbook.createSheet("Declaraciones");
-            
-            // Estilo para el encabezado
-            CellStyle headerStyle = workbook.createCellStyle();
-            headerStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            
-            Font headerFont = workbook.createFont();
-            headerFont.setColor(IndexedColors.WHITE.getIndex());
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            
-            // Bordes para el encabezado
-            headerStyle.setBorderBottom(BorderStyle.THIN);
-            headerStyle.setBorderTop(BorderStyle.THIN);
-            headerStyle.setBorderRight(BorderStyle.THIN);
-            headerStyle.setBorderLeft(BorderStyle.THIN);
-            
-            // Crear encabezados
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "Contribuyente", "RUC", "Impuesto", "Período", "Base Imponible", "Monto", "Estado", "Fecha Creación"};
-            
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // Estilo para las celdas de datos
-            CellStyle dataStyle = workbook.createCellStyle();
-            dataStyle.setBorderBottom(BorderStyle.THIN);
-            dataStyle.setBorderTop(BorderStyle.THIN);
-            dataStyle.setBorderRight(BorderStyle.THIN);
-            dataStyle.setBorderLeft(BorderStyle.THIN);
-            
-            // Llenar datos
-            int rowNum = 1;
-            for (Declaracion declaracion : declaraciones) {
-                Row row = sheet.createRow(rowNum++);
-                
-                Cell cell0 = row.createCell(0);
-                cell0.setCellValue(declaracion.getId());
-                cell0.setCellStyle(dataStyle);
-                
-                Cell cell1 = row.createCell(1);
-                cell1.setCellValue(declaracion.getContribuyente().getRazonSocial());
-                cell1.setCellStyle(dataStyle);
-                
-                Cell cell2 = row.createCell(2);
-                cell2.setCellValue(declaracion.getContribuyente().getRif());
-                cell2.setCellStyle(dataStyle);
-                
-                Cell cell3 = row.createCell(3);
-                cell3.setCellValue(declaracion.getImpuesto().getNombre());
-                cell3.setCellStyle(dataStyle);
-                
-                Cell cell4 = row.createCell(4);
-                cell4.setCellValue(declaracion.getPeriodo());
-                cell4.setCellStyle(dataStyle);
-                
-                Cell cell5 = row.createCell(5);
-                cell5.setCellValue(declaracion.getBaseImponible().doubleValue());
-                cell5.setCellStyle(dataStyle);
-                
-                Cell cell6 = row.createCell(6);
-                cell6.setCellValue(declaracion.getMonto().doubleValue());
-                cell6.setCellStyle(dataStyle);
-                
-                Cell cell7 = row.createCell(7);
-                cell7.setCellValue(declaracion.getEstado());
-                cell7.setCellStyle(dataStyle);
-                
-                Cell cell8 = row.createCell(8);
-                cell8.setCellValue(declaracion.getCreadoEn().toString());
-                cell8.setCellStyle(dataStyle);
-            }
-            
-            // Auto-ajustar el ancho de las columnas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            // Configurar respuesta HTTP
-            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-            response.setHeader("Content-Disposition", "attachment; filename=\"declaraciones.xlsx\"");
-            
-            // Escribir el archivo Excel a la respuesta
-            workbook.write(response.getOutputStream());
-            workbook.close();
-            
+            DefinicionExportacion<Declaracion> definicion = DefinicionExportacion
+                    .<Declaracion>de("declaraciones", "Declaraciones",
+                            FuentePaginada.porId(declaracionRepository::findParaExportacion, Declaracion::getId))
+                    .columna("ID", Declaracion::getId)
+                    .columna("Contribuyente", d -> d.getContribuyente().getRazonSocial())
+                    .columna("RUC", d -> d.getContribuyente().getRif())
+                    .columna("Impuesto", d -> d.getImpuesto().getNombre())
+                    .columna("Período", Declaracion::getPeriodo)
+                    .columna("Base Imponible", Declaracion::getBaseImponible)
+                    .columna("Monto", Declaracion::getMonto)
+                    .columna("Estado", Declaracion::getEstado)
+                    .columna("Fecha Creación", Declaracion::getCreadoEn);
+            exportacionService.exportar(definicion, formato, request, response);
         } catch (Exception e) {
-            throw new IOException("Error al generar archivo Excel", e);
+            throw new IOException("Error al generar la exportación", e);
         }
     }
 
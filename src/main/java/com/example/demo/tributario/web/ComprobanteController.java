@@ -1,8 +1,11 @@
 package com.example.demo.tributario.web;
 
+import com.example.demo.exportacion.service.FormatoExportacion;
 import com.example.demo.tributario.model.Comprobante;
 import com.example.demo.tributario.service.ComprobanteService;
 import com.example.demo.tributario.service.ContribuyenteService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +14,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @Controller
@@ -148,76 +152,15 @@ public class ComprobanteController {
     }
     
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportar() {
+    public void exportar(@RequestParam(defaultValue = "xlsx") FormatoExportacion format,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
-            List<Comprobante> comprobantes = comprobanteService.listarTodos();
-            
-            // Crear workbook de Excel
-            org.apache.poi.ss.usermodel.Workbook workbook = new org.apache.poi.xssf.usermodel.XSSFWorkbook();
-            org.apache.poi.ss.usermodel.Sheet sheet = workbook.createSheet("Comprobantes");
-            
-            // Estilo para el encabezado
-            org.apache.poi.ss.usermodel.CellStyle headerStyle = workbook.createCellStyle();
-            headerStyle.setFillForegroundColor(org.apache.poi.ss.usermodel.IndexedColors.DARK_BLUE.getIndex());
-            headerStyle.setFillPattern(org.apache.poi.ss.usermodel.FillPatternType.SOLID_FOREGROUND);
-            
-            org.apache.poi.ss.usermodel.Font headerFont = workbook.createFont();
-            headerFont.setColor(org.apache.poi.ss.usermodel.IndexedColors.WHITE.getIndex());
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            
-            // Bordes para el encabezado
-            headerStyle.setBorderBottom(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            headerStyle.setBorderTop(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            headerStyle.setBorderRight(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            headerStyle.setBorderLeft(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            
-            // Crear encabezados
-            org.apache.poi.ss.usermodel.Row headerRow = sheet.createRow(0);
-            String[] headers = {"Número", "Serie", "Tipo", "Contribuyente", "RUC", "Fecha Emisión", "Subtotal", "Impuesto", "Total", "Estado"};
-            
-            for (int i = 0; i < headers.length; i++) {
-                org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // Llenar datos
-            int rowNum = 1;
-            for (Comprobante comprobante : comprobantes) {
-                org.apache.poi.ss.usermodel.Row row = sheet.createRow(rowNum++);
-                
-                row.createCell(0).setCellValue(comprobante.getNumero());
-                row.createCell(1).setCellValue(comprobante.getSerie());
-                row.createCell(2).setCellValue(comprobante.getTipo().toString());
-                row.createCell(3).setCellValue(comprobante.getContribuyente() != null ? comprobante.getContribuyente().getRazonSocial() : "");
-                row.createCell(4).setCellValue(comprobante.getContribuyente() != null ? comprobante.getContribuyente().getRif() : "");
-                row.createCell(5).setCellValue(comprobante.getFechaEmision().toString());
-                row.createCell(6).setCellValue(comprobante.getSubtotal().doubleValue());
-                row.createCell(7).setCellValue(comprobante.getImpuesto().doubleValue());
-                row.createCell(8).setCellValue(comprobante.getTotal().doubleValue());
-                row.createCell(9).setCellValue(comprobante.getEstado().getDescripcion());
-            }
-            
-            // Auto-ajustar columnas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            // Convertir a bytes
-            java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream();
-            workbook.write(outputStream);
-            workbook.close();
-            
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
-                    .header("Content-Disposition", "attachment; filename=\"comprobantes_" + 
-                           java.time.LocalDate.now().toString() + ".xlsx\"")
-                    .body(outputStream.toByteArray());
-                    
+            comprobanteService.exportar(format, request, response);
         } catch (Exception e) {
             log.error("Error al exportar comprobantes", e);
-            return ResponseEntity.badRequest().build();
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error al exportar comprobantes");
+            }
         }
     }
     
@@ -1,8 +1,11 @@
 package com.example.demo.tributario.web;
 
+import com.example.demo.exportacion.service.FormatoExportacion;
+import com.example.demo.tributario.dto.ContribuyenteSugerenciaDTO;
 import com.example.demo.tributario.model.Contribuyente;
 import com.example.demo.tributario.service.ContribuyenteService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
@@ -13,17 +16,17 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Map;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import java.io.ByteArrayOutputStream;
 
 @Controller
 @RequestMapping("/tributario/contribuyentes")
 @RequiredArgsConstructor
+@Slf4j
 public class ContribuyenteController {
 
     private final ContribuyenteService contribuyenteService;
@@ -42,6 +45,16 @@ public class ContribuyenteController {
         return ResponseEntity.ok(contribuyenteService.listarActivos());
     }
 
+    /**
+     * Búsqueda incremental para los formularios (pagos, multas...): RIF, razón social, nombre o apellido
+     */
+    @GetMapping("/api/sugerencias")
+    @ResponseBody
+    public ResponseEntity<List<ContribuyenteSugerenciaDTO>> sugerir(@RequestParam("q") String texto,
+                                                                    @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(contribuyenteService.sugerir(texto, limite));
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyAuthority('CONTRIBUYENTES_WRITE','CONTRIBUYENTES_GESTIONAR') or hasRole('ADMIN_TRIBUTARIO')")
     public String crear(@Valid @ModelAttribute Contribuyente contribuyente, 
@@ -203,100 +216,15 @@ public class ContribuyenteController {
     }
 
     @GetMapping("/export")
-    public void exportarExcel(HttpServletResponse response) throws IOException {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=\"contribuyentes.xlsx\"");
-
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Contribuyentes");
-            
-            // Crear estilo para headers
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerFont.setColor(IndexedColors.WHITE.getIndex());
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            headerStyle.setBorderBottom(BorderStyle.THIN);
-            headerStyle.setBorderTop(BorderStyle.THIN);
-            headerStyle.setBorderRight(BorderStyle.THIN);
-            headerStyle.setBorderLeft(BorderStyle.THIN);
-            
-            // Crear estilo para datos
-            CellStyle dataStyle = workbook.createCellStyle();
-            dataStyle.setBorderBottom(BorderStyle.THIN);
-            dataStyle.setBorderTop(BorderStyle.THIN);
-            dataStyle.setBorderRight(BorderStyle.THIN);
-            dataStyle.setBorderLeft(BorderStyle.THIN);
-            
-            // Crear fila de headers
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "RUC", "Razón Social", "Tipo", "Dirección", "Email", "Teléfono", "Representante Legal", "Estado", "Fecha Creación"};
-            
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // Llenar datos
-            List<Contribuyente> contribuyentes = contribuyenteService.listarTodos();
-            int rowNum = 1;
-            
-            for (Contribuyente c : contribuyentes) {
-                Row row = sheet.createRow(rowNum++);
-                
-                Cell cell0 = row.createCell(0);
-                cell0.setCellValue(c.getId());
-                cell0.setCellStyle(dataStyle);
-                
-                Cell cell1 = row.createCell(1);
-                cell1.setCellValue(c.getRif());
-                cell1.setCellStyle(dataStyle);
-                
-                Cell cell2 = row.createCell(2);
-                cell2.setCellValue(c.getRazonSocial());
-                cell2.setCellStyle(dataStyle);
-                
-                Cell cell3 = row.createCell(3);
-                cell3.setCellValue(c.getTipoContribuyente().getDescripcion());
-                cell3.setCellStyle(dataStyle);
-                
-                Cell cell4 = row.createCell(4);
-                cell4.setCellValue(c.getDireccion() != null ? c.getDireccion() : "");
-                cell4.setCellStyle(dataStyle);
-                
-                Cell cell5 = row.createCell(5);
-                cell5.setCellValue(c.getEmail() != null ? c.getEmail() : "");
-                cell5.setCellStyle(dataStyle);
-                
-                Cell cell6 = row.createCell(6);
-                cell6.setCellValue(c.getTelefono() != null ? c.getTelefono() : "");
-                cell6.setCellStyle(dataStyle);
-                
-                Cell cell7 = row.createCell(7);
-                cell7.setCellValue(c.getRepresentanteLegal() != null ? c.getRepresentanteLegal() : "");
-                cell7.setCellStyle(dataStyle);
-                
-                Cell cell8 = row.createCell(8);
-                cell8.setCellValue(c.getActivo() ? "Activo" : "Inactivo");
-                cell8.setCellStyle(dataStyle);
-                
-                Cell cell9 = row.createCell(9);
-                cell9.setCellValue(c.getCreadoEn() != null ? c.getCreadoEn().toString() : "");
-                cell9.setCellStyle(dataStyle);
-            }
-            
-            // Ajustar ancho de columnas automáticamente
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-                // Agregar un poco de padding extra
-                int currentWidth = sheet.getColumnWidth(i);
-                sheet.setColumnWidth(i, currentWidth + 1000);
+    public void exportarExcel(@RequestParam(defaultValue = "xlsx") FormatoExportacion format,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            contribuyenteService.exportar(format, request, response);
+        } catch (Exception e) {
+            log.error("Error al exportar contribuyentes", e);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error al exportar contribuyentes");
             }
-            
-            workbook.write(response.getOutputStream());
         }
     }
 
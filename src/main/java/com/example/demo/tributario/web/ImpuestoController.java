@@ -1,10 +1,13 @@
 package com.example.demo.tributario.web;
 
+import com.example.demo.exportacion.service.FormatoExportacion;
 import com.example.demo.tributario.model.Impuesto;
 import com.example.demo.tributario.service.ImpuestoService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
@@ -17,12 +20,11 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Map;
 import java.util.List;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 @Controller
 @RequestMapping("/tributario/impuestos")
 @RequiredArgsConstructor
+@Slf4j
 public class ImpuestoController {
 
     private final ImpuestoService impuestoService;
@@ -120,76 +122,15 @@ public class ImpuestoController {
     }
 
     @GetMapping("/export")
-    public void exportarExcel(HttpServletResponse response) throws IOException {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=\"impuestos.xlsx\"");
-
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Impuestos");
-            
-            // Crear estilo para headers
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerFont.setColor(IndexedColors.WHITE.getIndex());
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            headerStyle.setBorderBottom(BorderStyle.THIN);
-            headerStyle.setBorderTop(BorderStyle.THIN);
-            headerStyle.setBorderRight(BorderStyle.THIN);
-            headerStyle.setBorderLeft(BorderStyle.THIN);
-            
-            // Crear estilo para datos
-            CellStyle dataStyle = workbook.createCellStyle();
-            dataStyle.setBorderBottom(BorderStyle.THIN);
-            dataStyle.setBorderTop(BorderStyle.THIN);
-            dataStyle.setBorderRight(BorderStyle.THIN);
-            dataStyle.setBorderLeft(BorderStyle.THIN);
-            
-            // Crear fila de headers
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "Código", "Nombre", "Tasa (%)"};
-            
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // Llenar datos
-            List<Impuesto> impuestos = impuestoService.listarTodos();
-            int rowNum = 1;
-            
-            for (Impuesto i : impuestos) {
-                Row row = sheet.createRow(rowNum++);
-                
-                Cell cell0 = row.createCell(0);
-                cell0.setCellValue(i.getId());
-                cell0.setCellStyle(dataStyle);
-                
-                Cell cell1 = row.createCell(1);
-                cell1.setCellValue(i.getCodigo());
-                cell1.setCellStyle(dataStyle);
-                
-                Cell cell2 = row.createCell(2);
-                cell2.setCellValue(i.getNombre());
-                cell2.setCellStyle(dataStyle);
-                
-                Cell cell3 = row.createCell(3);
-                cell3.setCellValue(i.getTasa().doubleValue());
-                cell3.setCellStyle(dataStyle);
-            }
-            
-            // Ajustar ancho de columnas automáticamente
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-                // Agregar un poco de padding extra
-                int currentWidth = sheet.getColumnWidth(i);
-                sheet.setColumnWidth(i, currentWidth + 1000);
+    public void exportarExcel(@RequestParam(defaultValue = "xlsx") FormatoExportacion format,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            impuestoService.exportar(format, request, response);
+        } catch (Exception e) {
+            log.error("Error al exportar impuestos", e);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error al exportar impuestos");
             }
-            
-            workbook.write(response.getOutputStream());
         }
     }
 
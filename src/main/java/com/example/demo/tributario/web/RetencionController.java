@@ -1,20 +1,25 @@
 package com.example.demo.tributario.web;
 
+import com.example.demo.exportacion.service.FormatoExportacion;
 import com.example.demo.tributario.model.Retencion;
+import com.example.demo.tributario.service.RetencionAnaliticaService;
 import com.example.demo.tributario.service.RetencionService;
 import com.example.demo.tributario.service.ContribuyenteService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -25,6 +30,7 @@ import java.util.Optional;
 public class RetencionController {
     
     private final RetencionService retencionService;
+    private final RetencionAnaliticaService retencionAnaliticaService;
     private final ContribuyenteService contribuyenteService;
     
     @GetMapping
@@ -124,23 +130,15 @@ public class RetencionController {
     @GetMapping("/buscar")
     @ResponseBody
     public ResponseEntity<?> buscar(@RequestParam(required = false) String termino,
-                                   @RequestParam(required = false) String estado) {
+                                   @RequestParam(required = false) String estado,
+                                   @RequestParam(defaultValue = "0") int page,
+                                   @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Retencion> resultados;
-            
-            if (termino != null && !termino.trim().isEmpty()) {
-                // Buscar por término (implementar búsqueda por contribuyente)
-                resultados = retencionService.obtenerTodas().stream()
-                        .filter(r -> r.getContribuyente() != null && 
-                                   r.getContribuyente().getRazonSocial().toLowerCase().contains(termino.toLowerCase()))
-                        .toList();
-            } else if (estado != null && !estado.trim().isEmpty()) {
-                Retencion.EstadoRetencion estadoEnum = Retencion.EstadoRetencion.valueOf(estado.toUpperCase());
-                resultados = retencionService.obtenerPorEstado(estadoEnum);
-            } else {
-                resultados = retencionService.obtenerTodas();
-            }
-            
+            // Búsqueda por prefijo de concepto, razón social o RIF, paginada en la base de datos
+            Retencion.EstadoRetencion estadoEnum = estado != null && !estado.trim().isEmpty()
+                    ? Retencion.EstadoRetencion.valueOf(estado.trim().toUpperCase())
+                    : null;
+            Page<Retencion> resultados = retencionAnaliticaService.buscar(termino, estadoEnum, page, size);
             return ResponseEntity.ok(resultados);
         } catch (Exception e) {
             log.error("Error al buscar retenciones", e);
@@ -149,76 +147,15 @@ public class RetencionController {
     }
     
     @GetMapping("/exportar")
-    public ResponseEntity<byte[]> exportar() {
+    public void exportar(@RequestParam(defaultValue = "xlsx") FormatoExportacion format,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
-            List<Retencion> retenciones = retencionService.obtenerTodas();
-            
-            // Crear workbook de Excel
-            org.apache.poi.ss.usermodel.Workbook workbook = new org.apache.poi.xssf.usermodel.XSSFWorkbook();
-            org.apache.poi.ss.usermodel.Sheet sheet = workbook.createSheet("Retenciones");
-            
-            // Estilo para el encabezado
-            org.apache.poi.ss.usermodel.CellStyle headerStyle = workbook.createCellStyle();
-            headerStyle.setFillForegroundColor(org.apache.poi.ss.usermodel.IndexedColors.DARK_BLUE.getIndex());
-            headerStyle.setFillPattern(org.apache.poi.ss.usermodel.FillPatternType.SOLID_FOREGROUND);
-            
-            org.apache.poi.ss.usermodel.Font headerFont = workbook.createFont();
-            headerFont.setColor(org.apache.poi.ss.usermodel.IndexedColors.WHITE.getIndex());
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            
-            // Bordes para el encabezado
-            headerStyle.setBorderBottom(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            headerStyle.setBorderTop(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            headerStyle.setBorderRight(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            headerStyle.setBorderLeft(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            
-            // Crear encabezados
-            org.apache.poi.ss.usermodel.Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "Contribuyente", "RUC", "Concepto", "Fecha", "Porcentaje (%)", "Monto Base", "Monto Retenido", "Estado", "Creado En"};
-            
-            for (int i = 0; i < headers.length; i++) {
-                org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // Llenar datos
-            int rowNum = 1;
-            for (Retencion retencion : retenciones) {
-                org.apache.poi.ss.usermodel.Row row = sheet.createRow(rowNum++);
-                
-                row.createCell(0).setCellValue(retencion.getId());
-                row.createCell(1).setCellValue(retencion.getContribuyente() != null ? retencion.getContribuyente().getRazonSocial() : "");
-                row.createCell(2).setCellValue(retencion.getContribuyente() != null ? retencion.getContribuyente().getRif() : "");
-                row.createCell(3).setCellValue(retencion.getConcepto());
-                row.createCell(4).setCellValue(retencion.getFecha().toString());
-                row.createCell(5).setCellValue(retencion.getPorcentaje().doubleValue());
-                row.createCell(6).setCellValue(retencion.getMontoBase().doubleValue());
-                row.createCell(7).setCellValue(retencion.getMontoRetenido().doubleValue());
-                row.createCell(8).setCellValue(retencion.getEstado().getDescripcion());
-                row.createCell(9).setCellValue(retencion.getCreadoEn().toString());
-            }
-            
-            // Auto-ajustar columnas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            // Convertir a bytes
-            java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream();
-            workbook.write(outputStream);
-            workbook.close();
-            
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
-                    .header("Content-Disposition", "attachment; filename=\"retenciones_" + 
-                           java.time.LocalDate.now().toString() + ".xlsx\"")
-                    .body(outputStream.toByteArray());
-                    
+            retencionService.exportar(format, request, response);
         } catch (Exception e) {
             log.error("Error al exportar retenciones", e);
-            return ResponseEntity.badRequest().build();
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error al exportar retenciones");
+            }
         }
     }
     
@@ -244,42 +181,21 @@ public class RetencionController {
         }
     }
     
+    @GetMapping("/estadisticas/mensual")
+    @ResponseBody
+    public ResponseEntity<?> obtenerResumenMensual(@RequestParam(defaultValue = "12") int meses) {
+        try {
+            return ResponseEntity.ok(retencionAnaliticaService.obtenerResumenMensual(meses));
+        } catch (Exception e) {
+            log.error("Error al obtener resumen mensual de retenciones", e);
+            return ResponseEntity.badRequest().body("Error al obtener resumen mensual: " + e.getMessage());
+        }
+    }
+    
     private Map<String, Object> obtenerEstadisticasPrivadas() {
         try {
-            Map<String, Object> estadisticas = new HashMap<>();
-            
-            List<Retencion> todas = retencionService.obtenerTodas();
-            
-            // Contar por estado
-            long pendientes = todas.stream().filter(r -> r.getEstado() == Retencion.EstadoRetencion.PENDIENTE).count();
-            long aplicadas = todas.stream().filter(r -> r.getEstado() == Retencion.EstadoRetencion.APLICADA).count();
-            long anuladas = todas.stream().filter(r -> r.getEstado() == Retencion.EstadoRetencion.ANULADA).count();
-            
-            // Calcular totales
-            BigDecimal totalPendiente = todas.stream()
-                    .filter(r -> r.getEstado() == Retencion.EstadoRetencion.PENDIENTE)
-                    .map(Retencion::getMontoRetenido)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            BigDecimal totalAplicado = retencionService.obtenerMontoTotalAplicado();
-            BigDecimal montoTotal = totalPendiente.add(totalAplicado);
-            
-            // Contar este mes
-            long esteMes = todas.stream()
-                    .filter(r -> r.getFecha().getMonth() == java.time.LocalDate.now().getMonth() &&
-                               r.getFecha().getYear() == java.time.LocalDate.now().getYear())
-                    .count();
-            
-            estadisticas.put("total", todas.size());
-            estadisticas.put("esteMes", esteMes);
-            estadisticas.put("montoTotal", montoTotal);
-            estadisticas.put("pendientes", pendientes);
-            estadisticas.put("aplicadas", aplicadas);
-            estadisticas.put("anuladas", anuladas);
-            estadisticas.put("totalPendiente", totalPendiente);
-            estadisticas.put("totalAplicado", totalAplicado);
-            
-            return estadisticas;
+            // Conteos y sumas agrupados en la base de datos
+            return retencionAnaliticaService.obtenerEstadisticas();
         } catch (Exception e) {
             log.error("Error al obtener estadísticas", e);
             Map<String, Object> defaultStats = new HashMap<>();
@@ -1,12 +1,15 @@
 package com.example.demo.tributario.web;
 
+import com.example.demo.exportacion.service.FormatoExportacion;
 import com.example.demo.tributario.service.TributarioService;
 import com.example.demo.tributario.model.Declaracion;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
@@ -14,6 +17,7 @@ import java.math.BigDecimal;
 
 @Controller
 @RequiredArgsConstructor
+@Slf4j
 public class TributarioController {
 
     private final TributarioService tributarioService;
@@ -106,16 +110,15 @@ public class TributarioController {
     }
 
     @GetMapping("/tributario/declaraciones/export")
-    public void exportarDeclaraciones(HttpServletResponse response) throws IOException {
+    public void exportarDeclaraciones(@RequestParam(defaultValue = "xlsx") FormatoExportacion format,
+                                      HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
-            System.out.println("=== DEBUG EXPORTAR DECLARACIONES ===");
-            tributarioService.exportarDeclaracionesExcel(response);
-            System.out.println("Exportación completada exitosamente");
-            System.out.println("===================================");
+            tributarioService.exportarDeclaraciones(format, request, response);
         } catch (Exception e) {
-            System.out.println("Error al exportar declaraciones: " + e.getMessage());
-            e.printStackTrace();
-            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error al generar el archivo Excel");
+            log.error("Error al exportar declaraciones", e);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error al generar el archivo de exportación");
+            }
         }
     }
 
@@ -0,0 +1,50 @@
+package com.example.demo.vencimientos.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ejecución programada de los vencimientos. Cada tarea toma su propio arriendo, así que
+ * si una instancia cae a mitad de la corrida otra retoma las tareas pendientes en la
+ * próxima ejecución. Un error en una tarea no impide ejecutar las demás.
+ */
+@Component
+@Slf4j
+public class VencimientosJob {
+
+    private final VencimientosService vencimientosService;
+    private final boolean habilitado;
+    private final boolean corteServicios;
+
+    public VencimientosJob(VencimientosService vencimientosService,
+                           @Value("${vencimientos.habilitado:true}") boolean habilitado,
+                           @Value("${vencimientos.servicios.corte-automatico:true}") boolean corteServicios) {
+        this.vencimientosService = vencimientosService;
+        this.habilitado = habilitado;
+        this.corteServicios = corteServicios;
+    }
+
+    @Scheduled(cron = "${vencimientos.cron:0 15 1 * * *}")
+    public void ejecutar() {
+        if (!habilitado) {
+            return;
+        }
+        ejecutarTarea("tasas", vencimientosService::actualizarTasasVencidas);
+        ejecutarTarea("multas", vencimientosService::actualizarMultasVencidas);
+        if (corteServicios) {
+            ejecutarTarea("servicios", vencimientosService::cortarServiciosVencidos);
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void ejecutarTarea(String nombre, Runnable tarea) {
+        try {
+            tarea.run();
+        } catch (Exception e) {
+            log.error("Error actualizando vencimientos de {}: {}", nombre, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.demo.vencimientos.service;
+
+import com.example.demo.estadisticas.service.AporteEstadistico;
+import com.example.demo.estadisticas.service.ClavesEstadisticas;
+import com.example.demo.estadisticas.service.EstadisticasResumenService;
+import com.example.demo.multas.model.EstadoMulta;
+import com.example.demo.programacion.service.ArriendoTareaService;
+import com.example.demo.servicios.domain.EstadoServicio;
+import com.example.demo.tasas.model.EstadoTasa;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Actualización masiva de estados vencidos: tasas y multas pasan a VENCIDA y los servicios
+ * con deuda y fecha de corte cumplida pasan a CORTADO.
+ * Cada tarea recorre el rango de ids candidatos en bloques de tamano-bloque y aplica un
+ * UPDATE condicional por bloque en su propia transacción, así que no carga entidades ni
+ * mantiene bloqueos largos. Cada tarea toma un arriendo en tareas_arriendo para que corra
+ * en una sola instancia y lo renueva después de cada bloque.
+ */
+@Service
+@Slf4j
+public class VencimientosService {
+
+    private static final String USUARIO_SISTEMA = "SISTEMA";
+
+    // Igual que hibernate.jdbc.time_zone: las fechas con hora se guardan en UTC
+    private static final TimeZone ZONA_JDBC = TimeZone.getTimeZone("UTC");
+
+    static final Definicion TASAS = new Definicion("vencimientos.tasas", "tasas", ClavesEstadisticas.TASAS,
+            "monto_base", "fecha_vencimiento < ?", false, EstadoTasa.VENCIDA,
+            List.of(EstadoTasa.ACTIVA, EstadoTasa.PARCIALMENTE_PAGADA));
+
+    static final Definicion MULTAS = new Definicion("vencimientos.multas", "multas", ClavesEstadisticas.MULTAS,
+            "monto", "fecha_vencimiento < ?", false, EstadoMulta.VENCIDA,
+            List.of(EstadoMulta.PENDIENTE, EstadoMulta.PARCIALMENTE_PAGADA));
+
+    // Servicios con saldo pendiente y fecha de corte cumplida
+    static final Definicion SERVICIOS = new Definicion("vencimientos.servicios", "servicios", ClavesEstadisticas.SERVICIOS,
+            "monto_facturado", "fecha_corte < ? AND monto_facturado > monto_pagado", true, EstadoServicio.CORTADO,
+            List.of(EstadoServicio.ACTIVO, EstadoServicio.SUSPENDIDO));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArriendoTareaService arriendoTareaService;
+    private final EstadisticasResumenService estadisticasResumenService;
+    private final MeterRegistry meterRegistry;
+    private final int tamanoBloque;
+    private final int arriendoSegundos;
+
+    private final Map<String, Medidores> medidores = new ConcurrentHashMap<>();
+
+    public VencimientosService(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ArriendoTareaService arriendoTareaService,
+                               EstadisticasResumenService estadisticasResumenService,
+                               MeterRegistry meterRegistry,
+                               @Value("${vencimientos.tamano-bloque:5000}") int tamanoBloque,
+                               @Value("${vencimientos.arriendo-segundos:300}") int arriendoSegundos) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.arriendoTareaService = arriendoTareaService;
+        this.estadisticasResumenService = estadisticasResumenService;
+        this.meterRegistry = meterRegistry;
+        this.tamanoBloque = Math.max(1, tamanoBloque);
+        this.arriendoSegundos = Math.max(30, arriendoSegundos);
+    }
+
+    /**
+     * Pasa a VENCIDA las tasas activas o parcialmente pagadas con fecha de vencimiento cumplida.
+     * Devuelve la cantidad de filas actualizadas (0 si la tarea está en curso en otra instancia).
+     */
+    public long actualizarTasasVencidas() {
+        return ejecutar(TASAS);
+    }
+
+    /**
+     * Pasa a VENCIDA las multas pendientes o parcialmente pagadas con fecha de vencimiento cumplida
+     */
+    public long actualizarMultasVencidas() {
+        return ejecutar(MULTAS);
+    }
+
+    /**
+     * Pasa a CORTADO los servicios activos o suspendidos con saldo pendiente y fecha de corte cumplida
+     */
+    public long cortarServiciosVencidos() {
+        return ejecutar(SERVICIOS);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private long ejecutar(Definicion definicion) {
+        if (!arriendoTareaService.adquirir(definicion.tarea(), arriendoSegundos)) {
+            return 0;
+        }
+        Medidores medidor = medidores.computeIfAbsent(definicion.tarea(), this::crearMedidores);
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        long actualizadas = 0;
+        String resultado = null;
+        try {
+            actualizadas = recorrerBloques(definicion);
+            resultado = "OK: " + actualizadas + " filas";
+            if (actualizadas > 0) {
+                log.info("{}: {} registros pasaron a {}", definicion.tarea(), actualizadas, definicion.estadoNuevo());
+            }
+            return actualizadas;
+        } catch (RuntimeException e) {
+            resultado = "ERROR: " + e.getMessage();
+            throw e;
+        } finally {
+            muestra.stop(medidor.duracion());
+            medidor.filas().record(actualizadas);
+            arriendoTareaService.liberar(definicion.tarea(), resultado);
+        }
+    }
+
+    /**
+     * Recorre [mínimo, máximo] de los ids candidatos al inicio de la ejecución. Los registros que
+     * venzan durante el recorrido con ids mayores quedan para la próxima ejecución.
+     */
+    private long recorrerBloques(Definicion definicion) {
+        Object corte = definicion.corteEnDias() ? LocalDate.now() : LocalDateTime.now();
+        long[] rango = jdbcTemplate.query(definicion.sqlRango(), ps -> asignarCorte(ps, 1, definicion, corte), rs -> {
+            rs.next();
+            long minimo = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{minimo, rs.getLong(2)};
+        });
+        if (rango == null) {
+            return 0;
+        }
+
+        long actualizadas = 0;
+        for (long desde = rango[0]; desde <= rango[1]; desde += tamanoBloque) {
+            long inicio = desde;
+            long fin = Math.min(desde + tamanoBloque - 1, rango[1]);
+            Integer filas = transactionTemplate.execute(status -> actualizarBloque(definicion, inicio, fin, corte));
+            actualizadas += filas != null ? filas : 0;
+
+            if (!arriendoTareaService.renovar(definicion.tarea(), arriendoSegundos)) {
+                log.warn("{}: se perdió el arriendo en el id {}; el resto queda para la próxima ejecución",
+                        definicion.tarea(), fin);
+                break;
+            }
+        }
+        return actualizadas;
+    }
+
+    /**
+     * Bloquea las filas candidatas del bloque para tomar cantidad y monto por estado de origen,
+     * las actualiza con las mismas condiciones y registra el cambio en el resumen de estadísticas
+     */
+    private int actualizarBloque(Definicion definicion, long desde, long hasta, Object corte) {
+        List<Object[]> origenes = jdbcTemplate.query(definicion.sqlOrigenes(), ps -> {
+            ps.setLong(1, desde);
+            ps.setLong(2, hasta);
+            asignarCorte(ps, 3, definicion, corte);
+        }, (rs, i) -> new Object[]{rs.getString(1), rs.getLong(2), rs.getBigDecimal(3)});
+        if (origenes.isEmpty()) {
+            return 0;
+        }
+
+        int filas = jdbcTemplate.update(definicion.sqlActualizar(), ps -> {
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()), Calendar.getInstance(ZONA_JDBC));
+            ps.setString(2, USUARIO_SISTEMA);
+            ps.setLong(3, desde);
+            ps.setLong(4, hasta);
+            asignarCorte(ps, 5, definicion, corte);
+        });
+
+        AporteEstadistico antes = AporteEstadistico.vacio();
+        long conteo = 0;
+        BigDecimal monto = BigDecimal.ZERO;
+        for (Object[] origen : origenes) {
+            Enum<?> estado = definicion.estadoOrigen((String) origen[0]);
+            antes.sumar(ClavesEstadisticas.estado(definicion.modulo(), estado), (long) origen[1], (BigDecimal) origen[2]);
+            conteo += (long) origen[1];
+            monto = monto.add((BigDecimal) origen[2]);
+        }
+        AporteEstadistico despues = AporteEstadistico.vacio()
+                .sumar(ClavesEstadisticas.estado(definicion.modulo(), definicion.estadoNuevo()), conteo, monto);
+        estadisticasResumenService.registrarCambio(antes, despues);
+        return filas;
+    }
+
+    private static void asignarCorte(PreparedStatement ps, int indice, Definicion definicion, Object corte)
+            throws SQLException {
+        if (definicion.corteEnDias()) {
+            ps.setDate(indice, Date.valueOf((LocalDate) corte));
+        } else {
+            ps.setTimestamp(indice, Timestamp.valueOf((LocalDateTime) corte), Calendar.getInstance(ZONA_JDBC));
+        }
+    }
+
+    private Medidores crearMedidores(String tarea) {
+        return new Medidores(
+                Timer.builder("vencimientos.ejecucion")
+                        .description("Duración de cada ejecución de actualización de vencimientos")
+                        .tag("tarea", tarea)
+                        .register(meterRegistry),
+                DistributionSummary.builder("vencimientos.filas")
+                        .description("Filas actualizadas por ejecución")
+                        .tag("tarea", tarea)
+                        .register(meterRegistry));
+    }
+
+    private record Medidores(Timer duracion, DistributionSummary filas) {
+    }
+
+    /**
+     * Tabla, condición de vencimiento (con un único parámetro: la fecha de corte) y transición de estado.
+     * Los estados se escriben como literales en el SQL porque vienen de los enums.
+     */
+    record Definicion(String tarea, String tabla, String modulo, String columnaMonto, String condicion,
+                      boolean corteEnDias, Enum<?> estadoNuevo,
+                      List<? extends Enum<?>> estadosOrigen) {
+
+        Enum<?> estadoOrigen(String nombre) {
+            return estadosOrigen.stream()
+                    .filter(estado -> estado.name().equals(nombre))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Estado inesperado en " + tabla + ": " + nombre));
+        }
+
+        String estadosOrigenSql() {
+            return estadosOrigen.stream()
+                    .map(estado -> "'" + estado.name() + "'")
+                    .collect(Collectors.joining(", ", "(", ")"));
+        }
+
+        String sqlRango() {
+            return "SELECT MIN(id), MAX(id) FROM " + tabla +
+                    " WHERE estado IN " + estadosOrigenSql() + " AND " + condicion;
+        }
+
+        String sqlOrigenes() {
+            return "SELECT estado, COUNT(*), COALESCE(SUM(" + columnaMonto + "), 0) FROM " + tabla +
+                    " WHERE id BETWEEN ? AND ? AND estado IN " + estadosOrigenSql() + " AND " + condicion +
+                    " GROUP BY estado FOR UPDATE";
+        }
+
+        String sqlActualizar() {
+            return "UPDATE " + tabla + " SET estado = '" + estadoNuevo.name() + "', fecha_modificacion = ?, " +
+                    "usuario_modificacion = ? WHERE id BETWEEN ? AND ? AND estado IN " + estadosOrigenSql() +
+                    " AND " + condicion;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- =====================================================
+-- MIGRACIÓN V34: RESUMEN MATERIALIZADO DE ESTADÍSTICAS
+-- =====================================================
+-- Contadores y sumas acumuladas que alimentan el dashboard.
+-- Se actualizan de forma incremental desde los servicios y
+-- un proceso periódico los reconcilia contra las tablas origen.
+CREATE TABLE IF NOT EXISTS estadisticas_resumen (
+    clave VARCHAR(100) NOT NULL PRIMARY KEY COMMENT 'Clave del contador (ej. transacciones.estado.PENDIENTE)',
+    conteo BIGINT NOT NULL DEFAULT 0 COMMENT 'Cantidad acumulada',
+    monto DECIMAL(19,2) NOT NULL DEFAULT 0 COMMENT 'Monto acumulado',
+    actualizado_en DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Última actualización del contador'
+) COMMENT = 'Resumen materializado de estadísticas del dashboard';
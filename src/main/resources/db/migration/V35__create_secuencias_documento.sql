@@ -0,0 +1,13 @@
+-- =====================================================
+-- MIGRACIÓN V35: SECUENCIAS DE NUMERACIÓN DE DOCUMENTOS
+-- =====================================================
+-- Último valor reservado por prefijo y período (ej. TAS / 202610).
+-- NumeracionService reserva bloques de números con un bloqueo de fila
+-- y los entrega desde memoria.
+CREATE TABLE IF NOT EXISTS secuencias_documento (
+    prefijo VARCHAR(20) NOT NULL COMMENT 'Prefijo del documento (TAS, MUL, TXN)',
+    periodo VARCHAR(10) NOT NULL COMMENT 'Período de la numeración (ej. 202610)',
+    ultimo_valor BIGINT NOT NULL DEFAULT 0 COMMENT 'Último número reservado',
+    actualizado_en DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (prefijo, periodo)
+) COMMENT = 'Contadores de numeración de documentos por prefijo y período';
@@ -0,0 +1,10 @@
+-- =====================================================
+-- MIGRACIÓN V36: ÍNDICES PARA ESTADÍSTICAS Y BÚSQUEDA DE RETENCIONES
+-- =====================================================
+-- Las estadísticas agrupan por estado y suman monto_retenido: con este índice
+-- la consulta se resuelve solo con el índice. También sirve al filtro por estado
+-- ordenado por fecha de la búsqueda paginada.
+CREATE INDEX idx_ret_estado_fecha_monto ON retenciones (estado, fecha, monto_retenido);
+
+-- Búsqueda de retenciones por prefijo de razón social del contribuyente
+CREATE INDEX idx_contribuyentes_razon_social ON contribuyentes (razon_social);
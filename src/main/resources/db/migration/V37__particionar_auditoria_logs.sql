@@ -0,0 +1,42 @@
+-- =====================================================
+-- MIGRACIÓN V37: PARTICIONES MENSUALES EN AUDITORIA_LOGS
+-- =====================================================
+-- La tabla se particiona por rango mensual sobre fecha_hora: las consultas con
+-- filtro de fecha solo leen las particiones del rango y la retención elimina
+-- meses completos con DROP PARTITION en lugar de DELETE masivos.
+-- AuditoriaRetencionJob crea las particiones de los meses siguientes y archiva
+-- (NDJSON comprimido) y elimina las anteriores al horizonte configurado.
+
+-- La columna de particionado debe formar parte de toda clave única
+ALTER TABLE auditoria_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, fecha_hora);
+
+-- Cada partición pAAAAMM contiene el mes AAAA-MM; p_anterior agrupa los registros previos
+ALTER TABLE auditoria_logs PARTITION BY RANGE (TO_DAYS(fecha_hora)) (
+    PARTITION p_anterior VALUES LESS THAN (TO_DAYS('2025-01-01')),
+    PARTITION p202501 VALUES LESS THAN (TO_DAYS('2025-02-01')),
+    PARTITION p202502 VALUES LESS THAN (TO_DAYS('2025-03-01')),
+    PARTITION p202503 VALUES LESS THAN (TO_DAYS('2025-04-01')),
+    PARTITION p202504 VALUES LESS THAN (TO_DAYS('2025-05-01')),
+    PARTITION p202505 VALUES LESS THAN (TO_DAYS('2025-06-01')),
+    PARTITION p202506 VALUES LESS THAN (TO_DAYS('2025-07-01')),
+    PARTITION p202507 VALUES LESS THAN (TO_DAYS('2025-08-01')),
+    PARTITION p202508 VALUES LESS THAN (TO_DAYS('2025-09-01')),
+    PARTITION p202509 VALUES LESS THAN (TO_DAYS('2025-10-01')),
+    PARTITION p202510 VALUES LESS THAN (TO_DAYS('2025-11-01')),
+    PARTITION p202511 VALUES LESS THAN (TO_DAYS('2025-12-01')),
+    PARTITION p202512 VALUES LESS THAN (TO_DAYS('2026-01-01')),
+    PARTITION p202601 VALUES LESS THAN (TO_DAYS('2026-02-01')),
+    PARTITION p202602 VALUES LESS THAN (TO_DAYS('2026-03-01')),
+    PARTITION p202603 VALUES LESS THAN (TO_DAYS('2026-04-01')),
+    PARTITION p202604 VALUES LESS THAN (TO_DAYS('2026-05-01')),
+    PARTITION p202605 VALUES LESS THAN (TO_DAYS('2026-06-01')),
+    PARTITION p202606 VALUES LESS THAN (TO_DAYS('2026-07-01')),
+    PARTITION p202607 VALUES LESS THAN (TO_DAYS('2026-08-01')),
+    PARTITION p202608 VALUES LESS THAN (TO_DAYS('2026-09-01')),
+    PARTITION p202609 VALUES LESS THAN (TO_DAYS('2026-10-01')),
+    PARTITION p202610 VALUES LESS THAN (TO_DAYS('2026-11-01')),
+    PARTITION p202611 VALUES LESS THAN (TO_DAYS('2026-12-01')),
+    PARTITION p202612 VALUES LESS THAN (TO_DAYS('2027-01-01')),
+    PARTITION p202701 VALUES LESS THAN (TO_DAYS('2027-02-01')),
+    PARTITION p_futuro VALUES LESS THAN MAXVALUE
+);
@@ -0,0 +1,25 @@
+-- =====================================================
+-- MIGRACIÓN V38: RESUMEN HORARIO DE ACTIVIDAD DE AUDITORÍA
+-- =====================================================
+-- Conteo de logs por hora, usuario, módulo, acción y resultado. AuditoriaLogWriter
+-- lo incrementa en la misma transacción que inserta los logs, y las estadísticas
+-- de auditoría se calculan sobre esta tabla en lugar de agrupar auditoria_logs.
+-- Las filas no se eliminan al archivar particiones de auditoria_logs.
+CREATE TABLE IF NOT EXISTS auditoria_actividad_hora (
+    hora DATETIME NOT NULL COMMENT 'Inicio de la hora (fecha_hora truncada a la hora)',
+    usuario VARCHAR(100) NOT NULL COMMENT 'Usuario que realizó las acciones',
+    modulo VARCHAR(50) NOT NULL COMMENT 'Módulo del sistema',
+    accion VARCHAR(50) NOT NULL COMMENT 'Acción registrada',
+    resultado VARCHAR(20) NOT NULL DEFAULT '' COMMENT 'Resultado de la acción (vacío si no se informó)',
+    total BIGINT NOT NULL DEFAULT 0 COMMENT 'Cantidad de logs',
+
+    PRIMARY KEY (hora, usuario, modulo, accion, resultado)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Resumen horario de auditoria_logs para las estadísticas de actividad';
+
+-- Carga inicial desde los logs existentes
+INSERT INTO auditoria_actividad_hora (hora, usuario, modulo, accion, resultado, total)
+SELECT DATE_FORMAT(fecha_hora, '%Y-%m-%d %H:00:00'), usuario, modulo, accion, COALESCE(resultado, ''), COUNT(*)
+FROM auditoria_logs
+GROUP BY DATE_FORMAT(fecha_hora, '%Y-%m-%d %H:00:00'), usuario, modulo, accion, COALESCE(resultado, '')
+ON DUPLICATE KEY UPDATE total = total + VALUES(total);
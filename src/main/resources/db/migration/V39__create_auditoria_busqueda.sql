@@ -0,0 +1,26 @@
+-- =====================================================
+-- MIGRACIÓN V39: ÍNDICE DE TEXTO COMPLETO DE AUDITORÍA
+-- =====================================================
+-- auditoria_logs está particionada y MySQL no admite índices FULLTEXT en tablas
+-- particionadas: la descripción y la entidad de cada log se copian a esta tabla,
+-- que AuditoriaLogWriter alimenta en la misma transacción que inserta los logs.
+-- La búsqueda por término usa MATCH ... AGAINST sobre esta tabla y une con
+-- auditoria_logs por (id, fecha_hora) para aplicar el resto de los filtros.
+CREATE TABLE IF NOT EXISTS auditoria_busqueda (
+    log_id BIGINT NOT NULL COMMENT 'ID del log en auditoria_logs',
+    fecha_hora DATETIME NOT NULL COMMENT 'Fecha del log (parte de la clave de auditoria_logs)',
+    descripcion TEXT NULL COMMENT 'Copia de auditoria_logs.descripcion',
+    entidad VARCHAR(50) NULL COMMENT 'Copia de auditoria_logs.entidad',
+
+    PRIMARY KEY (log_id),
+    INDEX idx_busqueda_fecha_hora (fecha_hora)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Texto de auditoria_logs con índice FULLTEXT para búsquedas por término';
+
+-- Carga inicial antes de crear el índice, para construirlo una sola vez
+INSERT IGNORE INTO auditoria_busqueda (log_id, fecha_hora, descripcion, entidad)
+SELECT id, fecha_hora, descripcion, entidad
+FROM auditoria_logs
+WHERE descripcion IS NOT NULL OR entidad IS NOT NULL;
+
+ALTER TABLE auditoria_busqueda ADD FULLTEXT INDEX ft_busqueda_texto (descripcion, entidad);
@@ -0,0 +1,28 @@
+-- =====================================================
+-- MIGRACIÓN V40: ARRIENDO DE TAREAS PROGRAMADAS Y VENCIMIENTOS
+-- =====================================================
+-- Una fila por tarea programada que debe ejecutarse en una sola instancia.
+-- ArriendoTareaService toma la fila con un UPDATE condicional (libre, vencida
+-- o ya propia) y la renueva mientras la tarea avanza; si la instancia cae,
+-- el arriendo expira y otra puede retomarla.
+CREATE TABLE IF NOT EXISTS tareas_arriendo (
+    tarea VARCHAR(100) NOT NULL COMMENT 'Nombre de la tarea programada',
+    propietario VARCHAR(150) NULL COMMENT 'Instancia que tiene el arriendo (NULL = libre)',
+    expira_en DATETIME NOT NULL DEFAULT '1970-01-01 00:00:00' COMMENT 'Vencimiento del arriendo (hora del servidor de base de datos)',
+    ultima_ejecucion DATETIME NULL COMMENT 'Fin de la última ejecución',
+    ultimo_resultado VARCHAR(255) NULL COMMENT 'Resumen de la última ejecución',
+
+    PRIMARY KEY (tarea)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Arriendos de tareas programadas para ejecutarlas en una sola instancia';
+
+INSERT IGNORE INTO tareas_arriendo (tarea) VALUES
+    ('vencimientos.tasas'),
+    ('vencimientos.multas'),
+    ('vencimientos.servicios');
+
+-- Los vencimientos buscan por estado y fecha: el índice compuesto resuelve
+-- el rango de ids candidatos sin recorrer la tabla
+CREATE INDEX IF NOT EXISTS idx_tasas_estado_vencimiento ON tasas(estado, fecha_vencimiento);
+CREATE INDEX IF NOT EXISTS idx_multas_estado_vencimiento ON multas(estado, fecha_vencimiento);
+CREATE INDEX IF NOT EXISTS idx_servicios_estado_corte ON servicios(estado, fecha_corte);
@@ -0,0 +1,24 @@
+-- =====================================================
+-- MIGRACIÓN V41: SECUENCIAS DE IDENTIFICADORES
+-- =====================================================
+-- Último id asignado por tabla. Hibernate (@TableGenerator con optimizador
+-- pooled-lo) e IdentificadorService reservan rangos de ids sobre esta tabla,
+-- así las inserciones no dependen de AUTO_INCREMENT y se pueden enviar por
+-- batch JDBC. Las columnas conservan AUTO_INCREMENT para las inserciones
+-- manuales; toda escritura de la aplicación en estas tablas debe tomar su id
+-- de aquí.
+CREATE TABLE IF NOT EXISTS secuencias_id (
+    nombre VARCHAR(64) NOT NULL COMMENT 'Tabla a la que pertenece la secuencia',
+    ultimo_id BIGINT NOT NULL DEFAULT 0 COMMENT 'Último id reservado',
+    PRIMARY KEY (nombre)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Contadores de ids reservados por bloques para inserciones por lotes';
+
+-- Cada secuencia parte del mayor id existente en su tabla
+INSERT IGNORE INTO secuencias_id (nombre, ultimo_id) SELECT 'pagos', COALESCE(MAX(id), 0) FROM pagos;
+INSERT IGNORE INTO secuencias_id (nombre, ultimo_id) SELECT 'transacciones', COALESCE(MAX(id), 0) FROM transacciones;
+INSERT IGNORE INTO secuencias_id (nombre, ultimo_id) SELECT 'auditoria_logs', COALESCE(MAX(id), 0) FROM auditoria_logs;
+INSERT IGNORE INTO secuencias_id (nombre, ultimo_id) SELECT 'multas', COALESCE(MAX(id), 0) FROM multas;
+INSERT IGNORE INTO secuencias_id (nombre, ultimo_id) SELECT 'tasas', COALESCE(MAX(id), 0) FROM tasas;
+INSERT IGNORE INTO secuencias_id (nombre, ultimo_id) SELECT 'servicios', COALESCE(MAX(id), 0) FROM servicios;
+INSERT IGNORE INTO secuencias_id (nombre, ultimo_id) SELECT 'declaraciones', COALESCE(MAX(id), 0) FROM declaraciones;
@@ -0,0 +1,59 @@
+-- =====================================================
+-- MIGRACIÓN V42: CICLOS DE FACTURACIÓN DE SERVICIOS POR LECTURA
+-- =====================================================
+-- Un ciclo carga un archivo de lecturas (medidor, lectura, fecha) en
+-- ciclos_facturacion_lecturas y las factura en paralelo por rangos de id de
+-- servicio. Cada partición guarda el último servicio facturado, así que un
+-- ciclo interrumpido se reanuda desde ese punto sin facturar dos veces.
+CREATE TABLE IF NOT EXISTS ciclos_facturacion (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    archivo VARCHAR(255) NOT NULL COMMENT 'Nombre del archivo de lecturas subido',
+    estado VARCHAR(20) NOT NULL COMMENT 'CARGANDO, PENDIENTE, EN_CURSO, COMPLETADO, FALLIDO',
+    usuario VARCHAR(100) NOT NULL,
+    lecturas_leidas INT NOT NULL DEFAULT 0,
+    lecturas_rechazadas INT NOT NULL DEFAULT 0,
+    servicios_facturados INT NOT NULL DEFAULT 0,
+    monto_facturado DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    creado_en DATETIME NOT NULL,
+    cargado_en DATETIME NULL COMMENT 'Fin de la carga de lecturas (NULL = carga incompleta)',
+    iniciado_en DATETIME NULL COMMENT 'Inicio de la facturación (o de la última reanudación)',
+    terminado_en DATETIME NULL,
+    mensaje_error VARCHAR(500) NULL,
+
+    INDEX idx_ciclos_facturacion_estado (estado)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Ciclos de facturación de servicios a partir de archivos de lecturas';
+
+CREATE TABLE IF NOT EXISTS ciclos_facturacion_lecturas (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ciclo_id BIGINT NOT NULL,
+    fila INT NOT NULL COMMENT 'Número de fila en el archivo',
+    medidor VARCHAR(50) NULL,
+    servicio_id BIGINT NULL COMMENT 'NULL si el medidor no corresponde a un servicio con lectura',
+    lectura DECIMAL(10,2) NULL COMMENT 'Valor acumulado del medidor',
+    fecha DATE NULL,
+    estado VARCHAR(20) NOT NULL COMMENT 'PENDIENTE, FACTURADA, OMITIDA, RECHAZADA',
+    consumo DECIMAL(10,2) NULL,
+    monto DECIMAL(10,2) NULL,
+    mensaje VARCHAR(255) NULL,
+
+    INDEX idx_ciclos_lecturas_servicio (ciclo_id, servicio_id),
+    INDEX idx_ciclos_lecturas_estado (ciclo_id, estado),
+    CONSTRAINT fk_ciclos_lecturas_ciclo FOREIGN KEY (ciclo_id)
+        REFERENCES ciclos_facturacion(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Lecturas de un ciclo de facturación y resultado de cada una';
+
+CREATE TABLE IF NOT EXISTS ciclos_facturacion_particiones (
+    ciclo_id BIGINT NOT NULL,
+    particion INT NOT NULL,
+    desde_id BIGINT NOT NULL COMMENT 'Primer id de servicio del rango',
+    hasta_id BIGINT NOT NULL COMMENT 'Último id de servicio del rango',
+    ultimo_id BIGINT NOT NULL COMMENT 'Punto de control: último id de servicio facturado',
+    estado VARCHAR(20) NOT NULL COMMENT 'PENDIENTE, COMPLETADA',
+
+    PRIMARY KEY (ciclo_id, particion),
+    CONSTRAINT fk_ciclos_particiones_ciclo FOREIGN KEY (ciclo_id)
+        REFERENCES ciclos_facturacion(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Rangos de servicios de un ciclo de facturación con su punto de control';
@@ -0,0 +1,96 @@
+-- =====================================================
+-- MIGRACIÓN V43: HISTORIAL DE LECTURAS DE SERVICIOS
+-- =====================================================
+-- servicios solo conserva la lectura actual y la anterior. lecturas_historial
+-- guarda cada lectura facturada (solo inserciones, una por servicio y fecha) en
+-- particiones mensuales; los resúmenes mensuales por servicio y por zona se
+-- acumulan en la misma transacción que la inserción, así que las curvas de
+-- consumo se leen de ellos sin recorrer las lecturas.
+
+-- Zona del servicio para los resúmenes por zona (mismo criterio que tasas.zona_municipal)
+ALTER TABLE servicios ADD COLUMN zona_municipal VARCHAR(100) NULL AFTER direccion_servicio;
+CREATE INDEX idx_servicios_zona ON servicios(zona_municipal);
+
+-- Fila de ancho fijo: DECIMAL(10,2) ocupa 5 bytes y DATE 3. Sin claves foráneas
+-- (no se admiten en tablas particionadas); la clave primaria incluye la fecha,
+-- columna de particionado, y sirve de índice para los rangos de un servicio.
+CREATE TABLE IF NOT EXISTS lecturas_historial (
+    servicio_id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    lectura DECIMAL(10,2) NOT NULL COMMENT 'Valor acumulado del medidor',
+    consumo DECIMAL(10,2) NOT NULL COMMENT 'Lectura menos la lectura anterior',
+    ciclo_id BIGINT NULL COMMENT 'Ciclo de facturación de origen (NULL = carga manual)',
+
+    PRIMARY KEY (servicio_id, fecha)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Historial de lecturas de medidores por servicio'
+PARTITION BY RANGE (TO_DAYS(fecha)) (
+    PARTITION p_anterior VALUES LESS THAN (TO_DAYS('2025-01-01')),
+    PARTITION p202501 VALUES LESS THAN (TO_DAYS('2025-02-01')),
+    PARTITION p202502 VALUES LESS THAN (TO_DAYS('2025-03-01')),
+    PARTITION p202503 VALUES LESS THAN (TO_DAYS('2025-04-01')),
+    PARTITION p202504 VALUES LESS THAN (TO_DAYS('2025-05-01')),
+    PARTITION p202505 VALUES LESS THAN (TO_DAYS('2025-06-01')),
+    PARTITION p202506 VALUES LESS THAN (TO_DAYS('2025-07-01')),
+    PARTITION p202507 VALUES LESS THAN (TO_DAYS('2025-08-01')),
+    PARTITION p202508 VALUES LESS THAN (TO_DAYS('2025-09-01')),
+    PARTITION p202509 VALUES LESS THAN (TO_DAYS('2025-10-01')),
+    PARTITION p202510 VALUES LESS THAN (TO_DAYS('2025-11-01')),
+    PARTITION p202511 VALUES LESS THAN (TO_DAYS('2025-12-01')),
+    PARTITION p202512 VALUES LESS THAN (TO_DAYS('2026-01-01')),
+    PARTITION p202601 VALUES LESS THAN (TO_DAYS('2026-02-01')),
+    PARTITION p202602 VALUES LESS THAN (TO_DAYS('2026-03-01')),
+    PARTITION p202603 VALUES LESS THAN (TO_DAYS('2026-04-01')),
+    PARTITION p202604 VALUES LESS THAN (TO_DAYS('2026-05-01')),
+    PARTITION p202605 VALUES LESS THAN (TO_DAYS('2026-06-01')),
+    PARTITION p202606 VALUES LESS THAN (TO_DAYS('2026-07-01')),
+    PARTITION p202607 VALUES LESS THAN (TO_DAYS('2026-08-01')),
+    PARTITION p202608 VALUES LESS THAN (TO_DAYS('2026-09-01')),
+    PARTITION p202609 VALUES LESS THAN (TO_DAYS('2026-10-01')),
+    PARTITION p202610 VALUES LESS THAN (TO_DAYS('2026-11-01')),
+    PARTITION p202611 VALUES LESS THAN (TO_DAYS('2026-12-01')),
+    PARTITION p202612 VALUES LESS THAN (TO_DAYS('2027-01-01')),
+    PARTITION p202701 VALUES LESS THAN (TO_DAYS('2027-02-01')),
+    PARTITION p_futuro VALUES LESS THAN MAXVALUE
+);
+
+CREATE TABLE IF NOT EXISTS lecturas_servicio_mes (
+    servicio_id BIGINT NOT NULL,
+    mes DATE NOT NULL COMMENT 'Primer día del mes',
+    lecturas INT NOT NULL DEFAULT 0,
+    consumo_total DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    consumo_maximo DECIMAL(10,2) NOT NULL DEFAULT 0.00,
+
+    PRIMARY KEY (servicio_id, mes)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Consumo mensual por servicio (resumen de lecturas_historial)';
+
+CREATE TABLE IF NOT EXISTS lecturas_zona_mes (
+    zona VARCHAR(100) NOT NULL COMMENT 'Zona del servicio al momento de la lectura ('''' = sin zona)',
+    tipo_servicio VARCHAR(50) NOT NULL,
+    mes DATE NOT NULL COMMENT 'Primer día del mes',
+    lecturas INT NOT NULL DEFAULT 0,
+    consumo_total DECIMAL(16,2) NOT NULL DEFAULT 0.00,
+    consumo_maximo DECIMAL(10,2) NOT NULL DEFAULT 0.00,
+
+    PRIMARY KEY (zona, tipo_servicio, mes),
+    INDEX idx_lecturas_zona_mes_mes (mes)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Consumo mensual por zona y tipo de servicio (resumen de lecturas_historial)';
+
+-- La última lectura conocida de cada servicio abre su historial
+INSERT IGNORE INTO lecturas_historial (servicio_id, fecha, lectura, consumo)
+SELECT id, fecha_ultima_lectura, consumo_actual,
+       GREATEST(consumo_actual - COALESCE(consumo_anterior, 0), 0)
+FROM servicios
+WHERE fecha_ultima_lectura IS NOT NULL AND consumo_actual IS NOT NULL;
+
+INSERT INTO lecturas_servicio_mes (servicio_id, mes, lecturas, consumo_total, consumo_maximo)
+SELECT servicio_id, DATE_FORMAT(fecha, '%Y-%m-01'), COUNT(*), SUM(consumo), MAX(consumo)
+FROM lecturas_historial
+GROUP BY servicio_id, DATE_FORMAT(fecha, '%Y-%m-01');
+
+INSERT INTO lecturas_zona_mes (zona, tipo_servicio, mes, lecturas, consumo_total, consumo_maximo)
+SELECT '', s.tipo_servicio, DATE_FORMAT(h.fecha, '%Y-%m-01'), COUNT(*), SUM(h.consumo), MAX(h.consumo)
+FROM lecturas_historial h JOIN servicios s ON s.id = h.servicio_id
+GROUP BY s.tipo_servicio, DATE_FORMAT(h.fecha, '%Y-%m-01');
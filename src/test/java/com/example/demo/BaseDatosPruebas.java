@@ -0,0 +1,63 @@
+package com.example.demo;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * MariaDB embebido (MariaDB4j) compartido por las pruebas de integración.
+ * Igual que en la prueba de carga: el esquema base es un volcado de MariaDB y las migraciones
+ * usan sintaxis propia de MySQL, así que se prueba contra el mismo SQL que producción.
+ * Se inicia una sola vez por JVM y se detiene al terminar.
+ */
+public final class BaseDatosPruebas {
+
+    static final String NOMBRE = "sistema_tributario";
+
+    // Esquema anterior a V14; el resto lo aplica Flyway al arrancar el contexto
+    private static final String VOLCADO_BASE = "db/migration/sistema_tributario.sql";
+
+    private static String url;
+
+    private BaseDatosPruebas() {
+    }
+
+    /**
+     * URL JDBC del servidor embebido (lo arranca la primera vez), con las mismas opciones que application.properties
+     */
+    public static synchronized String url() {
+        if (url == null) {
+            url = iniciar();
+        }
+        return url;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static String iniciar() {
+        try {
+            DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder();
+            builder.setPort(0);
+            builder.addArg("--user=root");
+            DBConfiguration configuracion = builder.build();
+
+            DB db = DB.newEmbeddedDB(configuracion);
+            db.start();
+            db.createDB(NOMBRE);
+            db.source(VOLCADO_BASE, "root", null, NOMBRE);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    db.stop();
+                } catch (ManagedProcessException e) {
+                    // El proceso termina igual con la JVM
+                }
+            }));
+
+            return "jdbc:mysql://localhost:" + configuracion.getPort() + "/" + NOMBRE
+                    + "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true";
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("No se pudo iniciar MariaDB embebido para las pruebas", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo;
+
+import com.example.demo.config.ContadorConsultas;
+import com.example.demo.config.ContadorConsultasConfig;
+import com.example.demo.tributario.model.Contribuyente;
+import com.example.demo.tributario.repository.ContribuyenteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base de las pruebas de integración: la aplicación completa sobre MariaDB embebido (ver BaseDatosPruebas)
+ * con el contador de consultas registrado. Todas las subclases comparten el contexto y la base de datos,
+ * así que cada prueba crea sus propios datos y no supone tablas vacías.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(ContadorConsultasConfig.class)
+public abstract class PruebaIntegracion {
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    protected ContribuyenteRepository contribuyenteRepository;
+
+    @DynamicPropertySource
+    static void baseDatos(DynamicPropertyRegistry registro) {
+        registro.add("spring.datasource.url", BaseDatosPruebas::url);
+    }
+
+    /**
+     * Sufijo único dentro de la ejecución (RIF, números de documento...)
+     */
+    protected static String unico() {
+        return System.nanoTime() % 100_000_000 + "-" + SECUENCIA.incrementAndGet();
+    }
+
+    /**
+     * Ejecuta la consulta y verifica que usó exactamente una sentencia SQL (sin N+1 en el mapeo).
+     * Las páginas se piden más grandes que los datos: en la primera página incompleta Spring Data
+     * no ejecuta el conteo.
+     */
+    protected static <T> T unaSolaConsulta(Supplier<T> consulta) {
+        ContadorConsultas.Resultado<T> resultado = ContadorConsultas.medir(consulta);
+        assertThat(resultado.sentencias()).as("sentencias SQL").isEqualTo(1);
+        return resultado.valor();
+    }
+
+    protected Contribuyente crearContribuyente() {
+        String sufijo = unico();
+        return contribuyenteRepository.save(Contribuyente.builder()
+                .rif("J-" + sufijo)
+                .razonSocial("Contribuyente " + sufijo)
+                .direccion("Dirección de prueba")
+                .email("prueba" + sufijo + "@example.com")
+                .build());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo;
+
+import com.example.demo.tributario.model.Contribuyente;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base de las pruebas de listados que cargan el contribuyente en la misma consulta.
+ * Antes de cada prueba crea FILAS registros, cada uno con un contribuyente distinto (un N+1
+ * sumaría una sentencia por fila) y la misma marca única para poder filtrarlos.
+ * Las subclases solo definen cómo crear un registro y qué consultas verificar.
+ */
+public abstract class PruebaListados extends PruebaIntegracion {
+
+    protected static final int FILAS = 3;
+
+    protected String marca;
+
+    // Contribuyente del último registro creado (tiene exactamente uno)
+    protected Contribuyente ultimoContribuyente;
+
+    @BeforeEach
+    void crearFilas() {
+        marca = unico();
+        for (int i = 0; i < FILAS; i++) {
+            ultimoContribuyente = crearContribuyente();
+            crearFila(ultimoContribuyente, marca, i);
+        }
+    }
+
+    protected abstract void crearFila(Contribuyente contribuyente, String marca, int indice);
+
+    /**
+     * Ejecuta el listado (página o lista) verificando que usó una sola sentencia y devuelve sus filas
+     */
+    protected static <T> List<T> filas(Supplier<? extends Iterable<T>> consulta) {
+        List<T> filas = new ArrayList<>();
+        unaSolaConsulta(consulta).forEach(filas::add);
+        return filas;
+    }
+
+    /**
+     * Listado filtrado por la marca: exactamente las filas creadas, con el contribuyente cargado
+     */
+    protected static <T> void assertFiltrado(Supplier<? extends Iterable<T>> consulta, Function<T, ?> contribuyente) {
+        assertThat(filas(consulta)).hasSize(FILAS)
+                .allSatisfy(fila -> assertThat(contribuyente.apply(fila)).isNotNull());
+    }
+}
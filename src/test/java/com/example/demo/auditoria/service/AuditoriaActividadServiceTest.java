@@ -0,0 +1,121 @@
+package com.example.demo.auditoria.service;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.auditoria.model.AuditoriaLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Resumen horario de actividad: el escritor de auditoría lo acumula en la misma transacción que
+ * inserta los logs (un log descartado no cuenta) y las lecturas agrupan por hora completa.
+ * Otras pruebas también escriben logs, por eso se verifica solo la actividad de un usuario propio.
+ */
+class AuditoriaActividadServiceTest extends PruebaIntegracion {
+
+    private static final Duration ESPERA_MAXIMA = Duration.ofSeconds(10);
+
+    @Autowired
+    private AuditoriaActividadService auditoriaActividadService;
+
+    @Autowired
+    private AuditoriaLogWriter auditoriaLogWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void escritorAcumulaPorHoraYOmiteLosLogsDescartados() throws Exception {
+        String usuario = "actividad-" + unico();
+        LocalDateTime primeraHora = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(2);
+        LocalDateTime segundaHora = primeraHora.plusHours(1);
+
+        // Resultado más largo que la columna: el lote falla y el reintento fila por fila lo descarta
+        auditoriaLogWriter.encolar(log(usuario, "CREATE", "PAGOS", "X".repeat(40), segundaHora), false);
+        auditoriaLogWriter.encolar(log(usuario, "CREATE", "PAGOS", "SUCCESS", primeraHora.plusMinutes(5)), false);
+        auditoriaLogWriter.encolar(log(usuario, "CREATE", "PAGOS", "SUCCESS", primeraHora.plusMinutes(40)), false);
+        auditoriaLogWriter.encolar(log(usuario, "DELETE", "PAGOS", "ERROR", primeraHora.plusMinutes(59)), false);
+        auditoriaLogWriter.encolar(log(usuario, "UPDATE", "MULTAS", "SUCCESS", segundaHora.plusMinutes(1)), false);
+        esperarLogs(usuario, 4);
+
+        assertThat(jdbcTemplate.queryForList("SELECT CONCAT_WS('|', modulo, accion, resultado, total) " +
+                        "FROM auditoria_actividad_hora WHERE usuario = ? ORDER BY hora, modulo, accion, resultado",
+                String.class, usuario))
+                .containsExactly("PAGOS|CREATE|SUCCESS|2", "PAGOS|DELETE|ERROR|1", "MULTAS|UPDATE|SUCCESS|1");
+
+        // El rango empieza al inicio de la hora indicada
+        assertThat(totalDe(usuario, auditoriaActividadService.actividadPorUsuario(primeraHora.plusMinutes(30))))
+                .isEqualTo(4);
+        assertThat(totalDe(usuario, auditoriaActividadService.actividadPorUsuario(segundaHora))).isEqualTo(1);
+        assertThat(totalDe(usuario, auditoriaActividadService.actividadPorUsuario(segundaHora.plusHours(1))))
+                .isNull();
+    }
+
+    @Test
+    void acumulacionRevertidaNoDejaFilas() {
+        String usuario = "revertido-" + unico();
+        LocalDateTime hora = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            auditoriaActividadService.acumular(List.of(
+                    log(usuario, "CREATE", "PAGOS", "SUCCESS", hora.plusMinutes(1)),
+                    log(usuario, "CREATE", "PAGOS", "SUCCESS", hora.plusMinutes(2))));
+            assertThat(totalDe(usuario, auditoriaActividadService.actividadPorUsuario(hora))).isEqualTo(2);
+            status.setRollbackOnly();
+        });
+
+        assertThat(totalDe(usuario, auditoriaActividadService.actividadPorUsuario(hora))).isNull();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static AuditoriaLog log(String usuario, String accion, String modulo, String resultado,
+                                    LocalDateTime fechaHora) {
+        AuditoriaLog auditoriaLog = AuditoriaLog.crear(usuario, accion, modulo);
+        auditoriaLog.setResultado(resultado);
+        auditoriaLog.setFechaHora(fechaHora);
+        return auditoriaLog;
+    }
+
+    /**
+     * Total del usuario en filas [usuario, total]; null si no aparece
+     */
+    private static Long totalDe(String usuario, List<Object[]> filas) {
+        return filas.stream()
+                .filter(fila -> usuario.equals(fila[0]))
+                .map(fila -> (Long) fila[1])
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Espera a que el escritor inserte los logs válidos; el inválido se encoló antes, así que ya se procesó
+     */
+    private void esperarLogs(String usuario, int cantidad) throws InterruptedException {
+        Instant limite = Instant.now().plus(ESPERA_MAXIMA);
+        while (Instant.now().isBefore(limite)) {
+            Integer escritos = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM auditoria_logs WHERE usuario = ?", Integer.class, usuario);
+            if (escritos != null && escritos >= cantidad) {
+                assertThat(escritos).isEqualTo(cantidad);
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("El escritor no insertó " + cantidad + " logs en " + ESPERA_MAXIMA);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.auditoria.service;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.auditoria.model.AuditoriaLog;
+import com.example.demo.exportacion.service.FormatoExportacion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * La exportación de logs filtra por término con el mismo criterio que el listado:
+ * palabras completas o prefijos en cualquier orden (FULLTEXT), no la frase literal
+ */
+class AuditoriaExportacionTest extends PruebaIntegracion {
+
+    private static final Duration ESPERA_MAXIMA = Duration.ofSeconds(10);
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private AuditoriaLogWriter auditoriaLogWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportacionYListadoDevuelvenLosMismosLogsParaUnTermino() throws Exception {
+        String marca = "marca" + System.nanoTime();
+        long anulado = registrar("Pago anulado " + marca);
+        registrar("Pago registrado " + marca);
+
+        // Palabras en otro orden y una como prefijo: un LIKE con la frase no encuentra nada
+        String termino = marca + " anul";
+        List<Long> listados = auditoriaService.obtenerLogsConFiltros(null, null, null, null, null, null,
+                termino, 0, 10).getContent().stream().map(AuditoriaLog::getId).toList();
+        List<Long> exportados = exportarCsv(termino);
+
+        assertThat(listados).containsExactly(anulado);
+        assertThat(exportados).containsExactly(anulado);
+    }
+
+    @Test
+    void terminoSinPalabrasIndexablesUsaLaMismaBusquedaPorFrase() throws Exception {
+        String marca = "marca" + System.nanoTime();
+        long log = registrar("Ajuste " + marca + " de 7 a 9");
+
+        String termino = "7 a 9";
+        assertThat(AuditoriaBusquedaService.consultaTexto(termino)).isNull();
+        assertThat(exportarCsv(termino)).contains(log);
+        assertThat(auditoriaService.obtenerLogsConFiltros(null, null, null, null, null, null, termino, 0, 1000)
+                .getContent()).extracting(AuditoriaLog::getId).contains(log);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Encola un log y espera a que el escritor lo inserte (y lo indexe) en la base de datos
+     */
+    private long registrar(String descripcion) throws InterruptedException {
+        AuditoriaLog auditoriaLog = AuditoriaLog.crear("prueba", "UPDATE", "PAGOS");
+        auditoriaLog.setDescripcion(descripcion);
+        auditoriaLogWriter.encolar(auditoriaLog, false);
+
+        Instant limite = Instant.now().plus(ESPERA_MAXIMA);
+        while (Instant.now().isBefore(limite)) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM auditoria_logs WHERE descripcion = ?", Long.class, descripcion);
+            if (!ids.isEmpty()) {
+                return ids.get(0);
+            }
+            Thread.sleep(50);
+        }
+        return fail("El log \"" + descripcion + "\" no se escribió en " + ESPERA_MAXIMA);
+    }
+
+    /**
+     * Ids exportados en CSV (primera columna, sin el encabezado)
+     */
+    private List<Long> exportarCsv(String termino) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        auditoriaService.exportarLogs(null, null, null, null, null, null, termino, FormatoExportacion.CSV,
+                new MockHttpServletRequest(), response);
+        return response.getContentAsString(StandardCharsets.UTF_8).lines()
+                .skip(1)
+                .map(linea -> Long.parseLong(linea.substring(0, linea.indexOf(','))))
+                .toList();
+    }
+}
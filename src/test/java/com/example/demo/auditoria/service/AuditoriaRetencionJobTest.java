@@ -0,0 +1,178 @@
+package com.example.demo.auditoria.service;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.auditoria.model.AuditoriaLog;
+import com.example.demo.programacion.service.ParticionesMensuales;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Retención de auditoría de punta a punta: los meses anteriores al horizonte (12 meses) se archivan
+ * del más reciente al más antiguo, su partición se elimina con DROP PARTITION y el listado los sigue
+ * paginando desde el archivo, leyendo cada mes solo hasta la última fila de la página.
+ * Elimina particiones de la base compartida: solo la primera prueba ejecuta la retención, sobre un mes
+ * que ninguna otra prueba escribe.
+ */
+class AuditoriaRetencionJobTest extends PruebaIntegracion {
+
+    private static final Duration ESPERA_MAXIMA = Duration.ofSeconds(10);
+    private static final String TABLA = "auditoria_logs";
+    private static final int LOGS = 5;
+
+    // Directorio propio por ejecución: el archivo de una corrida anterior no se mezcla con esta
+    private static final String DIRECTORIO = "./build/pruebas/archivo-auditoria-" + System.nanoTime();
+
+    @DynamicPropertySource
+    static void archivo(DynamicPropertyRegistry registro) {
+        registro.add("auditoria.archivo.directorio", () -> DIRECTORIO);
+    }
+
+    @Autowired
+    private AuditoriaRetencionJob auditoriaRetencionJob;
+
+    @Autowired
+    private AuditoriaArchivo auditoriaArchivo;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private AuditoriaLogWriter auditoriaLogWriter;
+
+    @Autowired
+    private ParticionesMensuales particionesMensuales;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void mesFueraDelHorizonteSeArchivaSeEliminaYSePaginaDesdeElArchivo() throws Exception {
+        YearMonth mes = YearMonth.now().minusMonths(18);
+        String particion = "p" + mes.toString().replace("-", "");
+        String usuario = "archivo-" + unico();
+        List<Long> ids = new ArrayList<>();
+        for (int dia = 1; dia <= LOGS; dia++) {
+            ids.add(registrar(usuario, mes.atDay(dia * 3).atTime(10, 0)));
+        }
+        assertThat(particionesMensuales.leer(TABLA)).extracting(ParticionesMensuales.Particion::nombre)
+                .contains(particion);
+
+        auditoriaRetencionJob.ejecutar();
+
+        assertThat(particionesMensuales.leer(TABLA)).extracting(ParticionesMensuales.Particion::nombre)
+                .doesNotContain(particion)
+                .contains("p" + YearMonth.now().toString().replace("-", ""));
+        assertThat(contar("SELECT COUNT(*) FROM auditoria_logs WHERE usuario = ?", usuario)).isZero();
+        assertThat(contar("SELECT COUNT(*) FROM auditoria_busqueda WHERE log_id IN (" + enLista(ids) + ")"))
+                .isZero();
+        assertThat(auditoriaArchivo.mesesArchivados()).contains(mes);
+
+        // El archivo queda en el orden del listado, del más reciente al más antiguo
+        List<Long> archivados = new ArrayList<>();
+        auditoriaArchivo.leer(mes, auditoriaLog -> {
+            if (usuario.equals(auditoriaLog.getUsuario())) {
+                archivados.add(auditoriaLog.getId());
+            }
+        });
+        assertThat(archivados).containsExactlyElementsOf(ids.reversed());
+
+        LocalDateTime desde = mes.atDay(1).atStartOfDay();
+        LocalDateTime hasta = mes.atEndOfMonth().atTime(23, 59, 59);
+        Page<AuditoriaLog> primera = pagina(usuario, desde, hasta, 0);
+        assertThat(primera.getContent()).extracting(AuditoriaLog::getId).containsExactly(ids.get(4), ids.get(3));
+        // Lectura cortada al completar la página: el total es una cota inferior
+        assertThat(primera.getTotalElements()).isEqualTo(3);
+
+        Page<AuditoriaLog> segunda = pagina(usuario, desde, hasta, 1);
+        assertThat(segunda.getContent()).extracting(AuditoriaLog::getId).containsExactly(ids.get(2), ids.get(1));
+        assertThat(segunda.getTotalElements()).isEqualTo(LOGS);
+
+        Page<AuditoriaLog> ultima = pagina(usuario, desde, hasta, 2);
+        assertThat(ultima.getContent()).extracting(AuditoriaLog::getId).containsExactly(ids.get(0));
+        assertThat(ultima.getTotalElements()).isEqualTo(LOGS);
+    }
+
+    @Test
+    void coincidentesSeDetieneEnElLimiteYSoloRecuerdaConteosCompletos() throws Exception {
+        // Mes escrito directamente en el archivo: la retención ya eliminó las particiones antiguas y
+        // MariaDB guardaría un log viejo en la partición más baja que queda, no en la de su mes
+        YearMonth mes = YearMonth.of(1999, 1);
+        String usuario = "limite-" + unico();
+        try (AuditoriaArchivo.Escritura escritura = auditoriaArchivo.escribir(mes)) {
+            for (int dia = LOGS; dia >= 1; dia--) {
+                escritura.agregar(logArchivado(usuario, mes.atDay(dia).atTime(9, 0)));
+                escritura.agregar(logArchivado("otro-" + unico(), mes.atDay(dia).atTime(8, 0)));
+            }
+            escritura.confirmar();
+        }
+
+        Predicate<AuditoriaLog> filtro = auditoriaLog -> usuario.equals(auditoriaLog.getUsuario());
+        AuditoriaArchivo.Coincidencias cortadas = auditoriaArchivo.coincidentes(mes, usuario, filtro, 2);
+        assertThat(cortadas.logs()).extracting(AuditoriaLog::getFechaHora)
+                .containsExactly(mes.atDay(5).atTime(9, 0), mes.atDay(4).atTime(9, 0));
+        assertThat(cortadas.completo()).isFalse();
+        assertThat(auditoriaArchivo.conteoConocido(mes, usuario)).isNull();
+
+        AuditoriaArchivo.Coincidencias todas = auditoriaArchivo.coincidentes(mes, usuario, filtro, Long.MAX_VALUE);
+        assertThat(todas.logs()).hasSize(LOGS);
+        assertThat(todas.completo()).isTrue();
+        assertThat(auditoriaArchivo.conteoConocido(mes, usuario)).isEqualTo(LOGS);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Page<AuditoriaLog> pagina(String usuario, LocalDateTime desde, LocalDateTime hasta, int numero) {
+        return auditoriaService.obtenerLogsConFiltros(usuario, null, null, desde, hasta, null, null, numero, 2);
+    }
+
+    /**
+     * Encola un log con la fecha indicada y espera a que el escritor lo inserte
+     */
+    private long registrar(String usuario, LocalDateTime fechaHora) throws InterruptedException {
+        AuditoriaLog auditoriaLog = AuditoriaLog.crear(usuario, "UPDATE", "PAGOS");
+        auditoriaLog.setDescripcion("Log archivado " + fechaHora);
+        auditoriaLog.setFechaHora(fechaHora);
+        auditoriaLogWriter.encolar(auditoriaLog, false);
+
+        Instant limite = Instant.now().plus(ESPERA_MAXIMA);
+        while (Instant.now().isBefore(limite)) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM auditoria_logs WHERE usuario = ? AND descripcion = ?", Long.class,
+                    usuario, auditoriaLog.getDescripcion());
+            if (!ids.isEmpty()) {
+                return ids.get(0);
+            }
+            Thread.sleep(50);
+        }
+        return fail("El log de " + fechaHora + " no se escribió en " + ESPERA_MAXIMA);
+    }
+
+    private static AuditoriaLog logArchivado(String usuario, LocalDateTime fechaHora) {
+        AuditoriaLog auditoriaLog = AuditoriaLog.crear(usuario, "UPDATE", "PAGOS");
+        auditoriaLog.setFechaHora(fechaHora);
+        return auditoriaLog;
+    }
+
+    private long contar(String sql, Object... parametros) {
+        return jdbcTemplate.queryForObject(sql, Long.class, parametros);
+    }
+
+    private static String enLista(List<Long> ids) {
+        return String.join(",", ids.stream().map(String::valueOf).toList());
+    }
+}
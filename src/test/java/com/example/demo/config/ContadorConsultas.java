@@ -0,0 +1,70 @@
+package com.example.demo.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.function.Supplier;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual mientras hay una medición abierta.
+ * Permite fijar en pruebas cuántas consultas ejecuta un listado y detectar regresiones N+1
+ * (por ejemplo, un mapeo a DTO que vuelve a inicializar una asociación LAZY por cada fila).
+ * Solo existe en las pruebas: lo registra ContadorConsultasConfig.
+ */
+public final class ContadorConsultas implements StatementInspector {
+
+    private static final ThreadLocal<Medicion> ACTUAL = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Medicion medicion = ACTUAL.get();
+        if (medicion != null) {
+            medicion.sentencias++;
+        }
+        return sql;
+    }
+
+    /**
+     * Ejecuta la acción y devuelve su resultado junto con la cantidad de sentencias SQL ejecutadas.
+     * Las mediciones anidadas también suman a la medición que las contiene.
+     */
+    public static <T> Resultado<T> medir(Supplier<T> accion) {
+        Medicion anterior = ACTUAL.get();
+        Medicion medicion = new Medicion();
+        ACTUAL.set(medicion);
+        try {
+            T valor = accion.get();
+            return new Resultado<>(valor, medicion.sentencias);
+        } finally {
+            if (anterior != null) {
+                anterior.sentencias += medicion.sentencias;
+                ACTUAL.set(anterior);
+            } else {
+                ACTUAL.remove();
+            }
+        }
+    }
+
+    /**
+     * Ejecuta la acción y falla si superó la cantidad de sentencias indicada
+     *
+     * @throws IllegalStateException si se ejecutaron más sentencias que las permitidas
+     */
+    public static <T> T verificarMaximo(int maximo, Supplier<T> accion) {
+        Resultado<T> resultado = medir(accion);
+        if (resultado.sentencias() > maximo) {
+            throw new IllegalStateException("Se esperaban como máximo " + maximo
+                    + " consultas SQL y se ejecutaron " + resultado.sentencias());
+        }
+        return resultado.valor();
+    }
+
+    /**
+     * Resultado de la acción y sentencias SQL que ejecutó
+     */
+    public record Resultado<T>(T valor, int sentencias) {
+    }
+
+    private static final class Medicion {
+        private int sentencias;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registra ContadorConsultas como StatementInspector de Hibernate en las pruebas de integración
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class ContadorConsultasConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer contadorConsultasCustomizer() {
+        return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorConsultas());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.estadisticas.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Consultas de estadísticas en paralelo, sin base de datos (el gestor de transacciones es un mock):
+ * concurrencia, valor por defecto ante vencimiento, error o falta de permiso, y límite de tiempo
+ * que empieza a contar al obtener el permiso.
+ */
+class EstadisticasExecutorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<EstadisticasExecutor> ejecutores = new ArrayList<>();
+
+    @AfterEach
+    void detener() {
+        ejecutores.forEach(EstadisticasExecutor::detener);
+    }
+
+    @Test
+    void consultasDelGrupoCorrenAlMismoTiempo() {
+        CountDownLatch enCurso = new CountDownLatch(3);
+        // Cada consulta solo termina si las tres están corriendo a la vez
+        Supplier<Long> consulta = () -> {
+            enCurso.countDown();
+            return esperar(enCurso) ? 1L : -1L;
+        };
+
+        Map<String, Object> resultado = ejecutor(5_000, 3, 1_000).grupo("prueba")
+                .consulta("a", consulta, 0L)
+                .consulta("b", consulta, 0L)
+                .consulta("c", consulta, 0L)
+                .ejecutar();
+
+        assertThat(resultado).containsExactly(Map.entry("a", 1L), Map.entry("b", 1L), Map.entry("c", 1L));
+        assertThat(meterRegistry.get("estadisticas.consulta").tag("grupo", "prueba").timers()).hasSize(3);
+    }
+
+    @Test
+    void consultaVencidaOConErrorUsaSuValorPorDefecto() {
+        Instant inicio = Instant.now();
+        Map<String, Object> resultado = ejecutor(300, 4, 1_000).grupo("prueba")
+                .consulta("lenta", () -> dormir(10_000, 1L), 0L)
+                .consulta("error", () -> {
+                    throw new IllegalStateException("falla de prueba");
+                }, 0L)
+                .consulta("rapida", () -> 7L, 0L)
+                .ejecutar();
+
+        assertThat(Duration.between(inicio, Instant.now())).isLessThan(Duration.ofSeconds(5));
+        assertThat(resultado).containsEntry("lenta", 0L).containsEntry("error", 0L).containsEntry("rapida", 7L);
+        assertThat(resultado.get(EstadisticasExecutor.CLAVE_CONSULTAS_FALLIDAS))
+                .isEqualTo(List.of("lenta", "error"));
+        assertThat(fallos("lenta", "timeout")).isEqualTo(1);
+        assertThat(fallos("error", "error")).isEqualTo(1);
+    }
+
+    @Test
+    void sinPermisoDeConexionSeMarcaSaturada() {
+        Map<String, Object> resultado = ejecutor(5_000, 1, 100).grupo("prueba")
+                .consulta("a", () -> dormir(1_000, 1L), 0L)
+                .consulta("b", () -> dormir(1_000, 2L), 0L)
+                .ejecutar();
+
+        // Una de las dos tomó el único permiso; la otra no lo obtuvo en 100 ms
+        List<?> fallidas = (List<?>) resultado.get(EstadisticasExecutor.CLAVE_CONSULTAS_FALLIDAS);
+        assertThat(fallidas).hasSize(1);
+        String saturada = (String) fallidas.get(0);
+        assertThat(resultado).containsEntry(saturada, 0L);
+        assertThat(resultado.get(saturada.equals("a") ? "b" : "a")).isNotEqualTo(0L);
+        assertThat(fallos(saturada, "saturada")).isEqualTo(1);
+    }
+
+    @Test
+    void esperaPorPermisoNoConsumeElLimiteDeLaConsulta() {
+        // Juntas superan el límite, pero cada una lo cumple desde que obtiene el único permiso
+        Map<String, Object> resultado = ejecutor(600, 1, 5_000).grupo("prueba")
+                .consulta("primera", () -> dormir(400, 1L), 0L)
+                .consulta("segunda", () -> dormir(400, 2L), 0L)
+                .ejecutar();
+
+        assertThat(resultado).containsExactly(Map.entry("primera", 1L), Map.entry("segunda", 2L));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private EstadisticasExecutor ejecutor(long timeoutMs, int maxConcurrentes, long esperaPermisoMs) {
+        EstadisticasExecutor ejecutor = new EstadisticasExecutor(mock(PlatformTransactionManager.class),
+                meterRegistry, timeoutMs, maxConcurrentes, esperaPermisoMs);
+        ejecutores.add(ejecutor);
+        return ejecutor;
+    }
+
+    private double fallos(String consulta, String motivo) {
+        return meterRegistry.get("estadisticas.consulta.fallos")
+                .tags("grupo", "prueba", "consulta", consulta, "motivo", motivo).counter().count();
+    }
+
+    private static boolean esperar(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static <T> T dormir(long ms, T valor) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta cancelada", e);
+        }
+        return valor;
+    }
+}
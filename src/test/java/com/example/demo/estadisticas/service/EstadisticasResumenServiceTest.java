@@ -0,0 +1,179 @@
+package com.example.demo.estadisticas.service;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.pagos.dto.PagoRequest;
+import com.example.demo.pagos.model.EstadoPago;
+import com.example.demo.pagos.model.MetodoPago;
+import com.example.demo.pagos.service.PagoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Resumen materializado de estadísticas: los servicios aplican la diferencia de aportes al confirmar
+ * (en memoria y en estadisticas_resumen) y la reconciliación corrige las desviaciones sin pisar
+ * los incrementos posteriores a su instantánea. Otras pruebas escriben en las tablas origen sin pasar
+ * por los servicios, por eso se comparan diferencias y no valores absolutos.
+ */
+class EstadisticasResumenServiceTest extends PruebaIntegracion {
+
+    private static final String TOTAL_PAGOS = ClavesEstadisticas.total(ClavesEstadisticas.PAGOS);
+    private static final BigDecimal MONTO = new BigDecimal("125.50");
+
+    @Autowired
+    private EstadisticasResumenService resumenService;
+
+    @Autowired
+    private EstadisticasReconciliacionJob reconciliacionJob;
+
+    @Autowired
+    private PagoService pagoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cambiosDeEstadoDeUnPagoMuevenSuAporteEntreClaves() {
+        Instantanea antes = instantanea();
+
+        Long id = pagoService.crearPago(pago()).getId();
+        Instantanea creado = instantanea();
+        assertDiferencia(antes, creado, TOTAL_PAGOS, 1, "0");
+        assertDiferencia(antes, creado, estado(EstadoPago.PENDIENTE), 1, "125.50");
+
+        pagoService.procesarPago(id, "prueba");
+        Instantanea procesado = instantanea();
+        assertDiferencia(antes, procesado, TOTAL_PAGOS, 1, "0");
+        assertDiferencia(antes, procesado, estado(EstadoPago.PENDIENTE), 0, "0");
+        assertDiferencia(antes, procesado, estado(EstadoPago.PROCESADO), 1, "125.50");
+
+        pagoService.anularPago(id, "prueba");
+        Instantanea anulado = instantanea();
+        assertDiferencia(antes, anulado, estado(EstadoPago.PROCESADO), 0, "0");
+        assertDiferencia(antes, anulado, estado(EstadoPago.ANULADO), 1, "125.50");
+    }
+
+    @Test
+    void cambioRevertidoNoModificaElResumen() {
+        Instantanea antes = instantanea();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            pagoService.crearPago(pago());
+            status.setRollbackOnly();
+        });
+
+        Instantanea despues = instantanea();
+        assertDiferencia(antes, despues, TOTAL_PAGOS, 0, "0");
+        assertDiferencia(antes, despues, estado(EstadoPago.PENDIENTE), 0, "0");
+    }
+
+    @Test
+    void reconciliacionCorrigeLaDesviacionYEliminaClavesDeFlujoVencidas() {
+        pagoService.crearPago(pago());
+        String vencida = ClavesEstadisticas.ingresosDia(LocalDate.now().minusDays(30));
+        jdbcTemplate.update("UPDATE estadisticas_resumen SET conteo = conteo + 7, monto = monto - 3 WHERE clave IN (?, ?)",
+                TOTAL_PAGOS, estado(EstadoPago.PENDIENTE));
+        jdbcTemplate.update("INSERT INTO estadisticas_resumen (clave, conteo, monto) VALUES (?, 0, 40.00)", vencida);
+        resumenService.recargar();
+        assertThat(resumenService.monto(vencida)).isEqualByComparingTo("40.00");
+
+        reconciliacionJob.reconciliar();
+
+        long pagos = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pagos", Long.class);
+        Map<String, Object> pendientes = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS conteo, COALESCE(SUM(monto), 0) AS monto FROM pagos WHERE estado = 'PENDIENTE'");
+        ValorEstadistico esperado = new ValorEstadistico(((Number) pendientes.get("conteo")).longValue(),
+                (BigDecimal) pendientes.get("monto"));
+
+        assertThat(resumenService.conteo(TOTAL_PAGOS)).isEqualTo(pagos);
+        assertThat(enTabla(TOTAL_PAGOS).conteo()).isEqualTo(pagos);
+        assertThat(resumenService.obtener(estado(EstadoPago.PENDIENTE)).equivalente(esperado)).isTrue();
+        assertThat(enTabla(estado(EstadoPago.PENDIENTE)).equivalente(esperado)).isTrue();
+        assertThat(resumenService.claves()).doesNotContain(vencida);
+        assertThat(resumenService.leer()).doesNotContainKey(vencida);
+    }
+
+    @Test
+    void correccionConservaLosIncrementosPosterioresALaInstantanea() {
+        String clave = "prueba." + unico();
+        resumenService.registrarCambio(null, AporteEstadistico.vacio().sumar(clave, 10, new BigDecimal("10.00")));
+        Map<String, ValorEstadistico> leidos = resumenService.leer();
+
+        // Incremento confirmado entre la lectura y la corrección
+        resumenService.registrarCambio(null, AporteEstadistico.vacio().sumar(clave, 1, BigDecimal.ONE));
+        ValorEstadistico recalculado = new ValorEstadistico(12, new BigDecimal("12.00"));
+        try {
+            assertThat(resumenService.corregir(Map.of(clave, recalculado), leidos, List.of())).isEqualTo(1);
+
+            ValorEstadistico esperado = new ValorEstadistico(13, new BigDecimal("13.00"));
+            assertThat(resumenService.obtener(clave).equivalente(esperado)).isTrue();
+            assertThat(enTabla(clave).equivalente(esperado)).isTrue();
+        } finally {
+            resumenService.corregir(Map.of(), Map.of(), List.of(clave));
+        }
+        assertThat(resumenService.obtener(clave)).isEqualTo(ValorEstadistico.CERO);
+        assertThat(resumenService.leer()).doesNotContainKey(clave);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Valores de la copia en memoria y de la tabla en un momento dado
+     */
+    private record Instantanea(Map<String, ValorEstadistico> memoria, Map<String, ValorEstadistico> tabla) {
+    }
+
+    private Instantanea instantanea() {
+        Map<String, ValorEstadistico> memoria = new HashMap<>();
+        for (EstadoPago estadoPago : EstadoPago.values()) {
+            memoria.put(estado(estadoPago), resumenService.obtener(estado(estadoPago)));
+        }
+        memoria.put(TOTAL_PAGOS, resumenService.obtener(TOTAL_PAGOS));
+        return new Instantanea(memoria, resumenService.leer());
+    }
+
+    private void assertDiferencia(Instantanea antes, Instantanea despues, String clave, long conteo, String monto) {
+        ValorEstadistico esperada = new ValorEstadistico(conteo, new BigDecimal(monto));
+        assertThat(diferencia(antes.memoria(), despues.memoria(), clave).equivalente(esperada))
+                .as("memoria %s", clave).isTrue();
+        assertThat(diferencia(antes.tabla(), despues.tabla(), clave).equivalente(esperada))
+                .as("tabla %s", clave).isTrue();
+    }
+
+    private static ValorEstadistico diferencia(Map<String, ValorEstadistico> antes,
+                                               Map<String, ValorEstadistico> despues, String clave) {
+        return despues.getOrDefault(clave, ValorEstadistico.CERO)
+                .sumar(antes.getOrDefault(clave, ValorEstadistico.CERO).negar());
+    }
+
+    private ValorEstadistico enTabla(String clave) {
+        return resumenService.leer().getOrDefault(clave, ValorEstadistico.CERO);
+    }
+
+    private static String estado(EstadoPago estado) {
+        return ClavesEstadisticas.estado(ClavesEstadisticas.PAGOS, estado);
+    }
+
+    private PagoRequest pago() {
+        return PagoRequest.builder()
+                .contribuyenteId(crearContribuyente().getId())
+                .monto(MONTO)
+                .metodoPago(MetodoPago.EFECTIVO)
+                .concepto("Pago de estadísticas " + unico())
+                .usuarioRegistro("prueba")
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.exportacion.web;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.tributario.model.Contribuyente;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints de exportación vía MVC, sin los filtros de seguridad: el formato se valida al convertir
+ * el parámetro (400 antes de llegar al controlador) y el CSV neutraliza las celdas con fórmulas
+ */
+class ExportacionWebTest extends PruebaIntegracion {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void crearMockMvc() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void formatoNoSoportadoResponde400EnTodosLosEndpoints() throws Exception {
+        for (String endpoint : new String[]{"/tributario/contribuyentes/export", "/pagos/exportar", "/auditoria/export"}) {
+            String mensaje = mockMvc.perform(get(endpoint).param("format", "pdf"))
+                    .andExpect(status().isBadRequest())
+                    .andReturn().getResponse().getErrorMessage();
+            assertThat(mensaje).as(endpoint).isEqualTo("Formato de exportación no soportado: pdf");
+        }
+    }
+
+    @Test
+    void celdasDeTextoConFormulaSeExportanComoTexto() throws Exception {
+        Contribuyente contribuyente = crearContribuyente();
+        contribuyente.setRazonSocial("=1+2 " + contribuyente.getRif());
+        contribuyente.setDireccion("@SUMA(A1)");
+        contribuyente.setRepresentanteLegal("-Representante");
+        contribuyenteRepository.save(contribuyente);
+
+        String csv = mockMvc.perform(get("/tributario/contribuyentes/export").param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String linea = csv.lines()
+                .filter(l -> l.startsWith(contribuyente.getId() + ","))
+                .findFirst().orElseThrow();
+        assertThat(linea).contains(",'=1+2 " + contribuyente.getRif() + ",")
+                .contains(",'@SUMA(A1),")
+                .contains(",'-Representante,");
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.demo.importacion.service;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.importacion.dto.ImportacionDTO;
+import com.example.demo.tributario.model.Contribuyente;
+import com.example.demo.tributario.service.ContribuyenteImportador;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Importación de contribuyentes de punta a punta: encabezado, duplicados dentro del archivo
+ * y lotes rechazados por la base de datos (que liberan sus claves). Lotes de dos filas para tener
+ * varios por archivo.
+ */
+@TestPropertySource(properties = "importacion.tamano-lote=2")
+class ImportacionServiceTest extends PruebaIntegracion {
+
+    private static final Duration ESPERA_MAXIMA = Duration.ofSeconds(30);
+    private static final AtomicInteger SECUENCIA_RIF = new AtomicInteger((int) (System.nanoTime() % 10_000_000));
+
+    @Autowired
+    private ImportacionService importacionService;
+
+    // Espía para registrar un RIF en la base después de la precarga de la sesión
+    @MockitoSpyBean
+    private ContribuyenteImportador contribuyenteImportador;
+
+    @Test
+    void encabezadoSinColumnasObligatoriasFalla() throws Exception {
+        ImportacionDTO resultado = importar("rif,razon_social\n" + rif() + ",Sin dirección\n");
+
+        assertThat(resultado.getEstado()).isEqualTo(ImportacionService.FALLIDA);
+        assertThat(resultado.getMensaje()).isEqualTo("Faltan columnas en el encabezado: direccion, email");
+        assertThat(resultado.getImportadas()).isZero();
+    }
+
+    @Test
+    void encabezadoConAcentosYMayusculasSeNormaliza() throws Exception {
+        String rif = rif();
+        ImportacionDTO resultado = importar("RIF;Razón Social;Dirección;E-mail;Email\n" +
+                rif + ";Comercial Acento;Av. Principal;ignorado;acento@example.com\n");
+
+        assertThat(resultado.getEstado()).isEqualTo(ImportacionService.COMPLETADA);
+        assertThat(resultado.getImportadas()).isEqualTo(1);
+        assertThat(contribuyenteRepository.findByRif(rif)).isPresent();
+    }
+
+    @Test
+    void duplicadosEnElArchivoSeRechazan() throws Exception {
+        String primero = rif();
+        String segundo = rif();
+        ImportacionDTO resultado = importar(encabezado() +
+                fila(primero) +
+                fila(segundo) +
+                fila(primero.toLowerCase()) +
+                fila("X-1"));
+
+        assertThat(resultado.getEstado()).isEqualTo(ImportacionService.COMPLETADA);
+        assertThat(resultado.getFilasLeidas()).isEqualTo(4);
+        assertThat(resultado.getImportadas()).isEqualTo(2);
+        assertThat(resultado.getRechazadas()).isEqualTo(2);
+        assertThat(informe(resultado)).containsExactly(
+                "4,\"RIF repetido en el archivo: " + primero + "\"",
+                "5,\"rif: debe tener formato V-12345678-9\"");
+    }
+
+    @Test
+    void loteRechazadoPorLaBaseDeDatosVaAlInformeYElRestoSeImporta() throws Exception {
+        List<String> rifs = List.of(rif(), rif(), rif(), rif(), rif());
+        // Alta concurrente del tercer RIF: la precarga no lo ve y el índice único rechaza su lote
+        doAnswer(invocacion -> {
+            Object sesion = invocacion.callRealMethod();
+            registrarRif(rifs.get(2));
+            return sesion;
+        }).when(contribuyenteImportador).iniciar(anyString());
+
+        StringBuilder csv = new StringBuilder(encabezado());
+        rifs.forEach(rif -> csv.append(fila(rif)));
+        ImportacionDTO resultado = importar(csv.toString());
+
+        assertThat(resultado.getEstado()).isEqualTo(ImportacionService.COMPLETADA);
+        assertThat(resultado.getImportadas()).isEqualTo(3);
+        assertThat(resultado.getRechazadas()).isEqualTo(2);
+        assertThat(informe(resultado)).hasSize(2)
+                .allSatisfy(linea -> assertThat(linea).contains("Lote rechazado por la base de datos"))
+                .extracting(linea -> linea.substring(0, linea.indexOf(',')))
+                .containsExactly("4", "5");
+        assertThat(contribuyenteRepository.findByRif(rifs.get(0))).isPresent();
+        assertThat(contribuyenteRepository.findByRif(rifs.get(1))).isPresent();
+        assertThat(contribuyenteRepository.findByRif(rifs.get(3))).isEmpty();
+        assertThat(contribuyenteRepository.findByRif(rifs.get(4))).isPresent();
+    }
+
+    @Test
+    void loteRechazadoLiberaSusClavesParaFilasPosteriores() throws Exception {
+        String liberado = rif();
+        String concurrente = rif();
+        String ultimo = rif();
+        doAnswer(invocacion -> {
+            Object sesion = invocacion.callRealMethod();
+            registrarRif(concurrente);
+            return sesion;
+        }).when(contribuyenteImportador).iniciar(anyString());
+
+        // El primer lote cae por el RIF concurrente; la fila 4 repite un RIF de ese lote que no quedó escrito
+        ImportacionDTO resultado = importar(encabezado() +
+                fila(liberado) +
+                fila(concurrente) +
+                fila(liberado) +
+                fila(ultimo));
+
+        assertThat(resultado.getEstado()).isEqualTo(ImportacionService.COMPLETADA);
+        assertThat(resultado.getImportadas()).isEqualTo(2);
+        assertThat(resultado.getRechazadas()).isEqualTo(2);
+        assertThat(informe(resultado))
+                .allSatisfy(linea -> assertThat(linea).contains("Lote rechazado por la base de datos"))
+                .extracting(linea -> linea.substring(0, linea.indexOf(',')))
+                .containsExactly("2", "3");
+        assertThat(contribuyenteRepository.findByRif(liberado)).isPresent();
+        assertThat(contribuyenteRepository.findByRif(ultimo)).isPresent();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Lanza la importación y espera a que termine
+     */
+    private ImportacionDTO importar(String csv) throws Exception {
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "contribuyentes.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+        String id = importacionService.iniciar("contribuyentes", archivo, "prueba").getId();
+
+        Instant limite = Instant.now().plus(ESPERA_MAXIMA);
+        while (Instant.now().isBefore(limite)) {
+            ImportacionDTO estado = importacionService.obtener(id).orElseThrow();
+            if (!ImportacionService.EN_CURSO.equals(estado.getEstado())) {
+                return estado;
+            }
+            Thread.sleep(50);
+        }
+        return fail("La importación " + id + " no terminó en " + ESPERA_MAXIMA);
+    }
+
+    /**
+     * Filas del informe de errores sin el encabezado
+     */
+    private List<String> informe(ImportacionDTO resultado) throws IOException {
+        Path archivo = importacionService.informeErrores(resultado.getId()).orElseThrow();
+        List<String> lineas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+        return lineas.subList(1, lineas.size());
+    }
+
+    private void registrarRif(String rif) {
+        contribuyenteRepository.save(Contribuyente.builder()
+                .rif(rif)
+                .razonSocial("Alta concurrente")
+                .direccion("Dirección de prueba")
+                .email("concurrente@example.com")
+                .build());
+    }
+
+    private static String encabezado() {
+        return "rif,razon_social,direccion,email\n";
+    }
+
+    private static String fila(String rif) {
+        return rif + ",Contribuyente " + rif + ",Dirección de prueba,importado@example.com\n";
+    }
+
+    /**
+     * RIF con formato válido y único en la ejecución
+     */
+    private static String rif() {
+        return String.format("J-%08d-%d", SECUENCIA_RIF.incrementAndGet() % 100_000_000, 0);
+    }
+}
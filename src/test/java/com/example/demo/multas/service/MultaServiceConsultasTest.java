@@ -0,0 +1,65 @@
+package com.example.demo.multas.service;
+
+import com.example.demo.PruebaListados;
+import com.example.demo.multas.dto.MultaResponse;
+import com.example.demo.multas.model.EstadoMulta;
+import com.example.demo.multas.model.Multa;
+import com.example.demo.multas.model.TipoInfraccion;
+import com.example.demo.multas.repository.MultaRepository;
+import com.example.demo.tributario.model.Contribuyente;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los listados de multas cargan el contribuyente en la misma consulta: una sentencia por página
+ */
+class MultaServiceConsultasTest extends PruebaListados {
+
+    @Autowired
+    private MultaService multaService;
+
+    @Autowired
+    private MultaRepository multaRepository;
+
+    @Override
+    protected void crearFila(Contribuyente contribuyente, String marca, int indice) {
+        LocalDateTime ahora = LocalDateTime.now();
+        multaRepository.save(Multa.builder()
+                .contribuyente(contribuyente)
+                .numeroMulta("MUL-PRUEBA-" + unico())
+                .tipoInfraccion(TipoInfraccion.PAGO_TARDIO)
+                .descripcion("Multa de prueba")
+                .monto(new BigDecimal("30.00"))
+                .montoPagado(BigDecimal.ZERO)
+                .estado(EstadoMulta.PENDIENTE)
+                .fechaInfraccion(ahora)
+                .fechaVencimiento(ahora.plusDays(30))
+                .usuarioRegistro("prueba")
+                .fechaRegistro(ahora)
+                .build());
+    }
+
+    @Test
+    void listarMultas() {
+        assertThat(filas(() -> multaService.listarMultas(0, 10_000, "fechaRegistro", "desc")))
+                .hasSizeGreaterThanOrEqualTo(FILAS);
+    }
+
+    @Test
+    void buscarPorEstado() {
+        assertThat(filas(() -> multaService.buscarPorEstado(EstadoMulta.PENDIENTE, 0, 10_000)))
+                .hasSizeGreaterThanOrEqualTo(FILAS)
+                .allSatisfy(multa -> assertThat(multa.getContribuyenteRif()).isNotNull());
+    }
+
+    @Test
+    void buscarPorContribuyente() {
+        assertThat(filas(() -> multaService.buscarPorContribuyente(ultimoContribuyente.getId(), 0, 10)))
+                .extracting(MultaResponse::getContribuyenteId).containsExactly(ultimoContribuyente.getId());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.numeracion.service;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.tasas.model.EstadoTasa;
+import com.example.demo.tasas.model.PeriodoFacturacion;
+import com.example.demo.tasas.model.Tasa;
+import com.example.demo.tasas.model.TipoTasa;
+import com.example.demo.tasas.repository.TasaRepository;
+import com.example.demo.tributario.model.Contribuyente;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * IdentificadorService y los @TableGenerator comparten secuencias_id con la misma convención
+ * (último id reservado): los rangos de uno nunca se pisan con los ids que entrega Hibernate
+ */
+class IdentificadorServiceTest extends PruebaIntegracion {
+
+    private static final String SECUENCIA = "tasas";
+    private static final int BLOQUE_HIBERNATE = 50;
+
+    @Autowired
+    private IdentificadorService identificadorService;
+
+    @Autowired
+    private TasaRepository tasaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reservaDevuelveElSiguienteAlUltimoYLoAvanza() {
+        long ultimo = ultimoReservado();
+
+        long primero = identificadorService.reservar(SECUENCIA, 10);
+
+        assertThat(primero).isEqualTo(ultimo + 1);
+        assertThat(ultimoReservado()).isEqualTo(ultimo + 10);
+    }
+
+    @Test
+    void rangosReservadosYIdsDeHibernateNoSePisan() {
+        Contribuyente contribuyente = crearContribuyente();
+        Set<Long> reservados = new HashSet<>();
+        Set<Long> asignados = new HashSet<>();
+
+        // Cada vuelta agota al menos un bloque de Hibernate entre dos reservas por JDBC
+        for (int vuelta = 0; vuelta < 3; vuelta++) {
+            long primero = identificadorService.reservar(SECUENCIA, 10);
+            for (long id = primero; id < primero + 10; id++) {
+                reservados.add(id);
+            }
+            assertThat(ultimoReservado()).isEqualTo(primero + 9);
+
+            List<Tasa> tasas = new ArrayList<>();
+            for (int i = 0; i < BLOQUE_HIBERNATE + 10; i++) {
+                tasas.add(tasa(contribuyente));
+            }
+            for (Tasa tasa : tasaRepository.saveAll(tasas)) {
+                assertThat(asignados.add(tasa.getId())).as("id repetido %s", tasa.getId()).isTrue();
+            }
+            // Todo id entregado por Hibernate ya figura como reservado en la tabla
+            assertThat(ultimoReservado()).isGreaterThanOrEqualTo(asignados.stream().max(Long::compare).orElseThrow());
+        }
+
+        assertThat(asignados).hasSize(3 * (BLOQUE_HIBERNATE + 10)).doesNotContainAnyElementsOf(reservados);
+    }
+
+    @Test
+    void secuenciaInexistenteFalla() {
+        assertThatThrownBy(() -> identificadorService.reservar("no_existe", 1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("no_existe");
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private long ultimoReservado() {
+        return jdbcTemplate.queryForObject("SELECT ultimo_id FROM secuencias_id WHERE nombre = ?", Long.class,
+                SECUENCIA);
+    }
+
+    private Tasa tasa(Contribuyente contribuyente) {
+        return Tasa.builder()
+                .contribuyente(contribuyente)
+                .numeroTasa("TAS-ID-" + unico())
+                .tipoTasa(TipoTasa.ASEO_URBANO)
+                .descripcion("Tasa de prueba de ids")
+                .montoBase(new BigDecimal("10.00"))
+                .estado(EstadoTasa.ACTIVA)
+                .periodoFacturacion(PeriodoFacturacion.MENSUAL)
+                .fechaInicio(LocalDateTime.now())
+                .usuarioRegistro("prueba")
+                .build();
+    }
+}
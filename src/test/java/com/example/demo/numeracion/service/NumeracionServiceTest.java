@@ -0,0 +1,87 @@
+package com.example.demo.numeracion.service;
+
+import com.example.demo.PruebaIntegracion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Numeración concurrente con un pool principal chico: cada llamador retiene su conexión mientras
+ * espera un bloque, y aun así las reservas avanzan porque usan el pool propio de la numeración
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.hikari.maximum-pool-size=3",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "numeracion.tamano-bloque=2"
+})
+class NumeracionServiceTest extends PruebaIntegracion {
+
+    private static final int HILOS = 12;
+    private static final int NUMEROS_POR_HILO = 10;
+    private static final String PERIODO = "202610";
+
+    @Autowired
+    private NumeracionService numeracionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void llamadoresConcurrentesConElPoolPrincipalOcupadoObtienenNumerosUnicos() throws Exception {
+        String prefijo = "NUM" + unico();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        List<Future<List<Long>>> tareas = new ArrayList<>();
+        try {
+            for (int i = 0; i < HILOS; i++) {
+                tareas.add(hilos.submit(() -> transaccion.execute(status -> {
+                    // Toma la conexión del pool principal antes de pedir números, como un alta de tasa
+                    jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                    List<Long> numeros = new ArrayList<>();
+                    for (int n = 0; n < NUMEROS_POR_HILO; n++) {
+                        numeros.add(numeracionService.siguiente(prefijo, PERIODO, () -> 0L));
+                    }
+                    return numeros;
+                })));
+            }
+            List<Long> entregados = new ArrayList<>();
+            for (Future<List<Long>> tarea : tareas) {
+                entregados.addAll(tarea.get());
+            }
+
+            long total = (long) HILOS * NUMEROS_POR_HILO;
+            assertThat(entregados).containsExactlyInAnyOrderElementsOf(
+                    LongStream.rangeClosed(1, total).boxed().toList());
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT ultimo_valor FROM secuencias_documento WHERE prefijo = ? AND periodo = ?",
+                    Long.class, prefijo, PERIODO)).isEqualTo(total);
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    @Test
+    void primeraReservaParteDelUltimoNumeroExistente() {
+        String prefijo = "NUM" + unico();
+
+        assertThat(numeracionService.siguiente(prefijo, PERIODO, () -> 41L)).isEqualTo(42L);
+        assertThat(numeracionService.siguiente(prefijo, PERIODO, () -> 0L)).isEqualTo(43L);
+        assertThat(numeracionService.siguiente(prefijo, PERIODO, () -> 0L)).isEqualTo(44L);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.paginacion.service;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.paginacion.dto.PaginaCursor;
+import com.example.demo.pagos.dto.PagoResponse;
+import com.example.demo.pagos.model.EstadoPago;
+import com.example.demo.pagos.model.MetodoPago;
+import com.example.demo.pagos.model.Pago;
+import com.example.demo.pagos.repository.PagoRepository;
+import com.example.demo.pagos.service.PagoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Paginación keyset sobre pagos (fechaPago, id) DESC: avanzar y volver con los cursores, desempate
+ * por id con fechas iguales, una sola sentencia por página y conteo solo si se pide.
+ * Los pagos de la prueba tienen fechas futuras para ocupar las primeras posiciones del listado.
+ */
+class ConsultaKeysetTest extends PruebaIntegracion {
+
+    private static final LocalDateTime FUTURO = LocalDateTime.of(2199, 1, 1, 10, 0);
+
+    @Autowired
+    private PagoService pagoService;
+
+    @Autowired
+    private PagoRepository pagoRepository;
+
+    // Del más reciente al más antiguo; los dos del medio comparten fecha
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void crearPagos() {
+        Long[] creados = {
+                crearPago(FUTURO.plusHours(1)),
+                crearPago(FUTURO.plusHours(2)),
+                crearPago(FUTURO.plusHours(2)),
+                crearPago(FUTURO.plusHours(3)),
+                crearPago(FUTURO.plusHours(4))
+        };
+        for (int i = creados.length - 1; i >= 0; i--) {
+            ids.add(creados[i]);
+        }
+    }
+
+    @AfterEach
+    void eliminarPagos() {
+        pagoRepository.deleteAllById(ids);
+    }
+
+    @Test
+    void avanzarYVolverConLosCursores() {
+        PaginaCursor<PagoResponse> primera = listar(null);
+        assertThat(idsDe(primera)).containsExactly(ids.get(0), ids.get(1));
+        assertThat(primera.isHayAnterior()).isFalse();
+        assertThat(primera.getAnteriorCursor()).isNull();
+        assertThat(primera.isHaySiguiente()).isTrue();
+        assertThat(primera.getTotalElementos()).isNull();
+
+        // Misma fecha: el id decide el orden y ninguno se pierde ni se repite entre páginas
+        PaginaCursor<PagoResponse> segunda = listar(primera.getSiguienteCursor());
+        assertThat(idsDe(segunda)).containsExactly(ids.get(2), ids.get(3));
+        assertThat(segunda.isHayAnterior()).isTrue();
+
+        PaginaCursor<PagoResponse> tercera = listar(segunda.getSiguienteCursor());
+        assertThat(idsDe(tercera)).first().isEqualTo(ids.get(4));
+        assertThat(tercera.getContenido()).allSatisfy(pago -> assertThat(pago.getContribuyenteRif()).isNotNull());
+
+        PaginaCursor<PagoResponse> vuelta = listar(segunda.getAnteriorCursor());
+        assertThat(idsDe(vuelta)).containsExactly(ids.get(0), ids.get(1));
+        assertThat(vuelta.isHayAnterior()).isFalse();
+        assertThat(vuelta.isHaySiguiente()).isTrue();
+        assertThat(idsDe(listar(vuelta.getSiguienteCursor()))).containsExactly(ids.get(2), ids.get(3));
+    }
+
+    @Test
+    void totalSoloSiSePideYTamanoAcotado() {
+        assertThat(pagoService.listarPagosPorCursor(null, 2, true).getTotalElementos())
+                .isEqualTo(pagoRepository.count());
+
+        PaginaCursor<PagoResponse> grande = unaSolaConsulta(() -> pagoService.listarPagosPorCursor(null, 10_000, false));
+        assertThat(grande.getTamano()).isEqualTo(ConsultaKeyset.TAMANO_MAXIMO);
+        assertThat(grande.getContenido()).hasSizeLessThanOrEqualTo(ConsultaKeyset.TAMANO_MAXIMO);
+    }
+
+    @Test
+    void cursorNoValidoSeRechaza() {
+        String otraVersion = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("2|S|" + FUTURO + "|1").getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> listar("no es un cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> listar(otraVersion))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor de paginación no válido");
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Página de dos pagos sin total: una sola sentencia a cualquier profundidad
+     */
+    private PaginaCursor<PagoResponse> listar(String cursor) {
+        return unaSolaConsulta(() -> pagoService.listarPagosPorCursor(cursor, 2, false));
+    }
+
+    private static List<Long> idsDe(PaginaCursor<PagoResponse> pagina) {
+        return pagina.getContenido().stream().map(PagoResponse::getId).toList();
+    }
+
+    private Long crearPago(LocalDateTime fechaPago) {
+        return pagoRepository.save(Pago.builder()
+                .contribuyente(crearContribuyente())
+                .monto(BigDecimal.TEN)
+                .metodoPago(MetodoPago.EFECTIVO)
+                .estado(EstadoPago.PENDIENTE)
+                .fechaPago(fechaPago)
+                .concepto("Pago keyset " + unico())
+                .usuarioRegistro("prueba")
+                .build()).getId();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.pagos.service;
+
+import com.example.demo.PruebaListados;
+import com.example.demo.pagos.dto.PagoResponse;
+import com.example.demo.pagos.model.EstadoPago;
+import com.example.demo.pagos.model.MetodoPago;
+import com.example.demo.pagos.model.Pago;
+import com.example.demo.pagos.repository.PagoRepository;
+import com.example.demo.tributario.model.Contribuyente;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los listados de pagos cargan el contribuyente en la misma consulta: una sentencia por página
+ */
+class PagoServiceConsultasTest extends PruebaListados {
+
+    @Autowired
+    private PagoService pagoService;
+
+    @Autowired
+    private PagoRepository pagoRepository;
+
+    @Override
+    protected void crearFila(Contribuyente contribuyente, String marca, int indice) {
+        pagoRepository.save(Pago.builder()
+                .contribuyente(contribuyente)
+                .monto(new BigDecimal("100.00"))
+                .metodoPago(MetodoPago.EFECTIVO)
+                .estado(EstadoPago.PENDIENTE)
+                .fechaPago(LocalDateTime.now())
+                .concepto("Consulta " + marca)
+                .build());
+    }
+
+    @Test
+    void listarPagos() {
+        assertThat(filas(() -> pagoService.listarPagos(0, 10_000))).hasSizeGreaterThanOrEqualTo(FILAS);
+    }
+
+    @Test
+    void buscarPagosPorConcepto() {
+        assertFiltrado(() -> pagoService.buscarPagosPorConcepto("Consulta " + marca), PagoResponse::getContribuyenteRif);
+    }
+
+    @Test
+    void obtenerPagosRecientes() {
+        assertThat(filas(() -> pagoService.obtenerPagosRecientes(FILAS))).hasSize(FILAS);
+    }
+
+    @Test
+    void obtenerPagosPorEstado() {
+        assertThat(filas(() -> pagoService.obtenerPagosPorEstado(EstadoPago.PENDIENTE))).hasSizeGreaterThanOrEqualTo(FILAS);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.security.config;
+
+import com.example.demo.security.exception.AutenticacionSaturadaException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Respuesta del formulario de login según el motivo del fallo
+ */
+class ManejadorFalloLoginTest {
+
+    private final ManejadorFalloLogin manejador = new ManejadorFalloLogin("/login?error=true", 5);
+
+    @Test
+    void saturacionResponde429ConRetryAfter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        manejador.onAuthenticationFailure(new MockHttpServletRequest("POST", "/login"), response,
+                new AutenticacionSaturadaException("Demasiados inicios de sesión simultáneos"));
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("5");
+        assertThat(response.getErrorMessage()).isEqualTo("Demasiados inicios de sesión simultáneos");
+        assertThat(response.getRedirectedUrl()).isNull();
+    }
+
+    @Test
+    void credencialesIncorrectasRedirigenAlFormulario() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        manejador.onAuthenticationFailure(new MockHttpServletRequest("POST", "/login"), response,
+                new BadCredentialsException("Credenciales incorrectas"));
+
+        assertThat(response.getRedirectedUrl()).isEqualTo("/login?error=true");
+        assertThat(response.getHeader("Retry-After")).isNull();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.security.service;
+
+import com.example.demo.security.exception.AutenticacionSaturadaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Pool acotado de verificación BCrypt (seguridad.bcrypt.hilos, cola y espera-maxima-ms) y caché de
+ * credenciales verificadas, sin contexto de Spring. Fuerza 4 para las pruebas rápidas; las de saturación
+ * usan una fuerza alta para que cada verificación ocupe su hilo el tiempo suficiente.
+ */
+class CodificadorContrasenasTest {
+
+    private static final String CONTRASENA = "Secreta-123";
+    private static final Duration ESPERA_MAXIMA = Duration.ofSeconds(30);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<CodificadorContrasenas> codificadores = new ArrayList<>();
+
+    @AfterEach
+    void detener() {
+        codificadores.forEach(CodificadorContrasenas::detener);
+    }
+
+    @Test
+    void verificacionCorrectaSeRecuerdaYLaIncorrectaNo() {
+        CodificadorContrasenas codificador = codificador(4, 2, 4, 5_000, 60_000, 100);
+        String hash = codificador.encode(CONTRASENA);
+
+        assertThat(codificador.matches("Otra-456", hash)).isFalse();
+        assertThat(codificador.matches("Otra-456", hash)).isFalse();
+        assertThat(codificador.matches(CONTRASENA, hash)).isTrue();
+        assertThat(codificador.matches(CONTRASENA, hash)).isTrue();
+
+        // Las dos incorrectas y la primera correcta pasan por BCrypt; la segunda correcta sale de la caché
+        assertThat(verificaciones()).isEqualTo(3);
+        assertThat(aciertosCache()).isEqualTo(1);
+        assertThat(meterRegistry.get("autenticacion.hash.cache.entradas").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void cambioDeContrasenaNoUsaLaEntradaAnterior() {
+        CodificadorContrasenas codificador = codificador(4, 2, 4, 5_000, 60_000, 100);
+        String anterior = codificador.encode(CONTRASENA);
+        assertThat(codificador.matches(CONTRASENA, anterior)).isTrue();
+
+        // Mismo texto con otro hash almacenado (nueva sal): la clave de la caché incluye el hash
+        String nuevo = codificador.encode(CONTRASENA);
+        assertThat(codificador.matches(CONTRASENA, nuevo)).isTrue();
+
+        assertThat(verificaciones()).isEqualTo(2);
+        assertThat(aciertosCache()).isZero();
+    }
+
+    @Test
+    void cacheDesactivadaOLlenaSiempreVerifica() {
+        CodificadorContrasenas sinCache = codificador(4, 1, 4, 5_000, 0, 100);
+        String hash = sinCache.encode(CONTRASENA);
+        assertThat(sinCache.matches(CONTRASENA, hash)).isTrue();
+        assertThat(sinCache.matches(CONTRASENA, hash)).isTrue();
+        assertThat(verificaciones()).isEqualTo(2);
+
+        CodificadorContrasenas unaEntrada = codificador(4, 1, 4, 5_000, 60_000, 1);
+        String otroHash = unaEntrada.encode("Otra-456");
+        assertThat(unaEntrada.matches(CONTRASENA, hash)).isTrue();
+        assertThat(unaEntrada.matches("Otra-456", otroHash)).isTrue();
+        assertThat(unaEntrada.matches("Otra-456", otroHash)).isTrue();
+        // La segunda credencial no cupo: se verificó dos veces
+        assertThat(verificaciones()).isEqualTo(5);
+        assertThat(unaEntrada.matches(CONTRASENA, hash)).isTrue();
+        assertThat(aciertosCache()).isEqualTo(1);
+    }
+
+    @Test
+    void colaLlenaRechazaDeInmediato() throws Exception {
+        CodificadorContrasenas codificador = codificador(14, 1, 1, 60_000, 0, 100);
+        String hash = codificador.encode(CONTRASENA);
+
+        // Una verificación ocupa el único hilo y otra espera en la única posición de la cola
+        List<CompletableFuture<Boolean>> enCurso = List.of(
+                CompletableFuture.supplyAsync(() -> codificador.matches(CONTRASENA, hash)),
+                CompletableFuture.supplyAsync(() -> codificador.matches(CONTRASENA, hash)));
+        esperarGauge("autenticacion.hash.activas", 1);
+        esperarGauge("autenticacion.hash.cola", 1);
+
+        Instant inicio = Instant.now();
+        assertThatThrownBy(() -> codificador.matches(CONTRASENA, hash))
+                .isInstanceOf(AutenticacionSaturadaException.class)
+                .hasMessageContaining("Demasiados inicios de sesión");
+        assertThat(Duration.between(inicio, Instant.now())).isLessThan(Duration.ofMillis(500));
+        assertThat(rechazadas()).isEqualTo(1);
+
+        assertThat(enCurso).allSatisfy(verificacion -> assertThat(verificacion.join()).isTrue());
+    }
+
+    @Test
+    void esperaAgotadaSeRechazaComoSaturacion() {
+        CodificadorContrasenas codificador = codificador(14, 1, 1, 50, 60_000, 100);
+        String hash = codificador.encode(CONTRASENA);
+
+        assertThatThrownBy(() -> codificador.matches(CONTRASENA, hash))
+                .isInstanceOf(AutenticacionSaturadaException.class)
+                .hasMessageContaining("tiempo de espera");
+        assertThat(rechazadas()).isEqualTo(1);
+        assertThat(meterRegistry.get("autenticacion.hash.cache.entradas").gauge().value()).isZero();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private CodificadorContrasenas codificador(int fuerza, int hilos, int cola, long esperaMaximaMs,
+                                               long cacheTtlMs, int cacheMaximo) {
+        CodificadorContrasenas codificador = new CodificadorContrasenas(fuerza, hilos, cola, esperaMaximaMs,
+                cacheTtlMs, cacheMaximo, meterRegistry);
+        codificadores.add(codificador);
+        return codificador;
+    }
+
+    private long verificaciones() {
+        return meterRegistry.get("autenticacion.hash.verificacion").timer().count();
+    }
+
+    private double aciertosCache() {
+        return meterRegistry.get("autenticacion.hash.cache.aciertos").counter().count();
+    }
+
+    private double rechazadas() {
+        return meterRegistry.get("autenticacion.hash.rechazadas").counter().count();
+    }
+
+    private void esperarGauge(String nombre, double valor) throws InterruptedException {
+        Instant limite = Instant.now().plus(ESPERA_MAXIMA);
+        while (Instant.now().isBefore(limite)) {
+            if (meterRegistry.get(nombre).gauge().value() == valor) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail(nombre + " no llegó a " + valor + " en " + ESPERA_MAXIMA);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.demo.servicios.service;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.servicios.domain.EstadoServicio;
+import com.example.demo.servicios.domain.Servicio;
+import com.example.demo.servicios.domain.TipoServicio;
+import com.example.demo.servicios.repository.ServicioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.AopTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doCallRealMethod;
+
+/**
+ * Facturación por bloques: resultado de cada lectura y reanudación de una partición tras un bloque fallido
+ */
+class FacturacionLecturasServiceTest extends PruebaIntegracion {
+
+    private static final LocalDate FECHA_LECTURA = LocalDate.of(2026, 3, 15);
+    private static final BigDecimal TARIFA = new BigDecimal("2.00");
+
+    @Autowired
+    private FacturacionLecturasService facturacionLecturasService;
+
+    @Autowired
+    private ServicioRepository servicioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Espía para simular la caída de un bloque a mitad de la transacción
+    @MockitoSpyBean
+    private HistorialLecturasService historialLecturasService;
+
+    @Test
+    void lecturaMenorQueLaAnteriorSeRechaza() {
+        Servicio servicio = crearServicio(EstadoServicio.ACTIVO, new BigDecimal("100.00"), null);
+        long cicloId = crearCiclo(servicio.getId(), servicio.getId());
+        long lecturaId = crearLectura(cicloId, servicio.getId(), new BigDecimal("90.00"), FECHA_LECTURA);
+
+        facturar(cicloId, servicio.getId(), 10);
+
+        assertThat(lectura(lecturaId)).containsEntry("estado", FacturacionLecturasService.RECHAZADA);
+        assertThat((String) lectura(lecturaId).get("mensaje")).contains("menor que la anterior");
+        assertSinFacturar(servicio.getId(), new BigDecimal("100.00"));
+    }
+
+    @Test
+    void lecturaConFechaYaFacturadaSeOmite() {
+        Servicio servicio = crearServicio(EstadoServicio.ACTIVO, new BigDecimal("100.00"), FECHA_LECTURA);
+        long cicloId = crearCiclo(servicio.getId(), servicio.getId());
+        long lecturaId = crearLectura(cicloId, servicio.getId(), new BigDecimal("150.00"), FECHA_LECTURA);
+
+        facturar(cicloId, servicio.getId(), 10);
+
+        assertThat(lectura(lecturaId)).containsEntry("estado", FacturacionLecturasService.OMITIDA);
+        assertSinFacturar(servicio.getId(), new BigDecimal("100.00"));
+    }
+
+    @Test
+    void servicioEnEstadoNoFacturableSeRechaza() {
+        Servicio servicio = crearServicio(EstadoServicio.CORTADO, new BigDecimal("100.00"), null);
+        long cicloId = crearCiclo(servicio.getId(), servicio.getId());
+        long lecturaId = crearLectura(cicloId, servicio.getId(), new BigDecimal("150.00"), FECHA_LECTURA);
+
+        facturar(cicloId, servicio.getId(), 10);
+
+        assertThat(lectura(lecturaId)).containsEntry("estado", FacturacionLecturasService.RECHAZADA);
+        assertThat((String) lectura(lecturaId).get("mensaje")).contains("CORTADO");
+        assertSinFacturar(servicio.getId(), new BigDecimal("100.00"));
+    }
+
+    @Test
+    void bloqueFallidoSeReanudaSinFacturarDosVeces() {
+        List<Servicio> servicios = List.of(
+                crearServicio(EstadoServicio.ACTIVO, new BigDecimal("100.00"), null),
+                crearServicio(EstadoServicio.ACTIVO, new BigDecimal("100.00"), null),
+                crearServicio(EstadoServicio.ACTIVO, new BigDecimal("100.00"), null));
+        long desde = servicios.get(0).getId();
+        long hasta = servicios.get(2).getId();
+        long cicloId = crearCiclo(desde, hasta);
+        for (Servicio servicio : servicios) {
+            crearLectura(cicloId, servicio.getId(), new BigDecimal("150.00"), FECHA_LECTURA);
+        }
+
+        // El primer bloque se confirma; el segundo falla después de actualizar los servicios.
+        // Se stubea el espía detrás del proxy transaccional: registrar exige una transacción
+        HistorialLecturasService espia = AopTestUtils.getUltimateTargetObject(historialLecturasService);
+        doCallRealMethod()
+                .doThrow(new DataAccessResourceFailureException("Caída simulada"))
+                .doCallRealMethod()
+                .when(espia).registrar(anyList());
+
+        FacturacionLecturasService.Bloque primero = facturar(cicloId, hasta, 2);
+        assertThat(primero.facturadas()).isEqualTo(2);
+        assertThat(primero.completa()).isFalse();
+
+        assertThatThrownBy(() -> facturar(cicloId, hasta, 2))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(puntoControl(cicloId)).isEqualTo(servicios.get(1).getId());
+        assertSinFacturar(hasta, new BigDecimal("100.00"));
+
+        // Reanudar desde el punto de control factura solo lo que quedó pendiente
+        FacturacionLecturasService.Bloque reanudado = facturar(cicloId, hasta, 2);
+        assertThat(reanudado.facturadas()).isEqualTo(1);
+        assertThat(reanudado.completa()).isTrue();
+        assertThat(facturar(cicloId, hasta, 2).lecturas()).isZero();
+
+        for (Servicio servicio : servicios) {
+            Map<String, Object> fila = jdbcTemplate.queryForMap(
+                    "SELECT consumo_actual, consumo_anterior, monto_facturado, fecha_ultima_lectura " +
+                    "FROM servicios WHERE id = ?", servicio.getId());
+            assertThat((BigDecimal) fila.get("consumo_actual")).isEqualByComparingTo("150.00");
+            assertThat((BigDecimal) fila.get("consumo_anterior")).isEqualByComparingTo("100.00");
+            assertThat((BigDecimal) fila.get("monto_facturado")).isEqualByComparingTo("100.00");
+            assertThat(fila.get("fecha_ultima_lectura")).isEqualTo(Date.valueOf(FECHA_LECTURA));
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM lecturas_historial WHERE servicio_id = ?", Integer.class, servicio.getId()))
+                    .isEqualTo(1);
+        }
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ciclos_facturacion_lecturas WHERE ciclo_id = ? AND estado = ?",
+                Integer.class, cicloId, FacturacionLecturasService.FACTURADA)).isEqualTo(3);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Factura el siguiente bloque desde el punto de control guardado, como lo hace el ciclo al reanudar
+     */
+    private FacturacionLecturasService.Bloque facturar(long cicloId, long hasta, int tamanoBloque) {
+        return facturacionLecturasService.facturarBloque(cicloId, 0, puntoControl(cicloId), hasta, tamanoBloque,
+                "prueba");
+    }
+
+    private long puntoControl(long cicloId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT ultimo_id FROM ciclos_facturacion_particiones WHERE ciclo_id = ? AND particion = 0",
+                Long.class, cicloId);
+    }
+
+    private Servicio crearServicio(EstadoServicio estado, BigDecimal consumoActual, LocalDate fechaUltimaLectura) {
+        Servicio servicio = new Servicio();
+        servicio.setNumeroServicio("SRV-P-" + unico());
+        servicio.setContribuyente(crearContribuyente());
+        servicio.setTipoServicio(TipoServicio.AGUA_POTABLE);
+        servicio.setEstado(estado);
+        servicio.setTarifaBase(TARIFA);
+        servicio.setConsumoActual(consumoActual);
+        servicio.setFechaUltimaLectura(fechaUltimaLectura);
+        servicio.setUsuarioRegistro("prueba");
+        return servicioRepository.save(servicio);
+    }
+
+    private long crearCiclo(long desde, long hasta) {
+        KeyHolder clave = new GeneratedKeyHolder();
+        jdbcTemplate.update(conexion -> {
+            PreparedStatement ps = conexion.prepareStatement(
+                    "INSERT INTO ciclos_facturacion (archivo, estado, usuario, creado_en) VALUES (?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, "lecturas.csv");
+            ps.setString(2, CicloFacturacionService.EN_CURSO);
+            ps.setString(3, "prueba");
+            ps.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            return ps;
+        }, clave);
+        long cicloId = clave.getKey().longValue();
+        jdbcTemplate.update("INSERT INTO ciclos_facturacion_particiones " +
+                        "(ciclo_id, particion, desde_id, hasta_id, ultimo_id, estado) VALUES (?, 0, ?, ?, ?, ?)",
+                cicloId, desde, hasta, desde - 1, FacturacionLecturasService.PENDIENTE);
+        return cicloId;
+    }
+
+    private long crearLectura(long cicloId, long servicioId, BigDecimal valor, LocalDate fecha) {
+        KeyHolder clave = new GeneratedKeyHolder();
+        jdbcTemplate.update(conexion -> {
+            PreparedStatement ps = conexion.prepareStatement(
+                    "INSERT INTO ciclos_facturacion_lecturas (ciclo_id, fila, servicio_id, lectura, fecha, estado) " +
+                    "VALUES (?, 1, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, cicloId);
+            ps.setLong(2, servicioId);
+            ps.setBigDecimal(3, valor);
+            ps.setDate(4, Date.valueOf(fecha));
+            ps.setString(5, FacturacionLecturasService.PENDIENTE);
+            return ps;
+        }, clave);
+        return clave.getKey().longValue();
+    }
+
+    private Map<String, Object> lectura(long lecturaId) {
+        return jdbcTemplate.queryForMap(
+                "SELECT estado, consumo, monto, mensaje FROM ciclos_facturacion_lecturas WHERE id = ?", lecturaId);
+    }
+
+    private void assertSinFacturar(long servicioId, BigDecimal consumoActual) {
+        Map<String, Object> fila = jdbcTemplate.queryForMap(
+                "SELECT consumo_actual, monto_facturado FROM servicios WHERE id = ?", servicioId);
+        assertThat((BigDecimal) fila.get("consumo_actual")).isEqualByComparingTo(consumoActual);
+        assertThat((BigDecimal) fila.get("monto_facturado")).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+}
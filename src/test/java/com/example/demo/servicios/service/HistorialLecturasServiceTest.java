@@ -0,0 +1,133 @@
+package com.example.demo.servicios.service;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.servicios.domain.TipoServicio;
+import com.example.demo.servicios.dto.ConsumoMensualDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Los resúmenes mensuales se acumulan una sola vez por lectura: registrar de nuevo las
+ * mismas lecturas, o repetirlas dentro de la lista, no cambia los totales
+ */
+class HistorialLecturasServiceTest extends PruebaIntegracion {
+
+    private static final YearMonth MARZO = YearMonth.of(2026, 3);
+    private static final YearMonth ABRIL = YearMonth.of(2026, 4);
+
+    // lecturas_historial no tiene clave foránea: ids fuera del rango de los servicios reales
+    private static final AtomicLong SERVICIOS = new AtomicLong(9_000_000_000L + System.nanoTime() % 1_000_000);
+
+    @Autowired
+    private HistorialLecturasService historialLecturasService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long servicioId;
+    private String zona;
+
+    @BeforeEach
+    void crearServicio() {
+        servicioId = SERVICIOS.incrementAndGet();
+        zona = "Zona historial " + unico();
+    }
+
+    @Test
+    void registrarDosVecesNoDuplicaLosResumenes() {
+        HistorialLecturasService.Registro primera = registro(MARZO.atDay(10), "120.00", "20.00");
+        HistorialLecturasService.Registro segunda = registro(MARZO.atDay(20), "150.00", "30.00");
+
+        assertThat(registrar(List.of(primera, segunda, segunda))).isEqualTo(2);
+        assertThat(registrar(List.of(primera, segunda))).isZero();
+        assertThat(registrar(List.of(segunda, registro(ABRIL.atDay(5), "165.00", "15.00")))).isEqualTo(1);
+
+        assertThat(lecturasEnHistorial()).isEqualTo(3);
+        assertResumenServicio(MARZO, 2, "50.00", "30.00");
+        assertResumenServicio(ABRIL, 1, "15.00", "15.00");
+
+        List<ConsumoMensualDTO> porZona = historialLecturasService.resumenPorZona(MARZO, ABRIL, zona,
+                TipoServicio.AGUA_POTABLE);
+        assertThat(porZona).hasSize(2);
+        assertThat(porZona.get(0).getMes()).isEqualTo(MARZO);
+        assertThat(porZona.get(0).getLecturas()).isEqualTo(2);
+        assertThat(porZona.get(0).getConsumoTotal()).isEqualByComparingTo("50.00");
+        assertThat(porZona.get(0).getConsumoPromedio()).isEqualByComparingTo("25.00");
+        assertThat(porZona.get(0).getConsumoMaximo()).isEqualByComparingTo("30.00");
+        assertThat(porZona.get(1).getMes()).isEqualTo(ABRIL);
+        assertThat(porZona.get(1).getLecturas()).isEqualTo(1);
+        assertThat(porZona.get(1).getConsumoTotal()).isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    void registroRevertidoNoDejaResumenesYSePuedeRepetir() {
+        HistorialLecturasService.Registro lectura = registro(MARZO.atDay(10), "120.00", "20.00");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            historialLecturasService.registrar(List.of(lectura));
+            status.setRollbackOnly();
+        });
+        assertThat(lecturasEnHistorial()).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM lecturas_servicio_mes WHERE servicio_id = ?", Integer.class, servicioId))
+                .isZero();
+
+        assertThat(registrar(List.of(lectura))).isEqualTo(1);
+        assertResumenServicio(MARZO, 1, "20.00", "20.00");
+    }
+
+    @Test
+    void registrarFueraDeUnaTransaccionFalla() {
+        HistorialLecturasService.Registro lectura = registro(MARZO.atDay(10), "1.00", "1.00");
+        assertThatThrownBy(() -> historialLecturasService.registrar(List.of(lectura)))
+                .isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(lecturasEnHistorial()).isZero();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * registrar exige la transacción del bloque de facturación; aquí cada llamada usa la suya
+     */
+    private int registrar(List<HistorialLecturasService.Registro> registros) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> historialLecturasService.registrar(registros));
+    }
+
+    private HistorialLecturasService.Registro registro(LocalDate fecha, String lectura, String consumo) {
+        return new HistorialLecturasService.Registro(servicioId, TipoServicio.AGUA_POTABLE, zona, fecha,
+                new BigDecimal(lectura), new BigDecimal(consumo), null);
+    }
+
+    private int lecturasEnHistorial() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lecturas_historial WHERE servicio_id = ?",
+                Integer.class, servicioId);
+    }
+
+    private void assertResumenServicio(YearMonth mes, int lecturas, String total, String maximo) {
+        Map<String, Object> fila = jdbcTemplate.queryForMap("SELECT lecturas, consumo_total, consumo_maximo " +
+                "FROM lecturas_servicio_mes WHERE servicio_id = ? AND mes = ?", servicioId, Date.valueOf(mes.atDay(1)));
+        assertThat(((Number) fila.get("lecturas")).intValue()).isEqualTo(lecturas);
+        assertThat((BigDecimal) fila.get("consumo_total")).isEqualByComparingTo(total);
+        assertThat((BigDecimal) fila.get("consumo_maximo")).isEqualByComparingTo(maximo);
+    }
+}
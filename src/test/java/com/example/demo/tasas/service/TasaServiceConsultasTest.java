@@ -0,0 +1,61 @@
+package com.example.demo.tasas.service;
+
+import com.example.demo.PruebaListados;
+import com.example.demo.tasas.dto.TasaResponse;
+import com.example.demo.tasas.model.EstadoTasa;
+import com.example.demo.tasas.model.PeriodoFacturacion;
+import com.example.demo.tasas.model.Tasa;
+import com.example.demo.tasas.model.TipoTasa;
+import com.example.demo.tasas.repository.TasaRepository;
+import com.example.demo.tributario.model.Contribuyente;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los listados de tasas cargan el contribuyente en la misma consulta: una sentencia por página
+ */
+class TasaServiceConsultasTest extends PruebaListados {
+
+    @Autowired
+    private TasaService tasaService;
+
+    @Autowired
+    private TasaRepository tasaRepository;
+
+    @Override
+    protected void crearFila(Contribuyente contribuyente, String marca, int indice) {
+        tasaRepository.save(Tasa.builder()
+                .contribuyente(contribuyente)
+                .numeroTasa("TAS-PRUEBA-" + unico())
+                .tipoTasa(TipoTasa.ASEO_URBANO)
+                .descripcion("Tasa de prueba")
+                .montoBase(new BigDecimal("50.00"))
+                .estado(EstadoTasa.ACTIVA)
+                .periodoFacturacion(PeriodoFacturacion.MENSUAL)
+                .fechaInicio(LocalDateTime.now())
+                .zonaMunicipal("Zona " + marca)
+                .usuarioRegistro("prueba")
+                .build());
+    }
+
+    @Test
+    void listarTasas() {
+        assertThat(filas(() -> tasaService.listarTasas(0, 10_000))).hasSizeGreaterThanOrEqualTo(FILAS);
+    }
+
+    @Test
+    void buscarTasas() {
+        assertFiltrado(() -> tasaService.buscarTasas(null, TipoTasa.ASEO_URBANO, EstadoTasa.ACTIVA, "Zona " + marca, 0, 10),
+                TasaResponse::getContribuyenteRif);
+    }
+
+    @Test
+    void obtenerTasasPorEstado() {
+        assertThat(filas(() -> tasaService.obtenerTasasPorEstado(EstadoTasa.ACTIVA))).hasSizeGreaterThanOrEqualTo(FILAS);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.transacciones.service;
+
+import com.example.demo.PruebaListados;
+import com.example.demo.transacciones.dto.TransaccionResponse;
+import com.example.demo.transacciones.model.TipoTransaccion;
+import com.example.demo.transacciones.model.Transaccion;
+import com.example.demo.transacciones.repository.TransaccionRepository;
+import com.example.demo.tributario.model.Contribuyente;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los listados de transacciones cargan el contribuyente en la misma consulta: una sentencia por página
+ */
+class TransaccionServiceConsultasTest extends PruebaListados {
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Override
+    protected void crearFila(Contribuyente contribuyente, String marca, int indice) {
+        Transaccion transaccion = new Transaccion(TipoTransaccion.INGRESO, new BigDecimal("75.00"), "Transacción de prueba");
+        transaccion.setNumeroTransaccion(prefijo() + indice);
+        transaccion.setContribuyente(contribuyente);
+        transaccionRepository.save(transaccion);
+    }
+
+    @Test
+    void listarTransacciones() {
+        assertThat(filas(() -> transaccionService.listarTransacciones(0, 10_000, "fechaTransaccion", "desc")))
+                .hasSizeGreaterThanOrEqualTo(FILAS);
+    }
+
+    @Test
+    void busquedaAvanzada() {
+        assertFiltrado(() -> transaccionService.busquedaAvanzada(prefijo(), null, null, null, null, null, null, null, 0, 10),
+                TransaccionResponse::getContribuyenteId);
+    }
+
+    @Test
+    void obtenerTransaccionesRecientes() {
+        assertThat(filas(() -> transaccionService.obtenerTransaccionesRecientes(FILAS))).hasSize(FILAS);
+    }
+
+    @Test
+    void obtenerTransaccionesPorContribuyente() {
+        assertThat(filas(() -> transaccionService.obtenerTransaccionesPorContribuyente(ultimoContribuyente.getId(), 0, 10)))
+                .extracting(TransaccionResponse::getContribuyenteId).containsExactly(ultimoContribuyente.getId());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private String prefijo() {
+        return "TRX-PRUEBA-" + marca + "-";
+    }
+}
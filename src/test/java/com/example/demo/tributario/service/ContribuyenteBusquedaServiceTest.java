@@ -0,0 +1,59 @@
+package com.example.demo.tributario.service;
+
+import com.example.demo.tributario.dto.ContribuyenteSugerenciaDTO;
+import com.example.demo.tributario.repository.ContribuyenteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Índice en memoria de contribuyentes, sin base de datos: el repositorio solo entrega las filas iniciales
+ */
+class ContribuyenteBusquedaServiceTest {
+
+    private ContribuyenteBusquedaService busquedaService;
+
+    @BeforeEach
+    void cargarIndice() {
+        ContribuyenteRepository repository = mock(ContribuyenteRepository.class);
+        when(repository.findDatosBusquedaActivos()).thenReturn(List.of(
+                new Object[]{1L, "J-12345678-9", "Inversiones Mariana Gonzales", null, null},
+                new Object[]{2L, "V-87654321-0", null, "Mariana", "Pérez"},
+                new Object[]{3L, "J-11223344-5", "Constructora del Norte C.A.", null, null}));
+        busquedaService = new ContribuyenteBusquedaService(repository, new SimpleMeterRegistry());
+        busquedaService.inicializar();
+    }
+
+    @Test
+    void errorDeTipeoQueCompartePrefijoSeEncuentraPorTrigramas() {
+        // "mariana" es prefijo de la entrada 1, pero "gonzalez" no lo es de "gonzales"
+        List<Long> ids = ids(busquedaService.sugerir("mariana gonzalez", 10));
+
+        assertThat(ids).contains(1L);
+    }
+
+    @Test
+    void coincidenciaPorPrefijoPrecedeALaDeTrigramas() {
+        List<Long> ids = ids(busquedaService.sugerir("mariana gonzales", 10));
+
+        assertThat(ids).first().isEqualTo(1L);
+        assertThat(ids).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void prefijoDeRif() {
+        assertThat(ids(busquedaService.sugerir("J-1122", 10))).first().isEqualTo(3L);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static List<Long> ids(List<ContribuyenteSugerenciaDTO> sugerencias) {
+        return sugerencias.stream().map(ContribuyenteSugerenciaDTO::getId).toList();
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.vencimientos.service;
+
+import com.example.demo.PruebaIntegracion;
+import com.example.demo.multas.model.EstadoMulta;
+import com.example.demo.multas.model.Multa;
+import com.example.demo.multas.model.TipoInfraccion;
+import com.example.demo.multas.repository.MultaRepository;
+import com.example.demo.multas.service.MultaService;
+import com.example.demo.programacion.service.ArriendoTareaService;
+import com.example.demo.tasas.model.EstadoTasa;
+import com.example.demo.tasas.model.PeriodoFacturacion;
+import com.example.demo.tasas.model.Tasa;
+import com.example.demo.tasas.model.TipoTasa;
+import com.example.demo.tasas.repository.TasaRepository;
+import com.example.demo.tasas.service.TasaService;
+import com.example.demo.tributario.model.Contribuyente;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.reset;
+
+/**
+ * Vencimientos por bloques de un id: cada bloque se confirma antes del siguiente (visible desde
+ * otra conexión) y el recorrido respeta el arriendo de la tarea
+ */
+@TestPropertySource(properties = "vencimientos.tamano-bloque=1")
+class VencimientosServiceTest extends PruebaIntegracion {
+
+    private static final String TAREA_TASAS = "vencimientos.tasas";
+
+    @Autowired
+    private TasaService tasaService;
+
+    @Autowired
+    private MultaService multaService;
+
+    @Autowired
+    private TasaRepository tasaRepository;
+
+    @Autowired
+    private MultaRepository multaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Espía para observar la base entre bloques y simular la pérdida del arriendo
+    @MockitoSpyBean
+    private ArriendoTareaService arriendoTareaService;
+
+    @Test
+    void cadaBloqueDeTasasSeConfirmaAntesDelSiguiente() {
+        List<Long> ids = crearTasasVencidas(3);
+        List<Long> observadas = observarEntreBloques(TAREA_TASAS,
+                () -> contar("SELECT COUNT(*) FROM tasas WHERE estado = 'VENCIDA' AND id IN (?, ?, ?)", ids));
+
+        assertThat(tasaService.actualizarTasasVencidas()).isGreaterThanOrEqualTo(3);
+
+        assertThat(observadas).contains(1L, 2L, 3L).isSorted();
+    }
+
+    @Test
+    void cadaBloqueDeMultasSeConfirmaAntesDelSiguiente() {
+        List<Long> ids = crearMultasVencidas(3);
+        List<Long> observadas = observarEntreBloques("vencimientos.multas",
+                () -> contar("SELECT COUNT(*) FROM multas WHERE estado = 'VENCIDA' AND id IN (?, ?, ?)", ids));
+
+        assertThat(multaService.actualizarMultasVencidas()).isGreaterThanOrEqualTo(3);
+
+        assertThat(observadas).contains(1L, 2L, 3L).isSorted();
+    }
+
+    @Test
+    void arriendoDeOtraInstanciaImpideLaEjecucion() {
+        List<Long> ids = crearTasasVencidas(1);
+        jdbcTemplate.update("UPDATE tareas_arriendo SET propietario = 'otra-instancia', " +
+                "expira_en = NOW() + INTERVAL 60 SECOND WHERE tarea = ?", TAREA_TASAS);
+        try {
+            assertThat(tasaService.actualizarTasasVencidas()).isZero();
+            assertThat(estadoTasa(ids.get(0))).isEqualTo(EstadoTasa.ACTIVA.name());
+        } finally {
+            jdbcTemplate.update("UPDATE tareas_arriendo SET propietario = NULL, expira_en = NOW() WHERE tarea = ?",
+                    TAREA_TASAS);
+        }
+    }
+
+    @Test
+    void arriendoPerdidoDetieneElRecorridoYLaSiguienteEjecucionTermina() {
+        List<Long> ids = crearTasasVencidas(3);
+        doReturn(false).when(arriendoTareaService).renovar(eq(TAREA_TASAS), anyInt());
+
+        // Solo se confirma el primer bloque del rango
+        assertThat(tasaService.actualizarTasasVencidas()).isEqualTo(1);
+        assertThat(contar("SELECT COUNT(*) FROM tasas WHERE estado = 'VENCIDA' AND id IN (?, ?, ?)", ids))
+                .isLessThanOrEqualTo(1);
+
+        reset(arriendoTareaService);
+        tasaService.actualizarTasasVencidas();
+        assertThat(contar("SELECT COUNT(*) FROM tasas WHERE estado = 'VENCIDA' AND id IN (?, ?, ?)", ids))
+                .isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT propietario FROM tareas_arriendo WHERE tarea = ?",
+                String.class, TAREA_TASAS)).isNull();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Después de cada bloque (al renovar el arriendo) cuenta desde otro hilo, con otra conexión,
+     * cuántas filas de la prueba ya se ven actualizadas
+     */
+    private List<Long> observarEntreBloques(String tarea, Supplier<Long> conteo) {
+        List<Long> observadas = new CopyOnWriteArrayList<>();
+        doAnswer(invocacion -> {
+            observadas.add(CompletableFuture.supplyAsync(conteo).join());
+            return invocacion.callRealMethod();
+        }).when(arriendoTareaService).renovar(eq(tarea), anyInt());
+        return observadas;
+    }
+
+    private long contar(String sql, List<Long> ids) {
+        return jdbcTemplate.queryForObject(sql, Long.class, ids.toArray());
+    }
+
+    private String estadoTasa(Long id) {
+        return jdbcTemplate.queryForObject("SELECT estado FROM tasas WHERE id = ?", String.class, id);
+    }
+
+    private List<Long> crearTasasVencidas(int cantidad) {
+        Contribuyente contribuyente = crearContribuyente();
+        LocalDateTime ayer = LocalDateTime.now().minusDays(1);
+        return IntStream.range(0, cantidad)
+                .mapToObj(i -> tasaRepository.save(Tasa.builder()
+                        .contribuyente(contribuyente)
+                        .numeroTasa("TAS-VEN-" + unico())
+                        .tipoTasa(TipoTasa.ASEO_URBANO)
+                        .descripcion("Tasa vencida de prueba")
+                        .montoBase(new BigDecimal("10.00"))
+                        .estado(EstadoTasa.ACTIVA)
+                        .periodoFacturacion(PeriodoFacturacion.MENSUAL)
+                        .fechaInicio(ayer.minusMonths(1))
+                        .fechaVencimiento(ayer)
+                        .usuarioRegistro("prueba")
+                        .build()).getId())
+                .toList();
+    }
+
+    private List<Long> crearMultasVencidas(int cantidad) {
+        Contribuyente contribuyente = crearContribuyente();
+        LocalDateTime ayer = LocalDateTime.now().minusDays(1);
+        return IntStream.range(0, cantidad)
+                .mapToObj(i -> multaRepository.save(Multa.builder()
+                        .contribuyente(contribuyente)
+                        .numeroMulta("MUL-VEN-" + unico())
+                        .tipoInfraccion(TipoInfraccion.PAGO_TARDIO)
+                        .descripcion("Multa vencida de prueba")
+                        .monto(new BigDecimal("25.00"))
+                        .montoPagado(BigDecimal.ZERO)
+                        .estado(EstadoMulta.PENDIENTE)
+                        .fechaInfraccion(ayer.minusMonths(1))
+                        .fechaVencimiento(ayer)
+                        .usuarioRegistro("prueba")
+                        .fechaRegistro(LocalDateTime.now())
+                        .build()).getId())
+                .toList();
+    }
+}